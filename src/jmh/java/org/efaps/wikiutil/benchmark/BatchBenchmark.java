@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.efaps.wikiutil.parser.gwiki.GWikiBatchParser;
+import org.efaps.wikiutil.parser.gwiki.GWikiParserSession;
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.source.MapPageSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the costs of parsing a set of Wiki pages one after the other
+ * against the parallel parsing with the {@link GWikiBatchParser}.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchBenchmark
+{
+    /**
+     * Name of the corpus page.
+     *
+     * @see Corpus#get(String)
+     */
+    @Param({"synthetic-small", "real-configitems"})
+    private String corpus;
+
+    /**
+     * Number of pages within the batch.
+     */
+    @Param({"256"})
+    private int pages;
+
+    /**
+     * Source with {@link #pages} copies of the {@link #corpus} page.
+     */
+    private MapPageSource source;
+
+    /**
+     * Names of the pages within the {@link #source}.
+     */
+    private List<String> names;
+
+    /**
+     * Initializes the page source.
+     *
+     * @throws IOException if the corpus page could not be read
+     */
+    @Setup(Level.Trial)
+    public void setup()
+        throws IOException
+    {
+        final String text = Corpus.get(this.corpus);
+        this.source = new MapPageSource();
+        this.names = new ArrayList<String>(this.pages);
+        for (int idx = 0; idx < this.pages; idx++)  {
+            final String name = "Page" + idx;
+            this.source.put(name, text);
+            this.names.add(name);
+        }
+    }
+
+    /**
+     * Parses all pages one after the other within the current thread.
+     *
+     * @throws IOException if a page could not be read
+     * @throws ParseException if a page could not be parsed
+     */
+    @Benchmark
+    public void sequential()
+        throws IOException, ParseException
+    {
+        final GWikiParserSession session = GWikiParserSession.get();
+        for (final String name : this.names)  {
+            final InputStream in = this.source.open(name);
+            try  {
+                session.parse(new NoOpWikiEventModel(), in, "UTF-8");
+            } finally  {
+                in.close();
+            }
+        }
+    }
+
+    /**
+     * Parses all pages with the batch parser in the order of completion.
+     *
+     * @throws InterruptedException if the benchmark thread was interrupted
+     */
+    @Benchmark
+    public void batch()
+        throws InterruptedException
+    {
+        new GWikiBatchParser(this.source)
+            .setInputOrder(false)
+            .setEventModelFactory(_name -> new NoOpWikiEventModel())
+            .parse(this.names, _result -> { });
+    }
+}
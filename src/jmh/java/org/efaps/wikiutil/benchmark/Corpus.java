@@ -0,0 +1,219 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Wiki pages used as input for the benchmarks. Three kinds of pages exist:
+ * <ul>
+ * <li><code>real-...</code>: real world pages stored as resources in the
+ *     package <code>corpus</code></li>
+ * <li><code>synthetic-...</code>: generated pages with all supported Wiki
+ *     constructs; the generator is seeded so that each run parses the same
+ *     page</li>
+ * <li><code>tiny</code>: page with only one heading and one line of text</li>
+ * </ul>
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public final class Corpus
+{
+    /**
+     * Resource directory of the real world pages.
+     */
+    private static final String RESOURCEDIR = "org/efaps/wikiutil/benchmark/corpus/";
+
+    /**
+     * Words used to generate the synthetic pages.
+     */
+    private static final String[] WORDS = {
+        "the", "configuration", "item", "is", "installed", "with", "a", "new", "database", "and",
+        "all", "applications", "are", "updated", "in", "correct", "order", "kernel", "type", "attribute",
+        "command", "menu", "form", "table", "of", "user", "interface", "could", "be", "defined"
+    };
+
+    /**
+     * Wiki words used to generate internal links within the synthetic pages.
+     */
+    private static final String[] WIKIWORDS = {
+        "DataModel", "UserInterface", "AccessHandling", "ConfigurationItem", "InstallGuide"
+    };
+
+    /**
+     * Constructor defined so that this utility class could not be initialized.
+     */
+    private Corpus()
+    {
+    }
+
+    /**
+     * Returns the Wiki page for given <code>_name</code>.
+     *
+     * @param _name     name of the corpus page; <code>tiny</code>,
+     *                  <code>synthetic-small</code>,
+     *                  <code>synthetic-large</code> or <code>real-</code>
+     *                  followed by the name of the resource
+     * @return Wiki text of the page
+     * @throws IOException if a real world page could not be read
+     */
+    public static String get(final String _name)
+        throws IOException
+    {
+        final String ret;
+        if ("tiny".equals(_name))  {
+            ret = "= Title =\nOne line of text.\n";
+        } else if ("synthetic-small".equals(_name))  {
+            ret = Corpus.synthetic(2, 1L);
+        } else if ("synthetic-large".equals(_name))  {
+            ret = Corpus.synthetic(200, 1L);
+        } else if (_name.startsWith("real-"))  {
+            ret = Corpus.load(_name.substring(5));
+        } else  {
+            throw new IOException("unknown corpus page " + _name);
+        }
+        return ret;
+    }
+
+    /**
+     * Loads the real world page <code>_name</code> from the resources.
+     *
+     * @param _name     name of the page (without extension)
+     * @return Wiki text of the page
+     * @throws IOException if the page could not be read
+     */
+    public static String load(final String _name)
+        throws IOException
+    {
+        final InputStream in = Corpus.class.getClassLoader().getResourceAsStream(
+                        Corpus.RESOURCEDIR + _name + ".wiki");
+        if (in == null)  {
+            throw new IOException("could not found " + _name);
+        }
+        try  {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        } finally  {
+            in.close();
+        }
+    }
+
+    /**
+     * Generates a synthetic Wiki page with <code>_sections</code> sections.
+     * Each section contains headings, text paragraphs with type faces and
+     * links, lists, a table and a code block.
+     *
+     * @param _sections number of top level sections
+     * @param _seed     seed of the random generator
+     * @return generated Wiki text
+     */
+    public static String synthetic(final int _sections,
+                                   final long _seed)
+    {
+        final Random random = new Random(_seed);
+        final StringBuilder ret = new StringBuilder()
+            .append("#summary synthetic page with ").append(_sections).append(" sections\n")
+            .append("#labels Benchmark,Synthetic\n")
+            .append("\n");
+        for (int idx = 0; idx < _sections; idx++)  {
+            ret.append("= Section ").append(idx).append(" =\n");
+            Corpus.appendParagraph(ret, random, 4);
+            ret.append("\n== Details of ").append(idx).append(" ==\n");
+            Corpus.appendParagraph(ret, random, 3);
+            ret.append("  * ");
+            Corpus.appendSentence(ret, random);
+            ret.append("\n    * ");
+            Corpus.appendSentence(ret, random);
+            ret.append("\n  * ");
+            Corpus.appendSentence(ret, random);
+            ret.append("\n  # first step\n  # second step\n\n");
+            ret.append("|| *Name* || *Value* ||\n")
+                .append("|| kernel || ").append(random.nextInt(1000)).append(" ||\n")
+                .append("|| ").append(Corpus.WORDS[random.nextInt(Corpus.WORDS.length)])
+                .append(" || ").append(random.nextInt(1000)).append(" ||\n")
+                .append("\n");
+            ret.append("=== Example ===\n")
+                .append("{{{\n")
+                .append("mvn org.efaps:efaps-maven-plugin:install -Dsection=").append(idx).append("\n")
+                .append("}}}\n");
+            Corpus.appendParagraph(ret, random, 2);
+            ret.append("----\n");
+        }
+        return ret.toString();
+    }
+
+    /**
+     * Appends a paragraph with <code>_lines</code> lines of text.
+     *
+     * @param _out      string builder to append
+     * @param _random   random generator
+     * @param _lines    number of lines
+     */
+    private static void appendParagraph(final StringBuilder _out,
+                                        final Random _random,
+                                        final int _lines)
+    {
+        for (int idx = 0; idx < _lines; idx++)  {
+            Corpus.appendSentence(_out, _random);
+            switch (_random.nextInt(6))  {
+                case 0:
+                    _out.append(" See [http://www.efaps.org eFaps] for details.");
+                    break;
+                case 1:
+                    _out.append(" It is described in ")
+                        .append(Corpus.WIKIWORDS[_random.nextInt(Corpus.WIKIWORDS.length)])
+                        .append('.');
+                    break;
+                case 2:
+                    _out.append(" The file {{{efaps.properties}}} is *required*.");
+                    break;
+                case 3:
+                    _out.append(" This is _important_ for [InstallGuide the installation].");
+                    break;
+                default:
+                    break;
+            }
+            _out.append('\n');
+        }
+        _out.append('\n');
+    }
+
+    /**
+     * Appends one sentence of random words.
+     *
+     * @param _out      string builder to append
+     * @param _random   random generator
+     */
+    private static void appendSentence(final StringBuilder _out,
+                                       final Random _random)
+    {
+        final int count = 6 + _random.nextInt(10);
+        for (int idx = 0; idx < count; idx++)  {
+            if (idx == 0)  {
+                final String word = Corpus.WORDS[_random.nextInt(Corpus.WORDS.length)];
+                _out.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            } else  {
+                _out.append(' ').append(Corpus.WORDS[_random.nextInt(Corpus.WORDS.length)]);
+            }
+        }
+        _out.append('.');
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.benchmark;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.efaps.wikiutil.parser.gwiki.GWikiParser;
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.wom.AbstractWOMWalker;
+import org.efaps.wikiutil.wom.WikiPage;
+import org.efaps.wikiutil.wom.element.AbstractLineElement;
+import org.efaps.wikiutil.wom.element.AbstractParagraphList;
+import org.efaps.wikiutil.wom.element.AbstractSection;
+import org.efaps.wikiutil.wom.element.Divider;
+import org.efaps.wikiutil.wom.element.NewLine;
+import org.efaps.wikiutil.wom.element.Paragraph;
+import org.efaps.wikiutil.wom.element.Preformat;
+import org.efaps.wikiutil.wom.element.Section;
+import org.efaps.wikiutil.wom.element.TableOfContents;
+import org.efaps.wikiutil.wom.element.list.AbstractListEntry;
+import org.efaps.wikiutil.wom.element.list.ListBulleted;
+import org.efaps.wikiutil.wom.element.list.ListEntry;
+import org.efaps.wikiutil.wom.element.list.ListNumbered;
+import org.efaps.wikiutil.wom.element.table.Table;
+import org.efaps.wikiutil.wom.element.table.TableCell;
+import org.efaps.wikiutil.wom.element.table.TableRow;
+import org.efaps.wikiutil.wom.element.text.AbstractTypeface;
+import org.efaps.wikiutil.wom.element.text.ExternalLink;
+import org.efaps.wikiutil.wom.element.text.ExternalLinkWithDescription;
+import org.efaps.wikiutil.wom.element.text.Image;
+import org.efaps.wikiutil.wom.element.text.InternalLink;
+import org.efaps.wikiutil.wom.element.text.InternalLinkWithDescription;
+import org.efaps.wikiutil.wom.element.text.TextString;
+import org.efaps.wikiutil.wom.element.text.TypefaceBold;
+import org.efaps.wikiutil.wom.element.text.TypefaceCode;
+import org.efaps.wikiutil.wom.element.text.TypefaceItalic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the dispatch over the elements of a parsed Wiki page with a chain
+ * of <code>instanceof</code> checks (as the LaTeX export did before) against
+ * the {@link org.efaps.wikiutil.wom.IWOMVisitor visitor}. Both walk through
+ * all elements of the page and sum the length of all texts, so that only
+ * the costs of the dispatch are measured.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchBenchmark
+{
+    /**
+     * Name of the corpus page.
+     *
+     * @see Corpus#get(String)
+     */
+    @Param({"synthetic-large", "real-manual"})
+    private String corpus;
+
+    /**
+     * Parsed {@link #corpus} page.
+     */
+    private WikiPage page;
+
+    /**
+     * Parses the page.
+     *
+     * @throws IOException if the corpus page could not be read
+     * @throws ParseException if the corpus page could not be parsed
+     */
+    @Setup(Level.Trial)
+    public void setup()
+        throws IOException, ParseException
+    {
+        this.page = GWikiParser.parse(new StringReader(Corpus.get(this.corpus)));
+    }
+
+    /**
+     * Walks through the page with <code>instanceof</code> checks.
+     *
+     * @return sum of the text lengths
+     */
+    @Benchmark
+    public long instanceofChain()
+    {
+        return DispatchBenchmark.walkSection(this.page);
+    }
+
+    /**
+     * Walks through the page with the visitor.
+     *
+     * @return sum of the text lengths
+     */
+    @Benchmark
+    public long visitor()
+    {
+        final TextLength textLength = new TextLength();
+        this.page.accept(textLength);
+        return textLength.length;
+    }
+
+    /**
+     * Sums the text lengths of the paragraphs and sub sections of
+     * <code>_section</code>.
+     *
+     * @param _section  section
+     * @return sum of the text lengths
+     */
+    private static long walkSection(final AbstractSection<?> _section)
+    {
+        long ret = DispatchBenchmark.walkParagraphs(_section);
+        for (final Section section : _section.getSubSections())  {
+            for (final AbstractLineElement element : section.getHeadings())  {
+                ret += DispatchBenchmark.walkElement(element);
+            }
+            ret += DispatchBenchmark.walkSection(section);
+        }
+        return ret;
+    }
+
+    /**
+     * Sums the text lengths of the paragraphs of <code>_paragraphs</code>.
+     *
+     * @param _paragraphs   list of paragraphs
+     * @return sum of the text lengths
+     */
+    private static long walkParagraphs(final AbstractParagraphList<?> _paragraphs)
+    {
+        long ret = 0;
+        for (final Paragraph paragraph : _paragraphs.getParagraphs())  {
+            for (final AbstractLineElement element : paragraph.getElements())  {
+                ret += DispatchBenchmark.walkElement(element);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Sums the text length of <code>_element</code> with a chain of
+     * <code>instanceof</code> checks.
+     *
+     * @param _element  line element
+     * @return sum of the text lengths
+     */
+    private static long walkElement(final AbstractLineElement _element)
+    {
+        long ret = 0;
+        if (_element instanceof ExternalLink)  {
+            ret = ((ExternalLink) _element).getURL().getPath().length();
+        } else if (_element instanceof ExternalLinkWithDescription)  {
+            ret = ((ExternalLinkWithDescription) _element).getDescription().length();
+        } else if (_element instanceof ListBulleted)  {
+            ret = DispatchBenchmark.walkEntries((ListBulleted) _element);
+        } else if (_element instanceof ListNumbered)  {
+            ret = DispatchBenchmark.walkEntries((ListNumbered) _element);
+        } else if (_element instanceof Image)  {
+            ret = ((Image) _element).getURL().getPath().length();
+        } else if (_element instanceof InternalLink)  {
+            ret = ((InternalLink) _element).getLink().length();
+        } else if (_element instanceof InternalLinkWithDescription)  {
+            ret = ((InternalLinkWithDescription) _element).getDescription().length();
+        } else if (_element instanceof NewLine)  {
+            ret = 1;
+        } else if (_element instanceof Preformat)  {
+            ret = ((Preformat) _element).getCode().length();
+        } else if (_element instanceof Table)  {
+            for (final TableRow row : ((Table) _element).getBodyRows())  {
+                for (final TableCell cell : row.getEntries())  {
+                    ret += DispatchBenchmark.walkParagraphs(cell);
+                }
+            }
+        } else if (_element instanceof TextString)  {
+            ret = ((TextString) _element).getText().length();
+        } else if ((_element instanceof TypefaceBold) || (_element instanceof TypefaceItalic)
+                        || (_element instanceof TypefaceCode))  {
+            for (final AbstractLineElement element : ((AbstractTypeface<?>) _element).getElements())  {
+                ret += DispatchBenchmark.walkElement(element);
+            }
+        } else if ((_element instanceof Divider) || (_element instanceof TableOfContents))  {
+            ret = 1;
+        }
+        return ret;
+    }
+
+    /**
+     * Sums the text lengths of the entries of <code>_list</code>.
+     *
+     * @param _list     bulleted or numbered list
+     * @return sum of the text lengths
+     */
+    private static long walkEntries(final AbstractListEntry<?> _list)
+    {
+        long ret = 0;
+        for (final ListEntry entry : _list.getEntries())  {
+            ret += DispatchBenchmark.walkParagraphs(entry);
+        }
+        return ret;
+    }
+
+    /**
+     * Walker which sums the same text lengths as
+     * {@link DispatchBenchmark#walkElement(AbstractLineElement)}.
+     */
+    private static final class TextLength
+        extends AbstractWOMWalker<RuntimeException>
+    {
+        /**
+         * Sum of the text lengths.
+         */
+        private long length;
+
+        @Override
+        public Void visitExternalLink(final ExternalLink _externalLink)
+        {
+            this.length += _externalLink.getURL().getPath().length();
+            return null;
+        }
+
+        @Override
+        public Void visitExternalLinkWithDescription(final ExternalLinkWithDescription _externalLink)
+        {
+            this.length += _externalLink.getDescription().length();
+            return null;
+        }
+
+        @Override
+        public Void visitImage(final Image _image)
+        {
+            this.length += _image.getURL().getPath().length();
+            return null;
+        }
+
+        @Override
+        public Void visitInternalLink(final InternalLink _internalLink)
+        {
+            this.length += _internalLink.getLink().length();
+            return null;
+        }
+
+        @Override
+        public Void visitInternalLinkWithDescription(final InternalLinkWithDescription _internalLink)
+        {
+            this.length += _internalLink.getDescription().length();
+            return null;
+        }
+
+        @Override
+        public Void visitPreformat(final Preformat _preformat)
+        {
+            this.length += _preformat.getCode().length();
+            return null;
+        }
+
+        @Override
+        public Void visitTextString(final TextString _textString)
+        {
+            this.length += _textString.getText().length();
+            return null;
+        }
+
+        @Override
+        public Void visitLineElement(final AbstractLineElement _element)
+        {
+            // new line, divider and table of contents
+            this.length++;
+            return null;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.efaps.wikiutil.export.latex.TexEscaper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the single pass {@link TexEscaper} with the previous escaping of
+ * the Latex exporter (a chain of <code>String.replaceAll</code>). Run with
+ * <code>-prof gc</code> to compare the allocation rates.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EscapeBenchmark
+{
+    /**
+     * Kind of the text: plain text without special characters, a text with
+     * some special characters or a text with many special characters.
+     */
+    @Param({"plain", "mixed", "special"})
+    private String kind;
+
+    /**
+     * Text to escape.
+     */
+    private String text;
+
+    /**
+     * Reused target for the escaped text.
+     */
+    private final StringBuilder out = new StringBuilder();
+
+    /**
+     * Initializes the {@link #text}.
+     */
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        if ("plain".equals(this.kind))  {
+            this.text = "The configuration item is installed with a new database and all applications";
+        } else if ("mixed".equals(this.kind))  {
+            this.text = "The file efaps_install.properties defines 100% of the #settings & costs 5 \u20AC";
+        } else  {
+            this.text = "\\_%&^~#\u20AC\u2212\u2011\\_%&^~#\u20AC\u2212\u2011\\_%&^~#\u20AC\u2212\u2011";
+        }
+    }
+
+    /**
+     * Escapes with the previous chain of regular expressions.
+     *
+     * @return escaped text
+     */
+    @Benchmark
+    public String replaceAll()
+    {
+        return this.text
+                .replaceAll("\\\\", "\\\\textbackslash ")
+                .replaceAll("_", "\\\\_")
+                .replaceAll("%", "\\\\%")
+                .replaceAll("&", "\\\\&")
+                .replaceAll("\\^", "\\\\^{}")
+                .replaceAll("~", "\\\\~{}")
+                .replaceAll("#", "\\\\#")
+                .replaceAll("\\u20AC", "\\\\euro")
+                .replaceAll("\\u2212", "-")
+                .replaceAll("\\u2011", "-");
+    }
+
+    /**
+     * Escapes into a new string.
+     *
+     * @return escaped text
+     */
+    @Benchmark
+    public String escaper()
+    {
+        return TexEscaper.escape(this.text);
+    }
+
+    /**
+     * Escapes and appends into a reused target (as done by the Latex
+     * exporter).
+     *
+     * @return target with the escaped text
+     * @throws IOException if the escaped text could not be appended
+     */
+    @Benchmark
+    public StringBuilder escaperAppend()
+        throws IOException
+    {
+        this.out.setLength(0);
+        TexEscaper.escape(this.out, this.text);
+        return this.out;
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.benchmark;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.efaps.wikiutil.wem.EProperty;
+import org.efaps.wikiutil.wem.ETypeface;
+import org.efaps.wikiutil.wem.IWikiEventModel;
+
+/**
+ * Records all events of a parsed Wiki page so that the consumers of the Wiki
+ * event model could be measured without the parser. Texts are copied because
+ * the parser may reuse the given character sequences.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class EventRecorder
+    implements IWikiEventModel
+{
+    /**
+     * Recorded events.
+     */
+    private final List<Consumer<IWikiEventModel>> events = new ArrayList<Consumer<IWikiEventModel>>();
+
+    /**
+     * Replays all recorded events to <code>_wem</code>.
+     *
+     * @param _wem  Wiki event model to which the events are send
+     */
+    public void replay(final IWikiEventModel _wem)
+    {
+        for (final Consumer<IWikiEventModel> event : this.events)  {
+            event.accept(_wem);
+        }
+    }
+
+    @Override
+    public void onProperty(final EProperty _property,
+                           final String _value)
+    {
+        this.events.add(_wem -> _wem.onProperty(_property, _value));
+    }
+
+    @Override
+    public void documentStart()
+    {
+        this.events.add(IWikiEventModel::documentStart);
+    }
+
+    @Override
+    public void documentEnd()
+    {
+        this.events.add(IWikiEventModel::documentEnd);
+    }
+
+    @Override
+    public void sectionStart()
+    {
+        this.events.add(IWikiEventModel::sectionStart);
+    }
+
+    @Override
+    public void sectionEnd()
+    {
+        this.events.add(IWikiEventModel::sectionEnd);
+    }
+
+    @Override
+    public void headingStart()
+    {
+        this.events.add(IWikiEventModel::headingStart);
+    }
+
+    @Override
+    public void headingEnd()
+    {
+        this.events.add(IWikiEventModel::headingEnd);
+    }
+
+    @Override
+    public void paragraphStart()
+    {
+        this.events.add(IWikiEventModel::paragraphStart);
+    }
+
+    @Override
+    public void paragraphEnd()
+    {
+        this.events.add(IWikiEventModel::paragraphEnd);
+    }
+
+    @Override
+    public void tableStart()
+    {
+        this.events.add(IWikiEventModel::tableStart);
+    }
+
+    @Override
+    public void tableEnd()
+    {
+        this.events.add(IWikiEventModel::tableEnd);
+    }
+
+    @Override
+    public void tableBodyStart()
+    {
+        this.events.add(IWikiEventModel::tableBodyStart);
+    }
+
+    @Override
+    public void tableBodyEnd()
+    {
+        this.events.add(IWikiEventModel::tableBodyEnd);
+    }
+
+    @Override
+    public void tableRowStart()
+    {
+        this.events.add(IWikiEventModel::tableRowStart);
+    }
+
+    @Override
+    public void tableRowEnd()
+    {
+        this.events.add(IWikiEventModel::tableRowEnd);
+    }
+
+    @Override
+    public void tableEntryStart()
+    {
+        this.events.add(IWikiEventModel::tableEntryStart);
+    }
+
+    @Override
+    public void tableEntryEnd()
+    {
+        this.events.add(IWikiEventModel::tableEntryEnd);
+    }
+
+    @Override
+    public void typefaceStart(final ETypeface _typeface)
+    {
+        this.events.add(_wem -> _wem.typefaceStart(_typeface));
+    }
+
+    @Override
+    public void typefaceEnd(final ETypeface _typeface)
+    {
+        this.events.add(_wem -> _wem.typefaceEnd(_typeface));
+    }
+
+    @Override
+    public void listBulletedStart()
+    {
+        this.events.add(IWikiEventModel::listBulletedStart);
+    }
+
+    @Override
+    public void listBulletedEnd()
+    {
+        this.events.add(IWikiEventModel::listBulletedEnd);
+    }
+
+    @Override
+    public void listNumberedStart()
+    {
+        this.events.add(IWikiEventModel::listNumberedStart);
+    }
+
+    @Override
+    public void listNumberedEnd()
+    {
+        this.events.add(IWikiEventModel::listNumberedEnd);
+    }
+
+    @Override
+    public void listEntryStart()
+    {
+        this.events.add(IWikiEventModel::listEntryStart);
+    }
+
+    @Override
+    public void listEntryEnd()
+    {
+        this.events.add(IWikiEventModel::listEntryEnd);
+    }
+
+    @Override
+    public void onDivider()
+    {
+        this.events.add(IWikiEventModel::onDivider);
+    }
+
+    @Override
+    public void onNewLine()
+    {
+        this.events.add(IWikiEventModel::onNewLine);
+    }
+
+    @Override
+    public void onPreformat(final CharSequence _text)
+    {
+        final String text = _text.toString();
+        this.events.add(_wem -> _wem.onPreformat(text));
+    }
+
+    @Override
+    public void onTableOfContents(final int _deepth)
+    {
+        this.events.add(_wem -> _wem.onTableOfContents(_deepth));
+    }
+
+    @Override
+    public void onImage(final URL _url)
+    {
+        this.events.add(_wem -> _wem.onImage(_url));
+    }
+
+    @Override
+    public void onText(final CharSequence _text)
+    {
+        final String text = _text.toString();
+        this.events.add(_wem -> _wem.onText(text));
+    }
+
+    @Override
+    public void onLinkExternal(final URL _url,
+                               final CharSequence _description)
+    {
+        final String description = (_description == null) ? null : _description.toString();
+        this.events.add(_wem -> _wem.onLinkExternal(_url, description));
+    }
+
+    @Override
+    public void onLinkInternal(final CharSequence _link,
+                               final CharSequence _description)
+    {
+        final String link = _link.toString();
+        final String description = (_description == null) ? null : _description.toString();
+        this.events.add(_wem -> _wem.onLinkInternal(link, description));
+    }
+}
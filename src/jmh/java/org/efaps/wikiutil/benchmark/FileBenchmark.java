@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.efaps.wikiutil.parser.gwiki.GWikiParser;
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.wem.IWikiEventModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares parsing a Wiki page from a file with an input stream (and the
+ * {@link org.efaps.wikiutil.parser.gwiki.javacc.SimpleCharStream}) against
+ * parsing the file with {@link GWikiParser#parse(IWikiEventModel, Path)}
+ * which reads the file at once and decodes it once.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileBenchmark
+{
+    /**
+     * Name of the corpus page.
+     *
+     * @see Corpus#get(String)
+     */
+    @Param({"synthetic-large", "real-manual"})
+    private String corpus;
+
+    /**
+     * Temporary file with the {@link #corpus} page.
+     */
+    private Path file;
+
+    /**
+     * Writes the corpus page into a temporary file.
+     *
+     * @throws IOException if the file could not be written
+     */
+    @Setup(Level.Trial)
+    public void setup()
+        throws IOException
+    {
+        this.file = Files.createTempFile("FileBenchmark", ".wiki");
+        Files.write(this.file, Corpus.get(this.corpus).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Deletes the temporary file.
+     *
+     * @throws IOException if the file could not be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+        throws IOException
+    {
+        Files.delete(this.file);
+    }
+
+    /**
+     * Parses the file from an input stream.
+     *
+     * @throws IOException      if the file could not be read
+     * @throws ParseException   if the page could not be parsed
+     */
+    @Benchmark
+    public void inputStream()
+        throws IOException, ParseException
+    {
+        try (InputStream in = Files.newInputStream(this.file))  {
+            GWikiParser.parse(new NoOpWikiEventModel(), in, "UTF-8");
+        }
+    }
+
+    /**
+     * Parses the file from the path.
+     *
+     * @throws IOException      if the file could not be read
+     * @throws ParseException   if the page could not be parsed
+     */
+    @Benchmark
+    public void path()
+        throws IOException, ParseException
+    {
+        GWikiParser.parse(new NoOpWikiEventModel(), this.file);
+    }
+}
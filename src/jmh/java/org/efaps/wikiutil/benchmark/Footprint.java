@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.benchmark;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.efaps.wikiutil.parser.gwiki.GWikiParser;
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.wom.CompactWikiPage;
+import org.efaps.wikiutil.wom.WikiPage;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Reports the retained memory of the parsed corpus pages measured with JOL:
+ * the Wiki object model, the {@link WikiPage#freeze() frozen} Wiki object
+ * model and the {@link CompactWikiPage compact page}.
+ * Run it with
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.main=org.efaps.wikiutil.benchmark.Footprint -Djmh.args=
+ * </pre>
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public final class Footprint
+{
+    /**
+     * Measured corpus pages.
+     */
+    private static final String[] CORPUS = {
+        "tiny", "synthetic-small", "synthetic-large", "real-manual", "real-configitems"
+    };
+
+    /**
+     * Constructor defined so that this utility class could not be initialized.
+     */
+    private Footprint()
+    {
+    }
+
+    /**
+     * Prints the footprint of each corpus page.
+     *
+     * @param _args     not used
+     * @throws IOException      if a corpus page could not be read
+     * @throws ParseException   if a corpus page could not be parsed
+     */
+    public static void main(final String... _args)
+        throws IOException, ParseException
+    {
+        System.out.println(String.format("%-20s %10s %10s %12s %12s %12s %10s",
+                        "corpus", "chars", "objects", "WikiPage", "frozen", "Compact", "estimated"));
+        for (final String name : Footprint.CORPUS)  {
+            final String text = Corpus.get(name);
+            final WikiPage page = GWikiParser.parse(new StringReader(text));
+            final CompactWikiPage compact = CompactWikiPage.compact(page);
+            final GraphLayout pageLayout = GraphLayout.parseInstance(page);
+            final long frozen = GraphLayout.parseInstance(page.freeze()).totalSize();
+            System.out.println(String.format("%-20s %10d %10d %12d %12d %12d %10d",
+                            name, text.length(), pageLayout.totalCount(), pageLayout.totalSize(), frozen,
+                            GraphLayout.parseInstance(compact).totalSize(), compact.getFootprint()));
+        }
+    }
+}
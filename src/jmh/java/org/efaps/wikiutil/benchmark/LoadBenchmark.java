@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+
+import org.efaps.wikiutil.parser.gwiki.GWikiParser;
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.wom.WOMReader;
+import org.efaps.wikiutil.wom.WOMWriter;
+import org.efaps.wikiutil.wom.WikiPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the parsing of a Wiki page against loading the same Wiki page
+ * from the binary format written by the {@link WOMWriter}. The binary format
+ * is loaded from a byte array and from a file mapped into the memory.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LoadBenchmark
+{
+    /**
+     * Name of the corpus page.
+     *
+     * @see Corpus#get(String)
+     */
+    @Param({"synthetic-small", "synthetic-large", "real-manual"})
+    private String corpus;
+
+    /**
+     * Wiki text of the {@link #corpus} page.
+     */
+    private String text;
+
+    /**
+     * Binary format of the parsed {@link #corpus} page.
+     */
+    private byte[] bytes;
+
+    /**
+     * File with the binary format of the {@link #corpus} page.
+     */
+    private File file;
+
+    /**
+     * Mapped {@link #file}.
+     */
+    private ByteBuffer mapped;
+
+    /**
+     * Reads the Wiki text of the page and writes the parsed page in the
+     * binary format to a byte array and to a file which is mapped into the
+     * memory.
+     *
+     * @throws IOException if the corpus page could not be read or written
+     * @throws ParseException if the corpus page could not be parsed
+     */
+    @Setup(Level.Trial)
+    public void setup()
+        throws IOException, ParseException
+    {
+        this.text = Corpus.get(this.corpus);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new WOMWriter(out).write(GWikiParser.parse(new StringReader(this.text))).close();
+        this.bytes = out.toByteArray();
+
+        this.file = File.createTempFile("benchmark", ".womp");
+        final FileOutputStream fileOut = new FileOutputStream(this.file);
+        try  {
+            fileOut.write(this.bytes);
+        } finally  {
+            fileOut.close();
+        }
+        final RandomAccessFile mappedFile = new RandomAccessFile(this.file, "r");
+        try  {
+            this.mapped = mappedFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, this.bytes.length);
+        } finally  {
+            mappedFile.close();
+        }
+    }
+
+    /**
+     * Deletes the {@link #file}.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        this.mapped = null;
+        this.file.delete();
+    }
+
+    /**
+     * Parses the Wiki text.
+     *
+     * @return parsed Wiki page
+     * @throws ParseException if the page could not be parsed
+     */
+    @Benchmark
+    public WikiPage parse()
+        throws ParseException
+    {
+        return GWikiParser.parse(new StringReader(this.text));
+    }
+
+    /**
+     * Loads the Wiki page from the byte array.
+     *
+     * @return loaded Wiki page
+     */
+    @Benchmark
+    public WikiPage loadBytes()
+    {
+        return new WOMReader(this.bytes).next();
+    }
+
+    /**
+     * Loads the Wiki page from the mapped file.
+     *
+     * @return loaded Wiki page
+     */
+    @Benchmark
+    public WikiPage loadMapped()
+    {
+        return new WOMReader(this.mapped.duplicate()).next();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.benchmark;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.efaps.wikiutil.export.html.WEMHtml;
+import org.efaps.wikiutil.parser.gwiki.GWikiParser;
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.wem.WEMMulticast;
+import org.efaps.wikiutil.wom.WEM2WOM;
+import org.efaps.wikiutil.wom.WikiPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the costs to get the Wiki object model and the HTML of a page by
+ * parsing the page twice against one parse with a {@link WEMMulticast}
+ * (with a synchronous or an asynchronous HTML consumer).
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MulticastBenchmark
+{
+    /**
+     * Name of the corpus page.
+     *
+     * @see Corpus#get(String)
+     */
+    @Param({"synthetic-large", "real-manual"})
+    private String corpus;
+
+    /**
+     * Wiki text of the {@link #corpus} page.
+     */
+    private String text;
+
+    /**
+     * Initializes the text.
+     *
+     * @throws IOException if the corpus page could not be read
+     */
+    @Setup(Level.Trial)
+    public void setup()
+        throws IOException
+    {
+        this.text = Corpus.get(this.corpus);
+    }
+
+    /**
+     * Parses the page twice, once for the Wiki object model and once for the
+     * HTML.
+     *
+     * @return parsed page
+     * @throws ParseException if the page could not be parsed
+     */
+    @Benchmark
+    public WikiPage twoParses()
+        throws ParseException
+    {
+        GWikiParser.parse(new WEMHtml(Writer.nullWriter(), null), new StringReader(this.text));
+        return GWikiParser.parse(new StringReader(this.text));
+    }
+
+    /**
+     * Parses the page once with both consumers called synchronous.
+     *
+     * @return parsed page
+     * @throws ParseException if the page could not be parsed
+     */
+    @Benchmark
+    public WikiPage multicast()
+        throws ParseException
+    {
+        final WEM2WOM wom = new WEM2WOM();
+        try (WEMMulticast multicast = new WEMMulticast()
+                        .add(wom)
+                        .add(new WEMHtml(Writer.nullWriter(), null)))  {
+            GWikiParser.parse(multicast, new StringReader(this.text));
+        }
+        return wom.getPage();
+    }
+
+    /**
+     * Parses the page once with the HTML consumer called asynchronous.
+     *
+     * @return parsed page
+     * @throws ParseException if the page could not be parsed
+     */
+    @Benchmark
+    public WikiPage multicastAsync()
+        throws ParseException
+    {
+        final WEM2WOM wom = new WEM2WOM();
+        try (WEMMulticast multicast = new WEMMulticast()
+                        .add(wom)
+                        .addAsync(new WEMHtml(Writer.nullWriter(), null), 1024))  {
+            GWikiParser.parse(multicast, new StringReader(this.text));
+        }
+        return wom.getPage();
+    }
+}
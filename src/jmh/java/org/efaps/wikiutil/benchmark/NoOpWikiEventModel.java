@@ -0,0 +1,30 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.benchmark;
+
+import org.efaps.wikiutil.wem.AbstractWikiEventModel;
+
+/**
+ * Wiki event model which ignores all events. Used to measure the parser
+ * without any consumer.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class NoOpWikiEventModel
+    extends AbstractWikiEventModel
+{
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.benchmark;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.efaps.wikiutil.export.html.WEMHtml;
+import org.efaps.wikiutil.parser.gwiki.GWikiParser;
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.wem.WEMAsync;
+import org.efaps.wikiutil.wom.WEM2WOM;
+import org.efaps.wikiutil.wom.WikiPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the throughput of large Wiki pages if the parser and the consumer
+ * run in lockstep within one thread against the pipelined mode where the
+ * consumer runs within an own thread behind a {@link WEMAsync ring buffer}.
+ * The pipelined mode could only be faster if at least two cores are
+ * available.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PipelineBenchmark
+{
+    /**
+     * Name of the corpus page.
+     *
+     * @see Corpus#get(String)
+     */
+    @Param({"synthetic-large", "real-manual"})
+    private String corpus;
+
+    /**
+     * Capacity of the ring buffer.
+     */
+    @Param({"4096"})
+    private int capacity;
+
+    /**
+     * Wiki text of the {@link #corpus} page.
+     */
+    private String text;
+
+    /**
+     * Initializes the text.
+     *
+     * @throws IOException if the corpus page could not be read
+     */
+    @Setup(Level.Trial)
+    public void setup()
+        throws IOException
+    {
+        this.text = Corpus.get(this.corpus);
+    }
+
+    /**
+     * Parses the page into the Wiki object model within one thread.
+     *
+     * @return parsed page
+     * @throws ParseException if the page could not be parsed
+     */
+    @Benchmark
+    public WikiPage wom()
+        throws ParseException
+    {
+        final WEM2WOM wem2wom = new WEM2WOM();
+        GWikiParser.parse(wem2wom, new StringReader(this.text));
+        return wem2wom.getPage();
+    }
+
+    /**
+     * Parses the page into the Wiki object model which is built within an
+     * own thread.
+     *
+     * @return parsed page
+     * @throws ParseException if the page could not be parsed
+     */
+    @Benchmark
+    public WikiPage womPipelined()
+        throws ParseException
+    {
+        final WEM2WOM wem2wom = new WEM2WOM();
+        try (WEMAsync async = new WEMAsync(wem2wom, this.capacity))  {
+            GWikiParser.parse(async, new StringReader(this.text));
+        }
+        return wem2wom.getPage();
+    }
+
+    /**
+     * Parses the page and streams the HTML within one thread.
+     *
+     * @return used Wiki event model
+     * @throws ParseException if the page could not be parsed
+     */
+    @Benchmark
+    public WEMHtml html()
+        throws ParseException
+    {
+        final WEMHtml html = new WEMHtml(Writer.nullWriter(), null);
+        GWikiParser.parse(html, new StringReader(this.text));
+        return html;
+    }
+
+    /**
+     * Parses the page and streams the HTML within an own thread.
+     *
+     * @return used Wiki event model
+     * @throws ParseException if the page could not be parsed
+     */
+    @Benchmark
+    public WEMHtml htmlPipelined()
+        throws ParseException
+    {
+        final WEMHtml html = new WEMHtml(Writer.nullWriter(), null);
+        try (WEMAsync async = new WEMAsync(html, this.capacity))  {
+            GWikiParser.parse(async, new StringReader(this.text));
+        }
+        return html;
+    }
+}
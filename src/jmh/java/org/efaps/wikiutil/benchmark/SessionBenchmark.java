@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.benchmark;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.efaps.wikiutil.parser.gwiki.GWikiParser;
+import org.efaps.wikiutil.parser.gwiki.GWikiParserSession;
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the costs per small Wiki page of a new parser for each page
+ * against a reused {@link GWikiParserSession}.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SessionBenchmark
+{
+    /**
+     * Name of the corpus page.
+     *
+     * @see Corpus#get(String)
+     */
+    @Param({"tiny", "synthetic-small", "real-configitems"})
+    private String corpus;
+
+    /**
+     * Wiki text of the {@link #corpus} page.
+     */
+    private String text;
+
+    /**
+     * Reused parser session.
+     */
+    private GWikiParserSession session;
+
+    /**
+     * Initializes the text and the parser session.
+     *
+     * @throws IOException if the corpus page could not be read
+     */
+    @Setup(Level.Trial)
+    public void setup()
+        throws IOException
+    {
+        this.text = Corpus.get(this.corpus);
+        this.session = GWikiParserSession.get();
+    }
+
+    /**
+     * Parses the page with a new parser.
+     *
+     * @throws ParseException if the page could not be parsed
+     */
+    @Benchmark
+    public void newParser()
+        throws ParseException
+    {
+        GWikiParser.parse(new NoOpWikiEventModel(), new StringReader(this.text));
+    }
+
+    /**
+     * Parses the page with the reused parser session.
+     *
+     * @throws ParseException if the page could not be parsed
+     */
+    @Benchmark
+    public void session()
+        throws ParseException
+    {
+        this.session.parse(new NoOpWikiEventModel(), new StringReader(this.text));
+    }
+}
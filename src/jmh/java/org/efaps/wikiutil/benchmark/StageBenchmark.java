@@ -0,0 +1,295 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.efaps.wikiutil.export.html.WEMHtml;
+import org.efaps.wikiutil.export.latex.WikiPage2Tex;
+import org.efaps.wikiutil.parser.gwiki.GWikiParser;
+import org.efaps.wikiutil.parser.gwiki.GWikiVisitor;
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.wem.WEMStatistics;
+import org.efaps.wikiutil.wem.WEMTape;
+import org.efaps.wikiutil.wem.WEMTapePlayer;
+import org.efaps.wikiutil.wom.WEM2WOM;
+import org.efaps.wikiutil.wom.WOM2WEM;
+import org.efaps.wikiutil.wom.WikiPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures each stage of the Wiki pipeline separately: parsing into the Wiki
+ * object model, parsing without consumer or into statistics, building the
+ * Wiki object model from recorded events or from a {@link WEMTape tape},
+ * rendering HTML from recorded events, from a tape or from a parsed Wiki page
+ * (with {@link WOM2WEM}) and rendering LaTeX from a parsed Wiki page.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StageBenchmark
+{
+    /**
+     * Name of the corpus page.
+     *
+     * @see Corpus#get(String)
+     */
+    @Param({"synthetic-small", "synthetic-large", "real-manual", "real-configitems"})
+    private String corpus;
+
+    /**
+     * Wiki text of the {@link #corpus} page.
+     */
+    private String text;
+
+    /**
+     * Recorded events of the parsed {@link #text}.
+     */
+    private EventRecorder events;
+
+    /**
+     * Bytes of the tape with the events of the parsed {@link #text}.
+     */
+    private byte[] tape;
+
+    /**
+     * Parsed {@link #text}.
+     */
+    private WikiPage page;
+
+    /**
+     * Initializes the text, the recorded events and the parsed page.
+     *
+     * @throws IOException      if the corpus page could not be read
+     * @throws ParseException   if the corpus page could not be parsed
+     */
+    @Setup(Level.Trial)
+    public void setup()
+        throws IOException, ParseException
+    {
+        this.text = Corpus.get(this.corpus);
+        this.events = new EventRecorder();
+        GWikiParser.parse(this.events, new StringReader(this.text));
+        final WEMTape wemTape = new WEMTape();
+        GWikiParser.parse(wemTape, new StringReader(this.text));
+        this.tape = wemTape.toByteArray();
+        this.page = GWikiParser.parse(new StringReader(this.text));
+    }
+
+    /**
+     * Parses the page into the Wiki object model.
+     *
+     * @return parsed page
+     * @throws ParseException if the page could not be parsed
+     */
+    @Benchmark
+    public WikiPage parse()
+        throws ParseException
+    {
+        return GWikiParser.parse(new StringReader(this.text));
+    }
+
+    /**
+     * Parses the page without consumer.
+     *
+     * @throws ParseException if the page could not be parsed
+     */
+    @Benchmark
+    public void parseNoOp()
+        throws ParseException
+    {
+        GWikiParser.parse(new NoOpWikiEventModel(), new StringReader(this.text));
+    }
+
+    /**
+     * Parses the page and collects the statistics of the events.
+     *
+     * @return collected statistics
+     * @throws ParseException if the page could not be parsed
+     */
+    @Benchmark
+    public WEMStatistics parseStatistics()
+        throws ParseException
+    {
+        final WEMStatistics statistics = new WEMStatistics();
+        GWikiParser.parse(statistics, new StringReader(this.text));
+        return statistics;
+    }
+
+    /**
+     * Parses the page without consumer and without Wiki word detection.
+     *
+     * @throws ParseException if the page could not be parsed
+     */
+    @Benchmark
+    public void parseNoOpWithoutWikiWords()
+        throws ParseException
+    {
+        GWikiParser.parse(new GWikiVisitor(new NoOpWikiEventModel()).setWikiWords(false),
+                          new StringReader(this.text));
+    }
+
+    /**
+     * Parses the page and streams the HTML into a writer which discards the
+     * HTML.
+     *
+     * @return used Wiki event model
+     * @throws ParseException if the page could not be parsed
+     */
+    @Benchmark
+    public WEMHtml parseHtml()
+        throws ParseException
+    {
+        final WEMHtml html = new WEMHtml(Writer.nullWriter(), null);
+        GWikiParser.parse(new GWikiVisitor(html), new StringReader(this.text));
+        return html;
+    }
+
+    /**
+     * Parses the page with transient texts and streams the HTML into a writer
+     * which discards the HTML.
+     *
+     * @return used Wiki event model
+     * @throws ParseException if the page could not be parsed
+     * @see GWikiVisitor#setTransientText(boolean)
+     */
+    @Benchmark
+    public WEMHtml parseHtmlTransientText()
+        throws ParseException
+    {
+        final WEMHtml html = new WEMHtml(Writer.nullWriter(), null);
+        GWikiParser.parse(new GWikiVisitor(html).setTransientText(true), new StringReader(this.text));
+        return html;
+    }
+
+    /**
+     * Builds the Wiki object model from the recorded events.
+     *
+     * @return built page
+     */
+    @Benchmark
+    public WikiPage wem2wom()
+    {
+        final WEM2WOM wem2wom = new WEM2WOM();
+        this.events.replay(wem2wom);
+        return wem2wom.getPage();
+    }
+
+    /**
+     * Builds the Wiki object model from the tape.
+     *
+     * @return built page
+     */
+    @Benchmark
+    public WikiPage tapeWem2wom()
+    {
+        final WEM2WOM wem2wom = new WEM2WOM();
+        new WEMTapePlayer(this.tape).play(wem2wom);
+        return wem2wom.getPage();
+    }
+
+    /**
+     * Renders the HTML from the recorded events.
+     *
+     * @return rendered HTML
+     */
+    @Benchmark
+    public String html()
+    {
+        final WEMHtml html = new WEMHtml();
+        this.events.replay(html);
+        return html.getHtml();
+    }
+
+    /**
+     * Streams the HTML from the recorded events into a writer which discards
+     * the HTML (only the part behind a table of contents is buffered).
+     *
+     * @return used Wiki event model
+     */
+    @Benchmark
+    public WEMHtml htmlStreaming()
+    {
+        final WEMHtml html = new WEMHtml(Writer.nullWriter(), null);
+        this.events.replay(html);
+        return html;
+    }
+
+    /**
+     * Streams the HTML from the tape with transient texts into a writer which
+     * discards the HTML.
+     *
+     * @return used Wiki event model
+     */
+    @Benchmark
+    public WEMHtml tapeHtmlStreaming()
+    {
+        final WEMHtml html = new WEMHtml(Writer.nullWriter(), null);
+        new WEMTapePlayer(this.tape).setTransientText(true).play(html);
+        return html;
+    }
+
+    /**
+     * Streams the HTML from the parsed page into a writer which discards the
+     * HTML.
+     *
+     * @return used Wiki event model
+     */
+    @Benchmark
+    public WEMHtml womHtmlStreaming()
+    {
+        final WEMHtml html = new WEMHtml(Writer.nullWriter(), null);
+        new WOM2WEM(html).play(this.page);
+        return html;
+    }
+
+    /**
+     * Renders the LaTeX code of the parsed page.
+     *
+     * @return rendered LaTeX code
+     * @throws IOException if the LaTeX code could not be rendered
+     */
+    @Benchmark
+    public StringBuilder latex()
+        throws IOException
+    {
+        final StringBuilder ret = new StringBuilder();
+        new WikiPage2Tex(new File("bench.wiki").toURI(), new File("out0.tex"), 1, "Benchmark")
+            .convert(ret, this.page);
+        return ret;
+    }
+}
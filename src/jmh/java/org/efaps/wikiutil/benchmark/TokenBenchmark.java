@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.benchmark;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.efaps.wikiutil.parser.gwiki.CharBufferStream;
+import org.efaps.wikiutil.parser.gwiki.javacc.SimpleCharStream;
+import org.efaps.wikiutil.parser.gwiki.javacc.Token;
+import org.efaps.wikiutil.parser.gwiki.javacc.WikiParserConstants;
+import org.efaps.wikiutil.parser.gwiki.javacc.WikiParserTokenManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the token manager of the Wiki parser alone. The number of
+ * created tokens per page is printed in the setup of each trial; together
+ * with <code>-prof gc</code> this shows how many token objects (and token
+ * images) are allocated for a page.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenBenchmark
+{
+    /**
+     * Name of the corpus page.
+     *
+     * @see Corpus#get(String)
+     */
+    @Param({"synthetic-large", "real-manual", "real-configitems"})
+    private String corpus;
+
+    /**
+     * Wiki text of the {@link #corpus} page.
+     */
+    private String text;
+
+    /**
+     * Characters of the {@link #text}.
+     */
+    private CharBuffer chars;
+
+    /**
+     * Initializes the text and prints the number of tokens of the page.
+     *
+     * @throws IOException if the corpus page could not be read
+     */
+    @Setup(Level.Trial)
+    public void setup()
+        throws IOException
+    {
+        this.text = Corpus.get(this.corpus);
+        this.chars = CharBuffer.wrap(this.text.toCharArray());
+        System.out.println(this.corpus + ": " + this.text.length() + " characters, "
+                        + this.tokenize() + " tokens");
+    }
+
+    /**
+     * Reads all tokens of the page.
+     *
+     * @return number of tokens
+     */
+    @Benchmark
+    public long tokenize()
+    {
+        return this.count(new WikiParserTokenManager(new SimpleCharStream(new StringReader(this.text)),
+                                                     WikiParserConstants.INITIAL_CONTEXT));
+    }
+
+    /**
+     * Reads all tokens of the page from the {@link #chars} with a
+     * {@link CharBufferStream}.
+     *
+     * @return number of tokens
+     */
+    @Benchmark
+    public long tokenizeCharBuffer()
+    {
+        return this.count(new WikiParserTokenManager(new CharBufferStream(this.chars),
+                                                     WikiParserConstants.INITIAL_CONTEXT));
+    }
+
+    /**
+     * Reads all tokens from <code>_tokenManager</code>.
+     *
+     * @param _tokenManager     token manager
+     * @return number of tokens
+     */
+    private long count(final WikiParserTokenManager _tokenManager)
+    {
+        long count = 0;
+        Token token = _tokenManager.getNextToken();
+        while (token.kind != WikiParserConstants.EOF)  {
+            count++;
+            token = _tokenManager.getNextToken();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * JMH benchmarks for the parser and the exporters. The benchmarks are only
+ * compiled with the Maven profile <code>jmh</code>:
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="-prof gc StageBenchmark"
+ * </pre>
+ * The memory footprint of the corpus pages is reported by {@link Footprint}:
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.main=org.efaps.wikiutil.benchmark.Footprint -Djmh.args=
+ * </pre>
+ */
+package org.efaps.wikiutil.benchmark;
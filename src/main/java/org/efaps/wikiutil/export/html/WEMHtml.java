@@ -15,6 +15,9 @@
  */
 package org.efaps.wikiutil.export.html;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URL;
 import java.util.Stack;
 
@@ -24,7 +27,13 @@ import org.efaps.wikiutil.wem.ETypeface;
 import org.efaps.wikiutil.wem.IWikiEventModel;
 
 /**
- * Wiki Event Manager which is used to create a valid html page.
+ * Wiki Event Manager which is used to create a valid html page. The html is
+ * written while the events arrive to the {@link #target}, so that the html
+ * page could be streamed (e.g. to the writer of a servlet response). Only
+ * the html behind a table of contents is buffered until the end of the
+ * document, because the table of contents could only be written if all
+ * headings are known. Errors of the target are thrown as
+ * {@link UncheckedIOException}.
  *
  * @author The eFaps Team
  * @version $Id$
@@ -33,9 +42,64 @@ public class WEMHtml
     implements IWikiEventModel
 {
     /**
-     * List of StringBuilders used to create the complete Html-String.
+     * Target to which the html is written.
      */
-    private final Stack<StringBuilder> bldrs = new Stack<StringBuilder>();
+    private final Appendable target;
+
+    /**
+     * Current appendable to which the html is appended. This is the
+     * {@link #target}, or the {@link #buffer} behind a table of contents.
+     */
+    private Appendable current;
+
+    /**
+     * Writer on the {@link #current} appendable used to escape texts.
+     *
+     * @see #onText(CharSequence)
+     */
+    private final Writer writer = new Writer()
+    {
+        @Override
+        public void write(final int _char)
+            throws IOException
+        {
+            WEMHtml.this.current.append((char) _char);
+        }
+
+        @Override
+        public void write(final char[] _chars,
+                          final int _offset,
+                          final int _length)
+            throws IOException
+        {
+            for (int idx = _offset; idx < _offset + _length; idx++)  {
+                WEMHtml.this.current.append(_chars[idx]);
+            }
+        }
+
+        @Override
+        public void write(final String _string)
+            throws IOException
+        {
+            WEMHtml.this.current.append(_string);
+        }
+
+        @Override
+        public void flush()
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    };
+
+    /**
+     * Buffer for the html behind the table of contents (or <code>null</code>
+     * if no table of contents is defined).
+     */
+    private StringBuilder buffer;
 
     /**
      * Stack for the entries of a table of contents.
@@ -89,7 +153,21 @@ public class WEMHtml
      */
     public WEMHtml(final IWikiEventModel _wem)
     {
-        this.bldrs.push(new StringBuilder());
+        this(new StringBuilder(), _wem);
+    }
+
+    /**
+     * Wiki event debugger which writes the html to <code>_target</code>
+     * with underlying Wiki event manager <code>_wem</code>.
+     *
+     * @param _target   target to which the html is written
+     * @param _wem      used Wiki event model (or <code>null</code>)
+     */
+    public WEMHtml(final Appendable _target,
+                   final IWikiEventModel _wem)
+    {
+        this.target = _target;
+        this.current = _target;
         this.wem = _wem;
     }
 
@@ -102,7 +180,7 @@ public class WEMHtml
     {
         switch (_property) {
             case DESCRIPTION:
-                this.bldrs.peek().append("<div class=\"eFapsWikiDescription\">").append(_value).append("</div>");
+                this.append("<div class=\"eFapsWikiDescription\">").append(_value).append("</div>");
                 break;
             default:
                 break;
@@ -119,7 +197,7 @@ public class WEMHtml
     public void documentStart()
     {
         if (!this.snipplet) {
-            this.bldrs.peek().append("<html><body>");
+            this.append("<html><body>");
         }
         if (this.wem != null)  {
             this.wem.documentStart();
@@ -153,7 +231,13 @@ public class WEMHtml
             }
         }
         if (!this.snipplet) {
-            this.bldrs.peek().append("</body></html>");
+            this.append("</body></html>");
+        }
+        if (this.buffer != null)  {
+            this.current = this.target;
+            this.append(this.toCBldr).append(this.buffer);
+            this.toCBldr = null;
+            this.buffer = null;
         }
         if (this.wem != null)  {
             this.wem.documentEnd();
@@ -192,7 +276,7 @@ public class WEMHtml
     {
         this.toC.push(new ToCEntry(this.headingLevel));
         this.heading = true;
-        this.bldrs.peek().append("<h").append(this.headingLevel).append("><a name=\"");
+        this.append("<h").append(this.headingLevel).append("><a name=\"");
         if (this.wem != null)  {
             this.wem.headingStart();
         }
@@ -205,7 +289,7 @@ public class WEMHtml
     public void headingEnd()
     {
         this.heading = false;
-        this.bldrs.peek().append("</a></h").append(this.headingLevel).append(">");
+        this.append("</a></h").append(this.headingLevel).append(">");
         if (this.wem != null)  {
             this.wem.headingEnd();
         }
@@ -217,7 +301,7 @@ public class WEMHtml
     @Override
     public void paragraphStart()
     {
-        this.bldrs.peek().append("<p>");
+        this.append("<p>");
         if (this.wem != null)  {
             this.wem.paragraphStart();
         }
@@ -229,7 +313,7 @@ public class WEMHtml
     @Override
     public void paragraphEnd()
     {
-        this.bldrs.peek().append("</p>");
+        this.append("</p>");
         if (this.wem != null)  {
             this.wem.paragraphEnd();
         }
@@ -241,7 +325,7 @@ public class WEMHtml
     @Override
     public void tableStart()
     {
-        this.bldrs.peek().append("<table>");
+        this.append("<table>");
         if (this.wem != null)  {
             this.wem.tableStart();
         }
@@ -253,7 +337,7 @@ public class WEMHtml
     @Override
     public void tableEnd()
     {
-        this.bldrs.peek().append("</table>");
+        this.append("</table>");
         if (this.wem != null)  {
             this.wem.tableEnd();
         }
@@ -265,7 +349,7 @@ public class WEMHtml
     @Override
     public void tableBodyStart()
     {
-        this.bldrs.peek().append("<tbody>");
+        this.append("<tbody>");
         if (this.wem != null)  {
             this.wem.tableBodyStart();
         }
@@ -277,7 +361,7 @@ public class WEMHtml
     @Override
     public void tableBodyEnd()
     {
-        this.bldrs.peek().append("</tbody>");
+        this.append("</tbody>");
         if (this.wem != null)  {
             this.wem.tableBodyEnd();
         }
@@ -289,7 +373,7 @@ public class WEMHtml
     @Override
     public void tableRowStart()
     {
-        this.bldrs.peek().append("<tr>");
+        this.append("<tr>");
         if (this.wem != null)  {
             this.wem.tableRowStart();
         }
@@ -301,7 +385,7 @@ public class WEMHtml
     @Override
     public void tableRowEnd()
     {
-        this.bldrs.peek().append("</tr>");
+        this.append("</tr>");
         if (this.wem != null)  {
             this.wem.tableRowEnd();
         }
@@ -313,7 +397,7 @@ public class WEMHtml
     @Override
     public void tableEntryStart()
     {
-        this.bldrs.peek().append("<td>");
+        this.append("<td>");
         if (this.wem != null)  {
             this.wem.tableEntryStart();
         }
@@ -325,7 +409,7 @@ public class WEMHtml
     @Override
     public void tableEntryEnd()
     {
-        this.bldrs.peek().append("</td>");
+        this.append("</td>");
         if (this.wem != null)  {
             this.wem.tableEntryEnd();
         }
@@ -339,22 +423,22 @@ public class WEMHtml
     {
         switch (_typeface) {
             case BOLD:
-                this.bldrs.peek().append("<span style=\"font-weight:bold;\">");
+                this.append("<span style=\"font-weight:bold;\">");
                 break;
             case CODE:
-                this.bldrs.peek().append("<span style=\"font-family:monospace;\">");
+                this.append("<span style=\"font-family:monospace;\">");
                 break;
             case ITALIC:
-                this.bldrs.peek().append("<span style=\"font-style:italic;\">");
+                this.append("<span style=\"font-style:italic;\">");
                 break;
             case STRIKEOUT:
-                this.bldrs.peek().append("<span style=\"text-decoration:line-through;\">");
+                this.append("<span style=\"text-decoration:line-through;\">");
                 break;
             case SUB:
-                this.bldrs.peek().append("<span style=\"vertical-align:sub;\">");
+                this.append("<span style=\"vertical-align:sub;\">");
                 break;
             case SUPER:
-                this.bldrs.peek().append("<span style=\"vertical-align:super;\">");
+                this.append("<span style=\"vertical-align:super;\">");
                 break;
             default:
                 break;
@@ -370,7 +454,7 @@ public class WEMHtml
     @Override
     public void typefaceEnd(final ETypeface _typeface)
     {
-        this.bldrs.peek().append("</span>");
+        this.append("</span>");
         if (this.wem != null)  {
             this.wem.typefaceEnd(_typeface);
         }
@@ -382,7 +466,7 @@ public class WEMHtml
     @Override
     public void listBulletedStart()
     {
-        this.bldrs.peek().append("<ul>");
+        this.append("<ul>");
         if (this.wem != null)  {
             this.wem.listBulletedStart();
         }
@@ -394,7 +478,7 @@ public class WEMHtml
     @Override
     public void listBulletedEnd()
     {
-        this.bldrs.peek().append("</ul>");
+        this.append("</ul>");
         if (this.wem != null)  {
             this.wem.listBulletedEnd();
         }
@@ -406,7 +490,7 @@ public class WEMHtml
     @Override
     public void listNumberedStart()
     {
-        this.bldrs.peek().append("<ol>");
+        this.append("<ol>");
         if (this.wem != null)  {
             this.wem.listNumberedStart();
         }
@@ -418,7 +502,7 @@ public class WEMHtml
     @Override
     public void listNumberedEnd()
     {
-        this.bldrs.peek().append("</ol>");
+        this.append("</ol>");
         if (this.wem != null)  {
             this.wem.listNumberedEnd();
         }
@@ -430,7 +514,7 @@ public class WEMHtml
     @Override
     public void listEntryStart()
     {
-        this.bldrs.peek().append("<li>");
+        this.append("<li>");
         if (this.wem != null)  {
             this.wem.listEntryStart();
         }
@@ -442,7 +526,7 @@ public class WEMHtml
     @Override
     public void listEntryEnd()
     {
-        this.bldrs.peek().append("</li>");
+        this.append("</li>");
         if (this.wem != null)  {
             this.wem.listEntryEnd();
         }
@@ -454,7 +538,7 @@ public class WEMHtml
     @Override
     public void onDivider()
     {
-        this.bldrs.peek().append("<hr/>");
+        this.append("<hr/>");
         if (this.wem != null)  {
             this.wem.onDivider();
         }
@@ -466,7 +550,7 @@ public class WEMHtml
     @Override
     public void onNewLine()
     {
-        this.bldrs.peek().append("<br/>");
+        this.append("<br/>");
         if (this.wem != null)  {
             this.wem.onNewLine();
         }
@@ -482,7 +566,7 @@ public class WEMHtml
         if (!url.replace("http://", "").contains("/")) {
             url = url.replace("http://", "");
         }
-        this.bldrs.peek().append("<img src=\"").append(url).append("\"/>");
+        this.append("<img src=\"").append(url).append("\"/>");
         if (this.wem != null)  {
             this.wem.onImage(_url);
         }
@@ -494,7 +578,7 @@ public class WEMHtml
     @Override
     public void onPreformat(final CharSequence _text)
     {
-        this.bldrs.peek().append(_text);
+        this.append(_text);
         if (this.wem != null)  {
             this.wem.onPreformat(_text);
         }
@@ -506,12 +590,19 @@ public class WEMHtml
     @Override
     public void onText(final CharSequence _text)
     {
-        final String html = StringEscapeUtils.escapeHtml4(_text.toString());
         if (this.heading) {
+            final String html = StringEscapeUtils.escapeHtml4(_text.toString());
             this.toC.peek().setValue(html);
-            this.bldrs.peek().append(this.toC.peek().getHref()).append("\">");
+            this.append(this.toC.peek().getHref()).append("\">");
+            this.append(html);
+        } else  {
+            // escaped directly from the text, so that no copy is needed
+            try  {
+                StringEscapeUtils.ESCAPE_HTML4.translate(_text, this.writer);
+            } catch (final IOException e)  {
+                throw new UncheckedIOException(e);
+            }
         }
-        this.bldrs.peek().append(html);
         if (this.wem != null)  {
             this.wem.onText(_text);
         }
@@ -524,9 +615,15 @@ public class WEMHtml
     public void onTableOfContents(final int _depth)
     {
         this.toCDepth = _depth;
+        // only the last table of contents is filled, so the html behind a
+        // previous table of contents could be written
+        if (this.buffer != null)  {
+            this.current = this.target;
+            this.append(this.buffer);
+        }
         this.toCBldr = new StringBuilder();
-        this.bldrs.push(this.toCBldr);
-        this.bldrs.push(new StringBuilder());
+        this.buffer = new StringBuilder();
+        this.current = this.buffer;
         if (this.wem != null)  {
             this.wem.onTableOfContents(_depth);
         }
@@ -540,7 +637,7 @@ public class WEMHtml
     public void onLinkExternal(final URL _url,
                                final CharSequence _description)
     {
-        this.bldrs.peek().append("<a href=\"").append(_url).append("\">")
+        this.append("<a href=\"").append(_url).append("\">")
             .append((_description != null) && (_description.length() > 0)
                             ? StringEscapeUtils.escapeHtml4(_description.toString())
                             : _url).append("</a>");
@@ -556,7 +653,7 @@ public class WEMHtml
     public void onLinkInternal(final CharSequence _link,
                                final CharSequence _description)
     {
-        this.bldrs.peek().append("<a href=\"").append(_link).append("\">")
+        this.append("<a href=\"").append(_link).append("\">")
             .append((_description != null) && (_description.length() > 0)
                             ? StringEscapeUtils.escapeHtml4(_description.toString())
                             : _link).append("</a>");
@@ -566,13 +663,47 @@ public class WEMHtml
     }
 
     /**
+     * Appends <code>_text</code> to the {@link #current} appendable.
+     *
+     * @param _text     text to append
+     * @return this instance
+     * @throws UncheckedIOException if the text could not be appended
+     */
+    protected WEMHtml append(final CharSequence _text)
+    {
+        try  {
+            this.current.append(_text);
+        } catch (final IOException e)  {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    /**
+     * Appends the string representation of <code>_value</code> to the
+     * {@link #current} appendable.
+     *
+     * @param _value    value to append
+     * @return this instance
+     * @throws UncheckedIOException if the value could not be appended
+     */
+    protected WEMHtml append(final Object _value)
+    {
+        return this.append(String.valueOf(_value));
+    }
+
+    /**
+     * Returns the whole html. If the html is written to an external
+     * {@link #target}, the string representation of the target is used
+     * (e.g. for a {@link java.io.StringWriter}).
+     *
      * @return whole html
      */
     public String getHtml()
     {
-        final StringBuilder ret = new StringBuilder();
-        for (final StringBuilder bldr : this.bldrs) {
-            ret.append(bldr);
+        final StringBuilder ret = new StringBuilder().append(this.target);
+        if (this.buffer != null)  {
+            ret.append(this.toCBldr).append(this.buffer);
         }
         return ret.toString();
     }
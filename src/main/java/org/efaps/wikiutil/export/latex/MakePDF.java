@@ -14,22 +14,35 @@
  * limitations under the License.
  */
 package org.efaps.wikiutil.export.latex;
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.Reader;
 import java.io.Writer;
 import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.IOUtils;
 import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.source.IPageSource;
+import org.efaps.wikiutil.source.PageSourceFactory;
 
 
 /**
@@ -46,6 +59,29 @@ public class MakePDF
      */
     private static final String RESOURCEDIR = "org/efaps/wikiutil/export/latex/";
 
+    /**
+     * Default job name of PDF latex (name of the main Tex file).
+     */
+    private static final String JOBNAME = "book";
+
+    /**
+     * Extensions of the auxiliary files written by PDF latex which are read
+     * by the next pass (cross references, table of contents and PDF
+     * bookmarks).
+     *
+     * @see #hashAuxFiles()
+     */
+    private static final String[] AUX_EXTENSIONS = {".aux", ".toc", ".out"};
+
+    /**
+     * Prefixes of the lines of the auxiliary files with cross reference
+     * entries (labels, table of contents, citations and PDF bookmarks).
+     *
+     * @see #hasCrossReferences(File)
+     */
+    private static final String[] CROSS_REFERENCES = {"\\newlabel", "\\@writefile", "\\bibcite",
+                                                      "\\contentsline", "\\BOOKMARK"};
+
     /**
      * Temporary directory where the output files are written.
      */
@@ -77,11 +113,27 @@ public class MakePDF
      */
     private URI wikiRootURI;
 
+    /**
+     * Source of the Wiki pages. If not defined, the source is created from
+     * the {@link #wikiRootURI}.
+     *
+     * @see #setPageSource(IPageSource)
+     */
+    private IPageSource pageSource;
+
     /**
      * Target file.
      */
     private File wikiTargetFile;
 
+    /**
+     * Must PDF latex write directly into the directory of the
+     * {@link #wikiTargetFile target file}?
+     *
+     * @see #setLatexOutputToTarget(boolean)
+     */
+    private boolean latexOutputToTarget = false;
+
     /**
      * PDF LaTex executable.
      *
@@ -90,6 +142,46 @@ public class MakePDF
      */
     private String executablePdfLaTeX = "/opt/local/bin/pdflatex";
 
+    /**
+     * Timeout in seconds of one PDF latex pass (zero means no timeout).
+     *
+     * @see #executePDFLatex()
+     * @see #setLatexTimeout(long)
+     */
+    private long latexTimeout = 0;
+
+    /**
+     * Number of already executed PDF latex passes.
+     *
+     * @see #executePDFLatex()
+     */
+    private int latexPass = 0;
+
+    /**
+     * Maximum number of PDF latex passes.
+     *
+     * @see #execute()
+     * @see #setMaxLatexPasses(int)
+     */
+    private int maxLatexPasses = 3;
+
+    /**
+     * Maximum number of Wiki pages converted at the same time.
+     *
+     * @see #setParallelism(int)
+     * @see WikiIndex2Tex#setParallelism(int)
+     */
+    private int parallelism = 1;
+
+    /**
+     * Directory of the cache for converted Wiki pages (or <code>null</code>
+     * if no cache is used).
+     *
+     * @see #setCacheDir(File)
+     * @see TexCache
+     */
+    private File cacheDir;
+
     /**
      * Initializes the temporary directory.
      *
@@ -108,6 +200,7 @@ public class MakePDF
      * @see #copyTexFile(String)
      * @see #writeVariablesFile()
      * @see #executePDFLatex()
+     * @see #hashAuxFiles()
      */
     public void execute()
         throws IOException, ParseException
@@ -121,20 +214,26 @@ public class MakePDF
         this.copyTexFile("book.tex");
         this.copyTexFile("frontpage.tex");
         this.writeVariablesFile();
+        this.latexPass = 0;
+        Map<String, byte[]> consumed = this.hashAuxFiles();
         if (this.executePDFLatex())  {
-            this.executePDFLatex();
+            // further passes only if a pass produced other auxiliary files
+            // than it consumed
+            Map<String, byte[]> produced = this.hashAuxFiles();
+            boolean stable = this.isStable(consumed, produced);
+            while (!stable && (this.latexPass < this.maxLatexPasses) && this.executePDFLatex())  {
+                consumed = produced;
+                produced = this.hashAuxFiles();
+                stable = this.isStable(consumed, produced);
+            }
+            if (stable)  {
+                System.out.println("pdflatex needed " + this.latexPass + " passes");
+            } else if (this.latexPass >= this.maxLatexPasses)  {
+                System.err.println("warning: auxiliary files of pdflatex not stable after maximum of "
+                                + this.maxLatexPasses + " passes (cross references could be wrong)");
+            }
             if (this.wikiTargetFile != null)  {
-                final Reader in = new FileReader(new File(this.tempDir, "book.pdf"));
-                try {
-                    final Writer out = new FileWriter(this.wikiTargetFile);
-                    try  {
-                        IOUtils.copy(in, out);
-                    } finally  {
-                        out.close();
-                    }
-                } finally  {
-                    in.close();
-                }
+                this.deliverPDF(new File(this.getLatexOutputDir(), this.getLatexJobName() + ".pdf"));
             }
         }
     }
@@ -180,6 +279,24 @@ public class MakePDF
         return this;
     }
 
+    /**
+     * Defines if PDF latex writes the PDF file directly into the directory
+     * of the {@link #wikiTargetFile target file} (with the name of the target
+     * file as job name), so that the PDF file must not be copied. All other
+     * files written by PDF latex (e.g. the auxiliary and log files) are then
+     * also written into this directory.
+     *
+     * @param _latexOutputToTarget  <i>true</i> to write directly into the
+     *                              target directory
+     * @return this instance
+     * @see #latexOutputToTarget
+     */
+    public MakePDF setLatexOutputToTarget(final boolean _latexOutputToTarget)
+    {
+        this.latexOutputToTarget = _latexOutputToTarget;
+        return this;
+    }
+
     /**
      * Defines the root URL where all Wiki files are located.
      *
@@ -193,6 +310,20 @@ public class MakePDF
         return this;
     }
 
+    /**
+     * Defines the source of the Wiki pages (instead of the
+     * {@link #wikiRootURI root URI}).
+     *
+     * @param _pageSource   source of the Wiki pages
+     * @return this instance
+     * @see #pageSource
+     */
+    public MakePDF setPageSource(final IPageSource _pageSource)
+    {
+        this.pageSource = _pageSource;
+        return this;
+    }
+
     /**
      * Defines the name and path of the target file.
      *
@@ -206,6 +337,36 @@ public class MakePDF
         return this;
     }
 
+    /**
+     * Defines the maximum number of Wiki pages which are converted to Tex
+     * files at the same time. The default is one, so the Wiki pages are
+     * converted sequentially.
+     *
+     * @param _parallelism  maximum number of parallel converted Wiki pages
+     * @return this instance
+     * @see #parallelism
+     */
+    public MakePDF setParallelism(final int _parallelism)
+    {
+        this.parallelism = _parallelism;
+        return this;
+    }
+
+    /**
+     * Defines the directory of the cache for converted Wiki pages. Only
+     * changed Wiki pages are parsed and converted again; the Tex files and
+     * images of all other Wiki pages are reused from the cache.
+     *
+     * @param _cacheDir     directory of the cache
+     * @return this instance
+     * @see #cacheDir
+     */
+    public MakePDF setCacheDir(final File _cacheDir)
+    {
+        this.cacheDir = _cacheDir;
+        return this;
+    }
+
     /**
      * Converts the Wiki pages by a defined Wiki index page.
      *
@@ -216,11 +377,19 @@ public class MakePDF
     protected void convertByIndex()
         throws IOException, ParseException
     {
+        final TexCache cache = (this.cacheDir != null) ? new TexCache(this.cacheDir) : null;
         new WikiIndex2Tex(this.tempDir,
-                          this.wikiRootURI,
+                          (this.pageSource != null)
+                                          ? this.pageSource
+                                          : PageSourceFactory.create(this.wikiRootURI),
                           this.wikiFileExtension,
                           this.wikiIndexName)
+            .setParallelism(this.parallelism)
+            .setCache(cache)
             .convert();
+        if (cache != null)  {
+            System.out.println(cache.getStatistics());
+        }
     }
 
     /**
@@ -259,47 +428,260 @@ public class MakePDF
         return this;
     }
 
+    /**
+     * Defines the maximum number of PDF latex passes. Another pass is only
+     * executed if the auxiliary files (cross references, table of contents
+     * and PDF bookmarks) are changed by the previous pass. If the auxiliary
+     * files are not stable after the maximum number of passes, a warning is
+     * printed.
+     *
+     * @param _maxLatexPasses   maximum number of PDF latex passes
+     * @return this instance
+     * @see #maxLatexPasses
+     */
+    public MakePDF setMaxLatexPasses(final int _maxLatexPasses)
+    {
+        this.maxLatexPasses = _maxLatexPasses;
+        return this;
+    }
+
+    /**
+     * Defines the timeout of one PDF latex pass. If the timeout is reached,
+     * the PDF latex process is killed.
+     *
+     * @param _seconds  timeout in seconds (zero means no timeout)
+     * @return this instance
+     * @see #latexTimeout
+     */
+    public MakePDF setLatexTimeout(final long _seconds)
+    {
+        this.latexTimeout = _seconds;
+        return this;
+    }
+
     /**
      * Executes &quot;<code>pdflatex</code>&quot; from the Latex packages and
      * converts all Latex files to related PDF file <code>book.pdf</code>.
+     * The output of all passes of one build is written to
+     * <code>pdflatex.log</code> in the temporary directory; the first pass
+     * truncates the log file.
      *
      * @return <i>true</i> if the Latex to PDF convert was successfully;
      *         otherwise <i>false</i>
-     * @throws IOException if execute failed
+     * @throws IOException if execute failed or the timeout was reached
      * @see #tempDir
+     * @see ProcessRunner
      */
     protected boolean executePDFLatex()
         throws IOException
     {
-        final ProcessBuilder processBuilder = new ProcessBuilder(this.executablePdfLaTeX, "book.tex");
-        processBuilder.directory(this.tempDir);
-        final Process process = processBuilder.start();
-
-        final Reader in = new InputStreamReader(process.getInputStream());
-        final Reader err = new InputStreamReader(process.getErrorStream());
-    //    PrintStream out = new PrintStream(process.getOutputStream());
-
-        Integer exitCode = null;
-        for (;;) {
-            if (err.ready())  {
-                System.err.print((char) err.read());
-            } else if (in.ready())  {
-                System.out.print((char) in.read());
-            } else  {
-                try {
-                    exitCode = process.exitValue();
-                    break;
-                } catch (final IllegalThreadStateException e)  {
-                    try {
-                        Thread.sleep(1000);
-                    } catch (final InterruptedException e1) {
-                        // TODO Auto-generated catch block
-                        e1.printStackTrace();
+        this.latexPass++;
+        final ProcessRunner runner;
+        if (this.isLatexOutputToTarget())  {
+            runner = new ProcessRunner(this.executablePdfLaTeX,
+                                       "-output-directory=" + this.getLatexOutputDir().getAbsolutePath(),
+                                       "-jobname=" + this.getLatexJobName(),
+                                       "book.tex");
+        } else  {
+            runner = new ProcessRunner(this.executablePdfLaTeX, "book.tex");
+        }
+        runner.setDirectory(this.tempDir)
+            .setLogFile(new File(this.tempDir, "pdflatex.log"), this.latexPass > 1)
+            .setTimeout(this.latexTimeout, TimeUnit.SECONDS);
+        final int exitCode = runner.run();
+        System.out.println("pdflatex pass " + this.latexPass + " finished with exit code " + exitCode
+                        + " in " + runner.getWallTime() + " ms");
+        if (runner.getLogFailure() != null)  {
+            System.err.println("warning: log of pdflatex pass " + this.latexPass + " could not be written: "
+                            + runner.getLogFailure());
+        }
+        return exitCode == 0;
+    }
+
+    /**
+     * Calculates the hashes of the existing {@link #AUX_EXTENSIONS auxiliary
+     * files} of PDF latex.
+     *
+     * @return map of the names of the existing auxiliary files and their
+     *         SHA-256 hashes
+     * @throws IOException if an auxiliary file could not be read
+     * @see #isStable(Map, Map)
+     */
+    protected Map<String, byte[]> hashAuxFiles()
+        throws IOException
+    {
+        final MessageDigest digest;
+        try  {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e)  {
+            throw new IOException("SHA-256 not supported", e);
+        }
+        final Map<String, byte[]> ret = new HashMap<String, byte[]>();
+        for (final String ext : MakePDF.AUX_EXTENSIONS)  {
+            final String name = this.getLatexJobName() + ext;
+            final File file = new File(this.getLatexOutputDir(), name);
+            if (file.isFile())  {
+                final InputStream in = new FileInputStream(file);
+                try  {
+                    ret.put(name, digest.digest(IOUtils.toByteArray(in)));
+                } finally  {
+                    in.close();
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Checks if the auxiliary files <code>_produced</code> by a pass are
+     * stable against the auxiliary files <code>_consumed</code> by the pass,
+     * so that the next pass would read the same information and so would
+     * generate the same PDF file. An auxiliary file which was consumed is
+     * stable if the hash is not changed. An auxiliary file which did not exist
+     * before the pass (e.g. for the first pass in a new temporary directory)
+     * is stable if the pass wrote no {@link #hasCrossReferences(File) cross
+     * reference entries}.
+     *
+     * @param _consumed     hashes of the auxiliary files before the pass
+     * @param _produced     hashes of the auxiliary files after the pass
+     * @return <i>true</i> if no further pass is needed
+     * @throws IOException if an auxiliary file could not be read
+     * @see #hashAuxFiles()
+     */
+    protected boolean isStable(final Map<String, byte[]> _consumed,
+                               final Map<String, byte[]> _produced)
+        throws IOException
+    {
+        boolean ret = true;
+        for (final String ext : MakePDF.AUX_EXTENSIONS)  {
+            final String name = this.getLatexJobName() + ext;
+            if (_consumed.containsKey(name))  {
+                ret = Arrays.equals(_consumed.get(name), _produced.get(name));
+            } else if (_produced.containsKey(name))  {
+                ret = !this.hasCrossReferences(new File(this.getLatexOutputDir(), name));
+            }
+            if (!ret)  {
+                break;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Checks if the auxiliary file <code>_file</code> includes lines with
+     * {@link #CROSS_REFERENCES cross reference entries}.
+     *
+     * @param _file     auxiliary file
+     * @return <i>true</i> if the auxiliary file includes cross references
+     * @throws IOException if the auxiliary file could not be read
+     */
+    protected boolean hasCrossReferences(final File _file)
+        throws IOException
+    {
+        boolean ret = false;
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(_file),
+                                                                               StandardCharsets.ISO_8859_1));
+        try  {
+            for (String line = reader.readLine(); (line != null) && !ret; line = reader.readLine())  {
+                for (final String prefix : MakePDF.CROSS_REFERENCES)  {
+                    if (line.startsWith(prefix))  {
+                        ret = true;
+                        break;
+                    }
+                }
+            }
+        } finally  {
+            reader.close();
+        }
+        return ret;
+    }
+
+    /**
+     * @return <i>true</i> if PDF latex writes directly into the directory of
+     *         the target file
+     * @see #latexOutputToTarget
+     */
+    protected boolean isLatexOutputToTarget()
+    {
+        return this.latexOutputToTarget && (this.wikiTargetFile != null);
+    }
+
+    /**
+     * @return directory where PDF latex writes the PDF and auxiliary files
+     * @see #isLatexOutputToTarget()
+     */
+    protected File getLatexOutputDir()
+    {
+        return this.isLatexOutputToTarget()
+                        ? this.wikiTargetFile.getAbsoluteFile().getParentFile()
+                        : this.tempDir;
+    }
+
+    /**
+     * @return job name of PDF latex (the name of the target file without
+     *         extension if PDF latex writes directly into the target
+     *         directory)
+     * @see #isLatexOutputToTarget()
+     */
+    protected String getLatexJobName()
+    {
+        String ret = MakePDF.JOBNAME;
+        if (this.isLatexOutputToTarget())  {
+            ret = this.wikiTargetFile.getName();
+            if (ret.toLowerCase().endsWith(".pdf"))  {
+                ret = ret.substring(0, ret.length() - 4);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Delivers the generated PDF file to the {@link #wikiTargetFile target
+     * file}. The PDF file is moved atomically if the target file is on the
+     * same file system. Otherwise the PDF file is copied (binary, with
+     * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)})
+     * into a temporary file within the target directory which is then renamed
+     * to the target file, so that the target file is never read partially.
+     *
+     * @param _pdf      generated PDF file
+     * @throws IOException if the PDF file could not be moved or copied
+     */
+    protected void deliverPDF(final File _pdf)
+        throws IOException
+    {
+        final Path source = _pdf.toPath().toAbsolutePath();
+        final Path target = this.wikiTargetFile.toPath().toAbsolutePath();
+        if (!source.equals(target))  {
+            try  {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e)  {
+                final Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+                try  {
+                    final FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                    try  {
+                        final FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE,
+                                                                 StandardOpenOption.TRUNCATE_EXISTING);
+                        try  {
+                            final long size = in.size();
+                            for (long pos = 0; pos < size; )  {
+                                pos += in.transferTo(pos, size - pos, out);
+                            }
+                        } finally  {
+                            out.close();
+                        }
+                    } finally  {
+                        in.close();
                     }
+                    try  {
+                        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    } catch (final AtomicMoveNotSupportedException e2)  {
+                        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } finally  {
+                    Files.deleteIfExists(tmp);
                 }
             }
         }
-        return (exitCode != null) && (exitCode == 0);
     }
 
     /**
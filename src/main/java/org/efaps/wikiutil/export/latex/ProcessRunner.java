@@ -0,0 +1,468 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.export.latex;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Executes an external process (e.g. <code>pdflatex</code>). The standard
+ * output and the error output of the process are drained by two own threads
+ * with bulk buffers, so that the process is never blocked by a full pipe.
+ * The output is written to the console and (if defined) to a log file. The
+ * runner waits for the end of the process with {@link Process#onExit()}; if
+ * the process does not end within the timeout, the process is killed.
+ * <p>
+ * After the end of the process the runner waits at maximum the
+ * {@link #setDrainTimeout(long, TimeUnit) drain timeout} for the remaining
+ * output. If a child process of the process still holds the output open, the
+ * drain threads continue to drain the output only to the console, so that the
+ * log file could be closed. In the same way the output is only drained to
+ * the console if the log file could not be written (e.g. because the disk is
+ * full): the process itself is not disturbed by a failed log file, the
+ * failure is only {@link #getLogFailure() recorded}.
+ * <p>
+ * The drain threads are platform daemon threads and not virtual threads,
+ * because virtual threads require Java 21 and the project is built for
+ * Java 17. Only two threads are started for each process which runs for
+ * seconds, so that the costs of the thread creation are not relevant.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class ProcessRunner
+{
+    /**
+     * Size of the buffer used to drain the output of the process.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Default of the {@link #drainTimeout} in milliseconds.
+     */
+    private static final long DEFAULT_DRAIN_TIMEOUT = 5000;
+
+    /**
+     * Command with all arguments.
+     */
+    private final List<String> command;
+
+    /**
+     * Working directory of the process.
+     */
+    private File directory;
+
+    /**
+     * Log file for the output of the process (or <code>null</code>).
+     *
+     * @see #setLogFile(File)
+     */
+    private File logFile;
+
+    /**
+     * Is the output appended to the {@link #logFile}?
+     *
+     * @see #setLogFile(File, boolean)
+     */
+    private boolean logAppend = true;
+
+    /**
+     * Timeout in milliseconds (zero or negative means no timeout).
+     *
+     * @see #setTimeout(long, TimeUnit)
+     */
+    private long timeout = 0;
+
+    /**
+     * Time in milliseconds to wait for the remaining output after the end of
+     * the process.
+     *
+     * @see #setDrainTimeout(long, TimeUnit)
+     */
+    private long drainTimeout = ProcessRunner.DEFAULT_DRAIN_TIMEOUT;
+
+    /**
+     * Charset of the output of the process.
+     */
+    private Charset charset = Charset.defaultCharset();
+
+    /**
+     * Wall time in milliseconds of the last run.
+     *
+     * @see #getWallTime()
+     */
+    private long wallTime;
+
+    /**
+     * Failure writing the log file in the last run (or <code>null</code>).
+     *
+     * @see #getLogFailure()
+     */
+    private IOException logFailure;
+
+    /**
+     * @param _command  command with all arguments
+     */
+    public ProcessRunner(final String... _command)
+    {
+        this.command = new ArrayList<String>();
+        for (final String arg : _command)  {
+            this.command.add(arg);
+        }
+    }
+
+    /**
+     * Defines the working directory of the process.
+     *
+     * @param _directory    working directory
+     * @return this instance
+     * @see #directory
+     */
+    public ProcessRunner setDirectory(final File _directory)
+    {
+        this.directory = _directory;
+        return this;
+    }
+
+    /**
+     * Defines the log file for the output of the process. The output is
+     * appended to the log file.
+     *
+     * @param _logFile  log file
+     * @return this instance
+     * @see #logFile
+     */
+    public ProcessRunner setLogFile(final File _logFile)
+    {
+        return this.setLogFile(_logFile, true);
+    }
+
+    /**
+     * Defines the log file for the output of the process.
+     *
+     * @param _logFile  log file
+     * @param _append   <i>true</i> if the output is appended to the log file;
+     *                  <i>false</i> if the log file is truncated
+     * @return this instance
+     * @see #logFile
+     * @see #logAppend
+     */
+    public ProcessRunner setLogFile(final File _logFile,
+                                    final boolean _append)
+    {
+        this.logFile = _logFile;
+        this.logAppend = _append;
+        return this;
+    }
+
+    /**
+     * Defines the timeout of the process.
+     *
+     * @param _timeout  timeout (zero means no timeout)
+     * @param _unit     time unit of the timeout
+     * @return this instance
+     * @see #timeout
+     */
+    public ProcessRunner setTimeout(final long _timeout,
+                                    final TimeUnit _unit)
+    {
+        this.timeout = _unit.toMillis(_timeout);
+        return this;
+    }
+
+    /**
+     * Defines the time to wait for the remaining output of the process after
+     * the end (or kill) of the process.
+     *
+     * @param _timeout  drain timeout
+     * @param _unit     time unit of the drain timeout
+     * @return this instance
+     * @see #drainTimeout
+     */
+    public ProcessRunner setDrainTimeout(final long _timeout,
+                                         final TimeUnit _unit)
+    {
+        this.drainTimeout = _unit.toMillis(_timeout);
+        return this;
+    }
+
+    /**
+     * Defines the charset of the output of the process.
+     *
+     * @param _charset  charset of the output
+     * @return this instance
+     * @see #charset
+     */
+    public ProcessRunner setCharset(final Charset _charset)
+    {
+        this.charset = _charset;
+        return this;
+    }
+
+    /**
+     * @return wall time in milliseconds of the last run
+     * @see #wallTime
+     */
+    public long getWallTime()
+    {
+        return this.wallTime;
+    }
+
+    /**
+     * Returns the failure writing the log file in the last run. If the log
+     * file could not be written, the output of the process is still drained
+     * to the console and the run itself does not fail.
+     *
+     * @return failure writing the log file (or <code>null</code> if the log
+     *         file was written)
+     * @see #logFailure
+     */
+    public IOException getLogFailure()
+    {
+        return this.logFailure;
+    }
+
+    /**
+     * Executes the process and waits until the process ends.
+     *
+     * @return exit code of the process
+     * @throws IOException if the process could not be started, the timeout
+     *                     was reached, the output of the process could not
+     *                     be drained or the log file could not be opened
+     * @see #getLogFailure()
+     */
+    public int run()
+        throws IOException
+    {
+        final long start = System.nanoTime();
+        this.logFailure = null;
+        final ProcessBuilder processBuilder = new ProcessBuilder(this.command);
+        if (this.directory != null)  {
+            processBuilder.directory(this.directory);
+        }
+        final Writer log = (this.logFile != null)
+                        ? new OutputStreamWriter(new FileOutputStream(this.logFile, this.logAppend),
+                                                 StandardCharsets.UTF_8)
+                        : null;
+        try  {
+            final Process process = processBuilder.start();
+            // no input, so that the process could not wait for an user input
+            process.getOutputStream().close();
+            final Drain outDrain = new Drain(process.getInputStream(), System.out, log, "stdout");
+            final Drain errDrain = new Drain(process.getErrorStream(), System.err, log, "stderr");
+            outDrain.start();
+            errDrain.start();
+            try  {
+                this.waitFor(process);
+            } finally  {
+                outDrain.finish();
+                errDrain.finish();
+            }
+            final IOException failure = (outDrain.failure != null) ? outDrain.failure : errDrain.failure;
+            if (failure != null)  {
+                throw new IOException("output of process " + this.command.get(0) + " could not be drained",
+                                failure);
+            }
+            this.logFailure = (outDrain.logFailure != null) ? outDrain.logFailure : errDrain.logFailure;
+            return process.exitValue();
+        } finally  {
+            if (log != null)  {
+                try  {
+                    log.close();
+                } catch (final IOException e)  {
+                    if (this.logFailure == null)  {
+                        this.logFailure = e;
+                    }
+                }
+            }
+            this.wallTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Waits for the end of the <code>_process</code>. If the
+     * {@link #timeout} is reached or the current thread is interrupted, the
+     * process is killed.
+     *
+     * @param _process  process to wait for
+     * @throws IOException if the timeout was reached, the current thread was
+     *                     interrupted or the wait failed
+     */
+    protected void waitFor(final Process _process)
+        throws IOException
+    {
+        try  {
+            if (this.timeout > 0)  {
+                _process.onExit().get(this.timeout, TimeUnit.MILLISECONDS);
+            } else  {
+                _process.onExit().get();
+            }
+        } catch (final TimeoutException e)  {
+            _process.destroyForcibly();
+            throw new IOException("process " + this.command.get(0) + " killed after timeout of "
+                            + this.timeout + " ms");
+        } catch (final InterruptedException e)  {
+            _process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("process " + this.command.get(0) + " interrupted");
+        } catch (final ExecutionException e)  {
+            throw new IOException("process " + this.command.get(0) + " failed", e.getCause());
+        }
+    }
+
+    /**
+     * Daemon thread which drains one stream of the process into the console
+     * and the log.
+     */
+    private final class Drain
+        extends Thread
+    {
+        /**
+         * Stream of the process.
+         */
+        private final InputStream in;
+
+        /**
+         * Console stream.
+         */
+        private final PrintStream console;
+
+        /**
+         * Log writer (or <code>null</code>); also used as lock because the
+         * log is shared by both drain threads.
+         */
+        private final Writer log;
+
+        /**
+         * Is the thread detached from the {@link #log}? Guarded by the lock
+         * of the log.
+         *
+         * @see #finish()
+         */
+        private boolean detached;
+
+        /**
+         * Failure if the stream could not be drained (or <code>null</code>).
+         */
+        private volatile IOException failure;
+
+        /**
+         * Failure if the {@link #log} could not be written (or
+         * <code>null</code>). Guarded by the lock of the log.
+         */
+        private IOException logFailure;
+
+        /**
+         * Initializes the drain thread.
+         *
+         * @param _in       stream of the process
+         * @param _console  console stream
+         * @param _log      log writer (or <code>null</code>)
+         * @param _name     name of the stream
+         */
+        private Drain(final InputStream _in,
+                      final PrintStream _console,
+                      final Writer _log,
+                      final String _name)
+        {
+            super(ProcessRunner.this.command.get(0) + "-" + _name);
+            this.in = _in;
+            this.console = _console;
+            this.log = _log;
+            this.setDaemon(true);
+        }
+
+        /**
+         * Drains the stream until the end of the stream. If the {@link #log}
+         * could not be written, the failure is recorded and the stream is
+         * further drained only to the console.
+         */
+        @Override
+        public void run()
+        {
+            final char[] buffer = new char[ProcessRunner.BUFFER_SIZE];
+            try  {
+                final Reader reader = new InputStreamReader(this.in, ProcessRunner.this.charset);
+                try  {
+                    for (int len = reader.read(buffer); len >= 0; len = reader.read(buffer))  {
+                        this.console.print(new String(buffer, 0, len));
+                        if (this.log != null)  {
+                            synchronized (this.log)  {
+                                if (!this.detached)  {
+                                    try  {
+                                        this.log.write(buffer, 0, len);
+                                    } catch (final IOException e)  {
+                                        this.logFailure = e;
+                                        this.detached = true;
+                                    }
+                                }
+                            }
+                        }
+                    }
+                } finally  {
+                    reader.close();
+                }
+            } catch (final IOException e)  {
+                this.failure = e;
+            }
+        }
+
+        /**
+         * Waits at maximum the {@link ProcessRunner#drainTimeout drain
+         * timeout} for the end of the stream and detaches this thread from
+         * the {@link #log}, so that the log could be closed. An interrupt of
+         * the current thread does not stop the wait, but is restored
+         * afterwards.
+         */
+        private void finish()
+        {
+            boolean interrupted = false;
+            final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ProcessRunner.this.drainTimeout);
+            for (long wait = ProcessRunner.this.drainTimeout;
+                            this.isAlive() && (wait > 0);
+                            wait = TimeUnit.NANOSECONDS.toMillis(end - System.nanoTime()))  {
+                try  {
+                    this.join(wait);
+                } catch (final InterruptedException e)  {
+                    interrupted = true;
+                }
+            }
+            if (interrupted)  {
+                Thread.currentThread().interrupt();
+            }
+            if (this.log != null)  {
+                synchronized (this.log)  {
+                    this.detached = true;
+                }
+            }
+        }
+    }
+}
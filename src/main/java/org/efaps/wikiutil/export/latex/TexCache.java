@@ -0,0 +1,315 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.export.latex;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * On-disk cache of converted Wiki pages. The key of a cache entry is the
+ * SHA-256 hash of the content of the Wiki page, the
+ * {@link WikiPage2Tex#RENDERER_VERSION renderer version}, the structure
+ * level and the title. Each cache entry is a directory with the generated
+ * Tex file, the copied images and a {@link #FILE_META meta file} with the
+ * convert time and the name of the cached Tex file.
+ * <p>
+ * The name of the Tex file (which depends on the position of the Wiki page
+ * within the index) is not part of the key, so that Wiki pages which are
+ * only moved within the index are still restored from the cache. Because the
+ * names of the images and tables start with the name of the Tex file, the
+ * restored files are renamed to the current Tex file and the references to
+ * the images and tables within the restored Tex file are renamed.
+ * <p>
+ * Images are referenced by the Wiki page with an URL and are not part of the
+ * key; if an image changes but the Wiki page not, the cache directory must be
+ * deleted.
+ * <p>
+ * The cache is thread-safe, so that it could be used while the pages of an
+ * index are converted in parallel.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class TexCache
+{
+    /**
+     * Name of the meta file within a cache entry.
+     */
+    private static final String FILE_META = "cache.meta";
+
+    /**
+     * Directory of the cache.
+     */
+    private final File cacheDir;
+
+    /**
+     * Number of converted Wiki pages found in the cache.
+     */
+    private final AtomicInteger hits = new AtomicInteger();
+
+    /**
+     * Number of converted Wiki pages not found in the cache.
+     */
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Sum of the convert times (in nanoseconds) of all Wiki pages found in
+     * the cache.
+     */
+    private final AtomicLong savedNanos = new AtomicLong();
+
+    /**
+     * @param _cacheDir     directory of the cache
+     */
+    public TexCache(final File _cacheDir)
+    {
+        this.cacheDir = _cacheDir;
+    }
+
+    /**
+     * Calculates the key of a converted Wiki page.
+     *
+     * @param _content          content of the Wiki page
+     * @param _structureLevel   level of the section
+     * @param _title            title of the Wiki page
+     * @return key of the converted Wiki page
+     */
+    public String key(final byte[] _content,
+                      final int _structureLevel,
+                      final String _title)
+    {
+        final MessageDigest digest;
+        try  {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e)  {
+            throw new IllegalStateException("SHA-256 not supported", e);
+        }
+        final String header = new StringBuilder()
+            .append(WikiPage2Tex.RENDERER_VERSION).append('\n')
+            .append(_structureLevel).append('\n')
+            .append(_title).append('\n')
+            .toString();
+        digest.update(header.getBytes(StandardCharsets.UTF_8));
+        digest.update(_content);
+        final StringBuilder ret = new StringBuilder();
+        for (final byte b : digest.digest())  {
+            ret.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return ret.toString();
+    }
+
+    /**
+     * Restores the converted Wiki page with <code>_key</code> as Tex file
+     * <code>_texOut</code>. If the cached Tex file has another name, the
+     * restored files and the references to the images and tables within the
+     * Tex file are renamed.
+     *
+     * @param _key      key of the converted Wiki page
+     * @param _texOut   Tex file to restore
+     * @return <i>true</i> if the converted Wiki page was found in the cache;
+     *         otherwise <i>false</i>
+     * @throws IOException if the cached files could not be copied
+     */
+    public boolean restore(final String _key,
+                           final File _texOut)
+        throws IOException
+    {
+        final File entryDir = new File(this.cacheDir, _key);
+        final File meta = new File(entryDir, TexCache.FILE_META);
+        final boolean ret = meta.isFile();
+        if (ret)  {
+            final long nanos;
+            final String texName;
+            final DataInputStream in = new DataInputStream(new FileInputStream(meta));
+            try  {
+                nanos = in.readLong();
+                texName = in.readUTF();
+            } finally  {
+                in.close();
+            }
+            final String oldPrefix = TexCache.prefix(texName);
+            final String newPrefix = TexCache.prefix(_texOut.getName());
+            final File targetDir = _texOut.getParentFile();
+            targetDir.mkdirs();
+            for (final File file : entryDir.listFiles())  {
+                final String name = file.getName();
+                if (texName.equals(name))  {
+                    TexCache.restoreTex(file, _texOut, oldPrefix, newPrefix);
+                } else if (!TexCache.FILE_META.equals(name))  {
+                    final String target = name.startsWith(oldPrefix)
+                                    ? newPrefix + name.substring(oldPrefix.length())
+                                    : name;
+                    Files.copy(file.toPath(), new File(targetDir, target).toPath(),
+                               StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            this.hits.incrementAndGet();
+            this.savedNanos.addAndGet(nanos);
+        } else  {
+            this.misses.incrementAndGet();
+        }
+        return ret;
+    }
+
+    /**
+     * Stores the generated Tex file <code>_texOut</code> and the copied
+     * <code>_images</code> of a converted Wiki page with <code>_key</code>.
+     * The cache entry is written into a temporary directory and then renamed,
+     * so that a cache entry is never read partially.
+     *
+     * @param _key      key of the converted Wiki page
+     * @param _texOut   generated Tex file
+     * @param _images   copied images
+     * @param _nanos    convert time in nanoseconds
+     * @throws IOException if the files could not be stored
+     */
+    public void store(final String _key,
+                      final File _texOut,
+                      final List<File> _images,
+                      final long _nanos)
+        throws IOException
+    {
+        final File entryDir = new File(this.cacheDir, _key);
+        if (!entryDir.exists())  {
+            this.cacheDir.mkdirs();
+            final File tmpDir = Files.createTempDirectory(this.cacheDir.toPath(), _key).toFile();
+            try  {
+                Files.copy(_texOut.toPath(), new File(tmpDir, _texOut.getName()).toPath());
+                for (final File file : _images)  {
+                    Files.copy(file.toPath(), new File(tmpDir, file.getName()).toPath());
+                }
+                final DataOutputStream out = new DataOutputStream(
+                                new FileOutputStream(new File(tmpDir, TexCache.FILE_META)));
+                try  {
+                    out.writeLong(_nanos);
+                    out.writeUTF(_texOut.getName());
+                } finally  {
+                    out.close();
+                }
+                try  {
+                    Files.move(tmpDir.toPath(), entryDir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                } catch (final AtomicMoveNotSupportedException e)  {
+                    Files.move(tmpDir.toPath(), entryDir.toPath());
+                }
+            } catch (final IOException e)  {
+                // another thread stored the same entry in the meantime
+                if (!entryDir.exists())  {
+                    throw e;
+                }
+            } finally  {
+                if (tmpDir.exists())  {
+                    FileUtils.deleteDirectory(tmpDir);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the prefix of the names of the images and tables for the Tex
+     * file <code>_texName</code>.
+     *
+     * @param _texName  name of the Tex file
+     * @return prefix of the image and table names
+     * @see WikiPage2Tex#getImage(java.net.URL)
+     * @see WikiPage2Tex#appendTable(Appendable, org.efaps.wikiutil.wom.element.table.Table)
+     */
+    private static String prefix(final String _texName)
+    {
+        return _texName.replace('.', '_');
+    }
+
+    /**
+     * Restores the cached Tex file <code>_cached</code> as
+     * <code>_texOut</code>. The references to images and tables are renamed
+     * from <code>_oldPrefix</code> to <code>_newPrefix</code>. The Tex file
+     * is handled as ISO-8859-1, so that the bytes of the Tex file are not
+     * changed independent of the encoding of the Tex file.
+     *
+     * @param _cached       cached Tex file
+     * @param _texOut       Tex file to restore
+     * @param _oldPrefix    prefix of the images and tables in the cached file
+     * @param _newPrefix    prefix of the images and tables in the restored
+     *                      file
+     * @throws IOException if the Tex file could not be copied
+     */
+    private static void restoreTex(final File _cached,
+                                   final File _texOut,
+                                   final String _oldPrefix,
+                                   final String _newPrefix)
+        throws IOException
+    {
+        if (_oldPrefix.equals(_newPrefix))  {
+            Files.copy(_cached.toPath(), _texOut.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } else  {
+            final String tex = new String(Files.readAllBytes(_cached.toPath()), StandardCharsets.ISO_8859_1);
+            Files.write(_texOut.toPath(),
+                        tex.replace("{" + _oldPrefix, "{" + _newPrefix).getBytes(StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    /**
+     * @return number of converted Wiki pages found in the cache
+     */
+    public int getHits()
+    {
+        return this.hits.get();
+    }
+
+    /**
+     * @return number of converted Wiki pages not found in the cache
+     */
+    public int getMisses()
+    {
+        return this.misses.get();
+    }
+
+    /**
+     * @return sum of the convert times in milliseconds of all Wiki pages
+     *         found in the cache
+     */
+    public long getTimeSaved()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(this.savedNanos.get());
+    }
+
+    /**
+     * @return statistics of the rebuild (hits, misses and saved time)
+     */
+    public String getStatistics()
+    {
+        return new StringBuilder()
+            .append("Tex cache: ").append(this.getHits()).append(" hits, ")
+            .append(this.getMisses()).append(" misses, ")
+            .append(this.getTimeSaved()).append(" ms saved")
+            .toString();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.export.latex;
+
+import java.io.IOException;
+
+/**
+ * Escapes all special characters of a text to a Latex text string. The text
+ * is scanned only once; all characters which must not be escaped are
+ * appended as one sequence. The replacements are defined in a table indexed
+ * by the character:
+ * <table>
+ * <tr><th>Character</th><th>Latex</th></tr>
+ * <tr><td><code>\</code></td><td><code>\textbackslash </code></td></tr>
+ * <tr><td><code>_ % &amp; #</code></td><td><code>\_ \% \&amp; \#</code></td></tr>
+ * <tr><td><code>^ ~</code></td><td><code>\^{} \~{}</code></td></tr>
+ * <tr><td>euro sign (U+20AC)</td><td><code>\euro</code></td></tr>
+ * <tr><td>minus sign (U+2212), non-breaking hyphen (U+2011)</td>
+ *     <td><code>-</code></td></tr>
+ * </table>
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public final class TexEscaper
+{
+    /**
+     * Replacements of the ASCII characters (<code>null</code> if the
+     * character must not be escaped).
+     */
+    private static final String[] ASCII = new String[128];
+    static  {
+        TexEscaper.ASCII['\\'] = "\\textbackslash ";
+        TexEscaper.ASCII['_'] = "\\_";
+        TexEscaper.ASCII['%'] = "\\%";
+        TexEscaper.ASCII['&'] = "\\&";
+        TexEscaper.ASCII['^'] = "\\^{}";
+        TexEscaper.ASCII['~'] = "\\~{}";
+        TexEscaper.ASCII['#'] = "\\#";
+    }
+
+    /**
+     * Constructor defined so that this utility class could not be initialized.
+     */
+    private TexEscaper()
+    {
+    }
+
+    /**
+     * Escapes given <code>_text</code> to a Latex text string.
+     *
+     * @param _text     text to escape
+     * @return escaped text
+     */
+    public static String escape(final CharSequence _text)
+    {
+        final StringBuilder ret = new StringBuilder(_text.length() + 16);
+        try  {
+            TexEscaper.escape(ret, _text);
+        } catch (final IOException e)  {
+            // could not be thrown from a string builder
+            throw new IllegalStateException(e);
+        }
+        return ret.toString();
+    }
+
+    /**
+     * Appends given <code>_text</code> escaped to <code>_out</code>.
+     *
+     * @param _out      appendable for the escaped text
+     * @param _text     text to escape
+     * @throws IOException if the escaped text could not be appended
+     */
+    public static void escape(final Appendable _out,
+                              final CharSequence _text)
+        throws IOException
+    {
+        final int length = _text.length();
+        int start = 0;
+        for (int idx = 0; idx < length; idx++)  {
+            final String replacement = TexEscaper.replacement(_text.charAt(idx));
+            if (replacement != null)  {
+                if (start < idx)  {
+                    _out.append(_text, start, idx);
+                }
+                _out.append(replacement);
+                start = idx + 1;
+            }
+        }
+        if (start < length)  {
+            _out.append(_text, start, length);
+        }
+    }
+
+    /**
+     * Returns the replacement for given <code>_char</code>.
+     *
+     * @param _char     character to escape
+     * @return replacement or <code>null</code> if the character must not be
+     *         escaped
+     */
+    private static String replacement(final char _char)
+    {
+        final String ret;
+        if (_char < TexEscaper.ASCII.length)  {
+            ret = TexEscaper.ASCII[_char];
+        } else  {
+            switch (_char)  {
+                case '\u20AC': // euro sign
+                    ret = "\\euro";
+                    break;
+                case '\u2212': // unicode minus
+                case '\u2011': // unicode non-breaking hyphen
+                    ret = "-";
+                    break;
+                default:
+                    ret = null;
+                    break;
+            }
+        }
+        return ret;
+    }
+}
@@ -16,19 +16,26 @@
 package org.efaps.wikiutil.export.latex;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.Writer;
-import java.net.MalformedURLException;
 import java.net.URI;
-import java.net.URISyntaxException;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 import org.efaps.wikiutil.parser.gwiki.GWikiParser;
 import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.source.IPageSource;
+import org.efaps.wikiutil.source.PageSourceFactory;
+import org.efaps.wikiutil.wom.AbstractWOMVisitor;
 import org.efaps.wikiutil.wom.WikiPage;
 import org.efaps.wikiutil.wom.element.AbstractLineElement;
 import org.efaps.wikiutil.wom.element.Paragraph;
@@ -36,12 +43,18 @@ import org.efaps.wikiutil.wom.element.list.AbstractListEntry;
 import org.efaps.wikiutil.wom.element.list.ListBulleted;
 import org.efaps.wikiutil.wom.element.list.ListEntry;
 import org.efaps.wikiutil.wom.element.list.ListNumbered;
-import org.efaps.wikiutil.wom.element.text.AbstractInternalLink;
+import org.efaps.wikiutil.wom.element.text.InternalLink;
 import org.efaps.wikiutil.wom.element.text.InternalLinkWithDescription;
 
 /**
  * Uses an index page with bulleted or numbered lists (and sub lists) and
  * converts all existing referenced Wiki pages to one big latex book file.
+ * The index is walked first and each linked Wiki page gets the ordinal of
+ * its {@link #OUT_FILENAME out} file. Afterwards the pages are converted,
+ * sequentially or (if a {@link #setParallelism(int) parallelism} greater than
+ * one or an {@link #setExecutor(ExecutorService) executor} is defined) in
+ * parallel. The order of the pages within the content file depends only on
+ * the index, not on the order in which the pages are converted.
  *
  * @author The eFaps Team
  * @version $Id$
@@ -49,21 +62,42 @@ import org.efaps.wikiutil.wom.element.text.InternalLinkWithDescription;
 public class WikiIndex2Tex
 {
     /**
-     * Name of the out file name (prefix, together with {@link #index}).
+     * Name of the out file name (prefix, together with the ordinal of the
+     * page).
      *
-     * @see #convert(int, ListEntry...)
+     * @see #collectPages(List, int, ListEntry...)
      */
     private static final String OUT_FILENAME = "out";
 
+    /**
+     * Visitor to find the bulleted or numbered list of the index.
+     *
+     * @see #WikiIndex2Tex(File, IPageSource, String, String)
+     */
+    private static final AbstractWOMVisitor<AbstractListEntry<?>, RuntimeException> INDEX_LIST
+        = new AbstractWOMVisitor<AbstractListEntry<?>, RuntimeException>() {
+            @Override
+            public AbstractListEntry<?> visitListBulleted(final ListBulleted _listBulleted)
+            {
+                return _listBulleted;
+            }
+
+            @Override
+            public AbstractListEntry<?> visitListNumbered(final ListNumbered _listNumbered)
+            {
+                return _listNumbered;
+            }
+        };
+
     /**
      * Temporary directory where the output files are written.
      */
     private final File tempDir;
 
     /**
-     * URL of the root directory where the wiki pages are located.
+     * Source from which the index page and all wiki pages are opened.
      */
-    private final URL root;
+    private final IPageSource source;
 
     /**
      * File extensions of the wiki pages (e.g. <code>.wiki</code>).
@@ -73,16 +107,31 @@ public class WikiIndex2Tex
     /**
      * List element of the Wiki page which defines the index.
      *
-     * @see #WikiIndex2Tex(URI)
+     * @see #WikiIndex2Tex(File, IPageSource, String, String)
      */
     private final AbstractListEntry<?> list;
 
     /**
-     * Current index number of the {@link #OUT_FILENAME out} file.
+     * Maximum number of Wiki pages which are converted at the same time.
+     *
+     * @see #setParallelism(int)
+     */
+    private int parallelism = 1;
+
+    /**
+     * Executor used to convert the Wiki pages. If not defined and the
+     * {@link #parallelism} is greater than one, a fixed thread pool is used.
+     *
+     * @see #setExecutor(ExecutorService)
+     */
+    private ExecutorService executor;
+
+    /**
+     * Cache of converted Wiki pages (or <code>null</code>).
      *
-     * @see #convert(int, ListEntry...)
+     * @see #setCache(TexCache)
      */
-    private int index = 0;
+    private TexCache cache;
 
     /**
      * @param _tempDir          directory of the temporary directory where the
@@ -99,16 +148,42 @@ public class WikiIndex2Tex
                          final String _wikiExtension,
                          final String _index)
         throws IOException, ParseException
+    {
+        this(_tempDir, PageSourceFactory.create(_root), _wikiExtension, _index);
+    }
+
+    /**
+     * @param _tempDir          directory of the temporary directory where the
+     *                          output files are written
+     * @param _source           source of the index and all Wiki pages
+     * @param _wikiExtension    extension of the Wiki files (including '.' if
+     *                          required!)
+     * @param _index            name of the index file
+     * @throws IOException      if <code>_index</code> could not be opened
+     * @throws ParseException   if index Wiki page could not be parsed
+     */
+    public WikiIndex2Tex(final File _tempDir,
+                         final IPageSource _source,
+                         final String _wikiExtension,
+                         final String _index)
+        throws IOException, ParseException
     {
         this.tempDir = _tempDir;
-        this.root = _root.toURL();
+        this.source = _source;
         this.wikiExtension = _wikiExtension;
-        final WikiPage page = GWikiParser.parse(new URL(this.root, _index + this.wikiExtension).openStream(), "UTF8");
+        final WikiPage page;
+        final InputStream in = this.source.open(_index + this.wikiExtension);
+        try  {
+            page = GWikiParser.parse(in, "UTF8");
+        } finally  {
+            in.close();
+        }
         AbstractListEntry<?> tmp = null;
         for (final Paragraph para : page.getParagraphs())  {
             for (final AbstractLineElement elem : para.getElements())  {
-                if ((elem instanceof ListBulleted) || (elem instanceof ListNumbered))  {
-                    tmp = (AbstractListEntry<?>) elem;
+                final AbstractListEntry<?> found = elem.accept(WikiIndex2Tex.INDEX_LIST);
+                if (found != null)  {
+                    tmp = found;
                     break;
                 }
             }
@@ -117,36 +192,130 @@ public class WikiIndex2Tex
     }
 
     /**
-     * Converts the Wiki pages to Tex files.
+     * Defines the maximum number of Wiki pages which are converted at the
+     * same time. A value of one (the default) converts the pages sequentially
+     * within the calling thread.
+     *
+     * @param _parallelism  maximum number of parallel converted pages
+     * @return this instance
+     * @see #parallelism
+     */
+    public WikiIndex2Tex setParallelism(final int _parallelism)
+    {
+        this.parallelism = _parallelism;
+        return this;
+    }
+
+    /**
+     * Defines the executor used to convert the Wiki pages (e.g. an executor
+     * with virtual threads). The executor is not shut down by this class.
+     * The number of pages submitted at the same time is still limited by the
+     * {@link #parallelism}.
+     *
+     * @param _executor     executor used to convert the Wiki pages
+     * @return this instance
+     * @see #executor
+     */
+    public WikiIndex2Tex setExecutor(final ExecutorService _executor)
+    {
+        this.executor = _executor;
+        return this;
+    }
+
+    /**
+     * Defines the cache of converted Wiki pages. Unchanged Wiki pages are
+     * restored from the cache instead of being parsed and converted.
+     *
+     * @param _cache    cache of converted Wiki pages
+     * @return this instance
+     * @see #cache
+     */
+    public WikiIndex2Tex setCache(final TexCache _cache)
+    {
+        this.cache = _cache;
+        return this;
+    }
+
+    /**
+     * Converts the Wiki pages to Tex files. Wiki pages which do not exist
+     * are not converted. If a Wiki page could not be converted, the content
+     * file is written anyway with all other converted Wiki pages and the
+     * failure is reported afterwards.
      *
      * @throws IOException if convert failed because files could not be opened
-     *                     or written
+     *                     or written or because Wiki pages could not be
+     *                     converted
      */
     public void convert()
         throws IOException
     {
-        this.convert(0, this.list.getEntries().toArray(new ListEntry[this.list.getEntries().size()]));
-        this.writeContentFile();
+        final List<Page> pages = new ArrayList<Page>();
+        this.collectPages(pages, 0, this.list.getEntries().toArray(new ListEntry[this.list.getEntries().size()]));
+        if ((this.executor == null) && (this.parallelism <= 1))  {
+            for (final Page page : pages)  {
+                this.convert(page);
+            }
+        } else  {
+            this.convertParallel(pages);
+        }
+        this.writeContentFile(pages);
+        this.checkFailures(pages);
+    }
+
+    /**
+     * Checks if Wiki pages could not be converted. The first failure is the
+     * cause of the thrown exception, all other failures are suppressed
+     * exceptions.
+     *
+     * @param _pages    all pages of the index
+     * @throws IOException if at least one Wiki page could not be converted
+     */
+    protected void checkFailures(final List<Page> _pages)
+        throws IOException
+    {
+        final List<String> links = new ArrayList<String>();
+        Exception cause = null;
+        final List<Exception> suppressed = new ArrayList<Exception>();
+        for (final Page page : _pages)  {
+            if (page.failure != null)  {
+                links.add(page.link);
+                if (cause == null)  {
+                    cause = page.failure;
+                } else  {
+                    suppressed.add(page.failure);
+                }
+            }
+        }
+        if (cause != null)  {
+            final IOException ex = new IOException("conversion of Wiki pages " + links + " failed", cause);
+            for (final Exception e : suppressed)  {
+                ex.addSuppressed(e);
+            }
+            throw ex;
+        }
     }
 
     /**
      * Writes the content file which includes all generated single converted
      * wiki pages.
      *
+     * @param _pages    all pages of the index in the order of the index
      * @throws IOException if content file could not be written
      */
-    protected void writeContentFile()
+    protected void writeContentFile(final List<Page> _pages)
         throws IOException
     {
         final File content = new File(this.tempDir, "content.tex");
         Writer outp = null;
         try  {
             outp = new FileWriter(content);
-            for (int idx = 0; idx < this.index; idx++)  {
-                outp.append("\\input{")
-                    .append(WikiIndex2Tex.OUT_FILENAME)
-                    .append(String.valueOf(idx))
-                    .append("}\n");
+            for (final Page page : _pages)  {
+                if (page.converted)  {
+                    outp.append("\\input{")
+                        .append(WikiIndex2Tex.OUT_FILENAME)
+                        .append(String.valueOf(page.ordinal))
+                        .append("}\n");
+                }
             }
         } finally  {
             if (outp != null)  {
@@ -156,63 +325,230 @@ public class WikiIndex2Tex
     }
 
     /**
+     * Walks through the index entries and collects all linked Wiki pages.
+     * Each page gets the next ordinal for the {@link #OUT_FILENAME out} file.
+     * No Wiki page is opened here.
      *
+     * @param _pages    list of collected pages
      * @param _level    level of the section
      * @param _entries  Wiki page entries to convert
-     * @throws MalformedURLException if URL of the file is not correct
      */
-    protected void convert(final int _level,
-                           final ListEntry... _entries)
-        throws MalformedURLException
+    protected void collectPages(final List<Page> _pages,
+                                final int _level,
+                                final ListEntry... _entries)
     {
         for (final ListEntry entry : _entries)  {
-            String link = null;
-            String title = null;
-            final List<ListEntry> subEntries = new ArrayList<ListEntry>();
+            final IndexEntry indexEntry = new IndexEntry();
             for (final Paragraph para : entry.getParagraphs())  {
                 for (final AbstractLineElement elem : para.getElements())  {
-                    if (elem instanceof AbstractInternalLink)  {
-                        link = ((AbstractInternalLink) elem).getLink();
-                        if (elem instanceof InternalLinkWithDescription)  {
-                            title = ((InternalLinkWithDescription) elem).getDescription();
-                        }
-                    } else if ((elem instanceof ListBulleted) || (elem instanceof ListNumbered))  {
-                        subEntries.addAll(((AbstractListEntry<?>) elem).getEntries());
-                    }
+                    elem.accept(indexEntry);
                 }
             }
-            System.out.println("convert " + link);
-// TODO: what to do if link is null?
-            if (link != null)  {
-                final URL url = new URL(this.root, link + this.wikiExtension);
-                boolean exists = false;
-                try {
-                    final InputStream in = url.openStream();
-                    in.close();
-                    exists = true;
-                } catch (final IOException e) {
-                    e.printStackTrace();
-                }
-                if (exists)  {
-                    final File file = new File(this.tempDir,
-                                               WikiIndex2Tex.OUT_FILENAME + (this.index++) + ".tex");
-                    try {
-                        new WikiPage2Tex(url.toURI(), file, _level, title).convert();
-                    } catch (final IOException e) {
-                        // TODO Auto-generated catch block
-                        e.printStackTrace();
-                    } catch (final ParseException e) {
-                        // TODO Auto-generated catch block
-                        e.printStackTrace();
-                    } catch (final URISyntaxException e) {
-                        // TODO Auto-generated catch block
-                        e.printStackTrace();
-                    }
+            // entries without link are not converted, but their sub entries
+            if (indexEntry.link != null)  {
+                _pages.add(new Page(_pages.size(), indexEntry.link, _level, indexEntry.title));
+            }
+            if (!indexEntry.subEntries.isEmpty())  {
+                this.collectPages(_pages, _level + 1,
+                                  indexEntry.subEntries.toArray(new ListEntry[indexEntry.subEntries.size()]));
+            }
+        }
+    }
+
+    /**
+     * Converts the <code>_pages</code> in parallel. At maximum
+     * {@link #parallelism} pages are converted at the same time.
+     *
+     * @param _pages    pages to convert
+     * @throws IOException if the conversion was interrupted or failed
+     */
+    protected void convertParallel(final List<Page> _pages)
+        throws IOException
+    {
+        final int permits = Math.max(1, this.parallelism);
+        final ExecutorService exec = (this.executor != null)
+                        ? this.executor
+                        : Executors.newFixedThreadPool(permits);
+        final Semaphore semaphore = new Semaphore(permits);
+        final List<Future<?>> futures = new ArrayList<Future<?>>(_pages.size());
+        try  {
+            for (final Page page : _pages)  {
+                semaphore.acquire();
+                try  {
+                    futures.add(exec.submit(() -> {
+                        try  {
+                            this.convert(page);
+                        } finally  {
+                            semaphore.release();
+                        }
+                    }));
+                } catch (final RuntimeException e)  {
+                    semaphore.release();
+                    throw e;
                 }
             }
-            if (!subEntries.isEmpty())  {
-                this.convert(_level + 1, subEntries.toArray(new ListEntry[subEntries.size()]));
+            for (final Future<?> future : futures)  {
+                future.get();
+            }
+        } catch (final InterruptedException e)  {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("conversion of the Wiki pages interrupted");
+        } catch (final ExecutionException e)  {
+            throw new IOException("conversion of the Wiki pages failed", e.getCause());
+        } finally  {
+            if (exec != this.executor)  {
+                exec.shutdownNow();
             }
         }
     }
+
+    /**
+     * Converts one Wiki <code>_page</code> to its Tex file. The Wiki page is
+     * opened only once from the {@link #source}; if the Wiki page does not
+     * exist, nothing is converted. If the Wiki page could not be converted,
+     * the failure is stored in the page and reported by {@link #convert()}
+     * after all pages are converted.
+     *
+     * @param _page     page to convert
+     */
+    protected void convert(final Page _page)
+    {
+        final File file = new File(this.tempDir, WikiIndex2Tex.OUT_FILENAME + _page.ordinal + ".tex");
+        try  {
+            new WikiPage2Tex(this.source, _page.link + this.wikiExtension, file, _page.level, _page.title)
+                .setCache(this.cache)
+                .convert();
+            _page.converted = true;
+        } catch (final FileNotFoundException e)  {
+            // Wiki pages of the index which do not exist are not converted
+            // (all other not found files are thrown as IOException)
+        } catch (final IOException e)  {
+            _page.failure = e;
+        } catch (final ParseException e)  {
+            _page.failure = e;
+        }
+    }
+
+    /**
+     * Wiki page linked from the index.
+     */
+    protected static final class Page
+    {
+        /**
+         * Ordinal of the {@link WikiIndex2Tex#OUT_FILENAME out} file.
+         */
+        private final int ordinal;
+
+        /**
+         * Link of the page within the index.
+         */
+        private final String link;
+
+        /**
+         * Level of the section.
+         */
+        private final int level;
+
+        /**
+         * Title of the Wiki page (or <code>null</code>).
+         */
+        private final String title;
+
+        /**
+         * Was the Wiki page converted? Written by the converting thread and
+         * read after all conversions are finished.
+         */
+        private volatile boolean converted;
+
+        /**
+         * Failure if the Wiki page could not be converted (or
+         * <code>null</code>). Written by the converting thread and read after
+         * all conversions are finished.
+         */
+        private volatile Exception failure;
+
+        /**
+         * @param _ordinal  ordinal of the out file
+         * @param _link     link within the index
+         * @param _level    level of the section
+         * @param _title    title of the Wiki page
+         */
+        private Page(final int _ordinal,
+                     final String _link,
+                     final int _level,
+                     final String _title)
+        {
+            this.ordinal = _ordinal;
+            this.link = _link;
+            this.level = _level;
+            this.title = _title;
+        }
+    }
+
+    /**
+     * Visitor for the line elements of one entry of the index. The link
+     * (and the description of the link as title) of the Wiki page and the
+     * entries of sub lists are collected.
+     *
+     * @see WikiIndex2Tex#collectPages(List, int, ListEntry...)
+     */
+    private static final class IndexEntry
+        extends AbstractWOMVisitor<Void, RuntimeException>
+    {
+        /**
+         * Link of the Wiki page (or <code>null</code>).
+         */
+        private String link;
+
+        /**
+         * Title of the Wiki page (or <code>null</code>).
+         */
+        private String title;
+
+        /**
+         * Entries of all sub lists.
+         */
+        private final List<ListEntry> subEntries = new ArrayList<ListEntry>();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitInternalLink(final InternalLink _internalLink)
+        {
+            this.link = _internalLink.getLink();
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitInternalLinkWithDescription(final InternalLinkWithDescription _internalLink)
+        {
+            this.link = _internalLink.getLink();
+            this.title = _internalLink.getDescription();
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitListBulleted(final ListBulleted _listBulleted)
+        {
+            this.subEntries.addAll(_listBulleted.getEntries());
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitListNumbered(final ListNumbered _listNumbered)
+        {
+            this.subEntries.addAll(_listNumbered.getEntries());
+            return null;
+        }
+    }
 }
@@ -15,19 +15,27 @@
  */
 package org.efaps.wikiutil.export.latex;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.commons.io.IOUtils;
 import org.efaps.wikiutil.parser.gwiki.GWikiParser;
 import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.source.IPageSource;
+import org.efaps.wikiutil.source.URLPageSource;
+import org.efaps.wikiutil.wom.AbstractWOMVisitor;
 import org.efaps.wikiutil.wom.WikiPage;
 import org.efaps.wikiutil.wom.element.AbstractLineElement;
 import org.efaps.wikiutil.wom.element.AbstractParagraphList;
@@ -58,6 +66,12 @@ import org.efaps.wikiutil.wom.element.text.TypefaceItalic;
  */
 public class WikiPage2Tex
 {
+    /**
+     * Version of the renderer. Must be changed if the generated Tex output
+     * changes, so that all {@link TexCache cached} pages are converted again.
+     */
+    public static final String RENDERER_VERSION = "1";
+
     /**
      * Levels of the sections.
      */
@@ -86,9 +100,14 @@ public class WikiPage2Tex
     private static final String PREFIX_IMAGE = "IMAGE";
 
     /**
-     * URL of the wiki file to convert.
+     * Source from which the Wiki page is opened.
      */
-    private final URL url;
+    private final IPageSource source;
+
+    /**
+     * Name of the Wiki page within the {@link #source}.
+     */
+    private final String pageName;
 
     /**
      * Output file. Uses also to generate the image file names.
@@ -119,6 +138,27 @@ public class WikiPage2Tex
      */
     private final String title;
 
+    /**
+     * Cache of converted Wiki pages (or <code>null</code>).
+     *
+     * @see #setCache(TexCache)
+     */
+    private TexCache cache;
+
+    /**
+     * Images copied by {@link #getImage(URL)}.
+     */
+    private final List<File> images = new ArrayList<File>();
+
+    /**
+     * Visitor for the line elements of the current Latex file (or
+     * <code>null</code>). The visitor is reused for all line elements
+     * appended to the same appendable instance.
+     *
+     * @see #appendLineElement(Appendable, AbstractLineElement)
+     */
+    private LineElement2Tex lineElement2Tex;
+
     /**
      * @param _uri              URI of the input file
      * @param _out              output file
@@ -133,29 +173,89 @@ public class WikiPage2Tex
                         final String _title)
         throws MalformedURLException
     {
-        this.url = _uri.toURL();
+        this(new URLPageSource(_uri.toURL()), "", _out, _structureLevel, _title);
+    }
+
+    /**
+     * @param _source           source of the Wiki page
+     * @param _pageName         name of the Wiki page within the source
+     * @param _out              output file
+     * @param _structureLevel   current level of the section
+     * @param _title            title of the Wiki page
+     */
+    public WikiPage2Tex(final IPageSource _source,
+                        final String _pageName,
+                        final File _out,
+                        final int _structureLevel,
+                        final String _title)
+    {
+        this.source = _source;
+        this.pageName = _pageName;
         this.texOut = _out;
         this.structureLevel = _structureLevel;
         this.title = _title;
     }
 
     /**
+     * Defines the cache of converted Wiki pages.
      *
+     * @param _cache    cache of converted Wiki pages
+     * @return this instance
+     * @see #cache
+     */
+    public WikiPage2Tex setCache(final TexCache _cache)
+    {
+        this.cache = _cache;
+        return this;
+    }
+
+    /**
+     * Opens the Wiki page from the {@link #source} (only once) and converts
+     * the Wiki page to the {@link #texOut Latex file}. The Latex file is only
+     * written if the Wiki page could be opened. If a {@link #cache} is
+     * defined and the Wiki page is not changed, the Latex file and images
+     * are restored from the cache without parsing the Wiki page.
+     *
+     * @throws FileNotFoundException if the Wiki page does not exist
      * @throws IOException              if <code>_out</code> or <code>_in</code>
      *                                  could not be opened or not written
+     *                                  (also if a file, e.g. the Latex file
+     *                                  or an image, was not found)
      * @throws ParseException           if Wiki page defined with
      *                                  <code>_in</code> could not be parsed
      */
     public void convert()
         throws IOException, ParseException
     {
-        this.texOut.getParentFile().mkdirs();
-        final WikiPage page = GWikiParser.parse(this.url.openStream(), "UTF8");
-        final Writer out = new FileWriter(this.texOut);
+        final long start = System.nanoTime();
+        final byte[] content;
+        final InputStream in = this.source.open(this.pageName);
         try  {
-            this.convert(out, page);
+            content = IOUtils.toByteArray(in);
         } finally  {
-            out.close();
+            in.close();
+        }
+        try  {
+            String key = null;
+            if (this.cache != null)  {
+                key = this.cache.key(content, this.structureLevel, this.title);
+            }
+            if ((key == null) || !this.cache.restore(key, this.texOut))  {
+                final WikiPage page = GWikiParser.parse(new ByteArrayInputStream(content), "UTF8");
+                this.texOut.getParentFile().mkdirs();
+                final Writer out = new FileWriter(this.texOut);
+                try  {
+                    this.convert(out, page);
+                } finally  {
+                    out.close();
+                }
+                if (key != null)  {
+                    this.cache.store(key, this.texOut, this.images, System.nanoTime() - start);
+                }
+            }
+        } catch (final FileNotFoundException e)  {
+            // only a missing Wiki page is reported as not found file
+            throw new IOException("Wiki page " + this.pageName + " could not be converted to " + this.texOut, e);
         }
     }
 
@@ -176,9 +276,9 @@ public class WikiPage2Tex
                 title = ((Summary) prop).getValue();
             }
         }*/
-        _out.append(WikiPage2Tex.STRUCTURE[this.structureLevel]).append("{")
-            .append(this.escape(this.title))
-            .append("}\n");
+        _out.append(WikiPage2Tex.STRUCTURE[this.structureLevel]).append("{");
+        this.escape(_out, this.title);
+        _out.append("}\n");
 
         this.appendParagraph(_out, _page);
         for (final Section section : _page.getSubSections())  {
@@ -231,6 +331,9 @@ public class WikiPage2Tex
     }
 
     /**
+     * Appends the Latex code of the line element to <code>_out</code>. The
+     * line element is converted by a {@link LineElement2Tex visitor} which
+     * is only created once for each appendable instance.
      *
      * @param _out      appendable instance to the Latex file
      * @param _element  line element of a paragraph to append
@@ -240,63 +343,10 @@ public class WikiPage2Tex
                                      final AbstractLineElement _element)
         throws IOException
     {
-        if (_element instanceof ExternalLink)  {
-            _out.append("\\url{")
-                .append(((ExternalLink) _element).getURL().toExternalForm())
-                .append("}");
-        } else  if (_element instanceof ExternalLinkWithDescription)  {
-            _out.append("\\href{")
-                .append(((ExternalLinkWithDescription) _element).getURL().toExternalForm())
-                .append("}{")
-                .append(this.escape(((ExternalLinkWithDescription) _element).getDescription()))
-                .append("}");
-        } else if (_element instanceof ListBulleted)  {
-            _out.append("\\begin{itemize}\n");
-            for (final ListEntry entry : ((ListBulleted) _element).getEntries())  {
-                _out.append("\\item {");
-                this.appendParagraph(_out, entry);
-                _out.append("}\n");
-            }
-            _out.append("\\end{itemize}\n");
-        } else if (_element instanceof Image)  {
-            _out.append(" \\includegraphics[width=\\textwidth]{")
-                .append(this.getImage(((Image) _element).getURL()))
-                .append("} ");
-        } else if (_element instanceof InternalLink)  {
-            _out.append(this.escape(((InternalLink) _element).getLink()));
-        } else if (_element instanceof InternalLinkWithDescription)  {
-            _out.append(this.escape(((InternalLinkWithDescription) _element).getDescription()));
-        } else if (_element instanceof NewLine)  {
-            _out.append(" \\newline ");
-        } else if (_element instanceof Preformat)  {
-            _out.append("\n\\begin{lstlisting}\n")
-                .append(((Preformat) _element).getCode())
-                .append("\n\\end{lstlisting}\n");
-        } else if (_element instanceof Table)  {
-            this.appendTable(_out, (Table) _element);
-        } else if (_element instanceof TextString)  {
-            _out.append(this.escape(((TextString) _element).getText()));
-        } else if (_element instanceof TypefaceBold)  {
-            _out.append("{\\bfseries ");
-            for (final AbstractLineElement element : ((TypefaceBold) _element).getElements())  {
-                this.appendLineElement(_out, element);
-            }
-            _out.append("}");
-        } else if (_element instanceof TypefaceItalic)  {
-            _out.append("{\\it ");
-            for (final AbstractLineElement element : ((TypefaceItalic) _element).getElements())  {
-                this.appendLineElement(_out, element);
-            }
-            _out.append("}");
-        } else if (_element instanceof TypefaceCode)  {
-            _out.append("{\\tt ");
-            for (final AbstractLineElement element : ((TypefaceCode) _element).getElements())  {
-                this.appendLineElement(_out, element);
-            }
-            _out.append("}");
-        } else  {
-            System.err.println("unknown class " + _element);
+        if ((this.lineElement2Tex == null) || (this.lineElement2Tex.out != _out))  {
+            this.lineElement2Tex = new LineElement2Tex(_out);
         }
+        _element.accept(this.lineElement2Tex);
     }
 
     /**
@@ -377,6 +427,7 @@ public class WikiPage2Tex
         } finally  {
             out.close();
         }
+        this.images.add(imgFile);
         return imgFile.getName();
     }
 
@@ -386,19 +437,242 @@ public class WikiPage2Tex
      *
      * @param _text text to escape
      * @return escaped text
+     * @see TexEscaper#escape(CharSequence)
+     * @deprecated this method is no longer called by the converter; all
+     *             texts are escaped with {@link #escape(Appendable, CharSequence)}
+     *             which must be overwritten instead
      */
+    @Deprecated
     protected String escape(final String _text)
     {
-        return _text
-                .replaceAll("\\\\", "\\\\textbackslash ")
-                .replaceAll("_", "\\\\_")
-                .replaceAll("%", "\\\\%")
-                .replaceAll("&", "\\\\&")
-                .replaceAll("\\^", "\\\\^{}")
-                .replaceAll("~", "\\\\~{}")
-                .replaceAll("#", "\\\\#")
-                .replaceAll("\\u20AC", "\\\\euro") // euro sign
-                .replaceAll("\\u2212", "-")        // unicode  minus
-                .replaceAll("\\u2011", "-");        // unicode???
+        return TexEscaper.escape(_text);
+    }
+
+    /**
+     * Appends given <code>_text</code> escaped to a Latex text string to
+     * <code>_out</code>. All texts of the Wiki page (title, texts and link
+     * descriptions) are escaped with this method, so that a derived class
+     * overwrites this method to change the escaping.
+     *
+     * @param _out  appendable instance to the Latex file
+     * @param _text text to escape
+     * @throws IOException if write failed
+     * @see TexEscaper#escape(Appendable, CharSequence)
+     */
+    protected void escape(final Appendable _out,
+                          final CharSequence _text)
+        throws IOException
+    {
+        TexEscaper.escape(_out, _text);
+    }
+
+    /**
+     * Visitor to append the Latex code of one line element (and of the
+     * elements within the line element) to the Latex file.
+     */
+    private final class LineElement2Tex
+        extends AbstractWOMVisitor<Void, IOException>
+    {
+        /**
+         * Appendable instance to the Latex file.
+         */
+        private final Appendable out;
+
+        /**
+         * Initializes the visitor.
+         *
+         * @param _out  appendable instance to the Latex file
+         */
+        private LineElement2Tex(final Appendable _out)
+        {
+            this.out = _out;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitExternalLink(final ExternalLink _externalLink)
+            throws IOException
+        {
+            this.out.append("\\url{").append(_externalLink.getURL().toExternalForm()).append("}");
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitExternalLinkWithDescription(final ExternalLinkWithDescription _externalLink)
+            throws IOException
+        {
+            this.out.append("\\href{").append(_externalLink.getURL().toExternalForm()).append("}{");
+            WikiPage2Tex.this.escape(this.out, _externalLink.getDescription());
+            this.out.append("}");
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitListBulleted(final ListBulleted _listBulleted)
+            throws IOException
+        {
+            this.out.append("\\begin{itemize}\n");
+            for (final ListEntry entry : _listBulleted.getEntries())  {
+                this.out.append("\\item {");
+                WikiPage2Tex.this.appendParagraph(this.out, entry);
+                this.out.append("}\n");
+            }
+            this.out.append("\\end{itemize}\n");
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitImage(final Image _image)
+            throws IOException
+        {
+            this.out.append(" \\includegraphics[width=\\textwidth]{")
+                .append(WikiPage2Tex.this.getImage(_image.getURL()))
+                .append("} ");
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitInternalLink(final InternalLink _internalLink)
+            throws IOException
+        {
+            WikiPage2Tex.this.escape(this.out, _internalLink.getLink());
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitInternalLinkWithDescription(final InternalLinkWithDescription _internalLink)
+            throws IOException
+        {
+            WikiPage2Tex.this.escape(this.out, _internalLink.getDescription());
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitNewLine(final NewLine _newLine)
+            throws IOException
+        {
+            this.out.append(" \\newline ");
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitPreformat(final Preformat _preformat)
+            throws IOException
+        {
+            this.out.append("\n\\begin{lstlisting}\n")
+                .append(_preformat.getCode())
+                .append("\n\\end{lstlisting}\n");
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitTable(final Table _table)
+            throws IOException
+        {
+            WikiPage2Tex.this.appendTable(this.out, _table);
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitTextString(final TextString _textString)
+            throws IOException
+        {
+            WikiPage2Tex.this.escape(this.out, _textString.getText());
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitTypefaceBold(final TypefaceBold _typefaceBold)
+            throws IOException
+        {
+            this.appendTypeface("{\\bfseries ", _typefaceBold.getElements());
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitTypefaceItalic(final TypefaceItalic _typefaceItalic)
+            throws IOException
+        {
+            this.appendTypeface("{\\it ", _typefaceItalic.getElements());
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitTypefaceCode(final TypefaceCode _typefaceCode)
+            throws IOException
+        {
+            this.appendTypeface("{\\tt ", _typefaceCode.getElements());
+            return null;
+        }
+
+        /**
+         * Line elements without Latex conversion are reported.
+         *
+         * @param _element  unknown line element
+         * @return always <code>null</code>
+         */
+        @Override
+        public Void visitLineElement(final AbstractLineElement _element)
+        {
+            System.err.println("unknown class " + _element);
+            return null;
+        }
+
+        /**
+         * Appends the Latex group for a type face with all
+         * <code>_elements</code> of the type face.
+         *
+         * @param _start    start of the Latex group
+         * @param _elements line elements of the type face
+         * @throws IOException if write failed
+         */
+        private void appendTypeface(final String _start,
+                                    final List<AbstractLineElement> _elements)
+            throws IOException
+        {
+            this.out.append(_start);
+            for (final AbstractLineElement element : _elements)  {
+                WikiPage2Tex.this.appendLineElement(this.out, element);
+            }
+            this.out.append("}");
+        }
     }
 }
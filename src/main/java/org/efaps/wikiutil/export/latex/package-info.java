@@ -33,5 +33,7 @@
  *     .variable("WikiPDFKeywords",    "eFaps,Manual,Overview")
  *     .execute();
  * </pre>
+ * Instead of the root URI, a {@link org.efaps.wikiutil.source.IPageSource}
+ * could be defined with <code>setPageSource(...)</code>.
  */
 package org.efaps.wikiutil.export.latex;
@@ -0,0 +1,409 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.parser.gwiki;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+import org.efaps.wikiutil.parser.gwiki.javacc.SimpleCharStream;
+
+/**
+ * Character stream for the token manager of the Wiki parser on characters
+ * which are completely in memory (e.g. a decoded file). In difference to the
+ * {@link SimpleCharStream}, the characters are not copied into a ring buffer
+ * and are read directly from the given characters. Token images are created
+ * directly from the characters.
+ * <p>
+ * Lines and columns are counted like in the {@link SimpleCharStream}
+ * (<code>\r\n</code>, <code>\r</code> and <code>\n</code> end a line, tabs
+ * are expanded to the {@link #tabSize}), so that both streams report the same
+ * positions. The columns are evaluated from the positions of the characters;
+ * only lines with tabs must be scanned for that.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class CharBufferStream
+    extends SimpleCharStream
+{
+    /**
+     * Characters of the stream.
+     */
+    private final char[] chars;
+
+    /**
+     * Offset of the first character within {@link #chars}.
+     */
+    private final int offset;
+
+    /**
+     * Number of characters of the stream.
+     */
+    private final int length;
+
+    /**
+     * Position of the last read character (relative to {@link #offset}).
+     */
+    private int position = -1;
+
+    /**
+     * Position of the first character of the current token.
+     */
+    private int begin;
+
+    /**
+     * Highest position for which the {@link #lineStarts} are evaluated.
+     */
+    private int scanned = -1;
+
+    /**
+     * Positions of the first characters of the lines (up to the
+     * {@link #scanned} position).
+     */
+    private int[] lineStarts = new int[64];
+
+    /**
+     * Number of evaluated {@link #lineStarts}.
+     */
+    private int lineCount = 1;
+
+    /**
+     * Positions of the first tab of the lines with the same index in the
+     * {@link #lineStarts} (or {@link Integer#MAX_VALUE} if the line has no
+     * tab).
+     */
+    private int[] lineTabs = new int[64];
+
+    /**
+     * Index of the line for which the column of the character at
+     * {@link #columnPosition} is cached in {@link #columnValue} (only used
+     * for lines with tabs).
+     */
+    private int columnLine = -1;
+
+    /**
+     * Position of the character with the cached column.
+     *
+     * @see #columnLine
+     */
+    private int columnPosition;
+
+    /**
+     * Cached column (without adjustment).
+     *
+     * @see #columnLine
+     */
+    private int columnValue;
+
+    /**
+     * Position from which the lines and columns are adjusted (see
+     * {@link #adjustBeginLineColumn(int, int)}).
+     */
+    private int adjustPosition = Integer.MAX_VALUE;
+
+    /**
+     * Index of the line with the {@link #adjustPosition}; only the columns of
+     * this line are adjusted.
+     */
+    private int adjustLineIndex;
+
+    /**
+     * Difference of the adjusted lines.
+     */
+    private int lineShift;
+
+    /**
+     * Difference of the adjusted columns.
+     */
+    private int columnShift;
+
+    /**
+     * Initializes the stream with the remaining characters of
+     * <code>_buffer</code>. The position of <code>_buffer</code> is not
+     * changed. If the buffer is backed by an array, the array is used
+     * directly; otherwise the characters are copied once.
+     *
+     * @param _buffer   buffer with the characters
+     */
+    public CharBufferStream(final CharBuffer _buffer)
+    {
+        // no reader is needed and the buffers of the super class are empty
+        super((Reader) null, 1, 1, 0);
+        this.length = _buffer.remaining();
+        if (_buffer.hasArray())  {
+            this.chars = _buffer.array();
+            this.offset = _buffer.arrayOffset() + _buffer.position();
+        } else  {
+            this.chars = new char[this.length];
+            _buffer.duplicate().get(this.chars);
+            this.offset = 0;
+        }
+        this.lineTabs[0] = Integer.MAX_VALUE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char BeginToken()
+        throws IOException
+    {
+        if (this.position + 1 >= this.length)  {
+            this.begin = Math.max(this.position, 0);
+            throw new IOException();
+        }
+        final char ret = this.readChar();
+        this.begin = this.position;
+        return ret;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char readChar()
+        throws IOException
+    {
+        if (this.position + 1 >= this.length)  {
+            throw new IOException();
+        }
+        final char ret = this.chars[this.offset + ++this.position];
+        if (this.position > this.scanned)  {
+            this.scanned = this.position;
+            if ((ret == '\n')
+                    || ((ret == '\r')
+                            && ((this.position + 1 >= this.length)
+                                    || (this.chars[this.offset + this.position + 1] != '\n'))))  {
+                this.addLineStart(this.position + 1);
+            } else if ((ret == '\t') && (this.lineTabs[this.lineCount - 1] == Integer.MAX_VALUE))  {
+                this.lineTabs[this.lineCount - 1] = this.position;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void backup(final int _amount)
+    {
+        this.position -= _amount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String GetImage()
+    {
+        return new String(this.chars, this.offset + this.begin, this.position - this.begin + 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char[] GetSuffix(final int _len)
+    {
+        final char[] ret = new char[_len];
+        System.arraycopy(this.chars, this.offset + this.position - _len + 1, ret, 0, _len);
+        return ret;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getBeginLine()
+    {
+        return this.line(this.begin);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getBeginColumn()
+    {
+        return this.column(this.begin);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getEndLine()
+    {
+        return this.line(this.position);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getEndColumn()
+    {
+        return this.column(this.position);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Deprecated
+    public int getLine()
+    {
+        return this.getEndLine();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Deprecated
+    public int getColumn()
+    {
+        return this.getEndColumn();
+    }
+
+    /**
+     * Adjusts the line and column of the begin of the current token like the
+     * {@link SimpleCharStream}: the first line of the token gets line
+     * <code>_newLine</code> and the token begins at column
+     * <code>_newCol</code>. All following characters are moved accordingly
+     * (following lines are renumbered, the columns of the following lines are
+     * not changed). Adjustments of characters before the current token are
+     * not kept.
+     *
+     * @param _newLine  new line of the token begin
+     * @param _newCol   new column of the token begin
+     */
+    @Override
+    public void adjustBeginLineColumn(final int _newLine,
+                                      final int _newCol)
+    {
+        this.adjustPosition = Integer.MAX_VALUE;
+        this.adjustLineIndex = this.lineIndex(this.begin);
+        this.lineShift = _newLine - this.adjustLineIndex - 1;
+        this.columnShift = _newCol - this.column(this.begin);
+        this.adjustPosition = this.begin;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void Done()
+    {
+    }
+
+    /**
+     * Appends the position <code>_start</code> to the {@link #lineStarts}.
+     *
+     * @param _start    position of the first character of a new line
+     */
+    private void addLineStart(final int _start)
+    {
+        if (this.lineCount == this.lineStarts.length)  {
+            final int[] tmp = new int[this.lineStarts.length * 2];
+            System.arraycopy(this.lineStarts, 0, tmp, 0, this.lineCount);
+            this.lineStarts = tmp;
+            final int[] tabs = new int[this.lineTabs.length * 2];
+            System.arraycopy(this.lineTabs, 0, tabs, 0, this.lineCount);
+            this.lineTabs = tabs;
+        }
+        this.lineTabs[this.lineCount] = Integer.MAX_VALUE;
+        this.lineStarts[this.lineCount++] = _start;
+    }
+
+    /**
+     * Returns the line of the character at <code>_position</code>.
+     *
+     * @param _position     position of the character
+     * @return line (starting with 1)
+     */
+    private int line(final int _position)
+    {
+        final int ret = this.lineIndex(_position) + 1;
+        return (_position >= this.adjustPosition) ? ret + this.lineShift : ret;
+    }
+
+    /**
+     * Returns the column of the character at <code>_position</code>. Tabs
+     * are expanded like in {@link SimpleCharStream#UpdateLineColumn(char)}.
+     * Because the columns are evaluated for increasing positions, the column
+     * of the last evaluated position of a line with tabs is cached.
+     *
+     * @param _position     position of the character
+     * @return column (starting with 1)
+     */
+    private int column(final int _position)
+    {
+        final int index = this.lineIndex(_position);
+        int ret;
+        if (this.lineTabs[index] > _position)  {
+            ret = _position - this.lineStarts[index] + 1;
+        } else  {
+            int pos;
+            if ((index == this.columnLine) && (this.columnPosition <= _position))  {
+                pos = this.columnPosition;
+                ret = this.columnValue;
+            } else  {
+                pos = this.lineTabs[index] - 1;
+                ret = this.lineTabs[index] - this.lineStarts[index];
+            }
+            while (pos < _position)  {
+                pos++;
+                if (this.chars[this.offset + pos] == '\t')  {
+                    ret += this.tabSize - (ret % this.tabSize);
+                } else  {
+                    ret++;
+                }
+            }
+            this.columnLine = index;
+            this.columnPosition = _position;
+            this.columnValue = ret;
+        }
+        if ((_position >= this.adjustPosition) && (index == this.adjustLineIndex))  {
+            ret += this.columnShift;
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the index of the line with the character at
+     * <code>_position</code> within the {@link #lineStarts}.
+     *
+     * @param _position     position of the character
+     * @return index of the line
+     */
+    private int lineIndex(final int _position)
+    {
+        int low = 0;
+        int high = this.lineCount - 1;
+        while (low < high)  {
+            final int mid = (low + high + 1) >>> 1;
+            if (this.lineStarts[mid] <= _position)  {
+                low = mid;
+            } else  {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,475 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.parser.gwiki;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.apache.commons.io.IOUtils;
+import org.efaps.wikiutil.parser.gwiki.javacc.TokenMgrError;
+import org.efaps.wikiutil.source.IPageSource;
+import org.efaps.wikiutil.wem.IWikiEventModel;
+import org.efaps.wikiutil.wom.WEM2WOM;
+import org.efaps.wikiutil.wom.WikiPage;
+
+/**
+ * Parses many Wiki pages in Google Code style from a {@link IPageSource} in
+ * parallel. Each page is read, decoded and parsed by one task of the
+ * {@link #setExecutor(ExecutorService) executor} (with the
+ * {@link GWikiParserSession parser session} of the executing thread). The
+ * results are delivered to a {@link IListener listener} in the thread which
+ * calls {@link #parse(Iterable, IListener)}, in the order of the page names
+ * or in the order of completion.
+ * <p>
+ * At maximum {@link #setWindow(int) window} pages are parsed or wait for the
+ * delivery at the same time; the next page is only read if a result was
+ * delivered (back pressure). A page which could not be read or parsed does
+ * not abort the batch; the failure is reported with the
+ * {@link Result result} of the page.
+ *
+ * <b>Example:<br/></b>
+ * <pre>
+ * new GWikiBatchParser(new FilePageSource(new File("/wiki")))
+ *     .setWindow(16)
+ *     .parse(names, _result -&gt; {
+ *         if (_result.isSuccess())  {
+ *             ...
+ *         } else  {
+ *             System.err.println("Wiki page " + _result.getName() + " failed: " + _result.getError());
+ *         }
+ *     });
+ * </pre>
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class GWikiBatchParser
+{
+    /**
+     * Source of the Wiki pages.
+     */
+    private final IPageSource source;
+
+    /**
+     * Executor which parses the Wiki pages.
+     *
+     * @see #setExecutor(ExecutorService)
+     */
+    private ExecutorService executor = ForkJoinPool.commonPool();
+
+    /**
+     * Maximum number of pages which are parsed or wait for delivery at the
+     * same time.
+     *
+     * @see #setWindow(int)
+     */
+    private int window = Runtime.getRuntime().availableProcessors() * 2;
+
+    /**
+     * Are the results delivered in the order of the page names?
+     *
+     * @see #setInputOrder(boolean)
+     */
+    private boolean inputOrder = true;
+
+    /**
+     * Character set of the Wiki pages.
+     *
+     * @see #setCharset(Charset)
+     */
+    private Charset charset = StandardCharsets.UTF_8;
+
+    /**
+     * Factory of the Wiki event model for each page. If not defined, each
+     * page is parsed into the Wiki object model.
+     *
+     * @see #setEventModelFactory(Function)
+     */
+    private Function<String, IWikiEventModel> eventModelFactory;
+
+    /**
+     * Initializes the batch parser for Wiki pages from <code>_source</code>.
+     *
+     * @param _source   source of the Wiki pages
+     */
+    public GWikiBatchParser(final IPageSource _source)
+    {
+        this.source = _source;
+    }
+
+    /**
+     * Defines the executor which parses the Wiki pages (default is the common
+     * {@link ForkJoinPool}). The executor is not shut down by the batch
+     * parser.
+     *
+     * @param _executor     executor
+     * @return this instance
+     * @see #executor
+     */
+    public GWikiBatchParser setExecutor(final ExecutorService _executor)
+    {
+        this.executor = _executor;
+        return this;
+    }
+
+    /**
+     * Defines the maximum number of pages which are parsed or wait for the
+     * delivery at the same time (default is twice the number of
+     * processors).
+     *
+     * @param _window   maximum number of pages in progress (minimum 1)
+     * @return this instance
+     * @see #window
+     */
+    public GWikiBatchParser setWindow(final int _window)
+    {
+        this.window = Math.max(1, _window);
+        return this;
+    }
+
+    /**
+     * Defines if the results are delivered in the order of the page names
+     * (default) or in the order of completion.
+     *
+     * @param _inputOrder   <i>true</i> for the order of the page names
+     * @return this instance
+     * @see #inputOrder
+     */
+    public GWikiBatchParser setInputOrder(final boolean _inputOrder)
+    {
+        this.inputOrder = _inputOrder;
+        return this;
+    }
+
+    /**
+     * Defines the character set of the Wiki pages (default is UTF-8).
+     *
+     * @param _charset  character set
+     * @return this instance
+     * @see #charset
+     */
+    public GWikiBatchParser setCharset(final Charset _charset)
+    {
+        this.charset = _charset;
+        return this;
+    }
+
+    /**
+     * Defines the factory of the Wiki event model for each page (the name of
+     * the page is the parameter of the factory). The event model is called
+     * from the thread which parses the page. If not defined, each page is
+     * parsed into the Wiki object model.
+     *
+     * @param _eventModelFactory    factory of the Wiki event models
+     * @return this instance
+     * @see #eventModelFactory
+     */
+    public GWikiBatchParser setEventModelFactory(final Function<String, IWikiEventModel> _eventModelFactory)
+    {
+        this.eventModelFactory = _eventModelFactory;
+        return this;
+    }
+
+    /**
+     * Parses all Wiki pages with <code>_names</code> and returns the results
+     * in the order of the delivery.
+     *
+     * @param _names    names of the Wiki pages
+     * @return results of all pages
+     * @throws InterruptedException if the current thread was interrupted
+     * @see #parse(Iterable, IListener)
+     */
+    public List<Result> parse(final Iterable<String> _names)
+        throws InterruptedException
+    {
+        final List<Result> ret = new ArrayList<Result>();
+        this.parse(_names, ret::add);
+        return ret;
+    }
+
+    /**
+     * Parses all Wiki pages with <code>_names</code>. The result of each page
+     * is delivered to <code>_listener</code> in the current thread. If the
+     * current thread is interrupted or the listener throws an exception, all
+     * pages in progress are cancelled.
+     *
+     * @param _names    names of the Wiki pages
+     * @param _listener listener for the results
+     * @throws InterruptedException if the current thread was interrupted
+     */
+    public void parse(final Iterable<String> _names,
+                      final IListener _listener)
+        throws InterruptedException
+    {
+        final CompletionService<Result> completion = new ExecutorCompletionService<Result>(this.executor);
+        final Set<Future<Result>> running = new HashSet<Future<Result>>();
+        final Map<Integer, Result> waiting = new HashMap<Integer, Result>();
+        final Iterator<String> names = _names.iterator();
+        int submitted = 0;
+        int delivered = 0;
+        boolean done = false;
+        try  {
+            while (names.hasNext() || (delivered < submitted))  {
+                while (names.hasNext() && (submitted - delivered < this.window))  {
+                    final int index = submitted++;
+                    final String name = names.next();
+                    running.add(completion.submit(() -> this.parsePage(index, name)));
+                }
+                final Future<Result> future = completion.take();
+                running.remove(future);
+                final Result result = GWikiBatchParser.get(future);
+                if (this.inputOrder)  {
+                    waiting.put(result.index, result);
+                    Result next = waiting.remove(delivered);
+                    while (next != null)  {
+                        delivered++;
+                        _listener.onResult(next);
+                        next = waiting.remove(delivered);
+                    }
+                } else  {
+                    delivered++;
+                    _listener.onResult(result);
+                }
+            }
+            done = true;
+        } finally  {
+            if (!done)  {
+                for (final Future<Result> future : running)  {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads, decodes and parses the Wiki page with <code>_name</code>. All
+     * failures are stored in the returned result.
+     *
+     * @param _index    index of the page
+     * @param _name     name of the page
+     * @return result of the page
+     */
+    protected Result parsePage(final int _index,
+                               final String _name)
+    {
+        final Result ret = new Result(_index, _name);
+        final long start = System.nanoTime();
+        try  {
+            final byte[] bytes;
+            final InputStream in = this.source.open(_name);
+            try  {
+                bytes = IOUtils.toByteArray(in);
+            } finally  {
+                in.close();
+            }
+            final long read = System.nanoTime();
+            ret.readTime = read - start;
+            ret.eventModel = (this.eventModelFactory != null)
+                            ? this.eventModelFactory.apply(_name)
+                            : new WEM2WOM();
+            GWikiParserSession.get().parse(ret.eventModel, this.charset.decode(ByteBuffer.wrap(bytes)));
+            ret.parseTime = System.nanoTime() - read;
+        } catch (final Exception | TokenMgrError e)  {
+            ret.error = e;
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the result of <code>_future</code>. The tasks itself catch all
+     * failures, so that only an unexpected error is thrown again.
+     *
+     * @param _future   future of a parsed page
+     * @return result of the page
+     * @throws InterruptedException if the current thread was interrupted
+     */
+    private static Result get(final Future<Result> _future)
+        throws InterruptedException
+    {
+        try  {
+            return _future.get();
+        } catch (final ExecutionException e)  {
+            if (e.getCause() instanceof Error)  {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Listener for the results of the parsed Wiki pages.
+     */
+    public interface IListener
+    {
+        /**
+         * Called for each parsed (or failed) Wiki page.
+         *
+         * @param _result   result of the page
+         */
+        void onResult(final Result _result);
+    }
+
+    /**
+     * Result of one parsed Wiki page.
+     */
+    public static final class Result
+    {
+        /**
+         * Index of the page within the page names.
+         */
+        private final int index;
+
+        /**
+         * Name of the page.
+         */
+        private final String name;
+
+        /**
+         * Wiki event model into which the page was parsed.
+         */
+        private IWikiEventModel eventModel;
+
+        /**
+         * Failure if the page could not be read or parsed.
+         */
+        private Throwable error;
+
+        /**
+         * Time in nanoseconds to read the page.
+         */
+        private long readTime;
+
+        /**
+         * Time in nanoseconds to decode and parse the page.
+         */
+        private long parseTime;
+
+        /**
+         * @param _index    index of the page
+         * @param _name     name of the page
+         */
+        private Result(final int _index,
+                       final String _name)
+        {
+            this.index = _index;
+            this.name = _name;
+        }
+
+        /**
+         * Returns the index of the page within the page names.
+         *
+         * @return index of the page
+         */
+        public int getIndex()
+        {
+            return this.index;
+        }
+
+        /**
+         * Returns the name of the page.
+         *
+         * @return name of the page
+         */
+        public String getName()
+        {
+            return this.name;
+        }
+
+        /**
+         * Returns the Wiki event model into which the page was parsed.
+         *
+         * @return Wiki event model; <code>null</code> if the page could not be
+         *         read
+         */
+        public IWikiEventModel getEventModel()
+        {
+            return this.eventModel;
+        }
+
+        /**
+         * Returns the parsed page if the page was parsed into the Wiki object
+         * model (no {@link GWikiBatchParser#setEventModelFactory(Function)
+         * event model factory} is defined).
+         *
+         * @return parsed page; <code>null</code> if the page failed or was
+         *         parsed into another Wiki event model
+         */
+        public WikiPage getPage()
+        {
+            return (this.error == null) && (this.eventModel instanceof WEM2WOM)
+                            ? ((WEM2WOM) this.eventModel).getPage()
+                            : null;
+        }
+
+        /**
+         * Returns the failure if the page could not be read or parsed, e.g. a
+         * {@link java.io.FileNotFoundException} for a missing page or a
+         * {@link org.efaps.wikiutil.parser.gwiki.javacc.ParseException}.
+         *
+         * @return failure; <code>null</code> if the page was parsed
+         */
+        public Throwable getError()
+        {
+            return this.error;
+        }
+
+        /**
+         * Was the page read and parsed?
+         *
+         * @return <i>true</i> if the page was parsed; otherwise <i>false</i>
+         */
+        public boolean isSuccess()
+        {
+            return this.error == null;
+        }
+
+        /**
+         * Returns the time to read the page.
+         *
+         * @return time in nanoseconds
+         */
+        public long getReadTime()
+        {
+            return this.readTime;
+        }
+
+        /**
+         * Returns the time to decode and parse the page.
+         *
+         * @return time in nanoseconds
+         */
+        public long getParseTime()
+        {
+            return this.parseTime;
+        }
+    }
+}
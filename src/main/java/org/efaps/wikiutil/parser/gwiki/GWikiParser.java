@@ -15,11 +15,19 @@
  */
 package org.efaps.wikiutil.parser.gwiki;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
 import org.efaps.wikiutil.parser.gwiki.javacc.WikiParser;
+import org.efaps.wikiutil.parser.gwiki.javacc.WikiParserTokenManager;
 import org.efaps.wikiutil.wem.IWikiEventModel;
 import org.efaps.wikiutil.wom.WEM2WOM;
 import org.efaps.wikiutil.wom.WikiPage;
@@ -32,6 +40,14 @@ import org.efaps.wikiutil.wom.WikiPage;
  */
 public final class GWikiParser
 {
+    /**
+     * Files with at minimum this size (in bytes) are memory mapped, smaller
+     * files are read with one read.
+     *
+     * @see #read(Path)
+     */
+    private static final long MAP_THRESHOLD = 256 * 1024;
+
     /**
      * Constructor defined so that this utility class could not be initialized.
      */
@@ -73,6 +89,24 @@ public final class GWikiParser
         return wem2wom.getPage();
     }
 
+    /**
+     * Parses given Wiki in Google code style defined in UTF-8 encoded file
+     * <code>_file</code> into the Wiki object model.
+     *
+     * @param _file     file with the Wiki code in Google style
+     * @return parsed Wiki page from the Wiki object model
+     * @throws IOException      if the file could not be read
+     * @throws ParseException   if the Wiki page could not be parsed
+     * @see #parse(GWikiVisitor, Path)
+     */
+    public static WikiPage parse(final Path _file)
+        throws IOException, ParseException
+    {
+        final WEM2WOM wem2wom = new WEM2WOM();
+        GWikiParser.parse(new GWikiVisitor(wem2wom), _file);
+        return wem2wom.getPage();
+    }
+
     /**
      * Parses given Wiki in Google code style defined with input stream
      * <code>_in</code> in <code>_encoding</code> into the Wiki event model.
@@ -104,4 +138,123 @@ public final class GWikiParser
     {
         new WikiParser(_reader).parse(new GWikiVisitor(_wem));
     }
+
+    /**
+     * Parses given Wiki in Google code style defined with input stream
+     * <code>_in</code> in <code>_encoding</code> with a configured
+     * <code>_visitor</code> (e.g. with disabled Wiki words).
+     *
+     * @param _visitor  visitor with the Wiki event model to which is parsed
+     * @param _in       input stream with the Wiki code in Google style
+     * @param _encoding encoding of the input stream
+     * @throws ParseException if the Wiki page could not be parsed
+     * @see GWikiVisitor#setWikiWords(boolean)
+     */
+    public static void parse(final GWikiVisitor _visitor,
+                             final InputStream _in,
+                             final String _encoding)
+        throws ParseException
+    {
+        new WikiParser(_in, _encoding).parse(_visitor);
+    }
+
+    /**
+     * Parses given Wiki in Google code style defined with <code>_reader</code>
+     * with a configured <code>_visitor</code> (e.g. with disabled Wiki words).
+     *
+     * @param _visitor  visitor with the Wiki event model to which is parsed
+     * @param _reader   reader with the Wiki code in Google style
+     * @throws ParseException if the Wiki page could not be parsed
+     * @see GWikiVisitor#setWikiWords(boolean)
+     */
+    public static void parse(final GWikiVisitor _visitor,
+                             final Reader _reader)
+        throws ParseException
+    {
+        new WikiParser(_reader).parse(_visitor);
+    }
+
+    /**
+     * Parses given Wiki in Google code style defined in UTF-8 encoded file
+     * <code>_file</code> into the Wiki event model.
+     *
+     * @param _wem      Wiki event model to which is parsed
+     * @param _file     file with the Wiki code in Google style
+     * @throws IOException      if the file could not be read
+     * @throws ParseException   if the Wiki page could not be parsed
+     * @see #parse(GWikiVisitor, Path)
+     */
+    public static void parse(final IWikiEventModel _wem,
+                             final Path _file)
+        throws IOException, ParseException
+    {
+        GWikiParser.parse(new GWikiVisitor(_wem), _file);
+    }
+
+    /**
+     * Parses given Wiki in Google code style defined in UTF-8 encoded file
+     * <code>_file</code> with a configured <code>_visitor</code>. The file is
+     * read at once (large files are memory mapped), decoded once and parsed
+     * with a {@link CharBufferStream} directly from the decoded characters.
+     *
+     * @param _visitor  visitor with the Wiki event model to which is parsed
+     * @param _file     file with the Wiki code in Google style
+     * @throws IOException      if the file could not be read
+     * @throws ParseException   if the Wiki page could not be parsed
+     */
+    public static void parse(final GWikiVisitor _visitor,
+                             final Path _file)
+        throws IOException, ParseException
+    {
+        GWikiParser.parse(_visitor, StandardCharsets.UTF_8.decode(GWikiParser.read(_file)));
+    }
+
+    /**
+     * Parses given Wiki in Google code style defined with the remaining
+     * characters of <code>_chars</code> with a configured
+     * <code>_visitor</code>. The characters are parsed with a
+     * {@link CharBufferStream}, so they are not copied.
+     *
+     * @param _visitor  visitor with the Wiki event model to which is parsed
+     * @param _chars    characters with the Wiki code in Google style
+     * @throws ParseException if the Wiki page could not be parsed
+     */
+    public static void parse(final GWikiVisitor _visitor,
+                             final CharBuffer _chars)
+        throws ParseException
+    {
+        new WikiParser(new WikiParserTokenManager(new CharBufferStream(_chars))).parse(_visitor);
+    }
+
+    /**
+     * Reads the complete content of <code>_file</code>. Files with at minimum
+     * {@link #MAP_THRESHOLD} bytes are memory mapped, smaller files are read
+     * into one buffer.
+     *
+     * @param _file     file to read
+     * @return buffer with the content of the file
+     * @throws IOException if the file could not be read
+     */
+    private static ByteBuffer read(final Path _file)
+        throws IOException
+    {
+        final FileChannel channel = FileChannel.open(_file, StandardOpenOption.READ);
+        try  {
+            final long size = channel.size();
+            final ByteBuffer ret;
+            if (size >= GWikiParser.MAP_THRESHOLD)  {
+                ret = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else  {
+                ret = ByteBuffer.allocate((int) size);
+                int read = 0;
+                while (ret.hasRemaining() && (read >= 0))  {
+                    read = channel.read(ret);
+                }
+                ret.flip();
+            }
+            return ret;
+        } finally  {
+            channel.close();
+        }
+    }
 }
@@ -0,0 +1,251 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.parser.gwiki;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.parser.gwiki.javacc.WikiParser;
+import org.efaps.wikiutil.wem.IWikiEventModel;
+import org.efaps.wikiutil.wom.WEM2WOM;
+import org.efaps.wikiutil.wom.WikiPage;
+
+/**
+ * Parser session to parse many Wiki pages in Google Code style with the same
+ * parser instance. The {@link WikiParser} (with token manager, character
+ * stream and lookahead arrays) and the {@link GWikiVisitor} are created only
+ * once and are reinitialized for each page.
+ * <p>
+ * A session is not thread safe. {@link #get()} returns the session of the
+ * current thread.
+ * <p>
+ * If parsing of a Wiki page fails, a Wiki event model which is
+ * {@link AutoCloseable auto closeable} (e.g. an asynchronous Wiki event model
+ * {@link org.efaps.wikiutil.wem.WEMAsync}) is closed by the session (see
+ * {@link #abort(IWikiEventModel, Throwable)}).
+ *
+ * <b>Example:<br/></b>
+ * <pre>
+ * final GWikiParserSession session = GWikiParserSession.get();
+ * for (final String page : pages)  {
+ *     final WEMHtml html = new WEMHtml();
+ *     session.parse(html, new StringReader(page));
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class GWikiParserSession
+{
+    /**
+     * Sessions of the threads.
+     *
+     * @see #get()
+     */
+    private static final ThreadLocal<GWikiParserSession> SESSIONS
+        = ThreadLocal.withInitial(GWikiParserSession::new);
+
+    /**
+     * Reused Wiki parser.
+     */
+    private final WikiParser parser = new WikiParser(new StringReader(""));
+
+    /**
+     * Reused visitor (the settings of the visitor are kept for all pages).
+     *
+     * @see #getVisitor()
+     */
+    private final GWikiVisitor visitor = new GWikiVisitor(null);
+
+    /**
+     * Is this session currently parsing a Wiki page?
+     */
+    private boolean active;
+
+    /**
+     * Returns the session of the current thread. If the session of the
+     * current thread is currently parsing (e.g. a Wiki event model parses
+     * another Wiki page within an event), a new session is returned.
+     *
+     * @return parser session
+     */
+    public static GWikiParserSession get()
+    {
+        GWikiParserSession ret = GWikiParserSession.SESSIONS.get();
+        if (ret.active)  {
+            ret = new GWikiParserSession();
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the reused visitor so that the settings of the visitor could be
+     * defined (e.g. {@link GWikiVisitor#setWikiWords(boolean)}).
+     *
+     * @return visitor of this session
+     * @see #visitor
+     */
+    public GWikiVisitor getVisitor()
+    {
+        return this.visitor;
+    }
+
+    /**
+     * Parses given Wiki in Google code style defined with <code>_reader</code>
+     * into the Wiki object model.
+     *
+     * @param _reader   reader with the Wiki code in Google style
+     * @return parsed Wiki page from the Wiki object model
+     * @throws ParseException if the Wiki page could not be parsed
+     */
+    public WikiPage parse(final Reader _reader)
+        throws ParseException
+    {
+        final WEM2WOM wem2wom = new WEM2WOM();
+        this.parse(wem2wom, _reader);
+        return wem2wom.getPage();
+    }
+
+    /**
+     * Parses given Wiki in Google code style defined with <code>_reader</code>
+     * into the Wiki event model.
+     *
+     * @param _wem      Wiki event model to which is parsed
+     * @param _reader   reader with the Wiki code in Google style
+     * @throws ParseException if the Wiki page could not be parsed
+     */
+    public void parse(final IWikiEventModel _wem,
+                      final Reader _reader)
+        throws ParseException
+    {
+        this.start(_wem);
+        try  {
+            this.parser.ReInit(_reader);
+            this.parser.parse(this.visitor);
+        } catch (final ParseException | RuntimeException | Error e)  {
+            GWikiParserSession.abort(_wem, e);
+            throw e;
+        } finally  {
+            this.end();
+        }
+    }
+
+    /**
+     * Parses given Wiki in Google code style defined with input stream
+     * <code>_in</code> in <code>_encoding</code> into the Wiki event model.
+     *
+     * @param _wem      Wiki event model to which is parsed
+     * @param _in       input stream with the Wiki code in Google style
+     * @param _encoding encoding of the input stream
+     * @throws ParseException if the Wiki page could not be parsed
+     */
+    public void parse(final IWikiEventModel _wem,
+                      final InputStream _in,
+                      final String _encoding)
+        throws ParseException
+    {
+        this.start(_wem);
+        try  {
+            this.parser.ReInit(_in, _encoding);
+            this.parser.parse(this.visitor);
+        } catch (final ParseException | RuntimeException | Error e)  {
+            GWikiParserSession.abort(_wem, e);
+            throw e;
+        } finally  {
+            this.end();
+        }
+    }
+
+    /**
+     * Parses given Wiki in Google code style defined with the remaining
+     * characters of <code>_chars</code> into the Wiki event model.
+     *
+     * @param _wem      Wiki event model to which is parsed
+     * @param _chars    characters with the Wiki code in Google style
+     * @throws ParseException if the Wiki page could not be parsed
+     * @see CharBufferStream
+     */
+    public void parse(final IWikiEventModel _wem,
+                      final CharBuffer _chars)
+        throws ParseException
+    {
+        this.start(_wem);
+        try  {
+            this.parser.token_source.ReInit(new CharBufferStream(_chars));
+            this.parser.ReInit(this.parser.token_source);
+            this.parser.parse(this.visitor);
+        } catch (final ParseException | RuntimeException | Error e)  {
+            GWikiParserSession.abort(_wem, e);
+            throw e;
+        } finally  {
+            this.end();
+        }
+    }
+
+    /**
+     * Starts parsing of a Wiki page: the {@link #visitor} is reset for
+     * <code>_wem</code>.
+     *
+     * @param _wem  Wiki event model to which is parsed
+     * @throws IllegalStateException if this session is already parsing
+     */
+    private void start(final IWikiEventModel _wem)
+    {
+        if (this.active)  {
+            throw new IllegalStateException("parser session is already parsing a Wiki page");
+        }
+        this.active = true;
+        this.visitor.reset(_wem);
+    }
+
+    /**
+     * Aborts the not completed Wiki page of <code>_wem</code> after parsing
+     * failed: if the Wiki event model is {@link AutoCloseable auto
+     * closeable}, it is closed, so that e.g. the thread of an asynchronous
+     * Wiki event model does not wait for the end of the document and all
+     * resources of the Wiki event model are released. Failures of the close
+     * are added as suppressed exceptions to <code>_failure</code>.
+     *
+     * @param _wem      Wiki event model to which was parsed
+     * @param _failure  failure of the parser
+     */
+    private static void abort(final IWikiEventModel _wem,
+                              final Throwable _failure)
+    {
+        if (_wem instanceof AutoCloseable)  {
+            try  {
+                ((AutoCloseable) _wem).close();
+            } catch (final Exception e)  {
+                _failure.addSuppressed(e);
+            }
+        }
+    }
+
+    /**
+     * Ends parsing of a Wiki page: the Wiki event model is released, so that
+     * the session does not hold the result of the last page.
+     */
+    private void end()
+    {
+        this.visitor.reset(null);
+        this.active = false;
+    }
+}
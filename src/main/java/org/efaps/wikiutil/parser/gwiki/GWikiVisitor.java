@@ -17,6 +17,7 @@ package org.efaps.wikiutil.parser.gwiki;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.CharBuffer;
 import java.util.Stack;
 
 import org.apache.commons.lang3.StringUtils;
@@ -79,9 +80,26 @@ public class GWikiVisitor
 
     /**
      * String of current parsed text.
+     *
+     * @see #newText()
      */
     private StringBuilder text;
 
+    /**
+     * Buffer reused for all texts if {@link #transientText} is set.
+     *
+     * @see #newText()
+     */
+    private final StringBuilder textBuffer = new StringBuilder();
+
+    /**
+     * Are the texts given to the Wiki event model only valid during the
+     * event?
+     *
+     * @see #setTransientText(boolean)
+     */
+    private boolean transientText;
+
     /**
      * @see #onTypeface(ETypeface)
      */
@@ -105,8 +123,18 @@ public class GWikiVisitor
 
     /**
      * Related wiki event model.
+     *
+     * @see #reset(IWikiEventModel)
      */
-    private final IWikiEventModel wem;
+    private IWikiEventModel wem;
+
+    /**
+     * Are Wiki words (CamelCase words) converted to internal links?
+     *
+     * @see #setWikiWords(boolean)
+     * @see #word(String)
+     */
+    private boolean wikiWords = true;
 
     /**
      *
@@ -117,6 +145,84 @@ public class GWikiVisitor
         this.wem = _wem;
     }
 
+    /**
+     * Resets the parse state of this visitor so that the visitor could be
+     * used for the next Wiki page with given <code>_wem</code>. The settings
+     * ({@link #setWikiWords(boolean) Wiki words},
+     * {@link #setTransientText(boolean) transient texts}) are not changed.
+     *
+     * @param _wem  wiki event model for the next Wiki page
+     * @return this instance
+     */
+    public GWikiVisitor reset(final IWikiEventModel _wem)
+    {
+        this.wem = _wem;
+        this.paragraphStarted = false;
+        this.section = EHeader.PAGE;
+        this.heading = null;
+        this.headingStarted = false;
+        this.tableStarted = false;
+        this.tableEntryStarted = false;
+        this.tableEntryParagraphStarted = false;
+        this.text = null;
+        this.typefaces.clear();
+        this.listIndent.clear();
+        this.listIsNumb.clear();
+        return this;
+    }
+
+    /**
+     * Defines if Wiki words (CamelCase words like <code>AutoLink</code>) are
+     * converted to internal links. If disabled, Wiki words are handled as
+     * normal text and are not checked at all.
+     *
+     * @param _wikiWords    <i>true</i> to convert Wiki words to internal links
+     * @return this instance
+     * @see #wikiWords
+     */
+    public GWikiVisitor setWikiWords(final boolean _wikiWords)
+    {
+        this.wikiWords = _wikiWords;
+        return this;
+    }
+
+    /**
+     * Defines if the texts given to {@link IWikiEventModel#onText(CharSequence)}
+     * are transient. Transient texts are views on one buffer which is reused
+     * for the next text, so that no text is copied while parsing. The Wiki
+     * event model must not keep a transient text after the event; if the text
+     * is needed later, it must be copied (e.g. with <code>toString()</code>).
+     *
+     * @param _transientText    <i>true</i> if the texts are transient
+     * @return this instance
+     * @see #transientText
+     */
+    public GWikiVisitor setTransientText(final boolean _transientText)
+    {
+        this.transientText = _transientText;
+        return this;
+    }
+
+    /**
+     * Returns if the texts given to the Wiki event model are transient.
+     *
+     * @return <i>true</i> if the texts are transient; otherwise <i>false</i>
+     * @see #transientText
+     */
+    public boolean isTransientText()
+    {
+        return this.transientText;
+    }
+
+    /**
+     * @return <i>true</i> if Wiki words are converted to internal links
+     * @see #wikiWords
+     */
+    public boolean isWikiWords()
+    {
+        return this.wikiWords;
+    }
+
     public void onProperty(final EProperty _property,
                            final String _value)
     {
@@ -166,7 +272,7 @@ public class GWikiVisitor
             if (!this.headingStarted)  {
                 this.wem.headingStart();
                 if (this.text != null)  {
-                    this.wem.onText(this.text.subSequence(0, this.text.length() - 1).toString().trim());
+                    this.wem.onText(this.headingText(1));
                     this.text = null;
                 }
             }
@@ -196,30 +302,30 @@ public class GWikiVisitor
     public void headingEnd()
     {
         if (this.text != null)  {
-            final String curText;
+            final CharSequence curText;
             switch (this.heading)  {
                 case LEVEL1:
-                    curText = this.text.subSequence(0, this.text.length() - 1).toString().trim();
+                    curText = this.headingText(1);
                     break;
                 case LEVEL2:
-                    curText = this.text.subSequence(0, this.text.length() - 2).toString().trim();
+                    curText = this.headingText(2);
                     break;
                 case LEVEL3:
-                    curText = this.text.subSequence(0, this.text.length() - 3).toString().trim();
+                    curText = this.headingText(3);
                     break;
                 case LEVEL4:
-                    curText = this.text.subSequence(0, this.text.length() - 4).toString().trim();
+                    curText = this.headingText(4);
                     break;
                 case LEVEL5:
-                    curText = this.text.subSequence(0, this.text.length() - 5).toString().trim();
+                    curText = this.headingText(5);
                     break;
                 case LEVEL6:
-                    curText = this.text.subSequence(0, this.text.length() - 6).toString().trim();
+                    curText = this.headingText(6);
                     break;
                 default:
                     curText = null;
             }
-            if ((curText != null) && !"".equals(curText))  {
+            if ((curText != null) && (curText.length() > 0))  {
                 this.wem.onText(curText);
             }
             this.text = null;
@@ -249,7 +355,7 @@ public class GWikiVisitor
     public void codeEmbedded(final String _code)
     {
         startTypeface(ETypeface.CODE);
-        this.text = new StringBuilder();
+        this.text = this.newText();
         this.text.append(_code);
         endTypeface(ETypeface.CODE);
 /*        if (this.paragraph == null)  {
@@ -565,7 +671,7 @@ System.err.println("type face " + _typeface + " not defined and ignored");
         }
         if (url == null)  {
             if (this.text == null)  {
-                this.text = new StringBuilder();
+                this.text = this.newText();
             }
             this.text.append(_link);
         } else  {
@@ -584,7 +690,7 @@ System.err.println("type face " + _typeface + " not defined and ignored");
         }
         if (url == null)  {
             if (this.text == null)  {
-                this.text = new StringBuilder();
+                this.text = this.newText();
             }
             this.text.append(_image);
         } else  {
@@ -604,7 +710,7 @@ System.err.println("type face " + _typeface + " not defined and ignored");
             makeEndTable();
         } else  {
             if (this.text == null)  {
-                this.text = new StringBuilder();
+                this.text = this.newText();
             }
             this.text.append(' ');
         }
@@ -619,7 +725,7 @@ System.err.println("type face " + _typeface + " not defined and ignored");
     public void space()
     {
         if (this.text == null)  {
-            this.text = new StringBuilder();
+            this.text = this.newText();
         }
         this.text.append(' ');
     }
@@ -634,19 +740,64 @@ System.err.println("type face " + _typeface + " not defined and ignored");
     public void onSpecialSymbol(final String _symbol)
     {
         if (this.text == null)  {
-            this.text = new StringBuilder();
+            this.text = this.newText();
         }
         this.text.append(_symbol);
     }
 
     public void word(final String _word)
+    {
+        this.word(_word, 0, _word.length());
+    }
+
+    /**
+     * Handles a run of words separated by spaces. Each sequence of spaces is
+     * appended as one space (like {@link #space()}), each word is handled
+     * like {@link #word(String)}.
+     *
+     * @param _run  text run with words and spaces
+     */
+    public void textRun(final String _run)
+    {
+        final int length = _run.length();
+        int idx = 0;
+        while (idx < length)  {
+            final int start = idx;
+            while ((idx < length) && (_run.charAt(idx) != ' ') && (_run.charAt(idx) != '\t'))  {
+                idx++;
+            }
+            if (start < idx)  {
+                this.word(_run, start, idx);
+            }
+            if (idx < length)  {
+                this.space();
+                while ((idx < length) && ((_run.charAt(idx) == ' ') || (_run.charAt(idx) == '\t')))  {
+                    idx++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Handles the word from <code>_start</code> to <code>_end</code> within
+     * <code>_text</code>. A Wiki word is converted to an internal link (if
+     * {@link #wikiWords} are enabled and the Wiki word is not prefixed with
+     * '!'); otherwise the word is appended to the {@link #text}.
+     *
+     * @param _text     text with the word
+     * @param _start    start index of the word
+     * @param _end      end index of the word (exclusive)
+     */
+    protected void word(final CharSequence _text,
+                        final int _start,
+                        final int _end)
     {
         // wiki word?
-        if (_word.matches("[A-Z][a-z0-9]+([A-Z][a-z0-9]+)+"))  {
+        if (this.wikiWords && GWikiVisitor.isWikiWord(_text, _start, _end))  {
             // test for non wiki word (means wiki word starts with '!')
             if ((this.text != null) && (this.text.charAt(this.text.length() - 1) == '!'))  {
                 this.text.deleteCharAt(this.text.length() - 1);
-                this.text.append(_word);
+                this.text.append(_text, _start, _end);
             } else  {
                 if (!this.headingStarted && !this.paragraphStarted)  {
                     this.wem.paragraphStart();
@@ -656,16 +807,71 @@ System.err.println("type face " + _typeface + " not defined and ignored");
                     this.wem.onText(this.text);
                     this.text = null;
                 }
-                this.wem.onLinkInternal(_word, null);
+                this.wem.onLinkInternal(_text.subSequence(_start, _end).toString(), null);
             }
         } else  {
             if (this.text == null)  {
-                this.text = new StringBuilder();
+                this.text = this.newText();
             }
-            this.text.append(_word);
+            this.text.append(_text, _start, _end);
         }
     }
 
+    /**
+     * Checks if <code>_word</code> is a Wiki word. A Wiki word consists of at
+     * least two parts, each an upper case letter followed by lower case
+     * letters or digits (same as the regular expression
+     * <code>[A-Z][a-z0-9]+([A-Z][a-z0-9]+)+</code>). The word is scanned
+     * without any allocation.
+     *
+     * @param _word     word to check
+     * @return <i>true</i> if <code>_word</code> is a Wiki word; otherwise
+     *         <i>false</i>
+     */
+    protected static boolean isWikiWord(final CharSequence _word)
+    {
+        return GWikiVisitor.isWikiWord(_word, 0, _word.length());
+    }
+
+    /**
+     * Checks if the word from <code>_start</code> to <code>_end</code> within
+     * <code>_text</code> is a Wiki word.
+     *
+     * @param _text     text with the word
+     * @param _start    start index of the word
+     * @param _end      end index of the word (exclusive)
+     * @return <i>true</i> if the word is a Wiki word; otherwise <i>false</i>
+     * @see #isWikiWord(CharSequence)
+     */
+    protected static boolean isWikiWord(final CharSequence _text,
+                                        final int _start,
+                                        final int _end)
+    {
+        final int length = _end;
+        int parts = 0;
+        int idx = _start;
+        boolean ret = true;
+        while (ret && (idx < length))  {
+            final char upper = _text.charAt(idx++);
+            if ((upper < 'A') || (upper > 'Z'))  {
+                ret = false;
+            } else  {
+                final int start = idx;
+                while (idx < length)  {
+                    final char ch = _text.charAt(idx);
+                    if (((ch >= 'a') && (ch <= 'z')) || ((ch >= '0') && (ch <= '9')))  {
+                        idx++;
+                    } else  {
+                        break;
+                    }
+                }
+                ret = idx > start;
+                parts++;
+            }
+        }
+        return ret && (parts >= 2);
+    }
+
     /**
      * Calls the Wiki events to end a table definition.
      *
@@ -689,6 +895,49 @@ System.err.println("type face " + _typeface + " not defined and ignored");
         }
     }
 
+    /**
+     * Returns the builder for a new {@link #text}. If the texts are
+     * {@link #transientText transient}, the {@link #textBuffer} is cleared
+     * and reused; otherwise a new builder is created.
+     *
+     * @return builder for the new text
+     */
+    protected StringBuilder newText()
+    {
+        final StringBuilder ret;
+        if (this.transientText)  {
+            ret = this.textBuffer;
+            ret.setLength(0);
+        } else  {
+            ret = new StringBuilder();
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the trimmed {@link #text} of a heading without the last
+     * <code>_suffix</code> characters (the characters of the heading end). If
+     * the texts are {@link #transientText transient}, the text is returned as
+     * view on the {@link #text}; otherwise as new string.
+     *
+     * @param _suffix   number of characters of the heading end
+     * @return trimmed text of the heading
+     */
+    protected CharSequence headingText(final int _suffix)
+    {
+        int start = 0;
+        int end = this.text.length() - _suffix;
+        while ((start < end) && (this.text.charAt(start) <= ' '))  {
+            start++;
+        }
+        while ((end > start) && (this.text.charAt(end - 1) <= ' '))  {
+            end--;
+        }
+        return this.transientText
+                        ? CharBuffer.wrap(this.text, start, end)
+                        : this.text.substring(start, end);
+    }
+
     protected void makeEndText(final boolean _startParagraph)
     {
         if (this.text != null)  {
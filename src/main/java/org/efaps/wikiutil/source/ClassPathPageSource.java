@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.source;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Opens the Wiki pages as resources from the class path.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class ClassPathPageSource
+    implements IPageSource
+{
+    /**
+     * Class loader used to load the Wiki pages.
+     */
+    private final ClassLoader classLoader;
+
+    /**
+     * Resource directory of the Wiki pages (ends with '/' or is empty).
+     */
+    private final String resourceDir;
+
+    /**
+     * The Wiki pages are loaded with the class loader of this class.
+     *
+     * @param _resourceDir  resource directory of the Wiki pages
+     */
+    public ClassPathPageSource(final String _resourceDir)
+    {
+        this(ClassPathPageSource.class.getClassLoader(), _resourceDir);
+    }
+
+    /**
+     * @param _classLoader  class loader used to load the Wiki pages
+     * @param _resourceDir  resource directory of the Wiki pages
+     */
+    public ClassPathPageSource(final ClassLoader _classLoader,
+                               final String _resourceDir)
+    {
+        this.classLoader = _classLoader;
+        String dir = _resourceDir.startsWith("/") ? _resourceDir.substring(1) : _resourceDir;
+        if (!dir.isEmpty() && !dir.endsWith("/"))  {
+            dir = dir + "/";
+        }
+        this.resourceDir = dir;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream open(final String _name)
+        throws IOException
+    {
+        final InputStream ret = this.classLoader.getResourceAsStream(this.resourceDir + _name);
+        if (ret == null)  {
+            throw new FileNotFoundException("could not found " + this.resourceDir + _name);
+        }
+        return ret;
+    }
+
+    /**
+     * @return string representation of the resource directory
+     */
+    @Override
+    public String toString()
+    {
+        return "classpath:" + this.resourceDir;
+    }
+}
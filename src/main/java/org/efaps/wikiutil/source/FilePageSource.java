@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.source;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Opens the Wiki pages from a directory of the file system.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class FilePageSource
+    implements IPageSource
+{
+    /**
+     * Root directory of the Wiki pages.
+     */
+    private final File root;
+
+    /**
+     * @param _root     root directory of the Wiki pages
+     */
+    public FilePageSource(final File _root)
+    {
+        this.root = _root;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream open(final String _name)
+        throws IOException
+    {
+        return new FileInputStream(new File(this.root, _name));
+    }
+
+    /**
+     * @return string representation of the root directory
+     */
+    @Override
+    public String toString()
+    {
+        return this.root.toString();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.source;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Source of Wiki pages. A Wiki page is opened only by its name (relative to
+ * the root of the page source, including the file extension). A missing Wiki
+ * page is reported with a {@link FileNotFoundException}, so that the caller
+ * could check the existence of a page and read the page with one single
+ * access. Implementations must be thread-safe, because the pages of an index
+ * could be converted in parallel.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public interface IPageSource
+{
+    /**
+     * Opens the Wiki page with given <code>_name</code>. The caller is
+     * responsible to close the returned input stream.
+     *
+     * @param _name     name of the Wiki page
+     * @return input stream with the content of the Wiki page
+     * @throws FileNotFoundException if the Wiki page does not exist
+     * @throws IOException if the Wiki page could not be opened
+     */
+    InputStream open(final String _name)
+        throws IOException;
+}
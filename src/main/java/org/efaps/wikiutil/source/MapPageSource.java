@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.source;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the Wiki pages in memory (e.g. for tests or for already downloaded
+ * Wiki pages). The pages are stored UTF-8 encoded.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class MapPageSource
+    implements IPageSource
+{
+    /**
+     * Map with the name of the Wiki pages as key and the UTF-8 encoded
+     * content as value.
+     */
+    private final Map<String, byte[]> pages = new ConcurrentHashMap<String, byte[]>();
+
+    /**
+     * Defines the Wiki page with <code>_name</code>.
+     *
+     * @param _name     name of the Wiki page
+     * @param _text     text of the Wiki page
+     * @return this instance
+     * @see #pages
+     */
+    public MapPageSource put(final String _name,
+                             final String _text)
+    {
+        this.pages.put(_name, _text.getBytes(StandardCharsets.UTF_8));
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream open(final String _name)
+        throws IOException
+    {
+        final byte[] content = this.pages.get(_name);
+        if (content == null)  {
+            throw new FileNotFoundException("unknown Wiki page " + _name);
+        }
+        return new ByteArrayInputStream(content);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.source;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URI;
+
+/**
+ * Creates the page source for a root URI.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public final class PageSourceFactory
+{
+    /**
+     * Scheme of the URIs for Wiki pages located in the class path.
+     */
+    public static final String SCHEME_CLASSPATH = "classpath";
+
+    /**
+     * Constructor defined so that this utility class could not be initialized.
+     */
+    private PageSourceFactory()
+    {
+    }
+
+    /**
+     * Creates the page source for given <code>_root</code> URI:
+     * <ul>
+     * <li><code>file:</code> URIs are opened from the file system; as for
+     *     URLs the names of the Wiki pages are resolved relative to the root
+     *     URI, so that the last path segment of a root URI without trailing
+     *     slash is replaced (e.g. <code>Index.wiki</code> is opened as
+     *     <code>/wiki/Index.wiki</code> for the root URI
+     *     <code>file:/wiki/</code>, but as <code>/Index.wiki</code> for the
+     *     root URI <code>file:/wiki</code>)</li>
+     * <li><code>classpath:</code> URIs (e.g.
+     *     <code>classpath:org/efaps/wiki/</code>) are opened as resources
+     *     from the class path</li>
+     * <li>all other URIs (e.g. HTTP or <code>jar:</code>) are opened as
+     *     URL</li>
+     * </ul>
+     *
+     * @param _root     root URI of the Wiki pages
+     * @return page source for the root URI
+     * @throws MalformedURLException if the <code>_root</code> could not be
+     *                               converted to an URL
+     */
+    public static IPageSource create(final URI _root)
+        throws MalformedURLException
+    {
+        final IPageSource ret;
+        if ("file".equalsIgnoreCase(_root.getScheme()) && !_root.isOpaque() && (_root.getAuthority() == null))  {
+            ret = new FilePageSource(new File(_root.resolve(".")));
+        } else if (PageSourceFactory.SCHEME_CLASSPATH.equalsIgnoreCase(_root.getScheme()))  {
+            ret = new ClassPathPageSource(_root.getSchemeSpecificPart());
+        } else  {
+            ret = new URLPageSource(_root.toURL());
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.source;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+/**
+ * Opens the Wiki pages relative to a root URL (e.g. HTTP or
+ * <code>jar:</code> URLs). The name of a Wiki page is resolved against the
+ * root URL; an empty name references the root URL itself. For HTTP a missing
+ * page is already reported by the URL connection with a
+ * {@link java.io.FileNotFoundException}.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class URLPageSource
+    implements IPageSource
+{
+    /**
+     * Root URL of the Wiki pages.
+     */
+    private final URL root;
+
+    /**
+     * @param _root     root URL of the Wiki pages
+     */
+    public URLPageSource(final URL _root)
+    {
+        this.root = _root;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream open(final String _name)
+        throws IOException
+    {
+        return new URL(this.root, _name).openStream();
+    }
+
+    /**
+     * @return string representation of the root URL
+     */
+    @Override
+    public String toString()
+    {
+        return this.root.toString();
+    }
+}
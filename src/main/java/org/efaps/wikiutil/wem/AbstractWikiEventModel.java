@@ -0,0 +1,310 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wem;
+
+import java.net.URL;
+
+/**
+ * Adapter for the {@link IWikiEventModel Wiki event model} which ignores all
+ * events. A Wiki event model which is only interested in some events could
+ * extend this adapter and only overwrite the needed methods; without any
+ * overwritten method, the adapter could be used to measure the parser
+ * without consumer.
+ *
+ * <b>Example:<br/></b>
+ * <pre>
+ * GWikiParser.parse(new AbstractWikiEventModel()  {
+ *     &#64;Override
+ *     public void onImage(final URL _url)
+ *     {
+ *         images.add(_url);
+ *     }
+ * }, reader);
+ * </pre>
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public abstract class AbstractWikiEventModel
+    implements IWikiEventModel
+{
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onProperty(final EProperty _property,
+                           final String _value)
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void documentStart()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void documentEnd()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sectionStart()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sectionEnd()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void headingStart()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void headingEnd()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void paragraphStart()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void paragraphEnd()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableStart()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableEnd()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableBodyStart()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableBodyEnd()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableRowStart()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableRowEnd()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableEntryStart()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableEntryEnd()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void typefaceStart(final ETypeface _typeface)
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void typefaceEnd(final ETypeface _typeface)
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listBulletedStart()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listBulletedEnd()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listNumberedStart()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listNumberedEnd()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listEntryStart()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listEntryEnd()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onDivider()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onNewLine()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPreformat(final CharSequence _text)
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onTableOfContents(final int _deepth)
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onImage(final URL _url)
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onText(final CharSequence _text)
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onLinkExternal(final URL _url,
+                               final CharSequence _description)
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onLinkInternal(final CharSequence _link,
+                               final CharSequence _description)
+    {
+    }
+}
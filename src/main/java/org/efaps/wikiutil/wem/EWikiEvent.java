@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wem;
+
+/**
+ * All events of the {@link IWikiEventModel Wiki event model}. The ordinal of
+ * an event is used as operation code within a {@link WEMTape tape}, so new
+ * events must be appended at the end.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public enum EWikiEvent
+{
+    /** @see IWikiEventModel#onProperty(EProperty, String) */
+    PROPERTY,
+    /** @see IWikiEventModel#documentStart() */
+    DOCUMENT_START,
+    /** @see IWikiEventModel#documentEnd() */
+    DOCUMENT_END,
+    /** @see IWikiEventModel#sectionStart() */
+    SECTION_START,
+    /** @see IWikiEventModel#sectionEnd() */
+    SECTION_END,
+    /** @see IWikiEventModel#headingStart() */
+    HEADING_START,
+    /** @see IWikiEventModel#headingEnd() */
+    HEADING_END,
+    /** @see IWikiEventModel#paragraphStart() */
+    PARAGRAPH_START,
+    /** @see IWikiEventModel#paragraphEnd() */
+    PARAGRAPH_END,
+    /** @see IWikiEventModel#tableStart() */
+    TABLE_START,
+    /** @see IWikiEventModel#tableEnd() */
+    TABLE_END,
+    /** @see IWikiEventModel#tableBodyStart() */
+    TABLE_BODY_START,
+    /** @see IWikiEventModel#tableBodyEnd() */
+    TABLE_BODY_END,
+    /** @see IWikiEventModel#tableRowStart() */
+    TABLE_ROW_START,
+    /** @see IWikiEventModel#tableRowEnd() */
+    TABLE_ROW_END,
+    /** @see IWikiEventModel#tableEntryStart() */
+    TABLE_ENTRY_START,
+    /** @see IWikiEventModel#tableEntryEnd() */
+    TABLE_ENTRY_END,
+    /** @see IWikiEventModel#typefaceStart(ETypeface) */
+    TYPEFACE_START,
+    /** @see IWikiEventModel#typefaceEnd(ETypeface) */
+    TYPEFACE_END,
+    /** @see IWikiEventModel#listBulletedStart() */
+    LIST_BULLETED_START,
+    /** @see IWikiEventModel#listBulletedEnd() */
+    LIST_BULLETED_END,
+    /** @see IWikiEventModel#listNumberedStart() */
+    LIST_NUMBERED_START,
+    /** @see IWikiEventModel#listNumberedEnd() */
+    LIST_NUMBERED_END,
+    /** @see IWikiEventModel#listEntryStart() */
+    LIST_ENTRY_START,
+    /** @see IWikiEventModel#listEntryEnd() */
+    LIST_ENTRY_END,
+    /** @see IWikiEventModel#onDivider() */
+    DIVIDER,
+    /** @see IWikiEventModel#onNewLine() */
+    NEW_LINE,
+    /** @see IWikiEventModel#onPreformat(CharSequence) */
+    PREFORMAT,
+    /** @see IWikiEventModel#onTableOfContents(int) */
+    TABLE_OF_CONTENTS,
+    /** @see IWikiEventModel#onImage(java.net.URL) */
+    IMAGE,
+    /** @see IWikiEventModel#onText(CharSequence) */
+    TEXT,
+    /** @see IWikiEventModel#onLinkExternal(java.net.URL, CharSequence) */
+    LINK_EXTERNAL,
+    /** @see IWikiEventModel#onLinkInternal(CharSequence, CharSequence) */
+    LINK_INTERNAL;
+}
@@ -191,7 +191,11 @@ public interface IWikiEventModel
     void onImage(final URL _url);
 
     /**
-     * ReadsA text is read.
+     * A text is read. The <code>_text</code> is only valid during this event:
+     * a parser could reuse the character sequence for the next text (see
+     * {@link org.efaps.wikiutil.parser.gwiki.GWikiVisitor#setTransientText(boolean)}).
+     * If the text is needed after the event, it must be copied (e.g. with
+     * <code>toString()</code>).
      *
      * @param _text     current read text
      */
@@ -0,0 +1,776 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wem;
+
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Wiki event model which sends all events to an underlying Wiki event model
+ * {@link #wem} within an own thread, so that the parser and a CPU intensive
+ * consumer (e.g. HTML rendering) could run on different cores.
+ * <p>
+ * The events are passed as compact records (operation code, up to two
+ * arguments and one number) through a lock-free ring buffer with one
+ * producer (the thread which sends the events) and one consumer (the own
+ * thread). If the underlying Wiki event model is slower than the parser, the
+ * parser waits until the ring buffer has free space again; waiting threads
+ * spin shortly, then yield and then park until the other thread has made
+ * progress (the other thread unparks them). So a thread which waits for
+ * events which never come does not need any CPU time.
+ * <p>
+ * The thread is started with the first event and is used for all following
+ * documents until the thread is stopped with {@link #close()}, so the
+ * instance must be closed after the last document. The
+ * {@link #documentEnd() end of the document} waits until the underlying Wiki
+ * event model has processed all events; if the underlying Wiki event model
+ * failed, the failure is thrown there. If a document could not be completed
+ * (e.g. because of a parse error), the instance must also be closed (the
+ * {@link org.efaps.wikiutil.parser.gwiki.GWikiParserSession parser session}
+ * does this itself if parsing fails); the next document starts a new
+ * thread.
+ * <p>
+ * Texts are always copied to strings before they are queued, so the
+ * underlying Wiki event model gets no transient texts.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ * @see WEMMulticast#addAsync(IWikiEventModel, int)
+ */
+public class WEMAsync
+    implements IWikiEventModel, AutoCloseable
+{
+    /**
+     * Operation code to stop the thread.
+     */
+    private static final byte STOP = -1;
+
+    /**
+     * All events depending on the ordinal.
+     */
+    private static final EWikiEvent[] EVENTS = EWikiEvent.values();
+
+    /**
+     * Underlying Wiki event model which is called from the thread.
+     */
+    private final IWikiEventModel wem;
+
+    /**
+     * Mask of the indexes within the ring buffer (capacity minus one).
+     */
+    private final int mask;
+
+    /**
+     * Operation codes of the queued events (ordinal of the
+     * {@link EWikiEvent event} or {@link #STOP}).
+     */
+    private final byte[] opcodes;
+
+    /**
+     * First arguments of the queued events.
+     */
+    private final Object[] args1;
+
+    /**
+     * Second arguments of the queued events.
+     */
+    private final Object[] args2;
+
+    /**
+     * Numbers of the queued events.
+     */
+    private final int[] numbers;
+
+    /**
+     * Index of the next event which is read by the consumer.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Index of the next event which is written by the producer.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Last read value of {@link #head} by the producer (so that the producer
+     * must not read the {@link #head} for each event).
+     */
+    private long cachedHead;
+
+    /**
+     * Thread which sends the events to the underlying Wiki event model
+     * (or <code>null</code> if not started).
+     */
+    private Thread thread;
+
+    /**
+     * Is the {@link #thread} parked because no event is queued? In this case
+     * the producer unparks the thread after the next event is queued.
+     */
+    private volatile boolean consumerParked;
+
+    /**
+     * Producer thread which is parked because the ring buffer is full or
+     * because the producer waits for the end of the document (or
+     * <code>null</code>). The {@link #thread} unparks the producer after an
+     * event is processed.
+     */
+    private volatile Thread parkedProducer;
+
+    /**
+     * Failure of the underlying Wiki event model. After a failure all further
+     * events are discarded.
+     */
+    private volatile Throwable error;
+
+    /**
+     * Constructor.
+     *
+     * @param _wem      underlying Wiki event model
+     * @param _capacity maximum number of queued events (rounded up to a
+     *                  power of two)
+     */
+    public WEMAsync(final IWikiEventModel _wem,
+                    final int _capacity)
+    {
+        this.wem = _wem;
+        final int capacity = Integer.highestOneBit(Math.max(2, _capacity) * 2 - 1);
+        this.mask = capacity - 1;
+        this.opcodes = new byte[capacity];
+        this.args1 = new Object[capacity];
+        this.args2 = new Object[capacity];
+        this.numbers = new int[capacity];
+    }
+
+    /**
+     * Queues the <code>_event</code>.
+     *
+     * @param _event    event to queue
+     * @param _arg1     first argument
+     * @param _arg2     second argument
+     * @param _number   number
+     */
+    private void post(final EWikiEvent _event,
+                      final Object _arg1,
+                      final Object _arg2,
+                      final int _number)
+    {
+        this.put((byte) _event.ordinal(), _arg1, _arg2, _number);
+    }
+
+    /**
+     * Writes the event into the ring buffer and starts the thread if
+     * required. If the ring buffer is full, the method waits until the
+     * consumer has read an event.
+     *
+     * @param _opcode   operation code of the event
+     * @param _arg1     first argument
+     * @param _arg2     second argument
+     * @param _number   number
+     */
+    private void put(final byte _opcode,
+                     final Object _arg1,
+                     final Object _arg2,
+                     final int _number)
+    {
+        if (this.thread == null)  {
+            this.thread = new Thread(this::run, "WEMAsync");
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+        final long index = this.tail.get();
+        this.await(index - this.mask);
+        final int slot = (int) index & this.mask;
+        this.opcodes[slot] = _opcode;
+        this.args1[slot] = _arg1;
+        this.args2[slot] = _arg2;
+        this.numbers[slot] = _number;
+        // not lazy, so that a consumer which parks afterwards sees the event
+        this.tail.set(index + 1);
+        if (this.consumerParked)  {
+            LockSupport.unpark(this.thread);
+        }
+    }
+
+    /**
+     * Waits until the consumer has processed all events before the event
+     * with index <code>_head</code>. The waiting thread spins shortly, then
+     * yields and then parks until the consumer has processed an event.
+     *
+     * @param _head     index of the next event which the consumer must
+     *                  process
+     * @throws IllegalStateException if the current thread was interrupted
+     */
+    private void await(final long _head)
+    {
+        if (this.cachedHead < _head)  {
+            int idle = 0;
+            this.cachedHead = this.head.get();
+            while (this.cachedHead < _head)  {
+                if (!WEMAsync.idle(idle++))  {
+                    this.parkedProducer = Thread.currentThread();
+                    if (this.head.get() < _head)  {
+                        LockSupport.park(this);
+                    }
+                    this.parkedProducer = null;
+                    if (Thread.currentThread().isInterrupted())  {
+                        throw new IllegalStateException("interrupted while waiting for the Wiki event model");
+                    }
+                }
+                this.cachedHead = this.head.get();
+            }
+        }
+    }
+
+    /**
+     * Sends the queued events to the underlying Wiki event model until the
+     * thread is stopped. Between two documents the thread is parked.
+     */
+    private void run()
+    {
+        long index = this.head.get();
+        boolean running = true;
+        int idle = 0;
+        while (running)  {
+            if (index == this.tail.get())  {
+                if (!WEMAsync.idle(idle++))  {
+                    this.consumerParked = true;
+                    if (index == this.tail.get())  {
+                        LockSupport.park(this);
+                    }
+                    this.consumerParked = false;
+                }
+            } else  {
+                idle = 0;
+                final int slot = (int) index & this.mask;
+                final byte opcode = this.opcodes[slot];
+                final Object arg1 = this.args1[slot];
+                final Object arg2 = this.args2[slot];
+                this.args1[slot] = null;
+                this.args2[slot] = null;
+                if (opcode == WEMAsync.STOP)  {
+                    running = false;
+                } else if (this.error == null)  {
+                    try  {
+                        this.dispatch(opcode, arg1, arg2, this.numbers[slot]);
+                    } catch (final RuntimeException | Error e)  {
+                        this.error = e;
+                    }
+                }
+                // not lazy, so that a producer which parks afterwards sees the free slot
+                this.head.set(++index);
+                final Thread producer = this.parkedProducer;
+                if (producer != null)  {
+                    LockSupport.unpark(producer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends one event to the underlying Wiki event model.
+     *
+     * @param _opcode   operation code of the event
+     * @param _arg1     first argument
+     * @param _arg2     second argument
+     * @param _number   number
+     */
+    private void dispatch(final byte _opcode,
+                          final Object _arg1,
+                          final Object _arg2,
+                          final int _number)
+    {
+        switch (WEMAsync.EVENTS[_opcode])  {
+            case PROPERTY:
+                this.wem.onProperty((EProperty) _arg1, (String) _arg2);
+                break;
+            case DOCUMENT_START:
+                this.wem.documentStart();
+                break;
+            case DOCUMENT_END:
+                this.wem.documentEnd();
+                break;
+            case SECTION_START:
+                this.wem.sectionStart();
+                break;
+            case SECTION_END:
+                this.wem.sectionEnd();
+                break;
+            case HEADING_START:
+                this.wem.headingStart();
+                break;
+            case HEADING_END:
+                this.wem.headingEnd();
+                break;
+            case PARAGRAPH_START:
+                this.wem.paragraphStart();
+                break;
+            case PARAGRAPH_END:
+                this.wem.paragraphEnd();
+                break;
+            case TABLE_START:
+                this.wem.tableStart();
+                break;
+            case TABLE_END:
+                this.wem.tableEnd();
+                break;
+            case TABLE_BODY_START:
+                this.wem.tableBodyStart();
+                break;
+            case TABLE_BODY_END:
+                this.wem.tableBodyEnd();
+                break;
+            case TABLE_ROW_START:
+                this.wem.tableRowStart();
+                break;
+            case TABLE_ROW_END:
+                this.wem.tableRowEnd();
+                break;
+            case TABLE_ENTRY_START:
+                this.wem.tableEntryStart();
+                break;
+            case TABLE_ENTRY_END:
+                this.wem.tableEntryEnd();
+                break;
+            case TYPEFACE_START:
+                this.wem.typefaceStart((ETypeface) _arg1);
+                break;
+            case TYPEFACE_END:
+                this.wem.typefaceEnd((ETypeface) _arg1);
+                break;
+            case LIST_BULLETED_START:
+                this.wem.listBulletedStart();
+                break;
+            case LIST_BULLETED_END:
+                this.wem.listBulletedEnd();
+                break;
+            case LIST_NUMBERED_START:
+                this.wem.listNumberedStart();
+                break;
+            case LIST_NUMBERED_END:
+                this.wem.listNumberedEnd();
+                break;
+            case LIST_ENTRY_START:
+                this.wem.listEntryStart();
+                break;
+            case LIST_ENTRY_END:
+                this.wem.listEntryEnd();
+                break;
+            case DIVIDER:
+                this.wem.onDivider();
+                break;
+            case NEW_LINE:
+                this.wem.onNewLine();
+                break;
+            case PREFORMAT:
+                this.wem.onPreformat((String) _arg1);
+                break;
+            case TABLE_OF_CONTENTS:
+                this.wem.onTableOfContents(_number);
+                break;
+            case IMAGE:
+                this.wem.onImage((URL) _arg1);
+                break;
+            case TEXT:
+                this.wem.onText((String) _arg1);
+                break;
+            case LINK_EXTERNAL:
+                this.wem.onLinkExternal((URL) _arg1, (String) _arg2);
+                break;
+            case LINK_INTERNAL:
+                this.wem.onLinkInternal((String) _arg1, (String) _arg2);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Waits shortly for the other thread: spins for the first calls and then
+     * yields. After that the caller must park.
+     *
+     * @param _count    number of the previous calls without progress
+     * @return <i>true</i> if waited; <i>false</i> if the caller must park
+     */
+    private static boolean idle(final int _count)
+    {
+        boolean ret = true;
+        if (_count < 100)  {
+            Thread.onSpinWait();
+        } else if (_count < 200)  {
+            Thread.yield();
+        } else  {
+            ret = false;
+        }
+        return ret;
+    }
+
+    /**
+     * Waits until the thread is terminated.
+     *
+     * @throws IllegalStateException if the current thread was interrupted
+     */
+    private void join()
+    {
+        try  {
+            this.thread.join();
+        } catch (final InterruptedException e)  {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the Wiki event model", e);
+        } finally  {
+            this.thread = null;
+        }
+    }
+
+    /**
+     * Stops the thread. All queued events (also of a not completed document)
+     * are sent to the underlying Wiki event model before.
+     *
+     * @throws IllegalStateException if the current thread was interrupted
+     */
+    @Override
+    public void close()
+    {
+        if (this.thread != null)  {
+            this.put(WEMAsync.STOP, null, null, 0);
+            this.join();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void documentStart()
+    {
+        this.error = null;
+        this.post(EWikiEvent.DOCUMENT_START, null, null, 0);
+    }
+
+    /**
+     * Queues the end of the document and waits until the underlying Wiki
+     * event model processed all events. The thread is not stopped, so that
+     * it is used for the next document.
+     *
+     * @throws IllegalStateException if the underlying Wiki event model failed
+     *                               or the current thread was interrupted
+     */
+    @Override
+    public void documentEnd()
+    {
+        this.post(EWikiEvent.DOCUMENT_END, null, null, 0);
+        this.await(this.tail.get());
+        final Throwable failure = this.error;
+        if (failure != null)  {
+            this.error = null;
+            throw new IllegalStateException("asynchronous Wiki event model failed", failure);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onProperty(final EProperty _property,
+                           final String _value)
+    {
+        this.post(EWikiEvent.PROPERTY, _property, _value, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sectionStart()
+    {
+        this.post(EWikiEvent.SECTION_START, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sectionEnd()
+    {
+        this.post(EWikiEvent.SECTION_END, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void headingStart()
+    {
+        this.post(EWikiEvent.HEADING_START, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void headingEnd()
+    {
+        this.post(EWikiEvent.HEADING_END, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void paragraphStart()
+    {
+        this.post(EWikiEvent.PARAGRAPH_START, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void paragraphEnd()
+    {
+        this.post(EWikiEvent.PARAGRAPH_END, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableStart()
+    {
+        this.post(EWikiEvent.TABLE_START, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableEnd()
+    {
+        this.post(EWikiEvent.TABLE_END, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableBodyStart()
+    {
+        this.post(EWikiEvent.TABLE_BODY_START, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableBodyEnd()
+    {
+        this.post(EWikiEvent.TABLE_BODY_END, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableRowStart()
+    {
+        this.post(EWikiEvent.TABLE_ROW_START, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableRowEnd()
+    {
+        this.post(EWikiEvent.TABLE_ROW_END, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableEntryStart()
+    {
+        this.post(EWikiEvent.TABLE_ENTRY_START, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableEntryEnd()
+    {
+        this.post(EWikiEvent.TABLE_ENTRY_END, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void typefaceStart(final ETypeface _typeface)
+    {
+        this.post(EWikiEvent.TYPEFACE_START, _typeface, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void typefaceEnd(final ETypeface _typeface)
+    {
+        this.post(EWikiEvent.TYPEFACE_END, _typeface, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listBulletedStart()
+    {
+        this.post(EWikiEvent.LIST_BULLETED_START, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listBulletedEnd()
+    {
+        this.post(EWikiEvent.LIST_BULLETED_END, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listNumberedStart()
+    {
+        this.post(EWikiEvent.LIST_NUMBERED_START, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listNumberedEnd()
+    {
+        this.post(EWikiEvent.LIST_NUMBERED_END, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listEntryStart()
+    {
+        this.post(EWikiEvent.LIST_ENTRY_START, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listEntryEnd()
+    {
+        this.post(EWikiEvent.LIST_ENTRY_END, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onDivider()
+    {
+        this.post(EWikiEvent.DIVIDER, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onNewLine()
+    {
+        this.post(EWikiEvent.NEW_LINE, null, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPreformat(final CharSequence _text)
+    {
+        this.post(EWikiEvent.PREFORMAT, WEMAsync.copy(_text), null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onTableOfContents(final int _deepth)
+    {
+        this.post(EWikiEvent.TABLE_OF_CONTENTS, null, null, _deepth);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onImage(final URL _url)
+    {
+        this.post(EWikiEvent.IMAGE, _url, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onText(final CharSequence _text)
+    {
+        this.post(EWikiEvent.TEXT, WEMAsync.copy(_text), null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onLinkExternal(final URL _url,
+                               final CharSequence _description)
+    {
+        this.post(EWikiEvent.LINK_EXTERNAL, _url, WEMAsync.copy(_description), 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onLinkInternal(final CharSequence _link,
+                               final CharSequence _description)
+    {
+        this.post(EWikiEvent.LINK_INTERNAL, WEMAsync.copy(_link), WEMAsync.copy(_description), 0);
+    }
+
+    /**
+     * Copies <code>_text</code> to a string.
+     *
+     * @param _text     text to copy (or <code>null</code>)
+     * @return copied text (or <code>null</code>)
+     */
+    private static String copy(final CharSequence _text)
+    {
+        return (_text == null) ? null : _text.toString();
+    }
+}
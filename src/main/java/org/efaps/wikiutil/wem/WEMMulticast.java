@@ -0,0 +1,478 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wem;
+
+import java.net.URL;
+import java.util.Arrays;
+
+/**
+ * Wiki event model which sends each event to all defined consumers, so that
+ * one parsed Wiki page could be used for many outputs at the same time (e.g.
+ * HTML, the Wiki object model and a search index). The consumers are called
+ * in the order in which they are added. A slow consumer could be
+ * {@link #addAsync(IWikiEventModel, int) added asynchronous}; then the
+ * consumer gets the events within an own thread.
+ *
+ * <b>Example:<br/></b>
+ * <pre>
+ * final WEM2WOM wom = new WEM2WOM();
+ * final WEMHtml html = new WEMHtml(writer, null);
+ * try (WEMMulticast multicast = new WEMMulticast().add(wom).addAsync(html, 1024))  {
+ *     GWikiParser.parse(multicast, reader);
+ * }
+ * </pre>
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class WEMMulticast
+    implements IWikiEventModel, AutoCloseable
+{
+    /**
+     * Consumers of the events.
+     */
+    private IWikiEventModel[] consumers = new IWikiEventModel[0];
+
+    /**
+     * Adds <code>_wem</code> as consumer which is called within the thread of
+     * the parser.
+     *
+     * @param _wem  Wiki event model to add
+     * @return this instance
+     */
+    public WEMMulticast add(final IWikiEventModel _wem)
+    {
+        this.consumers = Arrays.copyOf(this.consumers, this.consumers.length + 1);
+        this.consumers[this.consumers.length - 1] = _wem;
+        return this;
+    }
+
+    /**
+     * Adds <code>_wem</code> as consumer which is called within an own
+     * thread. The events are passed through a ring buffer with maximum
+     * <code>_capacity</code> events (rounded up to a power of two). The end of the document waits until
+     * the consumer has processed all events.
+     *
+     * @param _wem      Wiki event model to add
+     * @param _capacity maximum number of queued events
+     * @return this instance
+     * @see WEMAsync
+     */
+    public WEMMulticast addAsync(final IWikiEventModel _wem,
+                                 final int _capacity)
+    {
+        return this.add(new WEMAsync(_wem, _capacity));
+    }
+
+    /**
+     * Closes all consumers which are {@link AutoCloseable auto closeable}
+     * (e.g. stops the threads of the asynchronous consumers). All consumers
+     * are closed, also if the close of a consumer failed; the first failure
+     * is thrown, all other failures are added as suppressed exceptions.
+     *
+     * @throws IllegalStateException if a consumer could not be closed
+     * @see WEMAsync#close()
+     */
+    @Override
+    public void close()
+    {
+        IllegalStateException failure = null;
+        for (final IWikiEventModel wem : this.consumers)  {
+            if (wem instanceof AutoCloseable)  {
+                try  {
+                    ((AutoCloseable) wem).close();
+                } catch (final Exception e)  {
+                    if (failure == null)  {
+                        failure = (e instanceof IllegalStateException)
+                                        ? (IllegalStateException) e
+                                        : new IllegalStateException("consumer " + wem + " could not be closed", e);
+                    } else  {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        if (failure != null)  {
+            throw failure;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onProperty(final EProperty _property,
+                           final String _value)
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.onProperty(_property, _value);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void documentStart()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.documentStart();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void documentEnd()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.documentEnd();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sectionStart()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.sectionStart();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sectionEnd()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.sectionEnd();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void headingStart()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.headingStart();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void headingEnd()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.headingEnd();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void paragraphStart()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.paragraphStart();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void paragraphEnd()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.paragraphEnd();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableStart()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.tableStart();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableEnd()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.tableEnd();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableBodyStart()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.tableBodyStart();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableBodyEnd()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.tableBodyEnd();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableRowStart()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.tableRowStart();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableRowEnd()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.tableRowEnd();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableEntryStart()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.tableEntryStart();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableEntryEnd()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.tableEntryEnd();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void typefaceStart(final ETypeface _typeface)
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.typefaceStart(_typeface);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void typefaceEnd(final ETypeface _typeface)
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.typefaceEnd(_typeface);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listBulletedStart()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.listBulletedStart();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listBulletedEnd()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.listBulletedEnd();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listNumberedStart()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.listNumberedStart();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listNumberedEnd()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.listNumberedEnd();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listEntryStart()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.listEntryStart();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listEntryEnd()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.listEntryEnd();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onDivider()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.onDivider();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onNewLine()
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.onNewLine();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPreformat(final CharSequence _text)
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.onPreformat(_text);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onTableOfContents(final int _deepth)
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.onTableOfContents(_deepth);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onImage(final URL _url)
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.onImage(_url);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onText(final CharSequence _text)
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.onText(_text);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onLinkExternal(final URL _url,
+                               final CharSequence _description)
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.onLinkExternal(_url, _description);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onLinkInternal(final CharSequence _link,
+                               final CharSequence _description)
+    {
+        for (final IWikiEventModel wem : this.consumers)  {
+            wem.onLinkInternal(_link, _description);
+        }
+    }
+}
@@ -0,0 +1,547 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wem;
+
+import java.net.URL;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * Wiki event model which collects statistics of the events: the number of
+ * each {@link EWikiEvent event}, the length of the texts, the maximum depth
+ * of nested elements and the number of sections per section level. No
+ * objects are allocated per event, so the statistics could also be used to
+ * profile the parser.
+ * <p>
+ * The statistics are summed up over all parsed Wiki pages until
+ * {@link #reset()} is called, so the same instance could be used for a
+ * complete set of Wiki pages.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class WEMStatistics
+    implements IWikiEventModel
+{
+    /**
+     * Maximum section level for which the sections are counted separately;
+     * deeper sections are counted for this level.
+     */
+    public static final int MAX_SECTION_LEVEL = 6;
+
+    /**
+     * Number of events depending on the ordinal of the event.
+     */
+    private final long[] counts = new long[EWikiEvent.values().length];
+
+    /**
+     * Number of sections per section level (index <code>0</code> is level
+     * <code>1</code>).
+     */
+    private final long[] sections = new long[WEMStatistics.MAX_SECTION_LEVEL];
+
+    /**
+     * Sum of the length of all texts.
+     */
+    private long textLength;
+
+    /**
+     * Sum of the length of all preformatted texts.
+     */
+    private long preformatLength;
+
+    /**
+     * Current depth of nested elements.
+     */
+    private int depth;
+
+    /**
+     * Maximum depth of nested elements.
+     */
+    private int maxDepth;
+
+    /**
+     * Current section level.
+     */
+    private int sectionLevel;
+
+    /**
+     * Removes all collected statistics.
+     *
+     * @return this instance
+     */
+    public WEMStatistics reset()
+    {
+        Arrays.fill(this.counts, 0L);
+        Arrays.fill(this.sections, 0L);
+        this.textLength = 0;
+        this.preformatLength = 0;
+        this.depth = 0;
+        this.maxDepth = 0;
+        this.sectionLevel = 0;
+        return this;
+    }
+
+    /**
+     * Returns the number of given <code>_event</code>.
+     *
+     * @param _event    event
+     * @return number of events
+     */
+    public long getCount(final EWikiEvent _event)
+    {
+        return this.counts[_event.ordinal()];
+    }
+
+    /**
+     * Returns the number of all events.
+     *
+     * @return number of all events
+     */
+    public long getCount()
+    {
+        long ret = 0;
+        for (final long count : this.counts)  {
+            ret += count;
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the number of parsed Wiki pages.
+     *
+     * @return number of documents
+     */
+    public long getDocuments()
+    {
+        return this.getCount(EWikiEvent.DOCUMENT_START);
+    }
+
+    /**
+     * Returns the number of sections for given <code>_level</code>.
+     *
+     * @param _level    section level starting with <code>1</code>; sections
+     *                  deeper than {@link #MAX_SECTION_LEVEL} are counted
+     *                  with the maximum level
+     * @return number of sections
+     */
+    public long getSections(final int _level)
+    {
+        return this.sections[_level - 1];
+    }
+
+    /**
+     * Returns the sum of the length of all texts.
+     *
+     * @return length of all texts
+     * @see #textLength
+     */
+    public long getTextLength()
+    {
+        return this.textLength;
+    }
+
+    /**
+     * Returns the sum of the length of all preformatted texts.
+     *
+     * @return length of all preformatted texts
+     * @see #preformatLength
+     */
+    public long getPreformatLength()
+    {
+        return this.preformatLength;
+    }
+
+    /**
+     * Returns the maximum depth of nested elements (the document itself has
+     * depth <code>1</code>).
+     *
+     * @return maximum depth
+     * @see #maxDepth
+     */
+    public int getMaxDepth()
+    {
+        return this.maxDepth;
+    }
+
+    /**
+     * Counts <code>_event</code>.
+     *
+     * @param _event    event to count
+     */
+    private void count(final EWikiEvent _event)
+    {
+        this.counts[_event.ordinal()]++;
+    }
+
+    /**
+     * Counts the start event <code>_event</code> and increases the depth.
+     *
+     * @param _event    start event to count
+     */
+    private void start(final EWikiEvent _event)
+    {
+        this.counts[_event.ordinal()]++;
+        if (++this.depth > this.maxDepth)  {
+            this.maxDepth = this.depth;
+        }
+    }
+
+    /**
+     * Counts the end event <code>_event</code> and decreases the depth.
+     *
+     * @param _event    end event to count
+     */
+    private void end(final EWikiEvent _event)
+    {
+        this.counts[_event.ordinal()]++;
+        this.depth--;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onProperty(final EProperty _property,
+                           final String _value)
+    {
+        this.count(EWikiEvent.PROPERTY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The depth and the section level are reset, so that an aborted Wiki
+     * page does not influence the statistics of the next page.
+     */
+    @Override
+    public void documentStart()
+    {
+        this.depth = 0;
+        this.sectionLevel = 0;
+        this.start(EWikiEvent.DOCUMENT_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void documentEnd()
+    {
+        this.end(EWikiEvent.DOCUMENT_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sectionStart()
+    {
+        this.start(EWikiEvent.SECTION_START);
+        this.sections[Math.min(this.sectionLevel, this.sections.length - 1)]++;
+        this.sectionLevel++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sectionEnd()
+    {
+        this.end(EWikiEvent.SECTION_END);
+        this.sectionLevel--;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void headingStart()
+    {
+        this.start(EWikiEvent.HEADING_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void headingEnd()
+    {
+        this.end(EWikiEvent.HEADING_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void paragraphStart()
+    {
+        this.start(EWikiEvent.PARAGRAPH_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void paragraphEnd()
+    {
+        this.end(EWikiEvent.PARAGRAPH_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableStart()
+    {
+        this.start(EWikiEvent.TABLE_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableEnd()
+    {
+        this.end(EWikiEvent.TABLE_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableBodyStart()
+    {
+        this.start(EWikiEvent.TABLE_BODY_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableBodyEnd()
+    {
+        this.end(EWikiEvent.TABLE_BODY_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableRowStart()
+    {
+        this.start(EWikiEvent.TABLE_ROW_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableRowEnd()
+    {
+        this.end(EWikiEvent.TABLE_ROW_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableEntryStart()
+    {
+        this.start(EWikiEvent.TABLE_ENTRY_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableEntryEnd()
+    {
+        this.end(EWikiEvent.TABLE_ENTRY_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void typefaceStart(final ETypeface _typeface)
+    {
+        this.start(EWikiEvent.TYPEFACE_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void typefaceEnd(final ETypeface _typeface)
+    {
+        this.end(EWikiEvent.TYPEFACE_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listBulletedStart()
+    {
+        this.start(EWikiEvent.LIST_BULLETED_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listBulletedEnd()
+    {
+        this.end(EWikiEvent.LIST_BULLETED_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listNumberedStart()
+    {
+        this.start(EWikiEvent.LIST_NUMBERED_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listNumberedEnd()
+    {
+        this.end(EWikiEvent.LIST_NUMBERED_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listEntryStart()
+    {
+        this.start(EWikiEvent.LIST_ENTRY_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listEntryEnd()
+    {
+        this.end(EWikiEvent.LIST_ENTRY_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onDivider()
+    {
+        this.count(EWikiEvent.DIVIDER);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onNewLine()
+    {
+        this.count(EWikiEvent.NEW_LINE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPreformat(final CharSequence _text)
+    {
+        this.count(EWikiEvent.PREFORMAT);
+        this.preformatLength += _text.length();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onTableOfContents(final int _deepth)
+    {
+        this.count(EWikiEvent.TABLE_OF_CONTENTS);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onImage(final URL _url)
+    {
+        this.count(EWikiEvent.IMAGE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onText(final CharSequence _text)
+    {
+        this.count(EWikiEvent.TEXT);
+        this.textLength += _text.length();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onLinkExternal(final URL _url,
+                               final CharSequence _description)
+    {
+        this.count(EWikiEvent.LINK_EXTERNAL);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onLinkInternal(final CharSequence _link,
+                               final CharSequence _description)
+    {
+        this.count(EWikiEvent.LINK_INTERNAL);
+    }
+
+    /**
+     * Returns the string representation of the statistics with the number
+     * of each event which occurred at minimum once.
+     *
+     * @return string representation of this statistics
+     */
+    @Override
+    public String toString()
+    {
+        final ToStringBuilder ret = new ToStringBuilder(this)
+            .append("documents", this.getDocuments())
+            .append("events", this.getCount())
+            .append("textLength", this.textLength)
+            .append("preformatLength", this.preformatLength)
+            .append("maxDepth", this.maxDepth)
+            .append("sections", this.sections);
+        for (final EWikiEvent event : EWikiEvent.values())  {
+            if (this.counts[event.ordinal()] > 0)  {
+                ret.append(event.name(), this.counts[event.ordinal()]);
+            }
+        }
+        return ret.toString();
+    }
+}
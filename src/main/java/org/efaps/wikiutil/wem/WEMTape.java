@@ -0,0 +1,571 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Wiki event model which records all events of a Wiki page on a compact
+ * binary tape. The tape could be cached (in memory or on disk) and replayed
+ * with the {@link WEMTapePlayer tape player} into any Wiki event model as
+ * often as needed without parsing the Wiki page again.
+ * <p>
+ * Format of the tape:
+ * <ul>
+ * <li>header with the {@link #MAGIC magic bytes} and the
+ *     {@link #VERSION version}</li>
+ * <li>for each event the {@link EWikiEvent#ordinal() ordinal of the event}
+ *     as one byte followed by the arguments of the event</li>
+ * <li>{@link ETypeface typefaces} and {@link EProperty properties} are
+ *     stored as one byte with the ordinal</li>
+ * <li>integers are stored as zig-zag encoded variable length integers</li>
+ * <li>texts and URLs are stored as UTF-8 bytes with a prefixed variable
+ *     length integer of the byte length plus one (<code>0</code> is used
+ *     for <code>null</code>)</li>
+ * </ul>
+ *
+ * <b>Example:<br/></b>
+ * <pre>
+ * final WEMTape tape = new WEMTape();
+ * GWikiParser.parse(tape, reader);
+ * final byte[] bytes = tape.toByteArray();
+ * ...
+ * new WEMTapePlayer(bytes).play(new WEMHtml());
+ * </pre>
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class WEMTape
+    implements IWikiEventModel
+{
+    /**
+     * Magic bytes at the beginning of each tape.
+     */
+    static final byte[] MAGIC = {'W', 'E', 'M', 'T'};
+
+    /**
+     * Version of the tape format.
+     */
+    static final byte VERSION = 1;
+
+    /**
+     * Recorded bytes of the tape.
+     */
+    private byte[] bytes;
+
+    /**
+     * Number of used bytes in {@link #bytes}.
+     */
+    private int size;
+
+    /**
+     * Encoder for the texts; unpaired surrogates are replaced by
+     * <code>?</code>.
+     */
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    /**
+     * Buffer for the encoded bytes of a text (the byte length must be known
+     * before the bytes are written).
+     */
+    private ByteBuffer encoded = ByteBuffer.allocate(256);
+
+    /**
+     * Constructor of a new empty tape.
+     */
+    public WEMTape()
+    {
+        this(1024);
+    }
+
+    /**
+     * Constructor of a new empty tape with <code>_capacity</code> initial
+     * bytes.
+     *
+     * @param _capacity     initial capacity in bytes
+     */
+    public WEMTape(final int _capacity)
+    {
+        this.bytes = new byte[Math.max(_capacity, WEMTape.MAGIC.length + 1)];
+        this.reset();
+    }
+
+    /**
+     * Removes all recorded events from the tape.
+     *
+     * @return this instance
+     */
+    public WEMTape reset()
+    {
+        System.arraycopy(WEMTape.MAGIC, 0, this.bytes, 0, WEMTape.MAGIC.length);
+        this.bytes[WEMTape.MAGIC.length] = WEMTape.VERSION;
+        this.size = WEMTape.MAGIC.length + 1;
+        return this;
+    }
+
+    /**
+     * Returns the number of recorded bytes (including the header).
+     *
+     * @return size of the tape in bytes
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Returns a copy of the recorded bytes.
+     *
+     * @return bytes of the tape
+     */
+    public byte[] toByteArray()
+    {
+        return Arrays.copyOf(this.bytes, this.size);
+    }
+
+    /**
+     * Writes the recorded bytes to <code>_out</code>.
+     *
+     * @param _out  output stream
+     * @throws IOException if the tape could not be written
+     */
+    public void writeTo(final OutputStream _out)
+        throws IOException
+    {
+        _out.write(this.bytes, 0, this.size);
+    }
+
+    /**
+     * Replays the recorded events into <code>_wem</code>.
+     *
+     * @param _wem  Wiki event model to which the events are send
+     */
+    public void play(final IWikiEventModel _wem)
+    {
+        new WEMTapePlayer(this.bytes, 0, this.size).play(_wem);
+    }
+
+    /**
+     * Ensures that <code>_count</code> further bytes could be written.
+     *
+     * @param _count    number of bytes to write
+     */
+    private void ensureCapacity(final int _count)
+    {
+        if (this.size + _count > this.bytes.length)  {
+            this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length * 2, this.size + _count));
+        }
+    }
+
+    /**
+     * Writes the operation code of <code>_event</code>.
+     *
+     * @param _event    event to write
+     */
+    private void write(final EWikiEvent _event)
+    {
+        this.ensureCapacity(1);
+        this.bytes[this.size++] = (byte) _event.ordinal();
+    }
+
+    /**
+     * Writes the operation code of <code>_event</code> followed by the
+     * ordinal of <code>_enum</code>.
+     *
+     * @param _event    event to write
+     * @param _enum     typeface or property
+     */
+    private void write(final EWikiEvent _event,
+                       final Enum<?> _enum)
+    {
+        this.ensureCapacity(2);
+        this.bytes[this.size++] = (byte) _event.ordinal();
+        this.bytes[this.size++] = (byte) _enum.ordinal();
+    }
+
+    /**
+     * Writes <code>_value</code> as variable length integer.
+     *
+     * @param _value    unsigned value to write
+     */
+    private void writeVarInt(final int _value)
+    {
+        this.ensureCapacity(5);
+        int value = _value;
+        while ((value & ~0x7F) != 0)  {
+            this.bytes[this.size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        this.bytes[this.size++] = (byte) value;
+    }
+
+    /**
+     * Writes <code>_text</code> as length prefixed UTF-8 bytes. Unpaired
+     * surrogates are written as <code>?</code>.
+     *
+     * @param _text     text to write (or <code>null</code>)
+     */
+    private void writeText(final CharSequence _text)
+    {
+        if (_text == null)  {
+            this.writeVarInt(0);
+        } else  {
+            final int max = (int) (_text.length() * this.encoder.maxBytesPerChar());
+            if (max > this.encoded.capacity())  {
+                this.encoded = ByteBuffer.allocate(Math.max(max, this.encoded.capacity() * 2));
+            }
+            this.encoded.clear();
+            this.encoder.reset();
+            this.encoder.encode(CharBuffer.wrap(_text), this.encoded, true);
+            this.encoder.flush(this.encoded);
+            final int length = this.encoded.position();
+            this.writeVarInt(length + 1);
+            this.ensureCapacity(length);
+            System.arraycopy(this.encoded.array(), 0, this.bytes, this.size, length);
+            this.size += length;
+        }
+    }
+
+    /**
+     * Writes <code>_url</code> as text.
+     *
+     * @param _url      URL to write (or <code>null</code>)
+     */
+    private void writeURL(final URL _url)
+    {
+        this.writeText((_url == null) ? null : _url.toExternalForm());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onProperty(final EProperty _property,
+                           final String _value)
+    {
+        this.write(EWikiEvent.PROPERTY, _property);
+        this.writeText(_value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void documentStart()
+    {
+        this.write(EWikiEvent.DOCUMENT_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void documentEnd()
+    {
+        this.write(EWikiEvent.DOCUMENT_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sectionStart()
+    {
+        this.write(EWikiEvent.SECTION_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sectionEnd()
+    {
+        this.write(EWikiEvent.SECTION_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void headingStart()
+    {
+        this.write(EWikiEvent.HEADING_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void headingEnd()
+    {
+        this.write(EWikiEvent.HEADING_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void paragraphStart()
+    {
+        this.write(EWikiEvent.PARAGRAPH_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void paragraphEnd()
+    {
+        this.write(EWikiEvent.PARAGRAPH_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableStart()
+    {
+        this.write(EWikiEvent.TABLE_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableEnd()
+    {
+        this.write(EWikiEvent.TABLE_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableBodyStart()
+    {
+        this.write(EWikiEvent.TABLE_BODY_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableBodyEnd()
+    {
+        this.write(EWikiEvent.TABLE_BODY_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableRowStart()
+    {
+        this.write(EWikiEvent.TABLE_ROW_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableRowEnd()
+    {
+        this.write(EWikiEvent.TABLE_ROW_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableEntryStart()
+    {
+        this.write(EWikiEvent.TABLE_ENTRY_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableEntryEnd()
+    {
+        this.write(EWikiEvent.TABLE_ENTRY_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void typefaceStart(final ETypeface _typeface)
+    {
+        this.write(EWikiEvent.TYPEFACE_START, _typeface);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void typefaceEnd(final ETypeface _typeface)
+    {
+        this.write(EWikiEvent.TYPEFACE_END, _typeface);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listBulletedStart()
+    {
+        this.write(EWikiEvent.LIST_BULLETED_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listBulletedEnd()
+    {
+        this.write(EWikiEvent.LIST_BULLETED_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listNumberedStart()
+    {
+        this.write(EWikiEvent.LIST_NUMBERED_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listNumberedEnd()
+    {
+        this.write(EWikiEvent.LIST_NUMBERED_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listEntryStart()
+    {
+        this.write(EWikiEvent.LIST_ENTRY_START);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void listEntryEnd()
+    {
+        this.write(EWikiEvent.LIST_ENTRY_END);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onDivider()
+    {
+        this.write(EWikiEvent.DIVIDER);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onNewLine()
+    {
+        this.write(EWikiEvent.NEW_LINE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPreformat(final CharSequence _text)
+    {
+        this.write(EWikiEvent.PREFORMAT);
+        this.writeText(_text);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onTableOfContents(final int _deepth)
+    {
+        this.write(EWikiEvent.TABLE_OF_CONTENTS);
+        this.writeVarInt((_deepth << 1) ^ (_deepth >> 31));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onImage(final URL _url)
+    {
+        this.write(EWikiEvent.IMAGE);
+        this.writeURL(_url);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onText(final CharSequence _text)
+    {
+        this.write(EWikiEvent.TEXT);
+        this.writeText(_text);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onLinkExternal(final URL _url,
+                               final CharSequence _description)
+    {
+        this.write(EWikiEvent.LINK_EXTERNAL);
+        this.writeURL(_url);
+        this.writeText(_description);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onLinkInternal(final CharSequence _link,
+                               final CharSequence _description)
+    {
+        this.write(EWikiEvent.LINK_INTERNAL);
+        this.writeText(_link);
+        this.writeText(_description);
+    }
+}
@@ -0,0 +1,441 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Replays the events recorded on a {@link WEMTape tape} into a Wiki event
+ * model. The player itself does not change the tape, so the same bytes could
+ * be played by many players at the same time.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class WEMTapePlayer
+{
+    /**
+     * All events depending on the ordinal.
+     */
+    private static final EWikiEvent[] EVENTS = EWikiEvent.values();
+
+    /**
+     * All typefaces depending on the ordinal.
+     */
+    private static final ETypeface[] TYPEFACES = ETypeface.values();
+
+    /**
+     * All properties depending on the ordinal.
+     */
+    private static final EProperty[] PROPERTIES = EProperty.values();
+
+    /**
+     * Bytes of the tape.
+     */
+    private final byte[] bytes;
+
+    /**
+     * Index of the first event within {@link #bytes}.
+     */
+    private final int start;
+
+    /**
+     * Index after the last byte of the tape within {@link #bytes}.
+     */
+    private final int end;
+
+    /**
+     * Must the texts of {@link IWikiEventModel#onText(CharSequence)} be
+     * newly created strings? If not, the same character buffer is reused for
+     * all texts.
+     *
+     * @see #setTransientText(boolean)
+     */
+    private boolean transientText = false;
+
+    /**
+     * Current read position within {@link #bytes}.
+     */
+    private int pos;
+
+    /**
+     * Characters of the last decoded text.
+     */
+    private char[] chars = new char[256];
+
+    /**
+     * Reused character buffer for transient texts (wraps {@link #chars}).
+     */
+    private CharBuffer charBuffer = CharBuffer.wrap(this.chars);
+
+    /**
+     * Decoder for the texts; malformed texts are reported.
+     */
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+
+    /**
+     * Byte buffer on the {@link #bytes} used to decode the texts.
+     */
+    private final ByteBuffer byteBuffer;
+
+    /**
+     * Constructor for a player of the tape <code>_bytes</code>.
+     *
+     * @param _bytes    bytes of the tape
+     * @see WEMTape#toByteArray()
+     */
+    public WEMTapePlayer(final byte[] _bytes)
+    {
+        this(_bytes, 0, _bytes.length);
+    }
+
+    /**
+     * Constructor for a player of the tape stored with <code>_length</code>
+     * bytes from <code>_offset</code> in <code>_bytes</code>.
+     *
+     * @param _bytes    bytes of the tape
+     * @param _offset   offset of the tape in <code>_bytes</code>
+     * @param _length   length of the tape
+     * @throws IllegalArgumentException if the bytes are not a tape or the
+     *                                  version of the tape is not supported
+     */
+    public WEMTapePlayer(final byte[] _bytes,
+                         final int _offset,
+                         final int _length)
+    {
+        this.bytes = _bytes;
+        this.byteBuffer = ByteBuffer.wrap(_bytes);
+        this.start = _offset + WEMTape.MAGIC.length + 1;
+        this.end = _offset + _length;
+        if (_length < WEMTape.MAGIC.length + 1)  {
+            throw new IllegalArgumentException("no WEM tape (too short)");
+        }
+        for (int idx = 0; idx < WEMTape.MAGIC.length; idx++)  {
+            if (_bytes[_offset + idx] != WEMTape.MAGIC[idx])  {
+                throw new IllegalArgumentException("no WEM tape (wrong magic bytes)");
+            }
+        }
+        if (_bytes[_offset + WEMTape.MAGIC.length] != WEMTape.VERSION)  {
+            throw new IllegalArgumentException("WEM tape version " + _bytes[_offset + WEMTape.MAGIC.length]
+                            + " not supported");
+        }
+    }
+
+    /**
+     * Reads the complete tape from <code>_in</code>.
+     *
+     * @param _in   input stream with the tape
+     * @return player for the read tape
+     * @throws IOException if the tape could not be read
+     * @throws IllegalArgumentException if the read bytes are not a tape
+     * @see WEMTape#writeTo(java.io.OutputStream)
+     */
+    public static WEMTapePlayer read(final InputStream _in)
+        throws IOException
+    {
+        return new WEMTapePlayer(IOUtils.toByteArray(_in));
+    }
+
+    /**
+     * Defines if the texts of {@link IWikiEventModel#onText(CharSequence)}
+     * are transient. A transient text is a reused character buffer which is
+     * only valid during the event.
+     *
+     * @param _transientText    <i>true</i> if texts are transient
+     * @return this instance
+     * @see #transientText
+     */
+    public WEMTapePlayer setTransientText(final boolean _transientText)
+    {
+        this.transientText = _transientText;
+        return this;
+    }
+
+    /**
+     * Replays all events of the tape into <code>_wem</code>.
+     *
+     * @param _wem  Wiki event model to which the events are send
+     * @throws IllegalArgumentException if the tape is corrupt
+     */
+    public void play(final IWikiEventModel _wem)
+    {
+        this.pos = this.start;
+        while (this.pos < this.end)  {
+            final int opcode = this.readByte();
+            if (opcode >= WEMTapePlayer.EVENTS.length)  {
+                throw new IllegalArgumentException("unknown event " + opcode + " in WEM tape");
+            }
+            switch (WEMTapePlayer.EVENTS[opcode])  {
+                case PROPERTY:
+                    final EProperty property = WEMTapePlayer.PROPERTIES[this.readOrdinal(WEMTapePlayer.PROPERTIES)];
+                    _wem.onProperty(property, this.readString());
+                    break;
+                case DOCUMENT_START:
+                    _wem.documentStart();
+                    break;
+                case DOCUMENT_END:
+                    _wem.documentEnd();
+                    break;
+                case SECTION_START:
+                    _wem.sectionStart();
+                    break;
+                case SECTION_END:
+                    _wem.sectionEnd();
+                    break;
+                case HEADING_START:
+                    _wem.headingStart();
+                    break;
+                case HEADING_END:
+                    _wem.headingEnd();
+                    break;
+                case PARAGRAPH_START:
+                    _wem.paragraphStart();
+                    break;
+                case PARAGRAPH_END:
+                    _wem.paragraphEnd();
+                    break;
+                case TABLE_START:
+                    _wem.tableStart();
+                    break;
+                case TABLE_END:
+                    _wem.tableEnd();
+                    break;
+                case TABLE_BODY_START:
+                    _wem.tableBodyStart();
+                    break;
+                case TABLE_BODY_END:
+                    _wem.tableBodyEnd();
+                    break;
+                case TABLE_ROW_START:
+                    _wem.tableRowStart();
+                    break;
+                case TABLE_ROW_END:
+                    _wem.tableRowEnd();
+                    break;
+                case TABLE_ENTRY_START:
+                    _wem.tableEntryStart();
+                    break;
+                case TABLE_ENTRY_END:
+                    _wem.tableEntryEnd();
+                    break;
+                case TYPEFACE_START:
+                    _wem.typefaceStart(WEMTapePlayer.TYPEFACES[this.readOrdinal(WEMTapePlayer.TYPEFACES)]);
+                    break;
+                case TYPEFACE_END:
+                    _wem.typefaceEnd(WEMTapePlayer.TYPEFACES[this.readOrdinal(WEMTapePlayer.TYPEFACES)]);
+                    break;
+                case LIST_BULLETED_START:
+                    _wem.listBulletedStart();
+                    break;
+                case LIST_BULLETED_END:
+                    _wem.listBulletedEnd();
+                    break;
+                case LIST_NUMBERED_START:
+                    _wem.listNumberedStart();
+                    break;
+                case LIST_NUMBERED_END:
+                    _wem.listNumberedEnd();
+                    break;
+                case LIST_ENTRY_START:
+                    _wem.listEntryStart();
+                    break;
+                case LIST_ENTRY_END:
+                    _wem.listEntryEnd();
+                    break;
+                case DIVIDER:
+                    _wem.onDivider();
+                    break;
+                case NEW_LINE:
+                    _wem.onNewLine();
+                    break;
+                case PREFORMAT:
+                    _wem.onPreformat(this.readString());
+                    break;
+                case TABLE_OF_CONTENTS:
+                    final int zigZag = this.readVarInt();
+                    _wem.onTableOfContents((zigZag >>> 1) ^ -(zigZag & 1));
+                    break;
+                case IMAGE:
+                    _wem.onImage(this.readURL());
+                    break;
+                case TEXT:
+                    _wem.onText(this.transientText ? this.readCharBuffer() : this.readString());
+                    break;
+                case LINK_EXTERNAL:
+                    final URL url = this.readURL();
+                    _wem.onLinkExternal(url, this.readString());
+                    break;
+                case LINK_INTERNAL:
+                    final String link = this.readString();
+                    _wem.onLinkInternal(link, this.readString());
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown event " + opcode + " in WEM tape");
+            }
+        }
+    }
+
+    /**
+     * Reads the next byte of the tape.
+     *
+     * @return unsigned value of the byte
+     * @throws IllegalArgumentException if the end of the tape is reached
+     */
+    private int readByte()
+    {
+        if (this.pos >= this.end)  {
+            throw new IllegalArgumentException("WEM tape is truncated");
+        }
+        return this.bytes[this.pos++] & 0xFF;
+    }
+
+    /**
+     * Reads the ordinal of a typeface or property.
+     *
+     * @param _values   all values of the enumeration
+     * @return read ordinal
+     * @throws IllegalArgumentException if the ordinal is not defined
+     */
+    private int readOrdinal(final Enum<?>[] _values)
+    {
+        final int ordinal = this.readByte();
+        if (ordinal >= _values.length)  {
+            throw new IllegalArgumentException("unknown ordinal " + ordinal + " in WEM tape");
+        }
+        return ordinal;
+    }
+
+    /**
+     * Reads a variable length integer.
+     *
+     * @return read unsigned value
+     */
+    private int readVarInt()
+    {
+        int ret = 0;
+        int shift = 0;
+        int value;
+        do  {
+            value = this.readByte();
+            ret |= (value & 0x7F) << shift;
+            shift += 7;
+        } while ((value & 0x80) != 0 && shift < 35);
+        return ret;
+    }
+
+    /**
+     * Reads a length prefixed UTF-8 text into {@link #chars}.
+     *
+     * @return number of decoded characters or <code>-1</code> for
+     *         <code>null</code>
+     * @throws IllegalArgumentException if the tape is truncated or the text is
+     *                                  not valid UTF-8
+     */
+    private int readChars()
+    {
+        final int prefix = this.readVarInt();
+        final int ret;
+        if (prefix == 0)  {
+            ret = -1;
+        } else  {
+            final int length = prefix - 1;
+            if (length > this.end - this.pos)  {
+                throw new IllegalArgumentException("WEM tape is truncated");
+            }
+            if (length > this.chars.length)  {
+                this.chars = new char[Math.max(length, this.chars.length * 2)];
+                this.charBuffer = CharBuffer.wrap(this.chars);
+            }
+            final int last = this.pos + length;
+            this.byteBuffer.limit(last).position(this.pos);
+            this.charBuffer.clear();
+            this.decoder.reset();
+            CoderResult result = this.decoder.decode(this.byteBuffer, this.charBuffer, true);
+            if (!result.isError())  {
+                result = this.decoder.flush(this.charBuffer);
+            }
+            if (result.isError())  {
+                throw new IllegalArgumentException("WEM tape contains malformed UTF-8 text at byte "
+                                + this.byteBuffer.position());
+            }
+            this.pos = last;
+            ret = this.charBuffer.position();
+        }
+        return ret;
+    }
+
+    /**
+     * Reads a text as new string.
+     *
+     * @return read text (or <code>null</code>)
+     */
+    private String readString()
+    {
+        final int length = this.readChars();
+        return (length < 0) ? null : new String(this.chars, 0, length);
+    }
+
+    /**
+     * Reads a text into the reused {@link #charBuffer}.
+     *
+     * @return read text (or <code>null</code>)
+     */
+    private CharSequence readCharBuffer()
+    {
+        final int length = this.readChars();
+        final CharSequence ret;
+        if (length < 0)  {
+            ret = null;
+        } else  {
+            this.charBuffer.clear();
+            this.charBuffer.limit(length);
+            ret = this.charBuffer;
+        }
+        return ret;
+    }
+
+    /**
+     * Reads an URL.
+     *
+     * @return read URL (or <code>null</code>)
+     * @throws IllegalArgumentException if the URL is not valid
+     */
+    private URL readURL()
+    {
+        final String url = this.readString();
+        final URL ret;
+        if (url == null)  {
+            ret = null;
+        } else  {
+            try  {
+                ret = new URL(url);
+            } catch (final MalformedURLException e)  {
+                throw new IllegalArgumentException("invalid URL " + url + " in WEM tape", e);
+            }
+        }
+        return ret;
+    }
+}
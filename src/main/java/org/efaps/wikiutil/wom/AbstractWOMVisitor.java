@@ -0,0 +1,287 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wom;
+
+import org.efaps.wikiutil.wom.element.AbstractLineElement;
+import org.efaps.wikiutil.wom.element.Divider;
+import org.efaps.wikiutil.wom.element.NewLine;
+import org.efaps.wikiutil.wom.element.Paragraph;
+import org.efaps.wikiutil.wom.element.Preformat;
+import org.efaps.wikiutil.wom.element.Section;
+import org.efaps.wikiutil.wom.element.TableOfContents;
+import org.efaps.wikiutil.wom.element.list.ListBulleted;
+import org.efaps.wikiutil.wom.element.list.ListEntry;
+import org.efaps.wikiutil.wom.element.list.ListNumbered;
+import org.efaps.wikiutil.wom.element.table.Table;
+import org.efaps.wikiutil.wom.element.table.TableCell;
+import org.efaps.wikiutil.wom.element.table.TableRow;
+import org.efaps.wikiutil.wom.element.text.ExternalLink;
+import org.efaps.wikiutil.wom.element.text.ExternalLinkWithDescription;
+import org.efaps.wikiutil.wom.element.text.Image;
+import org.efaps.wikiutil.wom.element.text.InternalLink;
+import org.efaps.wikiutil.wom.element.text.InternalLinkWithDescription;
+import org.efaps.wikiutil.wom.element.text.TextString;
+import org.efaps.wikiutil.wom.element.text.TypefaceBold;
+import org.efaps.wikiutil.wom.element.text.TypefaceCode;
+import org.efaps.wikiutil.wom.element.text.TypefaceItalic;
+
+/**
+ * Adapter for the {@link IWOMVisitor visitor} of the Wiki object model. All
+ * visit methods of line elements call {@link #visitLineElement}, all other
+ * visit methods and {@link #visitLineElement} itself return
+ * <code>null</code>. Derived classes overwrite only the visit methods of the
+ * elements they are interested in. The visitor does not walk into the
+ * children of an element; for this the {@link AbstractWOMWalker walker} is
+ * used.
+ *
+ * @param <RESULT>      class of the result of the visit methods
+ * @param <EXCEPTION>   exception thrown by the visit methods
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public abstract class AbstractWOMVisitor<RESULT, EXCEPTION extends Exception>
+    implements IWOMVisitor<RESULT, EXCEPTION>
+{
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitWikiPage(final WikiPage _page)
+        throws EXCEPTION
+    {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitSection(final Section _section)
+        throws EXCEPTION
+    {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitParagraph(final Paragraph _paragraph)
+        throws EXCEPTION
+    {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitDivider(final Divider _divider)
+        throws EXCEPTION
+    {
+        return this.visitLineElement(_divider);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitNewLine(final NewLine _newLine)
+        throws EXCEPTION
+    {
+        return this.visitLineElement(_newLine);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitPreformat(final Preformat _preformat)
+        throws EXCEPTION
+    {
+        return this.visitLineElement(_preformat);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitTableOfContents(final TableOfContents _toc)
+        throws EXCEPTION
+    {
+        return this.visitLineElement(_toc);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitTable(final Table _table)
+        throws EXCEPTION
+    {
+        return this.visitLineElement(_table);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitTableRow(final TableRow _tableRow)
+        throws EXCEPTION
+    {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitTableCell(final TableCell _tableCell)
+        throws EXCEPTION
+    {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitListBulleted(final ListBulleted _listBulleted)
+        throws EXCEPTION
+    {
+        return this.visitLineElement(_listBulleted);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitListNumbered(final ListNumbered _listNumbered)
+        throws EXCEPTION
+    {
+        return this.visitLineElement(_listNumbered);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitListEntry(final ListEntry _listEntry)
+        throws EXCEPTION
+    {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitExternalLink(final ExternalLink _externalLink)
+        throws EXCEPTION
+    {
+        return this.visitLineElement(_externalLink);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitExternalLinkWithDescription(final ExternalLinkWithDescription _externalLinkWithDescription)
+        throws EXCEPTION
+    {
+        return this.visitLineElement(_externalLinkWithDescription);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitImage(final Image _image)
+        throws EXCEPTION
+    {
+        return this.visitLineElement(_image);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitInternalLink(final InternalLink _internalLink)
+        throws EXCEPTION
+    {
+        return this.visitLineElement(_internalLink);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitInternalLinkWithDescription(final InternalLinkWithDescription _internalLinkWithDescription)
+        throws EXCEPTION
+    {
+        return this.visitLineElement(_internalLinkWithDescription);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitTextString(final TextString _textString)
+        throws EXCEPTION
+    {
+        return this.visitLineElement(_textString);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitTypefaceBold(final TypefaceBold _typefaceBold)
+        throws EXCEPTION
+    {
+        return this.visitLineElement(_typefaceBold);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitTypefaceCode(final TypefaceCode _typefaceCode)
+        throws EXCEPTION
+    {
+        return this.visitLineElement(_typefaceCode);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitTypefaceItalic(final TypefaceItalic _typefaceItalic)
+        throws EXCEPTION
+    {
+        return this.visitLineElement(_typefaceItalic);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RESULT visitLineElement(final AbstractLineElement _element)
+        throws EXCEPTION
+    {
+        return null;
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wom;
+
+import java.util.List;
+
+import org.efaps.wikiutil.wom.element.AbstractLineElement;
+import org.efaps.wikiutil.wom.element.AbstractParagraphList;
+import org.efaps.wikiutil.wom.element.AbstractSection;
+import org.efaps.wikiutil.wom.element.Paragraph;
+import org.efaps.wikiutil.wom.element.Section;
+import org.efaps.wikiutil.wom.element.list.AbstractListEntry;
+import org.efaps.wikiutil.wom.element.list.ListBulleted;
+import org.efaps.wikiutil.wom.element.list.ListEntry;
+import org.efaps.wikiutil.wom.element.list.ListNumbered;
+import org.efaps.wikiutil.wom.element.table.Table;
+import org.efaps.wikiutil.wom.element.table.TableCell;
+import org.efaps.wikiutil.wom.element.table.TableRow;
+import org.efaps.wikiutil.wom.element.text.TypefaceBold;
+import org.efaps.wikiutil.wom.element.text.TypefaceCode;
+import org.efaps.wikiutil.wom.element.text.TypefaceItalic;
+
+/**
+ * Walks depth-first through all elements of a Wiki page. The visit methods
+ * of all elements with children visit the children in the order of the
+ * Wiki page (for sections first the headings, then the paragraphs and then
+ * the sub sections). Derived classes overwrite the visit methods of the
+ * elements they are interested in; to walk into the children of an
+ * overwritten element the visit method of this class must be called. The
+ * lists of the children are walked by index (all lists of the Wiki object
+ * model have random access), so that no iterators are allocated.
+ *
+ * <b>Example:</b>
+ * <pre>
+ * final AbstractWOMWalker&lt;RuntimeException&gt; walker = new AbstractWOMWalker&lt;RuntimeException&gt;() {
+ *     &#64;Override
+ *     public Void visitTextString(final TextString _textString)
+ *     {
+ *         System.out.println(_textString.getText());
+ *         return null;
+ *     }
+ * };
+ * page.accept(walker);
+ * </pre>
+ *
+ * @param <EXCEPTION>   exception thrown by the visit methods
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public abstract class AbstractWOMWalker<EXCEPTION extends Exception>
+    extends AbstractWOMVisitor<Void, EXCEPTION>
+{
+    /**
+     * Walks through the paragraphs and sub sections of the Wiki page.
+     *
+     * @param _page     Wiki page to visit
+     * @return always <code>null</code>
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public Void visitWikiPage(final WikiPage _page)
+        throws EXCEPTION
+    {
+        this.walkSection(_page);
+        return null;
+    }
+
+    /**
+     * Walks through the headings, paragraphs and sub sections of the
+     * section.
+     *
+     * @param _section  section to visit
+     * @return always <code>null</code>
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public Void visitSection(final Section _section)
+        throws EXCEPTION
+    {
+        this.walkElements(_section.getHeadings());
+        this.walkSection(_section);
+        return null;
+    }
+
+    /**
+     * Walks through the elements of the paragraph.
+     *
+     * @param _paragraph    paragraph to visit
+     * @return always <code>null</code>
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public Void visitParagraph(final Paragraph _paragraph)
+        throws EXCEPTION
+    {
+        this.walkElements(_paragraph.getElements());
+        return null;
+    }
+
+    /**
+     * Walks through the rows of the table.
+     *
+     * @param _table    table to visit
+     * @return always <code>null</code>
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public Void visitTable(final Table _table)
+        throws EXCEPTION
+    {
+        final List<TableRow> rows = _table.getBodyRows();
+        for (int idx = 0; idx < rows.size(); idx++)  {
+            rows.get(idx).accept(this);
+        }
+        return null;
+    }
+
+    /**
+     * Walks through the cells of the table row.
+     *
+     * @param _tableRow     table row to visit
+     * @return always <code>null</code>
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public Void visitTableRow(final TableRow _tableRow)
+        throws EXCEPTION
+    {
+        final List<TableCell> cells = _tableRow.getEntries();
+        for (int idx = 0; idx < cells.size(); idx++)  {
+            cells.get(idx).accept(this);
+        }
+        return null;
+    }
+
+    /**
+     * Walks through the paragraphs of the table cell.
+     *
+     * @param _tableCell    table cell to visit
+     * @return always <code>null</code>
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public Void visitTableCell(final TableCell _tableCell)
+        throws EXCEPTION
+    {
+        this.walkParagraphs(_tableCell);
+        return null;
+    }
+
+    /**
+     * Walks through the entries of the bulleted list.
+     *
+     * @param _listBulleted bulleted list to visit
+     * @return always <code>null</code>
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public Void visitListBulleted(final ListBulleted _listBulleted)
+        throws EXCEPTION
+    {
+        this.walkEntries(_listBulleted);
+        return null;
+    }
+
+    /**
+     * Walks through the entries of the numbered list.
+     *
+     * @param _listNumbered numbered list to visit
+     * @return always <code>null</code>
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public Void visitListNumbered(final ListNumbered _listNumbered)
+        throws EXCEPTION
+    {
+        this.walkEntries(_listNumbered);
+        return null;
+    }
+
+    /**
+     * Walks through the paragraphs of the list entry.
+     *
+     * @param _listEntry    list entry to visit
+     * @return always <code>null</code>
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public Void visitListEntry(final ListEntry _listEntry)
+        throws EXCEPTION
+    {
+        this.walkParagraphs(_listEntry);
+        return null;
+    }
+
+    /**
+     * Walks through the elements of the bold type face.
+     *
+     * @param _typefaceBold bold type face to visit
+     * @return always <code>null</code>
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public Void visitTypefaceBold(final TypefaceBold _typefaceBold)
+        throws EXCEPTION
+    {
+        this.walkElements(_typefaceBold.getElements());
+        return null;
+    }
+
+    /**
+     * Walks through the elements of the code type face.
+     *
+     * @param _typefaceCode code type face to visit
+     * @return always <code>null</code>
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public Void visitTypefaceCode(final TypefaceCode _typefaceCode)
+        throws EXCEPTION
+    {
+        this.walkElements(_typefaceCode.getElements());
+        return null;
+    }
+
+    /**
+     * Walks through the elements of the italic type face.
+     *
+     * @param _typefaceItalic   italic type face to visit
+     * @return always <code>null</code>
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public Void visitTypefaceItalic(final TypefaceItalic _typefaceItalic)
+        throws EXCEPTION
+    {
+        this.walkElements(_typefaceItalic.getElements());
+        return null;
+    }
+
+    /**
+     * Visits the paragraphs and then the sub sections of
+     * <code>_section</code>.
+     *
+     * @param _section  section or Wiki page
+     * @throws EXCEPTION if the visit failed
+     */
+    protected void walkSection(final AbstractSection<?> _section)
+        throws EXCEPTION
+    {
+        this.walkParagraphs(_section);
+        final List<Section> sections = _section.getSubSections();
+        for (int idx = 0; idx < sections.size(); idx++)  {
+            sections.get(idx).accept(this);
+        }
+    }
+
+    /**
+     * Visits all paragraphs of <code>_paragraphs</code>.
+     *
+     * @param _paragraphs   list of paragraphs
+     * @throws EXCEPTION if the visit failed
+     */
+    protected void walkParagraphs(final AbstractParagraphList<?> _paragraphs)
+        throws EXCEPTION
+    {
+        final List<Paragraph> paragraphs = _paragraphs.getParagraphs();
+        for (int idx = 0; idx < paragraphs.size(); idx++)  {
+            paragraphs.get(idx).accept(this);
+        }
+    }
+
+    /**
+     * Visits all entries of <code>_list</code>.
+     *
+     * @param _list     bulleted or numbered list
+     * @throws EXCEPTION if the visit failed
+     */
+    protected void walkEntries(final AbstractListEntry<?> _list)
+        throws EXCEPTION
+    {
+        final List<ListEntry> entries = _list.getEntries();
+        for (int idx = 0; idx < entries.size(); idx++)  {
+            entries.get(idx).accept(this);
+        }
+    }
+
+    /**
+     * Visits all line elements of <code>_elements</code>.
+     *
+     * @param _elements     line elements
+     * @throws EXCEPTION if the visit failed
+     */
+    protected void walkElements(final List<AbstractLineElement> _elements)
+        throws EXCEPTION
+    {
+        for (int idx = 0; idx < _elements.size(); idx++)  {
+            _elements.get(idx).accept(this);
+        }
+    }
+}
@@ -0,0 +1,1643 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wom;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.efaps.wikiutil.wom.element.AbstractLineElement;
+import org.efaps.wikiutil.wom.element.Divider;
+import org.efaps.wikiutil.wom.element.NewLine;
+import org.efaps.wikiutil.wom.element.Paragraph;
+import org.efaps.wikiutil.wom.element.Preformat;
+import org.efaps.wikiutil.wom.element.Section;
+import org.efaps.wikiutil.wom.element.TableOfContents;
+import org.efaps.wikiutil.wom.element.list.ListBulleted;
+import org.efaps.wikiutil.wom.element.list.ListEntry;
+import org.efaps.wikiutil.wom.element.list.ListNumbered;
+import org.efaps.wikiutil.wom.element.table.Table;
+import org.efaps.wikiutil.wom.element.table.TableCell;
+import org.efaps.wikiutil.wom.element.table.TableRow;
+import org.efaps.wikiutil.wom.element.text.ExternalLink;
+import org.efaps.wikiutil.wom.element.text.ExternalLinkWithDescription;
+import org.efaps.wikiutil.wom.element.text.Image;
+import org.efaps.wikiutil.wom.element.text.InternalLink;
+import org.efaps.wikiutil.wom.element.text.InternalLinkWithDescription;
+import org.efaps.wikiutil.wom.element.text.TextString;
+import org.efaps.wikiutil.wom.element.text.TypefaceBold;
+import org.efaps.wikiutil.wom.element.text.TypefaceCode;
+import org.efaps.wikiutil.wom.element.text.TypefaceItalic;
+import org.efaps.wikiutil.wom.property.AbstractProperty;
+import org.efaps.wikiutil.wom.property.Label;
+import org.efaps.wikiutil.wom.property.Sidebar;
+import org.efaps.wikiutil.wom.property.Summary;
+
+/**
+ * Compact and immutable representation of a {@link WikiPage}. Instead of
+ * one object (with own lists) per element, all elements (called nodes) are
+ * stored in a few flat arrays:
+ * <ul>
+ * <li>{@link #kinds}: the kind of each node</li>
+ * <li>{@link #firsts}: index of the first child node or start of the text
+ *     within {@link #chars}</li>
+ * <li>{@link #counts}: number of child nodes or length of the text</li>
+ * <li>{@link #extras}: number of headings of a section (or properties of
+ *     the page), length of a description or depth of a table of
+ *     contents</li>
+ * <li>{@link #chars}: one shared character buffer with all texts</li>
+ * </ul>
+ * The nodes are stored breadth first, so the child nodes of each node are
+ * stored one after the other. The node of the page itself has index
+ * <code>0</code>.
+ * <p>
+ * The {@link #getPage() page} is returned as view with the API of the
+ * existing Wiki object model. The views are created while accessed and are
+ * not cached. The views are read-only Wiki pages (see {@link WikiPage}): all
+ * <code>add</code> methods throw an {@link UnsupportedOperationException} and
+ * {@link WikiPage#freeze()} does nothing.
+ *
+ * <b>Example:<br/></b>
+ * <pre>
+ * final CompactWikiPage compact = CompactWikiPage.compact(GWikiParser.parse(reader));
+ * ...
+ * new WikiPage2Tex(...).convert(out, compact.getPage());
+ * </pre>
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public final class CompactWikiPage
+{
+    /** Kind of the {@link WikiPage page}. */
+    private static final byte PAGE = 0;
+    /** Kind of a {@link Section section}. */
+    private static final byte SECTION = 1;
+    /** Kind of a {@link Paragraph paragraph}. */
+    private static final byte PARAGRAPH = 2;
+    /** Kind of a {@link Table table}. */
+    private static final byte TABLE = 3;
+    /** Kind of a {@link TableRow table row}. */
+    private static final byte TABLE_ROW = 4;
+    /** Kind of a {@link TableCell table cell}. */
+    private static final byte TABLE_CELL = 5;
+    /** Kind of a {@link ListBulleted bulleted list}. */
+    private static final byte LIST_BULLETED = 6;
+    /** Kind of a {@link ListNumbered numbered list}. */
+    private static final byte LIST_NUMBERED = 7;
+    /** Kind of a {@link ListEntry list entry}. */
+    private static final byte LIST_ENTRY = 8;
+    /** Kind of a {@link TypefaceBold bold typeface}. */
+    private static final byte BOLD = 9;
+    /** Kind of a {@link TypefaceCode code typeface}. */
+    private static final byte CODE = 10;
+    /** Kind of an {@link TypefaceItalic italic typeface}. */
+    private static final byte ITALIC = 11;
+    /** Kind of a {@link TextString text}. */
+    private static final byte TEXT = 12;
+    /** Kind of a {@link Preformat preformatted text}. */
+    private static final byte PREFORMAT = 13;
+    /** Kind of a {@link TableOfContents table of contents}. */
+    private static final byte TABLE_OF_CONTENTS = 14;
+    /** Kind of an {@link Image image}. */
+    private static final byte IMAGE = 15;
+    /** Kind of an {@link ExternalLink external link}. */
+    private static final byte EXTERNAL_LINK = 16;
+    /** Kind of an {@link ExternalLinkWithDescription external link with description}. */
+    private static final byte EXTERNAL_LINK_DESCRIPTION = 17;
+    /** Kind of an {@link InternalLink internal link}. */
+    private static final byte INTERNAL_LINK = 18;
+    /** Kind of an {@link InternalLinkWithDescription internal link with description}. */
+    private static final byte INTERNAL_LINK_DESCRIPTION = 19;
+    /** Kind of a {@link Divider divider}. */
+    private static final byte DIVIDER = 20;
+    /** Kind of a {@link NewLine new line}. */
+    private static final byte NEW_LINE = 21;
+    /** Kind of a {@link Summary summary property}. */
+    private static final byte SUMMARY = 22;
+    /** Kind of a {@link Label label property}. */
+    private static final byte LABEL = 23;
+    /** Kind of a {@link Sidebar sidebar property}. */
+    private static final byte SIDEBAR = 24;
+
+    /**
+     * Kind of each node.
+     */
+    private final byte[] kinds;
+
+    /**
+     * Index of the first child node or start index of the text within
+     * {@link #chars}.
+     */
+    private final int[] firsts;
+
+    /**
+     * Number of child nodes or length of the text (<code>-1</code> for
+     * <code>null</code>).
+     */
+    private final int[] counts;
+
+    /**
+     * Number of headings of a section (or number of properties of the page),
+     * length of the description of a link (stored directly behind the link)
+     * or the maximum depth of a table of contents.
+     */
+    private final int[] extras;
+
+    /**
+     * All texts of the page.
+     */
+    private final char[] chars;
+
+    /**
+     * Constructor used from the {@link Builder builder}.
+     *
+     * @param _builder  builder with the nodes of the page
+     */
+    private CompactWikiPage(final Builder _builder)
+    {
+        final int size = _builder.size;
+        this.kinds = new byte[size];
+        this.firsts = new int[size];
+        this.counts = new int[size];
+        this.extras = new int[size];
+        System.arraycopy(_builder.kinds, 0, this.kinds, 0, size);
+        System.arraycopy(_builder.firsts, 0, this.firsts, 0, size);
+        System.arraycopy(_builder.counts, 0, this.counts, 0, size);
+        System.arraycopy(_builder.extras, 0, this.extras, 0, size);
+        this.chars = new char[_builder.chars.length()];
+        _builder.chars.getChars(0, this.chars.length, this.chars, 0);
+    }
+
+    /**
+     * Compacts <code>_page</code>.
+     *
+     * @param _page     Wiki page to compact
+     * @return compact Wiki page
+     * @throws IllegalArgumentException if the page contains unknown elements
+     */
+    public static CompactWikiPage compact(final WikiPage _page)
+    {
+        return new CompactWikiPage(new Builder().build(_page));
+    }
+
+    /**
+     * Returns the view of the page with the API of the Wiki object model.
+     *
+     * @return view of the Wiki page
+     */
+    public WikiPage getPage()
+    {
+        return new PageView();
+    }
+
+    /**
+     * Returns the number of nodes (the page itself, all sections, paragraphs,
+     * elements and properties).
+     *
+     * @return number of nodes
+     */
+    public int getNodeCount()
+    {
+        return this.kinds.length;
+    }
+
+    /**
+     * Returns the length of all texts.
+     *
+     * @return length of the shared character buffer
+     */
+    public int getTextLength()
+    {
+        return this.chars.length;
+    }
+
+    /**
+     * Returns the estimated memory footprint of this compact page in bytes
+     * (assuming 16 bytes for an array header and 8 byte alignment).
+     *
+     * @return estimated footprint in bytes
+     */
+    public long getFootprint()
+    {
+        return 32
+            + CompactWikiPage.arraySize(this.kinds.length, 1)
+            + CompactWikiPage.arraySize(this.firsts.length, 4)
+            + CompactWikiPage.arraySize(this.counts.length, 4)
+            + CompactWikiPage.arraySize(this.extras.length, 4)
+            + CompactWikiPage.arraySize(this.chars.length, 2);
+    }
+
+    /**
+     * Returns the estimated size of an array.
+     *
+     * @param _length       length of the array
+     * @param _elementSize  size of one element in bytes
+     * @return estimated size of the array in bytes
+     */
+    private static long arraySize(final int _length,
+                                  final int _elementSize)
+    {
+        return (16L + (long) _length * _elementSize + 7L) & ~7L;
+    }
+
+    /**
+     * Returns the text of <code>_node</code>.
+     *
+     * @param _node     index of the node
+     * @return text (or <code>null</code>)
+     */
+    private String text(final int _node)
+    {
+        return (this.counts[_node] < 0) ? null : new String(this.chars, this.firsts[_node], this.counts[_node]);
+    }
+
+    /**
+     * Returns the description of the link <code>_node</code>.
+     *
+     * @param _node     index of the node
+     * @return description of the link
+     */
+    private String description(final int _node)
+    {
+        return new String(this.chars, this.firsts[_node] + Math.max(this.counts[_node], 0), this.extras[_node]);
+    }
+
+    /**
+     * Returns the URL of <code>_node</code>.
+     *
+     * @param _node     index of the node
+     * @return URL (or <code>null</code>)
+     */
+    private URL url(final int _node)
+    {
+        final String url = this.text(_node);
+        try  {
+            return (url == null) ? null : new URL(url);
+        } catch (final MalformedURLException e)  {
+            throw new IllegalStateException("compacted URL " + url + " could not be parsed", e);
+        }
+    }
+
+    /**
+     * Returns the view or element of <code>_node</code>.
+     *
+     * @param _node     index of the node
+     * @return view of the node
+     */
+    private Object node(final int _node)
+    {
+        final Object ret;
+        switch (this.kinds[_node])  {
+            case CompactWikiPage.SECTION:
+                ret = new SectionView(_node);
+                break;
+            case CompactWikiPage.PARAGRAPH:
+                ret = new ParagraphView(_node);
+                break;
+            case CompactWikiPage.TABLE:
+                ret = new TableView(_node);
+                break;
+            case CompactWikiPage.TABLE_ROW:
+                ret = new TableRowView(_node);
+                break;
+            case CompactWikiPage.TABLE_CELL:
+                ret = new TableCellView(_node);
+                break;
+            case CompactWikiPage.LIST_BULLETED:
+                ret = new ListBulletedView(_node);
+                break;
+            case CompactWikiPage.LIST_NUMBERED:
+                ret = new ListNumberedView(_node);
+                break;
+            case CompactWikiPage.LIST_ENTRY:
+                ret = new ListEntryView(_node);
+                break;
+            case CompactWikiPage.BOLD:
+                ret = new TypefaceBoldView(_node);
+                break;
+            case CompactWikiPage.CODE:
+                ret = new TypefaceCodeView(_node);
+                break;
+            case CompactWikiPage.ITALIC:
+                ret = new TypefaceItalicView(_node);
+                break;
+            case CompactWikiPage.TEXT:
+                ret = new TextString(this.text(_node));
+                break;
+            case CompactWikiPage.PREFORMAT:
+                ret = new Preformat(this.text(_node));
+                break;
+            case CompactWikiPage.TABLE_OF_CONTENTS:
+                ret = new TableOfContents(this.extras[_node]);
+                break;
+            case CompactWikiPage.IMAGE:
+                ret = new Image(this.url(_node));
+                break;
+            case CompactWikiPage.EXTERNAL_LINK:
+                ret = new ExternalLink(this.url(_node));
+                break;
+            case CompactWikiPage.EXTERNAL_LINK_DESCRIPTION:
+                ret = new ExternalLinkWithDescription(this.url(_node), this.description(_node));
+                break;
+            case CompactWikiPage.INTERNAL_LINK:
+                ret = new InternalLink(this.text(_node));
+                break;
+            case CompactWikiPage.INTERNAL_LINK_DESCRIPTION:
+                ret = new InternalLinkWithDescription(this.text(_node), this.description(_node));
+                break;
+            case CompactWikiPage.DIVIDER:
+                ret = new Divider();
+                break;
+            case CompactWikiPage.NEW_LINE:
+                ret = new NewLine();
+                break;
+            case CompactWikiPage.SUMMARY:
+                ret = new Summary(this.text(_node));
+                break;
+            case CompactWikiPage.LABEL:
+                ret = new Label(this.text(_node));
+                break;
+            case CompactWikiPage.SIDEBAR:
+                ret = new Sidebar(this.text(_node));
+                break;
+            default:
+                throw new IllegalStateException("unknown kind " + this.kinds[_node]);
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the view of the child nodes of <code>_node</code> from the
+     * <code>_offset</code>-th child with <code>_size</code> child nodes.
+     *
+     * @param <E>       class of the child nodes
+     * @param _node     index of the node
+     * @param _offset   offset of the first child node
+     * @param _size     number of child nodes
+     * @return view of the child nodes
+     */
+    private <E> List<E> children(final int _node,
+                                 final int _offset,
+                                 final int _size)
+    {
+        return (_size == 0)
+                        ? Collections.<E>emptyList()
+                        : new Children<E>(this.firsts[_node] + _offset, _size);
+    }
+
+    /**
+     * Returns the view of all child nodes of <code>_node</code>.
+     *
+     * @param <E>       class of the child nodes
+     * @param _node     index of the node
+     * @return view of the child nodes
+     */
+    private <E> List<E> children(final int _node)
+    {
+        return this.children(_node, 0, this.counts[_node]);
+    }
+
+    /**
+     * Returns the number of paragraphs behind the headings (or properties) of
+     * the page or section <code>_node</code>.
+     *
+     * @param _node     index of the page or section node
+     * @return number of paragraphs
+     */
+    private int paragraphCount(final int _node)
+    {
+        final int start = this.firsts[_node] + this.extras[_node];
+        final int end = this.firsts[_node] + this.counts[_node];
+        int idx = start;
+        while (idx < end && this.kinds[idx] == CompactWikiPage.PARAGRAPH)  {
+            idx++;
+        }
+        return idx - start;
+    }
+
+    /**
+     * Creates the exception thrown if a view should be modified.
+     *
+     * @return exception for an unsupported modification
+     */
+    private static UnsupportedOperationException immutable()
+    {
+        return new UnsupportedOperationException("compact Wiki page could not be modified");
+    }
+
+    /**
+     * List view of child nodes.
+     *
+     * @param <E>   class of the child nodes
+     */
+    private final class Children<E>
+        extends AbstractList<E>
+        implements RandomAccess
+    {
+        /**
+         * Index of the first child node.
+         */
+        private final int first;
+
+        /**
+         * Number of child nodes.
+         */
+        private final int size;
+
+        /**
+         * Constructor.
+         *
+         * @param _first    index of the first child node
+         * @param _size     number of child nodes
+         */
+        private Children(final int _first,
+                         final int _size)
+        {
+            this.first = _first;
+            this.size = _size;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(final int _index)
+        {
+            if (_index < 0 || _index >= this.size)  {
+                throw new IndexOutOfBoundsException("index " + _index + " for size " + this.size);
+            }
+            return (E) CompactWikiPage.this.node(this.first + _index);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size()
+        {
+            return this.size;
+        }
+    }
+
+    /**
+     * View of the page.
+     */
+    private final class PageView
+        extends WikiPage
+    {
+        /**
+         * Number of paragraphs.
+         */
+        private final int paragraphs = CompactWikiPage.this.paragraphCount(0);
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<AbstractProperty> getProperties()
+        {
+            return CompactWikiPage.this.children(0, 0, CompactWikiPage.this.extras[0]);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Paragraph> getParagraphs()
+        {
+            return CompactWikiPage.this.children(0, CompactWikiPage.this.extras[0], this.paragraphs);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Section> getSubSections()
+        {
+            final int offset = CompactWikiPage.this.extras[0] + this.paragraphs;
+            return CompactWikiPage.this.children(0, offset, CompactWikiPage.this.counts[0] - offset);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Paragraph lastParagraph()
+        {
+            return this.getParagraphs().get(this.paragraphs - 1);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public WikiPage add(final AbstractProperty _element)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public WikiPage add(final Paragraph _element)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public WikiPage addAll(final Collection<Paragraph> _elements)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public WikiPage addSubSection(final Section _subSection)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * A view is immutable, so nothing is frozen.
+         *
+         * @return this view
+         */
+        @Override
+        public WikiPage freeze()
+        {
+            return this;
+        }
+
+        /**
+         * A view is immutable, so nothing is frozen.
+         *
+         * @param _pool     pool of texts (not used)
+         * @return this view
+         */
+        @Override
+        public WikiPage freeze(final Map<String, String> _pool)
+        {
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString()
+        {
+            return new ToStringBuilder(this)
+                .append("properties", this.getProperties())
+                .append("paragraphs", this.getParagraphs())
+                .append("subSections", this.getSubSections())
+                .toString();
+        }
+    }
+
+    /**
+     * View of a section.
+     */
+    private final class SectionView
+        extends Section
+    {
+        /**
+         * Index of the section node.
+         */
+        private final int node;
+
+        /**
+         * Number of paragraphs.
+         */
+        private final int paragraphs;
+
+        /**
+         * Constructor.
+         *
+         * @param _node     index of the section node
+         */
+        private SectionView(final int _node)
+        {
+            this.node = _node;
+            this.paragraphs = CompactWikiPage.this.paragraphCount(_node);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<AbstractLineElement> getHeadings()
+        {
+            return CompactWikiPage.this.children(this.node, 0, CompactWikiPage.this.extras[this.node]);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Paragraph> getParagraphs()
+        {
+            return CompactWikiPage.this.children(this.node, CompactWikiPage.this.extras[this.node], this.paragraphs);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Section> getSubSections()
+        {
+            final int offset = CompactWikiPage.this.extras[this.node] + this.paragraphs;
+            return CompactWikiPage.this.children(this.node, offset, CompactWikiPage.this.counts[this.node] - offset);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Paragraph lastParagraph()
+        {
+            return this.getParagraphs().get(this.paragraphs - 1);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Section addHeading(final AbstractLineElement _element)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Section add(final Paragraph _element)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Section addAll(final Collection<Paragraph> _elements)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Section addSubSection(final Section _subSection)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * A view is immutable, so nothing is frozen.
+         *
+         * @param _pool     pool of texts (not used)
+         * @return this view
+         */
+        @Override
+        public Section freeze(final Map<String, String> _pool)
+        {
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString()
+        {
+            return new ToStringBuilder(this)
+                .append("headings", this.getHeadings())
+                .append("paragraphs", this.getParagraphs())
+                .append("subSections", this.getSubSections())
+                .toString();
+        }
+    }
+
+    /**
+     * View of a paragraph.
+     */
+    private final class ParagraphView
+        extends Paragraph
+    {
+        /**
+         * Index of the paragraph node.
+         */
+        private final int node;
+
+        /**
+         * Constructor.
+         *
+         * @param _node     index of the paragraph node
+         */
+        private ParagraphView(final int _node)
+        {
+            this.node = _node;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<AbstractLineElement> getElements()
+        {
+            return CompactWikiPage.this.children(this.node);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Paragraph add(final AbstractLineElement _element)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * A view is immutable, so nothing is frozen.
+         *
+         * @param _pool     pool of texts (not used)
+         * @return this view
+         */
+        @Override
+        public Paragraph freeze(final Map<String, String> _pool)
+        {
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString()
+        {
+            return new ToStringBuilder(this).append("elements", this.getElements()).toString();
+        }
+    }
+
+    /**
+     * View of a table.
+     */
+    private final class TableView
+        extends Table
+    {
+        /**
+         * Index of the table node.
+         */
+        private final int node;
+
+        /**
+         * Constructor.
+         *
+         * @param _node     index of the table node
+         */
+        private TableView(final int _node)
+        {
+            this.node = _node;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<TableRow> getBodyRows()
+        {
+            return CompactWikiPage.this.children(this.node);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Table addBodyRow(final TableRow _row)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * A view is immutable, so nothing is frozen.
+         *
+         * @param _pool     pool of texts (not used)
+         * @return this view
+         */
+        @Override
+        public Table freeze(final Map<String, String> _pool)
+        {
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString()
+        {
+            return new ToStringBuilder(this).append("bodyRows", this.getBodyRows()).toString();
+        }
+    }
+
+    /**
+     * View of a table row.
+     */
+    private final class TableRowView
+        extends TableRow
+    {
+        /**
+         * Index of the table row node.
+         */
+        private final int node;
+
+        /**
+         * Constructor.
+         *
+         * @param _node     index of the table row node
+         */
+        private TableRowView(final int _node)
+        {
+            this.node = _node;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<TableCell> getEntries()
+        {
+            return CompactWikiPage.this.children(this.node);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public TableRow add(final TableCell _entry)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * A view is immutable, so nothing is frozen.
+         *
+         * @param _pool     pool of texts (not used)
+         * @return this view
+         */
+        @Override
+        public TableRow freeze(final Map<String, String> _pool)
+        {
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString()
+        {
+            return new ToStringBuilder(this).append("entries", this.getEntries()).toString();
+        }
+    }
+
+    /**
+     * View of a table cell.
+     */
+    private final class TableCellView
+        extends TableCell
+    {
+        /**
+         * Index of the table cell node.
+         */
+        private final int node;
+
+        /**
+         * Constructor.
+         *
+         * @param _node     index of the table cell node
+         */
+        private TableCellView(final int _node)
+        {
+            this.node = _node;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Paragraph> getParagraphs()
+        {
+            return CompactWikiPage.this.children(this.node);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Paragraph lastParagraph()
+        {
+            return this.getParagraphs().get(CompactWikiPage.this.counts[this.node] - 1);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public TableCell add(final Paragraph _element)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public TableCell addAll(final Collection<Paragraph> _elements)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * A view is immutable, so nothing is frozen.
+         *
+         * @param _pool     pool of texts (not used)
+         * @return this view
+         */
+        @Override
+        public TableCell freeze(final Map<String, String> _pool)
+        {
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString()
+        {
+            return new ToStringBuilder(this).append("paragraphs", this.getParagraphs()).toString();
+        }
+    }
+
+    /**
+     * View of a bulleted list.
+     */
+    private final class ListBulletedView
+        extends ListBulleted
+    {
+        /**
+         * Index of the list node.
+         */
+        private final int node;
+
+        /**
+         * Constructor.
+         *
+         * @param _node     index of the list node
+         */
+        private ListBulletedView(final int _node)
+        {
+            this.node = _node;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<ListEntry> getEntries()
+        {
+            return CompactWikiPage.this.children(this.node);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ListEntry lastEntry()
+        {
+            return this.getEntries().get(CompactWikiPage.this.counts[this.node] - 1);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ListBulleted add(final ListEntry _entry)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * A view is immutable, so nothing is frozen.
+         *
+         * @param _pool     pool of texts (not used)
+         * @return this view
+         */
+        @Override
+        public ListBulleted freeze(final Map<String, String> _pool)
+        {
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString()
+        {
+            return new ToStringBuilder(this).append("entries", this.getEntries()).toString();
+        }
+    }
+
+    /**
+     * View of a numbered list.
+     */
+    private final class ListNumberedView
+        extends ListNumbered
+    {
+        /**
+         * Index of the list node.
+         */
+        private final int node;
+
+        /**
+         * Constructor.
+         *
+         * @param _node     index of the list node
+         */
+        private ListNumberedView(final int _node)
+        {
+            this.node = _node;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<ListEntry> getEntries()
+        {
+            return CompactWikiPage.this.children(this.node);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ListEntry lastEntry()
+        {
+            return this.getEntries().get(CompactWikiPage.this.counts[this.node] - 1);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ListNumbered add(final ListEntry _entry)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * A view is immutable, so nothing is frozen.
+         *
+         * @param _pool     pool of texts (not used)
+         * @return this view
+         */
+        @Override
+        public ListNumbered freeze(final Map<String, String> _pool)
+        {
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString()
+        {
+            return new ToStringBuilder(this).append("entries", this.getEntries()).toString();
+        }
+    }
+
+    /**
+     * View of a list entry.
+     */
+    private final class ListEntryView
+        extends ListEntry
+    {
+        /**
+         * Index of the list entry node.
+         */
+        private final int node;
+
+        /**
+         * Constructor.
+         *
+         * @param _node     index of the list entry node
+         */
+        private ListEntryView(final int _node)
+        {
+            this.node = _node;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Paragraph> getParagraphs()
+        {
+            return CompactWikiPage.this.children(this.node);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Paragraph lastParagraph()
+        {
+            return this.getParagraphs().get(CompactWikiPage.this.counts[this.node] - 1);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ListEntry add(final Paragraph _element)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ListEntry addAll(final Collection<Paragraph> _elements)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * A view is immutable, so nothing is frozen.
+         *
+         * @param _pool     pool of texts (not used)
+         * @return this view
+         */
+        @Override
+        public ListEntry freeze(final Map<String, String> _pool)
+        {
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString()
+        {
+            return new ToStringBuilder(this).append("paragraphs", this.getParagraphs()).toString();
+        }
+    }
+
+    /**
+     * View of a bold typeface.
+     */
+    private final class TypefaceBoldView
+        extends TypefaceBold
+    {
+        /**
+         * Index of the typeface node.
+         */
+        private final int node;
+
+        /**
+         * Constructor.
+         *
+         * @param _node     index of the typeface node
+         */
+        private TypefaceBoldView(final int _node)
+        {
+            this.node = _node;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<AbstractLineElement> getElements()
+        {
+            return CompactWikiPage.this.children(this.node);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public TypefaceBold add(final AbstractLineElement _element)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * A view is immutable, so nothing is frozen.
+         *
+         * @param _pool     pool of texts (not used)
+         * @return this view
+         */
+        @Override
+        public TypefaceBold freeze(final Map<String, String> _pool)
+        {
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString()
+        {
+            return new ToStringBuilder(this).append("elements", this.getElements()).toString();
+        }
+    }
+
+    /**
+     * View of a code typeface.
+     */
+    private final class TypefaceCodeView
+        extends TypefaceCode
+    {
+        /**
+         * Index of the typeface node.
+         */
+        private final int node;
+
+        /**
+         * Constructor.
+         *
+         * @param _node     index of the typeface node
+         */
+        private TypefaceCodeView(final int _node)
+        {
+            this.node = _node;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<AbstractLineElement> getElements()
+        {
+            return CompactWikiPage.this.children(this.node);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public TypefaceCode add(final AbstractLineElement _element)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * A view is immutable, so nothing is frozen.
+         *
+         * @param _pool     pool of texts (not used)
+         * @return this view
+         */
+        @Override
+        public TypefaceCode freeze(final Map<String, String> _pool)
+        {
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString()
+        {
+            return new ToStringBuilder(this).append("elements", this.getElements()).toString();
+        }
+    }
+
+    /**
+     * View of an italic typeface.
+     */
+    private final class TypefaceItalicView
+        extends TypefaceItalic
+    {
+        /**
+         * Index of the typeface node.
+         */
+        private final int node;
+
+        /**
+         * Constructor.
+         *
+         * @param _node     index of the typeface node
+         */
+        private TypefaceItalicView(final int _node)
+        {
+            this.node = _node;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<AbstractLineElement> getElements()
+        {
+            return CompactWikiPage.this.children(this.node);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public TypefaceItalic add(final AbstractLineElement _element)
+        {
+            throw CompactWikiPage.immutable();
+        }
+
+        /**
+         * A view is immutable, so nothing is frozen.
+         *
+         * @param _pool     pool of texts (not used)
+         * @return this view
+         */
+        @Override
+        public TypefaceItalic freeze(final Map<String, String> _pool)
+        {
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString()
+        {
+            return new ToStringBuilder(this).append("elements", this.getElements()).toString();
+        }
+    }
+
+    /**
+     * Builds the flat arrays of the nodes breadth first from a Wiki page.
+     */
+    private static final class Builder
+    {
+        /**
+         * Kinds of the nodes.
+         */
+        private byte[] kinds = new byte[64];
+
+        /**
+         * First child nodes or start indexes of the texts.
+         */
+        private int[] firsts = new int[64];
+
+        /**
+         * Number of child nodes or length of the texts.
+         */
+        private int[] counts = new int[64];
+
+        /**
+         * Extra values of the nodes.
+         */
+        private int[] extras = new int[64];
+
+        /**
+         * All texts.
+         */
+        private final StringBuilder chars = new StringBuilder();
+
+        /**
+         * Number of nodes.
+         */
+        private int size;
+
+        /**
+         * Elements for which the nodes are reserved but not defined.
+         */
+        private final Deque<Object> queue = new ArrayDeque<Object>();
+
+        /**
+         * Builds the nodes for <code>_page</code>.
+         *
+         * @param _page     Wiki page
+         * @return this builder
+         */
+        private Builder build(final WikiPage _page)
+        {
+            this.reserve(1);
+            this.queue.add(_page);
+            int node = 0;
+            while (!this.queue.isEmpty())  {
+                this.define(node++, this.queue.poll());
+            }
+            return this;
+        }
+
+        /**
+         * Reserves <code>_count</code> further nodes.
+         *
+         * @param _count    number of nodes to reserve
+         * @return index of the first reserved node
+         */
+        private int reserve(final int _count)
+        {
+            final int ret = this.size;
+            this.size += _count;
+            if (this.size > this.kinds.length)  {
+                final int length = Math.max(this.size, this.kinds.length * 2);
+                this.kinds = Arrays.copyOf(this.kinds, length);
+                this.firsts = Arrays.copyOf(this.firsts, length);
+                this.counts = Arrays.copyOf(this.counts, length);
+                this.extras = Arrays.copyOf(this.extras, length);
+            }
+            return ret;
+        }
+
+        /**
+         * Defines the node with the children in <code>_children</code>.
+         *
+         * @param _node     index of the node
+         * @param _kind     kind of the node
+         * @param _extra    extra value of the node
+         * @param _children lists of child elements
+         */
+        private void children(final int _node,
+                              final byte _kind,
+                              final int _extra,
+                              final List<?>... _children)
+        {
+            int count = 0;
+            for (final List<?> children : _children)  {
+                count += children.size();
+            }
+            this.kinds[_node] = _kind;
+            this.firsts[_node] = this.reserve(count);
+            this.counts[_node] = count;
+            this.extras[_node] = _extra;
+            for (final List<?> children : _children)  {
+                this.queue.addAll(children);
+            }
+        }
+
+        /**
+         * Defines the node with a text.
+         *
+         * @param _node     index of the node
+         * @param _kind     kind of the node
+         * @param _text     text (or <code>null</code>)
+         * @param _extra    extra value of the node
+         */
+        private void text(final int _node,
+                          final byte _kind,
+                          final CharSequence _text,
+                          final int _extra)
+        {
+            this.kinds[_node] = _kind;
+            this.firsts[_node] = this.chars.length();
+            this.counts[_node] = (_text == null) ? -1 : _text.length();
+            this.extras[_node] = _extra;
+            if (_text != null)  {
+                this.chars.append(_text);
+            }
+        }
+
+        /**
+         * Defines the node for a link with a description.
+         *
+         * @param _node         index of the node
+         * @param _kind         kind of the node
+         * @param _link         link (or <code>null</code>)
+         * @param _description  description
+         */
+        private void link(final int _node,
+                          final byte _kind,
+                          final CharSequence _link,
+                          final String _description)
+        {
+            this.text(_node, _kind, _link, _description.length());
+            this.chars.append(_description);
+        }
+
+        /**
+         * Defines the node <code>_node</code> for <code>_element</code>.
+         *
+         * @param _node     index of the node
+         * @param _element  element of the Wiki object model
+         * @throws IllegalArgumentException if the element is not known
+         */
+        private void define(final int _node,
+                            final Object _element)
+        {
+            if (_element instanceof WikiPage)  {
+                final WikiPage page = (WikiPage) _element;
+                this.children(_node, CompactWikiPage.PAGE, page.getProperties().size(),
+                              page.getProperties(), page.getParagraphs(), page.getSubSections());
+            } else if (_element instanceof Section)  {
+                final Section section = (Section) _element;
+                this.children(_node, CompactWikiPage.SECTION, section.getHeadings().size(),
+                              section.getHeadings(), section.getParagraphs(), section.getSubSections());
+            } else if (_element instanceof Paragraph)  {
+                this.children(_node, CompactWikiPage.PARAGRAPH, 0, ((Paragraph) _element).getElements());
+            } else if (_element instanceof Table)  {
+                this.children(_node, CompactWikiPage.TABLE, 0, ((Table) _element).getBodyRows());
+            } else if (_element instanceof TableRow)  {
+                this.children(_node, CompactWikiPage.TABLE_ROW, 0, ((TableRow) _element).getEntries());
+            } else if (_element instanceof TableCell)  {
+                this.children(_node, CompactWikiPage.TABLE_CELL, 0, ((TableCell) _element).getParagraphs());
+            } else if (_element instanceof ListBulleted)  {
+                this.children(_node, CompactWikiPage.LIST_BULLETED, 0, ((ListBulleted) _element).getEntries());
+            } else if (_element instanceof ListNumbered)  {
+                this.children(_node, CompactWikiPage.LIST_NUMBERED, 0, ((ListNumbered) _element).getEntries());
+            } else if (_element instanceof ListEntry)  {
+                this.children(_node, CompactWikiPage.LIST_ENTRY, 0, ((ListEntry) _element).getParagraphs());
+            } else if (_element instanceof TypefaceBold)  {
+                this.children(_node, CompactWikiPage.BOLD, 0, ((TypefaceBold) _element).getElements());
+            } else if (_element instanceof TypefaceCode)  {
+                this.children(_node, CompactWikiPage.CODE, 0, ((TypefaceCode) _element).getElements());
+            } else if (_element instanceof TypefaceItalic)  {
+                this.children(_node, CompactWikiPage.ITALIC, 0, ((TypefaceItalic) _element).getElements());
+            } else if (_element instanceof TextString)  {
+                this.text(_node, CompactWikiPage.TEXT, ((TextString) _element).getText(), 0);
+            } else if (_element instanceof Preformat)  {
+                this.text(_node, CompactWikiPage.PREFORMAT, ((Preformat) _element).getCode(), 0);
+            } else if (_element instanceof TableOfContents)  {
+                this.text(_node, CompactWikiPage.TABLE_OF_CONTENTS, null, ((TableOfContents) _element).getMaxDepth());
+            } else if (_element instanceof Image)  {
+                this.text(_node, CompactWikiPage.IMAGE, CompactWikiPage.Builder.url(((Image) _element).getURL()), 0);
+            } else if (_element instanceof ExternalLinkWithDescription)  {
+                final ExternalLinkWithDescription link = (ExternalLinkWithDescription) _element;
+                this.link(_node, CompactWikiPage.EXTERNAL_LINK_DESCRIPTION, CompactWikiPage.Builder.url(link.getURL()),
+                          link.getDescription());
+            } else if (_element instanceof ExternalLink)  {
+                this.text(_node, CompactWikiPage.EXTERNAL_LINK,
+                          CompactWikiPage.Builder.url(((ExternalLink) _element).getURL()), 0);
+            } else if (_element instanceof InternalLinkWithDescription)  {
+                final InternalLinkWithDescription link = (InternalLinkWithDescription) _element;
+                this.link(_node, CompactWikiPage.INTERNAL_LINK_DESCRIPTION, link.getLink(), link.getDescription());
+            } else if (_element instanceof InternalLink)  {
+                this.text(_node, CompactWikiPage.INTERNAL_LINK, ((InternalLink) _element).getLink(), 0);
+            } else if (_element instanceof Divider)  {
+                this.text(_node, CompactWikiPage.DIVIDER, null, 0);
+            } else if (_element instanceof NewLine)  {
+                this.text(_node, CompactWikiPage.NEW_LINE, null, 0);
+            } else if (_element instanceof Summary)  {
+                this.text(_node, CompactWikiPage.SUMMARY, ((Summary) _element).getValue(), 0);
+            } else if (_element instanceof Label)  {
+                this.text(_node, CompactWikiPage.LABEL, ((Label) _element).getValue(), 0);
+            } else if (_element instanceof Sidebar)  {
+                this.text(_node, CompactWikiPage.SIDEBAR, ((Sidebar) _element).getValue(), 0);
+            } else  {
+                throw new IllegalArgumentException("unknown element " + _element);
+            }
+        }
+
+        /**
+         * Returns the external form of <code>_url</code>.
+         *
+         * @param _url      URL
+         * @return external form of the URL (or <code>null</code>)
+         */
+        private static String url(final URL _url)
+        {
+            return (_url == null) ? null : _url.toExternalForm();
+        }
+    }
+}
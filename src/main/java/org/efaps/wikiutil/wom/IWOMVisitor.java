@@ -0,0 +1,287 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wom;
+
+import org.efaps.wikiutil.wom.element.AbstractLineElement;
+import org.efaps.wikiutil.wom.element.Divider;
+import org.efaps.wikiutil.wom.element.NewLine;
+import org.efaps.wikiutil.wom.element.Paragraph;
+import org.efaps.wikiutil.wom.element.Preformat;
+import org.efaps.wikiutil.wom.element.Section;
+import org.efaps.wikiutil.wom.element.TableOfContents;
+import org.efaps.wikiutil.wom.element.list.ListBulleted;
+import org.efaps.wikiutil.wom.element.list.ListEntry;
+import org.efaps.wikiutil.wom.element.list.ListNumbered;
+import org.efaps.wikiutil.wom.element.table.Table;
+import org.efaps.wikiutil.wom.element.table.TableCell;
+import org.efaps.wikiutil.wom.element.table.TableRow;
+import org.efaps.wikiutil.wom.element.text.ExternalLink;
+import org.efaps.wikiutil.wom.element.text.ExternalLinkWithDescription;
+import org.efaps.wikiutil.wom.element.text.Image;
+import org.efaps.wikiutil.wom.element.text.InternalLink;
+import org.efaps.wikiutil.wom.element.text.InternalLinkWithDescription;
+import org.efaps.wikiutil.wom.element.text.TextString;
+import org.efaps.wikiutil.wom.element.text.TypefaceBold;
+import org.efaps.wikiutil.wom.element.text.TypefaceCode;
+import org.efaps.wikiutil.wom.element.text.TypefaceItalic;
+
+/**
+ * Visitor of the Wiki object model. Each element of a Wiki page calls in its
+ * <code>accept</code> method the visit method for its own class, so that
+ * the dispatch over the element classes is done with one virtual call
+ * instead of a chain of <code>instanceof</code> checks. Line elements which
+ * are not known by the visitor (e.g. new classes derived from
+ * {@link AbstractLineElement}) call {@link #visitLineElement}.
+ *
+ * @param <RESULT>      class of the result of the visit methods
+ * @param <EXCEPTION>   exception thrown by the visit methods
+ * @author The eFaps Team
+ * @version $Id$
+ * @see AbstractWOMVisitor
+ * @see AbstractWOMWalker
+ */
+public interface IWOMVisitor<RESULT, EXCEPTION extends Exception>
+{
+    /**
+     * Visits a Wiki page.
+     *
+     * @param _page        Wiki page to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitWikiPage(final WikiPage _page)
+        throws EXCEPTION;
+
+    /**
+     * Visits a section.
+     *
+     * @param _section     section to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitSection(final Section _section)
+        throws EXCEPTION;
+
+    /**
+     * Visits a paragraph.
+     *
+     * @param _paragraph   paragraph to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitParagraph(final Paragraph _paragraph)
+        throws EXCEPTION;
+
+    /**
+     * Visits a divider.
+     *
+     * @param _divider     divider to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitDivider(final Divider _divider)
+        throws EXCEPTION;
+
+    /**
+     * Visits a new line.
+     *
+     * @param _newLine     new line to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitNewLine(final NewLine _newLine)
+        throws EXCEPTION;
+
+    /**
+     * Visits a preformatted code.
+     *
+     * @param _preformat   preformatted code to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitPreformat(final Preformat _preformat)
+        throws EXCEPTION;
+
+    /**
+     * Visits a table of contents.
+     *
+     * @param _toc         table of contents to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitTableOfContents(final TableOfContents _toc)
+        throws EXCEPTION;
+
+    /**
+     * Visits a table.
+     *
+     * @param _table       table to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitTable(final Table _table)
+        throws EXCEPTION;
+
+    /**
+     * Visits a table row.
+     *
+     * @param _tableRow    table row to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitTableRow(final TableRow _tableRow)
+        throws EXCEPTION;
+
+    /**
+     * Visits a table cell.
+     *
+     * @param _tableCell   table cell to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitTableCell(final TableCell _tableCell)
+        throws EXCEPTION;
+
+    /**
+     * Visits a bulleted list.
+     *
+     * @param _listBulleted bulleted list to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitListBulleted(final ListBulleted _listBulleted)
+        throws EXCEPTION;
+
+    /**
+     * Visits a numbered list.
+     *
+     * @param _listNumbered numbered list to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitListNumbered(final ListNumbered _listNumbered)
+        throws EXCEPTION;
+
+    /**
+     * Visits a list entry.
+     *
+     * @param _listEntry   list entry to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitListEntry(final ListEntry _listEntry)
+        throws EXCEPTION;
+
+    /**
+     * Visits an external link.
+     *
+     * @param _externalLink external link to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitExternalLink(final ExternalLink _externalLink)
+        throws EXCEPTION;
+
+    /**
+     * Visits an external link with description.
+     *
+     * @param _externalLinkWithDescription external link with description to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitExternalLinkWithDescription(final ExternalLinkWithDescription _externalLinkWithDescription)
+        throws EXCEPTION;
+
+    /**
+     * Visits an image.
+     *
+     * @param _image       image to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitImage(final Image _image)
+        throws EXCEPTION;
+
+    /**
+     * Visits an internal link.
+     *
+     * @param _internalLink internal link to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitInternalLink(final InternalLink _internalLink)
+        throws EXCEPTION;
+
+    /**
+     * Visits an internal link with description.
+     *
+     * @param _internalLinkWithDescription internal link with description to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitInternalLinkWithDescription(final InternalLinkWithDescription _internalLinkWithDescription)
+        throws EXCEPTION;
+
+    /**
+     * Visits a text string.
+     *
+     * @param _textString  text string to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitTextString(final TextString _textString)
+        throws EXCEPTION;
+
+    /**
+     * Visits a bold type face.
+     *
+     * @param _typefaceBold bold type face to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitTypefaceBold(final TypefaceBold _typefaceBold)
+        throws EXCEPTION;
+
+    /**
+     * Visits a code type face.
+     *
+     * @param _typefaceCode code type face to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitTypefaceCode(final TypefaceCode _typefaceCode)
+        throws EXCEPTION;
+
+    /**
+     * Visits an italic type face.
+     *
+     * @param _typefaceItalic italic type face to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitTypefaceItalic(final TypefaceItalic _typefaceItalic)
+        throws EXCEPTION;
+
+    /**
+     * Visits a line element for which no specific visit method exists.
+     *
+     * @param _element  line element to visit
+     * @return result of the visit
+     * @throws EXCEPTION if the visit failed
+     */
+    RESULT visitLineElement(final AbstractLineElement _element)
+        throws EXCEPTION;
+}
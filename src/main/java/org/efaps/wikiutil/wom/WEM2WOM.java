@@ -134,6 +134,18 @@ public class WEM2WOM
         return this.page;
     }
 
+    /**
+     * Returns the generated Wiki page as compact and immutable page which
+     * could be cached with less memory.
+     *
+     * @return compact Wiki page
+     * @see CompactWikiPage#compact(WikiPage)
+     */
+    public CompactWikiPage getCompactPage()
+    {
+        return CompactWikiPage.compact(this.page);
+    }
+
     @Override
     public void onProperty(final EProperty _property,
                            final String _value)
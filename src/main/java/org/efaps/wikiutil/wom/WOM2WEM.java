@@ -0,0 +1,379 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wom;
+
+import java.util.List;
+
+import org.efaps.wikiutil.wem.EProperty;
+import org.efaps.wikiutil.wem.ETypeface;
+import org.efaps.wikiutil.wem.IWikiEventModel;
+import org.efaps.wikiutil.wom.element.AbstractLineElement;
+import org.efaps.wikiutil.wom.element.Divider;
+import org.efaps.wikiutil.wom.element.NewLine;
+import org.efaps.wikiutil.wom.element.Paragraph;
+import org.efaps.wikiutil.wom.element.Preformat;
+import org.efaps.wikiutil.wom.element.Section;
+import org.efaps.wikiutil.wom.element.TableOfContents;
+import org.efaps.wikiutil.wom.element.list.ListBulleted;
+import org.efaps.wikiutil.wom.element.list.ListEntry;
+import org.efaps.wikiutil.wom.element.list.ListNumbered;
+import org.efaps.wikiutil.wom.element.table.Table;
+import org.efaps.wikiutil.wom.element.table.TableCell;
+import org.efaps.wikiutil.wom.element.table.TableRow;
+import org.efaps.wikiutil.wom.element.text.ExternalLink;
+import org.efaps.wikiutil.wom.element.text.ExternalLinkWithDescription;
+import org.efaps.wikiutil.wom.element.text.Image;
+import org.efaps.wikiutil.wom.element.text.InternalLink;
+import org.efaps.wikiutil.wom.element.text.InternalLinkWithDescription;
+import org.efaps.wikiutil.wom.element.text.TextString;
+import org.efaps.wikiutil.wom.element.text.TypefaceBold;
+import org.efaps.wikiutil.wom.element.text.TypefaceCode;
+import org.efaps.wikiutil.wom.element.text.TypefaceItalic;
+import org.efaps.wikiutil.wom.property.AbstractProperty;
+import org.efaps.wikiutil.wom.property.Label;
+import org.efaps.wikiutil.wom.property.Sidebar;
+import org.efaps.wikiutil.wom.property.Summary;
+
+/**
+ * Converts a Wiki page from the Wiki object model to the Wiki event model;
+ * it is the reverse direction of {@link WEM2WOM}. The events are emitted
+ * while walking through the Wiki page, so that a parsed (and e.g. cached)
+ * Wiki page could be rendered by all event based exporters without parsing
+ * the Wiki text again. No objects are allocated to emit the events; the
+ * texts of the Wiki page are passed directly to the events. The instance
+ * could be used for many Wiki pages.
+ *
+ * <b>Example:</b>
+ * <pre>
+ * new WOM2WEM(new WEMHtml(writer, null)).play(page);
+ * </pre>
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class WOM2WEM
+    extends AbstractWOMWalker<RuntimeException>
+{
+    /**
+     * Wiki event model to which the events are emitted.
+     */
+    private final IWikiEventModel wem;
+
+    /**
+     * Initializes this converter.
+     *
+     * @param _wem  Wiki event model to which the events are emitted
+     */
+    public WOM2WEM(final IWikiEventModel _wem)
+    {
+        this.wem = _wem;
+    }
+
+    /**
+     * Emits all events for <code>_page</code> to the {@link #wem Wiki event
+     * model}.
+     *
+     * @param _page     Wiki page to convert
+     */
+    public void play(final WikiPage _page)
+    {
+        _page.accept(this);
+    }
+
+    /**
+     * Emits the document with the properties, the paragraphs and the sub
+     * sections of the Wiki page.
+     *
+     * @param _page     Wiki page to visit
+     * @return always <code>null</code>
+     */
+    @Override
+    public Void visitWikiPage(final WikiPage _page)
+    {
+        this.wem.documentStart();
+        final List<AbstractProperty> properties = _page.getProperties();
+        for (int idx = 0; idx < properties.size(); idx++)  {
+            final AbstractProperty property = properties.get(idx);
+            if (property instanceof Summary)  {
+                this.wem.onProperty(EProperty.DESCRIPTION, property.getValue());
+            } else if (property instanceof Label)  {
+                this.wem.onProperty(EProperty.KEY, property.getValue());
+            } else if (property instanceof Sidebar)  {
+                this.wem.onProperty(EProperty.SIDEBAR, property.getValue());
+            }
+        }
+        super.visitWikiPage(_page);
+        this.wem.documentEnd();
+        return null;
+    }
+
+    /**
+     * Emits the section with the headings, the paragraphs and the sub
+     * sections.
+     *
+     * @param _section  section to visit
+     * @return always <code>null</code>
+     */
+    @Override
+    public Void visitSection(final Section _section)
+    {
+        this.wem.sectionStart();
+        this.wem.headingStart();
+        this.walkElements(_section.getHeadings());
+        this.wem.headingEnd();
+        this.walkSection(_section);
+        this.wem.sectionEnd();
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitParagraph(final Paragraph _paragraph)
+    {
+        this.wem.paragraphStart();
+        super.visitParagraph(_paragraph);
+        this.wem.paragraphEnd();
+        return null;
+    }
+
+    /**
+     * Emits the table with all rows within the table body.
+     *
+     * @param _table    table to visit
+     * @return always <code>null</code>
+     */
+    @Override
+    public Void visitTable(final Table _table)
+    {
+        this.wem.tableStart();
+        this.wem.tableBodyStart();
+        super.visitTable(_table);
+        this.wem.tableBodyEnd();
+        this.wem.tableEnd();
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitTableRow(final TableRow _tableRow)
+    {
+        this.wem.tableRowStart();
+        super.visitTableRow(_tableRow);
+        this.wem.tableRowEnd();
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitTableCell(final TableCell _tableCell)
+    {
+        this.wem.tableEntryStart();
+        super.visitTableCell(_tableCell);
+        this.wem.tableEntryEnd();
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitListBulleted(final ListBulleted _listBulleted)
+    {
+        this.wem.listBulletedStart();
+        super.visitListBulleted(_listBulleted);
+        this.wem.listBulletedEnd();
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitListNumbered(final ListNumbered _listNumbered)
+    {
+        this.wem.listNumberedStart();
+        super.visitListNumbered(_listNumbered);
+        this.wem.listNumberedEnd();
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitListEntry(final ListEntry _listEntry)
+    {
+        this.wem.listEntryStart();
+        super.visitListEntry(_listEntry);
+        this.wem.listEntryEnd();
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitTypefaceBold(final TypefaceBold _typefaceBold)
+    {
+        this.wem.typefaceStart(ETypeface.BOLD);
+        super.visitTypefaceBold(_typefaceBold);
+        this.wem.typefaceEnd(ETypeface.BOLD);
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitTypefaceCode(final TypefaceCode _typefaceCode)
+    {
+        this.wem.typefaceStart(ETypeface.CODE);
+        super.visitTypefaceCode(_typefaceCode);
+        this.wem.typefaceEnd(ETypeface.CODE);
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitTypefaceItalic(final TypefaceItalic _typefaceItalic)
+    {
+        this.wem.typefaceStart(ETypeface.ITALIC);
+        super.visitTypefaceItalic(_typefaceItalic);
+        this.wem.typefaceEnd(ETypeface.ITALIC);
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitDivider(final Divider _divider)
+    {
+        this.wem.onDivider();
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitNewLine(final NewLine _newLine)
+    {
+        this.wem.onNewLine();
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitPreformat(final Preformat _preformat)
+    {
+        this.wem.onPreformat(_preformat.getCode());
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitTableOfContents(final TableOfContents _toc)
+    {
+        this.wem.onTableOfContents(_toc.getMaxDepth());
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitImage(final Image _image)
+    {
+        this.wem.onImage(_image.getURL());
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitTextString(final TextString _textString)
+    {
+        this.wem.onText(_textString.getText());
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitExternalLink(final ExternalLink _externalLink)
+    {
+        this.wem.onLinkExternal(_externalLink.getURL(), null);
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitExternalLinkWithDescription(final ExternalLinkWithDescription _externalLink)
+    {
+        this.wem.onLinkExternal(_externalLink.getURL(), _externalLink.getDescription());
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitInternalLink(final InternalLink _internalLink)
+    {
+        this.wem.onLinkInternal(_internalLink.getLink(), null);
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitInternalLinkWithDescription(final InternalLinkWithDescription _internalLink)
+    {
+        this.wem.onLinkInternal(_internalLink.getLink(), _internalLink.getDescription());
+        return null;
+    }
+
+    /**
+     * Unknown line elements could not be converted to events.
+     *
+     * @param _element  unknown line element
+     * @return nothing
+     * @throws IllegalArgumentException always
+     */
+    @Override
+    public Void visitLineElement(final AbstractLineElement _element)
+    {
+        throw new IllegalArgumentException("unknown line element " + _element);
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wom;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import org.efaps.wikiutil.wom.element.AbstractLineElement;
+
+/**
+ * Helper methods for the lists of the Wiki object model. Most elements of a
+ * Wiki page have no or only one or two child elements; therefore all lists
+ * start with the shared immutable empty list and are only allocated if the
+ * first element is added. The lists are trimmed if a Wiki page is
+ * {@link WikiPage#freeze() frozen}.
+ * <p>
+ * The allocated lists are unmodifiable like the empty list, so that the
+ * getters of the Wiki object model return an unmodifiable list in all cases
+ * without a wrapper. The lists are only changed with the methods of this
+ * class.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public final class WOMLists
+{
+    /**
+     * Initial capacity of an allocated list.
+     */
+    private static final int CAPACITY = 4;
+
+    /**
+     * Constructor defined so that this utility class could not be initialized.
+     */
+    private WOMLists()
+    {
+    }
+
+    /**
+     * Adds <code>_element</code> to <code>_list</code>. If
+     * <code>_list</code> is the shared empty list, a new list is allocated.
+     *
+     * @param <E>       class of the elements
+     * @param _list     list to which the element is added
+     * @param _element  element to add
+     * @return list with the added element (must be stored instead of
+     *         <code>_list</code>)
+     */
+    public static <E> List<E> add(final List<E> _list,
+                                  final E _element)
+    {
+        final ElementList<E> ret = (_list == Collections.<E>emptyList())
+                        ? new ElementList<E>(WOMLists.CAPACITY)
+                        : (ElementList<E>) _list;
+        ret.append(_element);
+        return ret;
+    }
+
+    /**
+     * Adds all <code>_elements</code> to <code>_list</code>. If
+     * <code>_list</code> is the shared empty list, a new list is allocated.
+     *
+     * @param <E>       class of the elements
+     * @param _list     list to which the elements are added
+     * @param _elements elements to add
+     * @return list with the added elements (must be stored instead of
+     *         <code>_list</code>)
+     */
+    public static <E> List<E> addAll(final List<E> _list,
+                                     final Collection<? extends E> _elements)
+    {
+        final List<E> ret;
+        if (_elements.isEmpty())  {
+            ret = _list;
+        } else  {
+            final ElementList<E> list = (_list == Collections.<E>emptyList())
+                            ? new ElementList<E>(_elements.size())
+                            : (ElementList<E>) _list;
+            for (final E element : _elements)  {
+                list.append(element);
+            }
+            ret = list;
+        }
+        return ret;
+    }
+
+    /**
+     * Freezes all line elements of <code>_list</code> (the frozen elements
+     * replace the original elements) and trims the list.
+     *
+     * @param _list     list of line elements
+     * @param _pool     pool of texts
+     * @return frozen and trimmed list (must be stored instead of
+     *         <code>_list</code>)
+     * @see AbstractLineElement#freeze(Map)
+     */
+    public static List<AbstractLineElement> freeze(final List<AbstractLineElement> _list,
+                                                   final Map<String, String> _pool)
+    {
+        if (_list instanceof ElementList<?>)  {
+            final Object[] elements = ((ElementList<AbstractLineElement>) _list).elements;
+            for (int idx = 0; idx < _list.size(); idx++)  {
+                elements[idx] = ((AbstractLineElement) elements[idx]).freeze(_pool);
+            }
+        }
+        return WOMLists.trim(_list);
+    }
+
+    /**
+     * Trims <code>_list</code>: an empty list is replaced by the shared empty
+     * list, the capacity of an allocated list is reduced to the size.
+     *
+     * @param <E>       class of the elements
+     * @param _list     list to trim
+     * @return trimmed list (must be stored instead of <code>_list</code>)
+     */
+    public static <E> List<E> trim(final List<E> _list)
+    {
+        final List<E> ret;
+        if (_list.isEmpty())  {
+            ret = Collections.<E>emptyList();
+        } else  {
+            if (_list instanceof ElementList<?>)  {
+                ((ElementList<E>) _list).trimToSize();
+            }
+            ret = _list;
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the pooled instance of <code>_text</code>. If the text is not
+     * pooled, the text itself is pooled.
+     *
+     * @param _pool     pool of the texts
+     * @param _text     text (could be <code>null</code>)
+     * @return pooled text
+     */
+    public static String intern(final Map<String, String> _pool,
+                                final String _text)
+    {
+        final String ret;
+        if (_text == null)  {
+            ret = null;
+        } else  {
+            final String pooled = _pool.putIfAbsent(_text, _text);
+            ret = (pooled == null) ? _text : pooled;
+        }
+        return ret;
+    }
+
+    /**
+     * Unmodifiable list of elements which is changed only from the methods
+     * of {@link WOMLists}.
+     *
+     * @param <E>   class of the elements
+     */
+    private static final class ElementList<E>
+        extends AbstractList<E>
+        implements RandomAccess
+    {
+        /**
+         * Elements of the list.
+         */
+        private Object[] elements;
+
+        /**
+         * Number of elements.
+         */
+        private int size;
+
+        /**
+         * Constructor.
+         *
+         * @param _capacity     initial capacity
+         */
+        private ElementList(final int _capacity)
+        {
+            this.elements = new Object[_capacity];
+        }
+
+        /**
+         * Appends <code>_element</code> at the end of the list.
+         *
+         * @param _element  element to append
+         */
+        private void append(final E _element)
+        {
+            if (this.size == this.elements.length)  {
+                this.elements = Arrays.copyOf(this.elements, Math.max(WOMLists.CAPACITY, this.size * 2));
+            }
+            this.elements[this.size++] = _element;
+            this.modCount++;
+        }
+
+        /**
+         * Reduces the capacity of the list to the size.
+         */
+        private void trimToSize()
+        {
+            if (this.size < this.elements.length)  {
+                this.elements = Arrays.copyOf(this.elements, this.size);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(final int _index)
+        {
+            if (_index < 0 || _index >= this.size)  {
+                throw new IndexOutOfBoundsException("index " + _index + " for size " + this.size);
+            }
+            return (E) this.elements[_index];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size()
+        {
+            return this.size;
+        }
+    }
+}
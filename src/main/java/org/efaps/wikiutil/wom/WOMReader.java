@@ -0,0 +1,479 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wom;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.efaps.wikiutil.wom.element.AbstractLineElement;
+import org.efaps.wikiutil.wom.element.AbstractParagraphList;
+import org.efaps.wikiutil.wom.element.AbstractSection;
+import org.efaps.wikiutil.wom.element.Divider;
+import org.efaps.wikiutil.wom.element.NewLine;
+import org.efaps.wikiutil.wom.element.Paragraph;
+import org.efaps.wikiutil.wom.element.Preformat;
+import org.efaps.wikiutil.wom.element.Section;
+import org.efaps.wikiutil.wom.element.TableOfContents;
+import org.efaps.wikiutil.wom.element.list.AbstractListEntry;
+import org.efaps.wikiutil.wom.element.list.ListBulleted;
+import org.efaps.wikiutil.wom.element.list.ListEntry;
+import org.efaps.wikiutil.wom.element.list.ListNumbered;
+import org.efaps.wikiutil.wom.element.table.Table;
+import org.efaps.wikiutil.wom.element.table.TableCell;
+import org.efaps.wikiutil.wom.element.table.TableRow;
+import org.efaps.wikiutil.wom.element.text.AbstractTypeface;
+import org.efaps.wikiutil.wom.element.text.ExternalLink;
+import org.efaps.wikiutil.wom.element.text.ExternalLinkWithDescription;
+import org.efaps.wikiutil.wom.element.text.Image;
+import org.efaps.wikiutil.wom.element.text.InternalLink;
+import org.efaps.wikiutil.wom.element.text.InternalLinkWithDescription;
+import org.efaps.wikiutil.wom.element.text.TextString;
+import org.efaps.wikiutil.wom.element.text.TypefaceBold;
+import org.efaps.wikiutil.wom.element.text.TypefaceCode;
+import org.efaps.wikiutil.wom.element.text.TypefaceItalic;
+import org.efaps.wikiutil.wom.property.Label;
+import org.efaps.wikiutil.wom.property.Sidebar;
+import org.efaps.wikiutil.wom.property.Summary;
+
+/**
+ * Reads the Wiki pages written by the {@link WOMWriter writer}. The bytes
+ * are read from a byte buffer so that a file with stored Wiki pages could be
+ * {@link #map(File) mapped} into the memory without copying the file.
+ * Because the texts of the same stream are deduplicated, equal texts of all
+ * read Wiki pages are the same string instances.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ * @see WOMWriter
+ */
+public class WOMReader
+{
+    /**
+     * Byte buffer from which the Wiki pages are read.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Decoder for the texts; malformed texts are reported.
+     */
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+
+    /**
+     * Character buffer reused to decode the texts.
+     */
+    private CharBuffer chars = CharBuffer.allocate(64);
+
+    /**
+     * String table with all already read texts.
+     */
+    private String[] strings = new String[64];
+
+    /**
+     * Number of used entries in {@link #strings}.
+     */
+    private int stringCount;
+
+    /**
+     * Initializes the reader for the stream within the remaining bytes of
+     * <code>_buffer</code> and checks the header of the stream.
+     *
+     * @param _buffer   byte buffer with the written Wiki pages
+     * @throws IllegalArgumentException if the bytes are not a stream of Wiki
+     *                                  pages or the version is not supported
+     */
+    public WOMReader(final ByteBuffer _buffer)
+    {
+        this.buffer = _buffer;
+        if (_buffer.remaining() < WOMWriter.MAGIC.length + 1)  {
+            throw new IllegalArgumentException("no WOM stream (too short)");
+        }
+        for (int idx = 0; idx < WOMWriter.MAGIC.length; idx++)  {
+            if (_buffer.get() != WOMWriter.MAGIC[idx])  {
+                throw new IllegalArgumentException("no WOM stream (wrong magic bytes)");
+            }
+        }
+        final byte version = _buffer.get();
+        if (version != WOMWriter.VERSION)  {
+            throw new IllegalArgumentException("WOM stream version " + version + " not supported");
+        }
+    }
+
+    /**
+     * Initializes the reader for the stream within <code>_bytes</code>.
+     *
+     * @param _bytes    bytes with the written Wiki pages
+     * @throws IllegalArgumentException if the bytes are not a stream of Wiki
+     *                                  pages or the version is not supported
+     */
+    public WOMReader(final byte[] _bytes)
+    {
+        this(ByteBuffer.wrap(_bytes));
+    }
+
+    /**
+     * Maps <code>_file</code> read only into the memory and returns the
+     * reader for the mapped bytes. The mapping is valid until the mapped
+     * buffer is garbage collected; the file itself is closed immediately.
+     *
+     * @param _file     file with the written Wiki pages
+     * @return reader for the mapped file
+     * @throws IOException if the file could not be mapped
+     * @throws IllegalArgumentException if the file is not a stream of Wiki
+     *                                  pages or the version is not supported
+     */
+    public static WOMReader map(final File _file)
+        throws IOException
+    {
+        final RandomAccessFile file = new RandomAccessFile(_file, "r");
+        try  {
+            final FileChannel channel = file.getChannel();
+            return new WOMReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally  {
+            file.close();
+        }
+    }
+
+    /**
+     * Checks if a further Wiki page could be read.
+     *
+     * @return <i>true</i> if a further Wiki page exists
+     */
+    public boolean hasNext()
+    {
+        return this.buffer.hasRemaining();
+    }
+
+    /**
+     * Reads the next Wiki page.
+     *
+     * @return read Wiki page
+     * @throws NoSuchElementException if no further Wiki page exists
+     * @throws IllegalArgumentException if the stream is corrupt
+     */
+    public WikiPage next()
+    {
+        if (!this.buffer.hasRemaining())  {
+            throw new NoSuchElementException("no further Wiki page in WOM stream");
+        }
+        try  {
+            final int tag = this.readVarInt();
+            if (tag != WOMWriter.PAGE)  {
+                throw new IllegalArgumentException("unknown tag " + tag + " for Wiki page in WOM stream");
+            }
+            final WikiPage page = new WikiPage();
+            for (int count = this.readVarInt(); count > 0; count--)  {
+                final int property = this.readVarInt();
+                switch (property)  {
+                    case WOMWriter.SUMMARY:
+                        page.add(new Summary(this.readString()));
+                        break;
+                    case WOMWriter.LABEL:
+                        page.add(new Label(this.readString()));
+                        break;
+                    case WOMWriter.SIDEBAR:
+                        page.add(new Sidebar(this.readString()));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown property " + property + " in WOM stream");
+                }
+            }
+            this.readSection(page);
+            return page;
+        } catch (final BufferUnderflowException e)  {
+            throw new IllegalArgumentException("WOM stream is truncated", e);
+        }
+    }
+
+    /**
+     * Reads all remaining Wiki pages.
+     *
+     * @return list of all read Wiki pages
+     * @throws IllegalArgumentException if the stream is corrupt
+     */
+    public List<WikiPage> readAll()
+    {
+        final List<WikiPage> ret = new ArrayList<WikiPage>();
+        while (this.hasNext())  {
+            ret.add(this.next());
+        }
+        return ret;
+    }
+
+    /**
+     * Reads the paragraphs and sub sections of <code>_section</code>.
+     *
+     * @param _section  section or Wiki page to fill
+     */
+    private void readSection(final AbstractSection<?> _section)
+    {
+        this.readParagraphs(_section);
+        for (int count = this.readVarInt(); count > 0; count--)  {
+            final Section section = new Section();
+            for (int headings = this.readVarInt(); headings > 0; headings--)  {
+                section.addHeading(this.readElement());
+            }
+            this.readSection(section);
+            _section.addSubSection(section);
+        }
+    }
+
+    /**
+     * Reads the paragraphs of <code>_paragraphs</code>.
+     *
+     * @param _paragraphs   list of paragraphs to fill
+     */
+    private void readParagraphs(final AbstractParagraphList<?> _paragraphs)
+    {
+        for (int count = this.readVarInt(); count > 0; count--)  {
+            final Paragraph paragraph = new Paragraph();
+            for (int elements = this.readVarInt(); elements > 0; elements--)  {
+                paragraph.add(this.readElement());
+            }
+            _paragraphs.add(paragraph);
+        }
+    }
+
+    /**
+     * Reads the entries of <code>_list</code>.
+     *
+     * @param <LIST>    class of the list
+     * @param _list     bulleted or numbered list to fill
+     * @return filled list
+     */
+    private <LIST extends AbstractListEntry<LIST>> LIST readList(final LIST _list)
+    {
+        for (int count = this.readVarInt(); count > 0; count--)  {
+            final ListEntry entry = new ListEntry();
+            this.readParagraphs(entry);
+            _list.add(entry);
+        }
+        return _list;
+    }
+
+    /**
+     * Reads the elements of <code>_typeface</code>.
+     *
+     * @param <TYPEFACE>    class of the type face
+     * @param _typeface     type face to fill
+     * @return filled type face
+     */
+    private <TYPEFACE extends AbstractTypeface<TYPEFACE>> TYPEFACE readTypeface(final TYPEFACE _typeface)
+    {
+        for (int count = this.readVarInt(); count > 0; count--)  {
+            _typeface.add(this.readElement());
+        }
+        return _typeface;
+    }
+
+    /**
+     * Reads one line element.
+     *
+     * @return read line element
+     * @throws IllegalArgumentException if the tag of the element is unknown
+     */
+    private AbstractLineElement readElement()
+    {
+        final int tag = this.readVarInt();
+        final AbstractLineElement ret;
+        switch (tag)  {
+            case WOMWriter.TEXT:
+                ret = new TextString(this.readString());
+                break;
+            case WOMWriter.INTERNAL_LINK:
+                ret = new InternalLink(this.readString());
+                break;
+            case WOMWriter.INTERNAL_LINK_DESCRIPTION:
+                final String link = this.readString();
+                ret = new InternalLinkWithDescription(link, this.readString());
+                break;
+            case WOMWriter.EXTERNAL_LINK:
+                ret = new ExternalLink(this.readURL());
+                break;
+            case WOMWriter.EXTERNAL_LINK_DESCRIPTION:
+                final URL url = this.readURL();
+                ret = new ExternalLinkWithDescription(url, this.readString());
+                break;
+            case WOMWriter.IMAGE:
+                ret = new Image(this.readURL());
+                break;
+            case WOMWriter.NEW_LINE:
+                ret = new NewLine();
+                break;
+            case WOMWriter.DIVIDER:
+                ret = new Divider();
+                break;
+            case WOMWriter.PREFORMAT:
+                ret = new Preformat(this.readString());
+                break;
+            case WOMWriter.TABLE_OF_CONTENTS:
+                ret = new TableOfContents(this.readVarInt());
+                break;
+            case WOMWriter.TABLE:
+                final Table table = new Table();
+                for (int rows = this.readVarInt(); rows > 0; rows--)  {
+                    final TableRow row = new TableRow();
+                    for (int cells = this.readVarInt(); cells > 0; cells--)  {
+                        final TableCell cell = new TableCell();
+                        this.readParagraphs(cell);
+                        row.add(cell);
+                    }
+                    table.addBodyRow(row);
+                }
+                ret = table;
+                break;
+            case WOMWriter.LIST_BULLETED:
+                ret = this.readList(new ListBulleted());
+                break;
+            case WOMWriter.LIST_NUMBERED:
+                ret = this.readList(new ListNumbered());
+                break;
+            case WOMWriter.TYPEFACE_BOLD:
+                ret = this.readTypeface(new TypefaceBold());
+                break;
+            case WOMWriter.TYPEFACE_CODE:
+                ret = this.readTypeface(new TypefaceCode());
+                break;
+            case WOMWriter.TYPEFACE_ITALIC:
+                ret = this.readTypeface(new TypefaceItalic());
+                break;
+            default:
+                throw new IllegalArgumentException("unknown line element " + tag + " in WOM stream");
+        }
+        return ret;
+    }
+
+    /**
+     * Reads a text. New texts are decoded and appended to the
+     * {@link #strings string table}, already read texts are taken from the
+     * string table.
+     *
+     * @return read text (or <code>null</code>)
+     * @throws IllegalArgumentException if the stream is truncated, the text
+     *                                  is not in the string table or the
+     *                                  text is malformed
+     */
+    private String readString()
+    {
+        final int value = this.readVarInt();
+        final String ret;
+        if (value == 0)  {
+            ret = null;
+        } else if ((value & 1) == 0)  {
+            final int index = (value >>> 1) - 1;
+            if (index >= this.stringCount)  {
+                throw new IllegalArgumentException("unknown text " + index + " in WOM stream");
+            }
+            ret = this.strings[index];
+        } else  {
+            final int length = value >>> 1;
+            if (length > this.buffer.remaining())  {
+                throw new IllegalArgumentException("WOM stream is truncated");
+            }
+            ret = this.decode(length);
+            if (this.stringCount == this.strings.length)  {
+                this.strings = Arrays.copyOf(this.strings, this.strings.length * 2);
+            }
+            this.strings[this.stringCount++] = ret;
+        }
+        return ret;
+    }
+
+    /**
+     * Decodes the next <code>_length</code> bytes of the {@link #buffer} as
+     * UTF-8 text. Other than {@link String#String(byte[], int, int,
+     * java.nio.charset.Charset)} malformed bytes are not replaced but
+     * reported, as the {@link org.efaps.wikiutil.wem.WEMTapePlayer WEM tape}
+     * does.
+     *
+     * @param _length   length of the encoded text in bytes
+     * @return decoded text
+     * @throws IllegalArgumentException if the text is malformed
+     */
+    private String decode(final int _length)
+    {
+        if (_length > this.chars.capacity())  {
+            this.chars = CharBuffer.allocate(Math.max(_length, this.chars.capacity() * 2));
+        }
+        final int start = this.buffer.position();
+        final int limit = this.buffer.limit();
+        this.buffer.limit(start + _length);
+        this.chars.clear();
+        this.decoder.reset();
+        try  {
+            CoderResult result = this.decoder.decode(this.buffer, this.chars, true);
+            if (!result.isError())  {
+                result = this.decoder.flush(this.chars);
+            }
+            if (result.isError())  {
+                throw new IllegalArgumentException("WOM stream contains malformed UTF-8 text at byte "
+                                + this.buffer.position());
+            }
+        } finally  {
+            this.buffer.limit(limit);
+            this.buffer.position(start + _length);
+        }
+        this.chars.flip();
+        return this.chars.toString();
+    }
+
+    /**
+     * Reads an URL.
+     *
+     * @return read URL (or <code>null</code>)
+     * @throws IllegalArgumentException if the text is not a valid URL
+     */
+    private URL readURL()
+    {
+        final String text = this.readString();
+        try  {
+            return (text == null) ? null : new URL(text);
+        } catch (final MalformedURLException e)  {
+            throw new IllegalArgumentException("invalid URL " + text + " in WOM stream", e);
+        }
+    }
+
+    /**
+     * Reads a variable length integer.
+     *
+     * @return read unsigned value
+     */
+    private int readVarInt()
+    {
+        int ret = 0;
+        int shift = 0;
+        int value;
+        do  {
+            value = this.buffer.get() & 0xFF;
+            ret |= (value & 0x7F) << shift;
+            shift += 7;
+        } while ((value & 0x80) != 0 && shift < 35);
+        return ret;
+    }
+}
@@ -0,0 +1,673 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wom;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.efaps.wikiutil.wom.element.AbstractLineElement;
+import org.efaps.wikiutil.wom.element.AbstractParagraphList;
+import org.efaps.wikiutil.wom.element.AbstractSection;
+import org.efaps.wikiutil.wom.element.Divider;
+import org.efaps.wikiutil.wom.element.NewLine;
+import org.efaps.wikiutil.wom.element.Paragraph;
+import org.efaps.wikiutil.wom.element.Preformat;
+import org.efaps.wikiutil.wom.element.Section;
+import org.efaps.wikiutil.wom.element.TableOfContents;
+import org.efaps.wikiutil.wom.element.list.AbstractListEntry;
+import org.efaps.wikiutil.wom.element.list.ListBulleted;
+import org.efaps.wikiutil.wom.element.list.ListEntry;
+import org.efaps.wikiutil.wom.element.list.ListNumbered;
+import org.efaps.wikiutil.wom.element.table.Table;
+import org.efaps.wikiutil.wom.element.table.TableCell;
+import org.efaps.wikiutil.wom.element.table.TableRow;
+import org.efaps.wikiutil.wom.element.text.AbstractTypeface;
+import org.efaps.wikiutil.wom.element.text.ExternalLink;
+import org.efaps.wikiutil.wom.element.text.ExternalLinkWithDescription;
+import org.efaps.wikiutil.wom.element.text.Image;
+import org.efaps.wikiutil.wom.element.text.InternalLink;
+import org.efaps.wikiutil.wom.element.text.InternalLinkWithDescription;
+import org.efaps.wikiutil.wom.element.text.TextString;
+import org.efaps.wikiutil.wom.element.text.TypefaceBold;
+import org.efaps.wikiutil.wom.element.text.TypefaceCode;
+import org.efaps.wikiutil.wom.element.text.TypefaceItalic;
+import org.efaps.wikiutil.wom.property.AbstractProperty;
+import org.efaps.wikiutil.wom.property.Label;
+import org.efaps.wikiutil.wom.property.Sidebar;
+import org.efaps.wikiutil.wom.property.Summary;
+
+/**
+ * Writes Wiki pages in a compact binary format to an output stream, so that
+ * parsed Wiki pages could be stored and loaded again with the
+ * {@link WOMReader reader} without parsing the Wiki texts. Many Wiki pages
+ * could be written to the same stream. The format is:
+ * <ul>
+ * <li>header: the magic bytes <code>WOMP</code> and the version byte</li>
+ * <li>each Wiki page: the page tag, the properties, the paragraphs and the
+ *     sections (each list with the number of the elements followed by the
+ *     elements)</li>
+ * <li>each line element: the tag of the element class followed by the
+ *     texts, numbers and child elements of the element</li>
+ * <li>numbers: unsigned variable length integers (7 bits per byte)</li>
+ * <li>texts: the string table is deduplicated and build while writing; a
+ *     text is written as <code>0</code> for <code>null</code>,
+ *     <code>(length &lt;&lt; 1) | 1</code> followed by the UTF-8 bytes for a
+ *     new text or <code>(index + 1) &lt;&lt; 1</code> for a text already in
+ *     the string table of the stream</li>
+ * </ul>
+ * The bytes are buffered and written to the output stream if the buffer is
+ * full, so that the writer never holds more than one buffer.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ * @see WOMReader
+ */
+public class WOMWriter
+    implements Closeable, Flushable
+{
+    /**
+     * Magic bytes at the start of each stream.
+     */
+    static final byte[] MAGIC = {'W', 'O', 'M', 'P'};
+
+    /**
+     * Version of the format. Must be changed if the format changes.
+     */
+    static final byte VERSION = 1;
+
+    /**
+     * Tag of a Wiki page.
+     */
+    static final int PAGE = 1;
+
+    /**
+     * Tag of the property {@link Summary}.
+     */
+    static final int SUMMARY = 1;
+
+    /**
+     * Tag of the property {@link Label}.
+     */
+    static final int LABEL = 2;
+
+    /**
+     * Tag of the property {@link Sidebar}.
+     */
+    static final int SIDEBAR = 3;
+
+    /**
+     * Tag of the line element {@link TextString}.
+     */
+    static final int TEXT = 1;
+
+    /**
+     * Tag of the line element {@link InternalLink}.
+     */
+    static final int INTERNAL_LINK = 2;
+
+    /**
+     * Tag of the line element {@link InternalLinkWithDescription}.
+     */
+    static final int INTERNAL_LINK_DESCRIPTION = 3;
+
+    /**
+     * Tag of the line element {@link ExternalLink}.
+     */
+    static final int EXTERNAL_LINK = 4;
+
+    /**
+     * Tag of the line element {@link ExternalLinkWithDescription}.
+     */
+    static final int EXTERNAL_LINK_DESCRIPTION = 5;
+
+    /**
+     * Tag of the line element {@link Image}.
+     */
+    static final int IMAGE = 6;
+
+    /**
+     * Tag of the line element {@link NewLine}.
+     */
+    static final int NEW_LINE = 7;
+
+    /**
+     * Tag of the line element {@link Divider}.
+     */
+    static final int DIVIDER = 8;
+
+    /**
+     * Tag of the line element {@link Preformat}.
+     */
+    static final int PREFORMAT = 9;
+
+    /**
+     * Tag of the line element {@link TableOfContents}.
+     */
+    static final int TABLE_OF_CONTENTS = 10;
+
+    /**
+     * Tag of the line element {@link Table}.
+     */
+    static final int TABLE = 11;
+
+    /**
+     * Tag of the line element {@link ListBulleted}.
+     */
+    static final int LIST_BULLETED = 12;
+
+    /**
+     * Tag of the line element {@link ListNumbered}.
+     */
+    static final int LIST_NUMBERED = 13;
+
+    /**
+     * Tag of the line element {@link TypefaceBold}.
+     */
+    static final int TYPEFACE_BOLD = 14;
+
+    /**
+     * Tag of the line element {@link TypefaceCode}.
+     */
+    static final int TYPEFACE_CODE = 15;
+
+    /**
+     * Tag of the line element {@link TypefaceItalic}.
+     */
+    static final int TYPEFACE_ITALIC = 16;
+
+    /**
+     * Output stream to which the bytes are written.
+     */
+    private final OutputStream out;
+
+    /**
+     * Buffer of the not yet written bytes.
+     */
+    private final byte[] buffer = new byte[8192];
+
+    /**
+     * Number of used bytes in {@link #buffer}.
+     */
+    private int size;
+
+    /**
+     * Index within the string table for all already written texts.
+     */
+    private final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+    /**
+     * Visitor to write the line elements.
+     */
+    private final LineElementWriter lineElementWriter = new LineElementWriter();
+
+    /**
+     * Initializes the writer and writes the header to <code>_out</code>.
+     *
+     * @param _out  output stream to which the Wiki pages are written
+     */
+    public WOMWriter(final OutputStream _out)
+    {
+        this.out = _out;
+        System.arraycopy(WOMWriter.MAGIC, 0, this.buffer, 0, WOMWriter.MAGIC.length);
+        this.buffer[WOMWriter.MAGIC.length] = WOMWriter.VERSION;
+        this.size = WOMWriter.MAGIC.length + 1;
+    }
+
+    /**
+     * Writes <code>_page</code>.
+     *
+     * @param _page     Wiki page to write
+     * @return this writer
+     * @throws IOException if the Wiki page could not be written
+     */
+    public WOMWriter write(final WikiPage _page)
+        throws IOException
+    {
+        this.writeVarInt(WOMWriter.PAGE);
+        final List<AbstractProperty> properties = _page.getProperties();
+        this.writeVarInt(properties.size());
+        for (int idx = 0; idx < properties.size(); idx++)  {
+            final AbstractProperty property = properties.get(idx);
+            if (property instanceof Summary)  {
+                this.writeVarInt(WOMWriter.SUMMARY);
+            } else if (property instanceof Label)  {
+                this.writeVarInt(WOMWriter.LABEL);
+            } else if (property instanceof Sidebar)  {
+                this.writeVarInt(WOMWriter.SIDEBAR);
+            } else  {
+                throw new IllegalArgumentException("unknown property " + property);
+            }
+            this.writeString(property.getValue());
+        }
+        this.writeSection(_page);
+        return this;
+    }
+
+    /**
+     * Writes all buffered bytes to the output stream and flushes the output
+     * stream.
+     *
+     * @throws IOException if the bytes could not be written
+     */
+    @Override
+    public void flush()
+        throws IOException
+    {
+        this.flushBuffer();
+        this.out.flush();
+    }
+
+    /**
+     * Writes all buffered bytes and closes the output stream.
+     *
+     * @throws IOException if the bytes could not be written
+     */
+    @Override
+    public void close()
+        throws IOException
+    {
+        try  {
+            this.flushBuffer();
+        } finally  {
+            this.out.close();
+        }
+    }
+
+    /**
+     * Writes the paragraphs and the sub sections of <code>_section</code>.
+     *
+     * @param _section  section or Wiki page
+     * @throws IOException if the bytes could not be written
+     */
+    private void writeSection(final AbstractSection<?> _section)
+        throws IOException
+    {
+        this.writeParagraphs(_section);
+        final List<Section> sections = _section.getSubSections();
+        this.writeVarInt(sections.size());
+        for (int idx = 0; idx < sections.size(); idx++)  {
+            final Section section = sections.get(idx);
+            this.writeElements(section.getHeadings());
+            this.writeSection(section);
+        }
+    }
+
+    /**
+     * Writes the paragraphs of <code>_paragraphs</code>.
+     *
+     * @param _paragraphs   list of paragraphs
+     * @throws IOException if the bytes could not be written
+     */
+    private void writeParagraphs(final AbstractParagraphList<?> _paragraphs)
+        throws IOException
+    {
+        final List<Paragraph> paragraphs = _paragraphs.getParagraphs();
+        this.writeVarInt(paragraphs.size());
+        for (int idx = 0; idx < paragraphs.size(); idx++)  {
+            this.writeElements(paragraphs.get(idx).getElements());
+        }
+    }
+
+    /**
+     * Writes the line elements <code>_elements</code>.
+     *
+     * @param _elements line elements
+     * @throws IOException if the bytes could not be written
+     */
+    private void writeElements(final List<AbstractLineElement> _elements)
+        throws IOException
+    {
+        this.writeVarInt(_elements.size());
+        for (int idx = 0; idx < _elements.size(); idx++)  {
+            _elements.get(idx).accept(this.lineElementWriter);
+        }
+    }
+
+    /**
+     * Writes the entries of the bulleted or numbered <code>_list</code>.
+     *
+     * @param _tag      tag of the list
+     * @param _list     list
+     * @throws IOException if the bytes could not be written
+     */
+    private void writeList(final int _tag,
+                           final AbstractListEntry<?> _list)
+        throws IOException
+    {
+        this.writeVarInt(_tag);
+        final List<ListEntry> entries = _list.getEntries();
+        this.writeVarInt(entries.size());
+        for (int idx = 0; idx < entries.size(); idx++)  {
+            this.writeParagraphs(entries.get(idx));
+        }
+    }
+
+    /**
+     * Writes the type face <code>_typeface</code> with its elements.
+     *
+     * @param _tag      tag of the type face
+     * @param _typeface type face
+     * @throws IOException if the bytes could not be written
+     */
+    private void writeTypeface(final int _tag,
+                               final AbstractTypeface<?> _typeface)
+        throws IOException
+    {
+        this.writeVarInt(_tag);
+        this.writeElements(_typeface.getElements());
+    }
+
+    /**
+     * Writes <code>_text</code> as reference to the string table. New texts
+     * are appended to the string table.
+     *
+     * @param _text     text to write (or <code>null</code>)
+     * @throws IOException if the bytes could not be written
+     */
+    private void writeString(final String _text)
+        throws IOException
+    {
+        if (_text == null)  {
+            this.writeVarInt(0);
+        } else  {
+            final Integer index = this.strings.get(_text);
+            if (index != null)  {
+                this.writeVarInt((index + 1) << 1);
+            } else  {
+                this.strings.put(_text, this.strings.size());
+                final byte[] bytes = _text.getBytes(StandardCharsets.UTF_8);
+                this.writeVarInt((bytes.length << 1) | 1);
+                if (bytes.length > this.buffer.length - this.size)  {
+                    this.flushBuffer();
+                }
+                if (bytes.length > this.buffer.length)  {
+                    this.out.write(bytes);
+                } else  {
+                    System.arraycopy(bytes, 0, this.buffer, this.size, bytes.length);
+                    this.size += bytes.length;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes <code>_url</code> as text.
+     *
+     * @param _url      URL to write (or <code>null</code>)
+     * @throws IOException if the bytes could not be written
+     */
+    private void writeURL(final URL _url)
+        throws IOException
+    {
+        this.writeString((_url == null) ? null : _url.toExternalForm());
+    }
+
+    /**
+     * Writes <code>_value</code> as unsigned variable length integer.
+     *
+     * @param _value    value to write
+     * @throws IOException if the bytes could not be written
+     */
+    private void writeVarInt(final int _value)
+        throws IOException
+    {
+        if (this.size + 5 > this.buffer.length)  {
+            this.flushBuffer();
+        }
+        int value = _value;
+        while ((value & ~0x7F) != 0)  {
+            this.buffer[this.size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        this.buffer[this.size++] = (byte) value;
+    }
+
+    /**
+     * Writes the buffered bytes to the {@link #out output stream}.
+     *
+     * @throws IOException if the bytes could not be written
+     */
+    private void flushBuffer()
+        throws IOException
+    {
+        if (this.size > 0)  {
+            this.out.write(this.buffer, 0, this.size);
+            this.size = 0;
+        }
+    }
+
+    /**
+     * Visitor to write one line element.
+     */
+    private final class LineElementWriter
+        extends AbstractWOMVisitor<Void, IOException>
+    {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitTextString(final TextString _textString)
+            throws IOException
+        {
+            WOMWriter.this.writeVarInt(WOMWriter.TEXT);
+            WOMWriter.this.writeString(_textString.getText());
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitInternalLink(final InternalLink _internalLink)
+            throws IOException
+        {
+            WOMWriter.this.writeVarInt(WOMWriter.INTERNAL_LINK);
+            WOMWriter.this.writeString(_internalLink.getLink());
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitInternalLinkWithDescription(final InternalLinkWithDescription _internalLink)
+            throws IOException
+        {
+            WOMWriter.this.writeVarInt(WOMWriter.INTERNAL_LINK_DESCRIPTION);
+            WOMWriter.this.writeString(_internalLink.getLink());
+            WOMWriter.this.writeString(_internalLink.getDescription());
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitExternalLink(final ExternalLink _externalLink)
+            throws IOException
+        {
+            WOMWriter.this.writeVarInt(WOMWriter.EXTERNAL_LINK);
+            WOMWriter.this.writeURL(_externalLink.getURL());
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitExternalLinkWithDescription(final ExternalLinkWithDescription _externalLink)
+            throws IOException
+        {
+            WOMWriter.this.writeVarInt(WOMWriter.EXTERNAL_LINK_DESCRIPTION);
+            WOMWriter.this.writeURL(_externalLink.getURL());
+            WOMWriter.this.writeString(_externalLink.getDescription());
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitImage(final Image _image)
+            throws IOException
+        {
+            WOMWriter.this.writeVarInt(WOMWriter.IMAGE);
+            WOMWriter.this.writeURL(_image.getURL());
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitNewLine(final NewLine _newLine)
+            throws IOException
+        {
+            WOMWriter.this.writeVarInt(WOMWriter.NEW_LINE);
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitDivider(final Divider _divider)
+            throws IOException
+        {
+            WOMWriter.this.writeVarInt(WOMWriter.DIVIDER);
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitPreformat(final Preformat _preformat)
+            throws IOException
+        {
+            WOMWriter.this.writeVarInt(WOMWriter.PREFORMAT);
+            WOMWriter.this.writeString(_preformat.getCode());
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitTableOfContents(final TableOfContents _toc)
+            throws IOException
+        {
+            WOMWriter.this.writeVarInt(WOMWriter.TABLE_OF_CONTENTS);
+            WOMWriter.this.writeVarInt(_toc.getMaxDepth());
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitTable(final Table _table)
+            throws IOException
+        {
+            WOMWriter.this.writeVarInt(WOMWriter.TABLE);
+            final List<TableRow> rows = _table.getBodyRows();
+            WOMWriter.this.writeVarInt(rows.size());
+            for (int rowIdx = 0; rowIdx < rows.size(); rowIdx++)  {
+                final List<TableCell> cells = rows.get(rowIdx).getEntries();
+                WOMWriter.this.writeVarInt(cells.size());
+                for (int cellIdx = 0; cellIdx < cells.size(); cellIdx++)  {
+                    WOMWriter.this.writeParagraphs(cells.get(cellIdx));
+                }
+            }
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitListBulleted(final ListBulleted _listBulleted)
+            throws IOException
+        {
+            WOMWriter.this.writeList(WOMWriter.LIST_BULLETED, _listBulleted);
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitListNumbered(final ListNumbered _listNumbered)
+            throws IOException
+        {
+            WOMWriter.this.writeList(WOMWriter.LIST_NUMBERED, _listNumbered);
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitTypefaceBold(final TypefaceBold _typefaceBold)
+            throws IOException
+        {
+            WOMWriter.this.writeTypeface(WOMWriter.TYPEFACE_BOLD, _typefaceBold);
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitTypefaceCode(final TypefaceCode _typefaceCode)
+            throws IOException
+        {
+            WOMWriter.this.writeTypeface(WOMWriter.TYPEFACE_CODE, _typefaceCode);
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Void visitTypefaceItalic(final TypefaceItalic _typefaceItalic)
+            throws IOException
+        {
+            WOMWriter.this.writeTypeface(WOMWriter.TYPEFACE_ITALIC, _typefaceItalic);
+            return null;
+        }
+
+        /**
+         * Line elements without tag could not be written.
+         *
+         * @param _element  unknown line element
+         * @return nothing
+         * @throws IllegalArgumentException always
+         */
+        @Override
+        public Void visitLineElement(final AbstractLineElement _element)
+        {
+            throw new IllegalArgumentException("unknown line element " + _element);
+        }
+    }
+}
@@ -15,8 +15,10 @@
  */
 package org.efaps.wikiutil.wom;
 
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.efaps.wikiutil.wom.element.AbstractSection;
@@ -24,6 +26,13 @@ import org.efaps.wikiutil.wom.property.AbstractProperty;
 
 /**
  * Represents one Wiki page.
+ * <p>
+ * The lists returned by the getters of a Wiki page and its elements are
+ * unmodifiable; elements are only added with the <code>add</code> methods
+ * (see {@link WOMLists}). A Wiki page could be read-only (e.g. the
+ * {@link CompactWikiPage#getPage() view of a compact Wiki page}): the
+ * <code>add</code> methods of a read-only page and its elements throw an
+ * {@link UnsupportedOperationException} and {@link #freeze()} does nothing.
  *
  * @author The eFaps Team
  * @version $Id$
@@ -36,10 +45,11 @@ public class WikiPage
      *
      * @see #add(AbstractProperty)
      */
-    private final List<AbstractProperty> properties = new ArrayList<AbstractProperty>();
+    private List<AbstractProperty> properties = Collections.emptyList();
 
     /**
      * Returns all {@link #properties} of this wiki page.
+     * The returned list is unmodifiable.
      *
      * @return properties of this wiki page
      * @see #properties
@@ -59,10 +69,55 @@ public class WikiPage
      */
     public WikiPage add(final AbstractProperty _element)
     {
-        this.properties.add(_element);
+        this.properties = WOMLists.add(this.properties, _element);
         return this;
     }
 
+    /**
+     * Freezes this Wiki page with a new pool of texts.
+     *
+     * @return this Wiki page
+     * @see #freeze(Map)
+     */
+    public WikiPage freeze()
+    {
+        return this.freeze(new HashMap<String, String>());
+    }
+
+    /**
+     * Freezes this Wiki page to reduce the memory footprint, e.g. before
+     * the Wiki page is cached: empty lists of all elements are replaced by
+     * the shared empty list, all other lists are trimmed to their size and
+     * repeated texts (e.g. texts and link targets) are replaced by the
+     * instance from <code>_pool</code>. The same pool could be used for
+     * many Wiki pages so that texts are shared between the pages. A frozen
+     * Wiki page could still be modified.
+     *
+     * @param _pool     pool of texts
+     * @return this Wiki page
+     */
+    @Override
+    public WikiPage freeze(final Map<String, String> _pool)
+    {
+        this.properties = WOMLists.trim(this.properties);
+        return super.freeze(_pool);
+    }
+
+    /**
+     * Calls {@link IWOMVisitor#visitWikiPage(WikiPage)} for Wiki page.
+     *
+     * @param <RESULT>      class of the result of the visitor
+     * @param <EXCEPTION>   exception thrown by the visitor
+     * @param _visitor      visitor
+     * @return result of the visitor
+     * @throws EXCEPTION if the visit failed
+     */
+    public <RESULT, EXCEPTION extends Exception> RESULT accept(final IWOMVisitor<RESULT, EXCEPTION> _visitor)
+        throws EXCEPTION
+    {
+        return _visitor.visitWikiPage(this);
+    }
+
     /**
      * Returns the string representation of this text string including the
      * {@link #elements}.
@@ -15,6 +15,10 @@
  */
 package org.efaps.wikiutil.wom.element;
 
+import java.util.Map;
+
+import org.efaps.wikiutil.wom.IWOMVisitor;
+
 /**
  * One line element of a wiki page. One line elements are e.g. divider or
  * headings, text etc.
@@ -24,4 +28,34 @@ package org.efaps.wikiutil.wom.element;
  */
 public class AbstractLineElement
 {
+    /**
+     * Freezes this line element. Line elements with texts return a new line
+     * element with the texts from <code>_pool</code>, all other line elements
+     * return themselves.
+     *
+     * @param _pool     pool of texts
+     * @return frozen line element which replaces this line element
+     * @see org.efaps.wikiutil.wom.WikiPage#freeze(Map)
+     */
+    public AbstractLineElement freeze(final Map<String, String> _pool)
+    {
+        return this;
+    }
+
+    /**
+     * Calls {@link IWOMVisitor#visitLineElement(AbstractLineElement)} for
+     * this line element. Derived line elements overwrite this method and call
+     * the visit method for their own class.
+     *
+     * @param <RESULT>      class of the result of the visitor
+     * @param <EXCEPTION>   exception thrown by the visitor
+     * @param _visitor      visitor
+     * @return result of the visitor
+     * @throws EXCEPTION if the visit failed
+     */
+    public <RESULT, EXCEPTION extends Exception> RESULT accept(final IWOMVisitor<RESULT, EXCEPTION> _visitor)
+        throws EXCEPTION
+    {
+        return _visitor.visitLineElement(this);
+    }
 }
@@ -15,11 +15,14 @@
  */
 package org.efaps.wikiutil.wom.element;
 
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.efaps.wikiutil.wom.WOMLists;
+import org.efaps.wikiutil.wom.WikiPage;
 
 /**
  * Abstract definition of line elements with text for Wiki pages.
@@ -35,7 +38,7 @@ public abstract class AbstractParagraphList<ELEM extends AbstractParagraphList<?
      *
      * @see #getHeadings()
      */
-    private final List<Paragraph> paragraphs = new ArrayList<Paragraph>();
+    private List<Paragraph> paragraphs = Collections.emptyList();
 
     /**
      * Appends <code>_element</code> to the list of {@link #elements}.
@@ -47,7 +50,7 @@ public abstract class AbstractParagraphList<ELEM extends AbstractParagraphList<?
     @SuppressWarnings("unchecked")
     public ELEM add(final Paragraph _element)
     {
-        this.paragraphs.add(_element);
+        this.paragraphs = WOMLists.add(this.paragraphs, _element);
         return (ELEM) this;
     }
 
@@ -72,12 +75,13 @@ public abstract class AbstractParagraphList<ELEM extends AbstractParagraphList<?
     @SuppressWarnings("unchecked")
     public ELEM addAll(final Collection<Paragraph> _elements)
     {
-        this.paragraphs.addAll(_elements);
+        this.paragraphs = WOMLists.addAll(this.paragraphs, _elements);
         return (ELEM) this;
     }
 
     /**
      * Returns the list of embedded text elements.
+     * The returned list is unmodifiable.
      *
      * @return list of all text elements
      * @see #paragraphs
@@ -87,6 +91,23 @@ public abstract class AbstractParagraphList<ELEM extends AbstractParagraphList<?
         return this.paragraphs;
     }
 
+    /**
+     * Freezes all {@link #paragraphs} and trims the list of the paragraphs.
+     *
+     * @param _pool     pool of texts
+     * @return this element
+     * @see WikiPage#freeze(Map)
+     */
+    @SuppressWarnings("unchecked")
+    public ELEM freeze(final Map<String, String> _pool)
+    {
+        for (final Paragraph paragraph : this.paragraphs)  {
+            paragraph.freeze(_pool);
+        }
+        this.paragraphs = WOMLists.trim(this.paragraphs);
+        return (ELEM) this;
+    }
+
     /**
      * Returns the string representation of this text string including the
      * {@link #elements}.
@@ -15,10 +15,13 @@
  */
 package org.efaps.wikiutil.wom.element;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.efaps.wikiutil.wom.WOMLists;
+import org.efaps.wikiutil.wom.WikiPage;
 
 /**
  * Abstract definition of a section with sub sections (without header!).
@@ -36,7 +39,7 @@ public class AbstractSection<SECTION extends AbstractSection<?>>
      * @see #addSubSection(Section)
      * @see #getSubSections()
      */
-    private final List<Section> subSections = new ArrayList<Section>();
+    private List<Section> subSections = Collections.emptyList();
 
     /**
      * Adds new <code>_subSection</code> to the list of {@link #subSections}.
@@ -47,12 +50,13 @@ public class AbstractSection<SECTION extends AbstractSection<?>>
     @SuppressWarnings("unchecked")
     public SECTION addSubSection(final Section _subSection)
     {
-        this.subSections.add(_subSection);
+        this.subSections = WOMLists.add(this.subSections, _subSection);
         return (SECTION) this;
     }
 
     /**
      * Returns all assigned {@link #subSections} of a Wiki page.
+     * The returned list is unmodifiable.
      *
      * @return all sub sections
      * @see #subSections
@@ -62,6 +66,24 @@ public class AbstractSection<SECTION extends AbstractSection<?>>
         return this.subSections;
     }
 
+    /**
+     * Freezes the paragraphs and all {@link #subSections} and trims the list
+     * of the sub sections.
+     *
+     * @param _pool     pool of texts
+     * @return this section
+     * @see WikiPage#freeze(Map)
+     */
+    @Override
+    public SECTION freeze(final Map<String, String> _pool)
+    {
+        for (final Section subSection : this.subSections)  {
+            subSection.freeze(_pool);
+        }
+        this.subSections = WOMLists.trim(this.subSections);
+        return super.freeze(_pool);
+    }
+
     /**
      * Returns the string representation of this text string including the
      * {@link #subSections}.
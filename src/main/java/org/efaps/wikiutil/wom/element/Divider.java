@@ -15,6 +15,8 @@
  */
 package org.efaps.wikiutil.wom.element;
 
+import org.efaps.wikiutil.wom.IWOMVisitor;
+
 /**
  * Class represents a divider within a Wiki page.
  *
@@ -24,4 +26,19 @@ package org.efaps.wikiutil.wom.element;
 public class Divider
     extends AbstractLineElement
 {
+    /**
+     * Calls {@link IWOMVisitor#visitDivider(Divider)} for this divider.
+     *
+     * @param <RESULT>      class of the result of the visitor
+     * @param <EXCEPTION>   exception thrown by the visitor
+     * @param _visitor      visitor
+     * @return result of the visitor
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public <RESULT, EXCEPTION extends Exception> RESULT accept(final IWOMVisitor<RESULT, EXCEPTION> _visitor)
+        throws EXCEPTION
+    {
+        return _visitor.visitDivider(this);
+    }
 }
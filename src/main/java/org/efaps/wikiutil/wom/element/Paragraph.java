@@ -15,11 +15,14 @@
  */
 package org.efaps.wikiutil.wom.element;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
-
+import org.efaps.wikiutil.wom.IWOMVisitor;
+import org.efaps.wikiutil.wom.WOMLists;
+import org.efaps.wikiutil.wom.WikiPage;
 
 /**
  *
@@ -31,10 +34,11 @@ public class Paragraph
     /**
      * All elements of a Wiki page.
      */
-    private final List<AbstractLineElement> elements = new ArrayList<AbstractLineElement>();
+    private List<AbstractLineElement> elements = Collections.emptyList();
 
     /**
      * Returns all assigned {@link #elements} of a Wiki page.
+     * The returned list is unmodifiable.
      *
      * @return all elements
      * @see #elements
@@ -54,10 +58,38 @@ public class Paragraph
      */
     public Paragraph add(final AbstractLineElement _element)
     {
-        this.elements.add(_element);
+        this.elements = WOMLists.add(this.elements, _element);
+        return this;
+    }
+
+    /**
+     * Freezes all {@link #elements} and trims the list of the elements.
+     *
+     * @param _pool     pool of texts
+     * @return this paragraph
+     * @see WikiPage#freeze(Map)
+     */
+    public Paragraph freeze(final Map<String, String> _pool)
+    {
+        this.elements = WOMLists.freeze(this.elements, _pool);
         return this;
     }
 
+    /**
+     * Calls {@link IWOMVisitor#visitParagraph(Paragraph)} for this paragraph.
+     *
+     * @param <RESULT>      class of the result of the visitor
+     * @param <EXCEPTION>   exception thrown by the visitor
+     * @param _visitor      visitor
+     * @return result of the visitor
+     * @throws EXCEPTION if the visit failed
+     */
+    public <RESULT, EXCEPTION extends Exception> RESULT accept(final IWOMVisitor<RESULT, EXCEPTION> _visitor)
+        throws EXCEPTION
+    {
+        return _visitor.visitParagraph(this);
+    }
+
     /**
      * Returns the string representation of this text string including the
      * {@link #elements}.
@@ -15,7 +15,11 @@
  */
 package org.efaps.wikiutil.wom.element;
 
+import java.util.Map;
+
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.efaps.wikiutil.wom.IWOMVisitor;
+import org.efaps.wikiutil.wom.WOMLists;
 
 /**
  * Class represents source code lines within a Wiki page.
@@ -55,6 +59,36 @@ public class Preformat
         return this.code;
     }
 
+    /**
+     * Returns a code text element with the pooled {@link #code}.
+     *
+     * @param _pool     pool of texts
+     * @return this code text element or new code text element with the
+     *         pooled code
+     */
+    @Override
+    public AbstractLineElement freeze(final Map<String, String> _pool)
+    {
+        final String pooled = WOMLists.intern(_pool, this.code);
+        return (pooled == this.code) ? this : new Preformat(pooled);
+    }
+
+    /**
+     * Calls {@link IWOMVisitor#visitPreformat(Preformat)} for this preformatted code.
+     *
+     * @param <RESULT>      class of the result of the visitor
+     * @param <EXCEPTION>   exception thrown by the visitor
+     * @param _visitor      visitor
+     * @return result of the visitor
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public <RESULT, EXCEPTION extends Exception> RESULT accept(final IWOMVisitor<RESULT, EXCEPTION> _visitor)
+        throws EXCEPTION
+    {
+        return _visitor.visitPreformat(this);
+    }
+
     /**
      * Returns the string representation of this text string including the
      * {@link #code}.
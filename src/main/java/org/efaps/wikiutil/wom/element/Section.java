@@ -15,10 +15,14 @@
  */
 package org.efaps.wikiutil.wom.element;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.efaps.wikiutil.wom.IWOMVisitor;
+import org.efaps.wikiutil.wom.WOMLists;
+import org.efaps.wikiutil.wom.WikiPage;
 
 /**
  * Defines the text for a heading of level 1.
@@ -32,10 +36,11 @@ public class Section
     /**
      * All elements of a Wiki page.
      */
-    private final List<AbstractLineElement> headings = new ArrayList<AbstractLineElement>();
+    private List<AbstractLineElement> headings = Collections.emptyList();
 
     /**
      * Returns all assigned {@link #headings} of a Wiki page.
+     * The returned list is unmodifiable.
      *
      * @return all elements
      * @see #headings
@@ -55,10 +60,40 @@ public class Section
      */
     public Section addHeading(final AbstractLineElement _element)
     {
-        this.headings.add(_element);
+        this.headings = WOMLists.add(this.headings, _element);
         return this;
     }
 
+    /**
+     * Freezes all {@link #headings}, the paragraphs and the sub sections and
+     * trims the list of the headings.
+     *
+     * @param _pool     pool of texts
+     * @return this section
+     * @see WikiPage#freeze(Map)
+     */
+    @Override
+    public Section freeze(final Map<String, String> _pool)
+    {
+        this.headings = WOMLists.freeze(this.headings, _pool);
+        return super.freeze(_pool);
+    }
+
+    /**
+     * Calls {@link IWOMVisitor#visitSection(Section)} for this section.
+     *
+     * @param <RESULT>      class of the result of the visitor
+     * @param <EXCEPTION>   exception thrown by the visitor
+     * @param _visitor      visitor
+     * @return result of the visitor
+     * @throws EXCEPTION if the visit failed
+     */
+    public <RESULT, EXCEPTION extends Exception> RESULT accept(final IWOMVisitor<RESULT, EXCEPTION> _visitor)
+        throws EXCEPTION
+    {
+        return _visitor.visitSection(this);
+    }
+
     /**
      * Returns the string representation of this text string including the
      * {@link #headings}.
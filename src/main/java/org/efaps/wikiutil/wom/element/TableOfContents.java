@@ -16,6 +16,7 @@
 package org.efaps.wikiutil.wom.element;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.efaps.wikiutil.wom.IWOMVisitor;
 
 /**
  * Defines a table of contents within a Wiki page.
@@ -50,6 +51,22 @@ public class TableOfContents
         return this.maxDepth;
     }
 
+    /**
+     * Calls {@link IWOMVisitor#visitTableOfContents(TableOfContents)} for this table of contents.
+     *
+     * @param <RESULT>      class of the result of the visitor
+     * @param <EXCEPTION>   exception thrown by the visitor
+     * @param _visitor      visitor
+     * @return result of the visitor
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public <RESULT, EXCEPTION extends Exception> RESULT accept(final IWOMVisitor<RESULT, EXCEPTION> _visitor)
+        throws EXCEPTION
+    {
+        return _visitor.visitTableOfContents(this);
+    }
+
     /**
      * Returns the string representation of this text string including the
      * {@link #maxDepth}.
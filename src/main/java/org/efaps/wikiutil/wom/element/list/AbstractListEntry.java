@@ -15,10 +15,12 @@
  */
 package org.efaps.wikiutil.wom.element.list;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.efaps.wikiutil.wom.WOMLists;
 import org.efaps.wikiutil.wom.element.AbstractLineElement;
 
 /**
@@ -37,7 +39,7 @@ public abstract class AbstractListEntry<ELEM extends AbstractListEntry<?>>
      * @see #getEntries()
      * @see #add(ListBulletedEntry)
      */
-    private final List<ListEntry> entries = new ArrayList<ListEntry>();
+    private List<ListEntry> entries = Collections.emptyList();
 
     /**
      * Assigns list <code>_entry</code> to this list entry.
@@ -49,7 +51,7 @@ public abstract class AbstractListEntry<ELEM extends AbstractListEntry<?>>
     @SuppressWarnings("unchecked")
     public ELEM add(final ListEntry _entry)
     {
-        this.entries.add(_entry);
+        this.entries = WOMLists.add(this.entries, _entry);
         return (ELEM) this;
     }
 
@@ -66,6 +68,7 @@ public abstract class AbstractListEntry<ELEM extends AbstractListEntry<?>>
 
     /**
      * Returns all {@link #entries} of this list entry.
+     * The returned list is unmodifiable.
      *
      * @return all child entries
      * @see #entries
@@ -75,6 +78,23 @@ public abstract class AbstractListEntry<ELEM extends AbstractListEntry<?>>
         return this.entries;
     }
 
+    /**
+     * Freezes all {@link #entries} and trims the list of the entries.
+     *
+     * @param _pool     pool of texts
+     * @return this list
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public ELEM freeze(final Map<String, String> _pool)
+    {
+        for (final ListEntry entry : this.entries)  {
+            entry.freeze(_pool);
+        }
+        this.entries = WOMLists.trim(this.entries);
+        return (ELEM) this;
+    }
+
     /**
      * Returns the string representation of this text string including the
      * {@link #elements}.
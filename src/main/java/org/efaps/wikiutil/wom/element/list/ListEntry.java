@@ -15,6 +15,7 @@
  */
 package org.efaps.wikiutil.wom.element.list;
 
+import org.efaps.wikiutil.wom.IWOMVisitor;
 import org.efaps.wikiutil.wom.element.AbstractParagraphList;
 
 /**
@@ -26,4 +27,18 @@ import org.efaps.wikiutil.wom.element.AbstractParagraphList;
 public class ListEntry
     extends AbstractParagraphList<ListEntry>
 {
+    /**
+     * Calls {@link IWOMVisitor#visitListEntry(ListEntry)} for this list entry.
+     *
+     * @param <RESULT>      class of the result of the visitor
+     * @param <EXCEPTION>   exception thrown by the visitor
+     * @param _visitor      visitor
+     * @return result of the visitor
+     * @throws EXCEPTION if the visit failed
+     */
+    public <RESULT, EXCEPTION extends Exception> RESULT accept(final IWOMVisitor<RESULT, EXCEPTION> _visitor)
+        throws EXCEPTION
+    {
+        return _visitor.visitListEntry(this);
+    }
 }
@@ -15,6 +15,8 @@
  */
 package org.efaps.wikiutil.wom.element.list;
 
+import org.efaps.wikiutil.wom.IWOMVisitor;
+
 /**
  * Numbered list of a Wiki page.
  *
@@ -24,4 +26,19 @@ package org.efaps.wikiutil.wom.element.list;
 public class ListNumbered
     extends AbstractListEntry<ListNumbered>
 {
+    /**
+     * Calls {@link IWOMVisitor#visitListNumbered(ListNumbered)} for this numbered list.
+     *
+     * @param <RESULT>      class of the result of the visitor
+     * @param <EXCEPTION>   exception thrown by the visitor
+     * @param _visitor      visitor
+     * @return result of the visitor
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public <RESULT, EXCEPTION extends Exception> RESULT accept(final IWOMVisitor<RESULT, EXCEPTION> _visitor)
+        throws EXCEPTION
+    {
+        return _visitor.visitListNumbered(this);
+    }
 }
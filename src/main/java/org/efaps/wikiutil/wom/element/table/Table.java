@@ -15,10 +15,13 @@
  */
 package org.efaps.wikiutil.wom.element.table;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.efaps.wikiutil.wom.IWOMVisitor;
+import org.efaps.wikiutil.wom.WOMLists;
 import org.efaps.wikiutil.wom.element.AbstractLineElement;
 
 /**
@@ -36,10 +39,11 @@ public class Table
      * @see #getBodyRows()
      * @see #addBodyRow(TableRow)
      */
-    private final List<TableRow> bodyRows = new ArrayList<TableRow>();
+    private List<TableRow> bodyRows = Collections.emptyList();
 
     /**
      * Returns all {@link #rows} of this table.
+     * The returned list is unmodifiable.
      *
      * @return all rows
      * @see #rows
@@ -58,10 +62,42 @@ public class Table
      */
     public Table addBodyRow(final TableRow _row)
     {
-        this.bodyRows.add(_row);
+        this.bodyRows = WOMLists.add(this.bodyRows, _row);
         return this;
     }
 
+    /**
+     * Freezes all {@link #bodyRows} and trims the list of the rows.
+     *
+     * @param _pool     pool of texts
+     * @return this table
+     */
+    @Override
+    public Table freeze(final Map<String, String> _pool)
+    {
+        for (final TableRow row : this.bodyRows)  {
+            row.freeze(_pool);
+        }
+        this.bodyRows = WOMLists.trim(this.bodyRows);
+        return this;
+    }
+
+    /**
+     * Calls {@link IWOMVisitor#visitTable(Table)} for this table.
+     *
+     * @param <RESULT>      class of the result of the visitor
+     * @param <EXCEPTION>   exception thrown by the visitor
+     * @param _visitor      visitor
+     * @return result of the visitor
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public <RESULT, EXCEPTION extends Exception> RESULT accept(final IWOMVisitor<RESULT, EXCEPTION> _visitor)
+        throws EXCEPTION
+    {
+        return _visitor.visitTable(this);
+    }
+
     /**
      * Returns the string representation of this text string including the
      * {@link #bodyRows}.
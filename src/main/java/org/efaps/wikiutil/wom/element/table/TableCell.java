@@ -15,6 +15,7 @@
  */
 package org.efaps.wikiutil.wom.element.table;
 
+import org.efaps.wikiutil.wom.IWOMVisitor;
 import org.efaps.wikiutil.wom.element.AbstractParagraphList;
 
 /**
@@ -27,4 +28,18 @@ import org.efaps.wikiutil.wom.element.AbstractParagraphList;
 public class TableCell
     extends AbstractParagraphList<TableCell>
 {
+    /**
+     * Calls {@link IWOMVisitor#visitTableCell(TableCell)} for this table cell.
+     *
+     * @param <RESULT>      class of the result of the visitor
+     * @param <EXCEPTION>   exception thrown by the visitor
+     * @param _visitor      visitor
+     * @return result of the visitor
+     * @throws EXCEPTION if the visit failed
+     */
+    public <RESULT, EXCEPTION extends Exception> RESULT accept(final IWOMVisitor<RESULT, EXCEPTION> _visitor)
+        throws EXCEPTION
+    {
+        return _visitor.visitTableCell(this);
+    }
 }
@@ -15,10 +15,14 @@
  */
 package org.efaps.wikiutil.wom.element.table;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.efaps.wikiutil.wom.IWOMVisitor;
+import org.efaps.wikiutil.wom.WOMLists;
+
 /**
  * Represents one row of a table within a Wiki page.
  *
@@ -33,10 +37,11 @@ public class TableRow
      * @see #getEntries()
      * @see #add(TableCell)
      */
-    private final List<TableCell> entries = new ArrayList<TableCell>();
+    private List<TableCell> entries = Collections.emptyList();
 
     /**
      * Returns all {@link #entries} of this table row.
+     * The returned list is unmodifiable.
      *
      * @return all entries
      * @see #entries
@@ -55,10 +60,41 @@ public class TableRow
      */
     public TableRow add(final TableCell _entry)
     {
-        this.entries.add(_entry);
+        this.entries = WOMLists.add(this.entries, _entry);
+        return this;
+    }
+
+    /**
+     * Freezes all {@link #entries} and trims the list of the entries.
+     *
+     * @param _pool     pool of texts
+     * @return this table row
+     * @see org.efaps.wikiutil.wom.WikiPage#freeze(Map)
+     */
+    public TableRow freeze(final Map<String, String> _pool)
+    {
+        for (final TableCell entry : this.entries)  {
+            entry.freeze(_pool);
+        }
+        this.entries = WOMLists.trim(this.entries);
         return this;
     }
 
+    /**
+     * Calls {@link IWOMVisitor#visitTableRow(TableRow)} for this table row.
+     *
+     * @param <RESULT>      class of the result of the visitor
+     * @param <EXCEPTION>   exception thrown by the visitor
+     * @param _visitor      visitor
+     * @return result of the visitor
+     * @throws EXCEPTION if the visit failed
+     */
+    public <RESULT, EXCEPTION extends Exception> RESULT accept(final IWOMVisitor<RESULT, EXCEPTION> _visitor)
+        throws EXCEPTION
+    {
+        return _visitor.visitTableRow(this);
+    }
+
     /**
      * Returns the string representation of this text string including the
      * {@link #entries}.
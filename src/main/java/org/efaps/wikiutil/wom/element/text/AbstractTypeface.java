@@ -15,10 +15,12 @@
  */
 package org.efaps.wikiutil.wom.element.text;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.efaps.wikiutil.wom.WOMLists;
 import org.efaps.wikiutil.wom.element.AbstractLineElement;
 
 /**
@@ -34,10 +36,11 @@ public abstract class AbstractTypeface<TYPEFACE extends AbstractTypeface<?>>
     /**
      * All elements of a Wiki page.
      */
-    private final List<AbstractLineElement> elements = new ArrayList<AbstractLineElement>();
+    private List<AbstractLineElement> elements = Collections.emptyList();
 
     /**
      * Returns all assigned {@link #elements} of a Wiki page.
+     * The returned list is unmodifiable.
      *
      * @return all elements
      * @see #elements
@@ -58,7 +61,21 @@ public abstract class AbstractTypeface<TYPEFACE extends AbstractTypeface<?>>
     @SuppressWarnings("unchecked")
     public TYPEFACE add(final AbstractLineElement _element)
     {
-        this.elements.add(_element);
+        this.elements = WOMLists.add(this.elements, _element);
+        return (TYPEFACE) this;
+    }
+
+    /**
+     * Freezes all {@link #elements} and trims the list of the elements.
+     *
+     * @param _pool     pool of texts
+     * @return this type face
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public TYPEFACE freeze(final Map<String, String> _pool)
+    {
+        this.elements = WOMLists.freeze(this.elements, _pool);
         return (TYPEFACE) this;
     }
 
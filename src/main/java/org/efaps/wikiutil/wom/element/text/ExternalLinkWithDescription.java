@@ -16,8 +16,12 @@
 package org.efaps.wikiutil.wom.element.text;
 
 import java.net.URL;
+import java.util.Map;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.efaps.wikiutil.wom.IWOMVisitor;
+import org.efaps.wikiutil.wom.WOMLists;
+import org.efaps.wikiutil.wom.element.AbstractLineElement;
 
 /**
  * An external link with description of a text.
@@ -58,6 +62,39 @@ public class ExternalLinkWithDescription
         return this.description;
     }
 
+    /**
+     * Returns an external link with the pooled {@link #description}. The URL
+     * itself is not pooled.
+     *
+     * @param _pool     pool of texts
+     * @return this external link or new external link with the pooled
+     *         description
+     */
+    @Override
+    public AbstractLineElement freeze(final Map<String, String> _pool)
+    {
+        final String descr = WOMLists.intern(_pool, this.description);
+        return (descr == this.description) ? this : new ExternalLinkWithDescription(this.getURL(), descr);
+    }
+
+    /**
+     * Calls
+     * {@link IWOMVisitor#visitExternalLinkWithDescription(ExternalLinkWithDescription)}
+     * for this external link with description.
+     *
+     * @param <RESULT>      class of the result of the visitor
+     * @param <EXCEPTION>   exception thrown by the visitor
+     * @param _visitor      visitor
+     * @return result of the visitor
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public <RESULT, EXCEPTION extends Exception> RESULT accept(final IWOMVisitor<RESULT, EXCEPTION> _visitor)
+        throws EXCEPTION
+    {
+        return _visitor.visitExternalLinkWithDescription(this);
+    }
+
     /**
      * Returns the string representation of this external link including the
      * {@link #description}.
@@ -17,6 +17,8 @@ package org.efaps.wikiutil.wom.element.text;
 
 import java.net.URL;
 
+import org.efaps.wikiutil.wom.IWOMVisitor;
+
 /**
  * Link to an image.
  *
@@ -35,4 +37,20 @@ public class Image
     {
         super(_url);
     }
+
+    /**
+     * Calls {@link IWOMVisitor#visitImage(Image)} for this image.
+     *
+     * @param <RESULT>      class of the result of the visitor
+     * @param <EXCEPTION>   exception thrown by the visitor
+     * @param _visitor      visitor
+     * @return result of the visitor
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public <RESULT, EXCEPTION extends Exception> RESULT accept(final IWOMVisitor<RESULT, EXCEPTION> _visitor)
+        throws EXCEPTION
+    {
+        return _visitor.visitImage(this);
+    }
 }
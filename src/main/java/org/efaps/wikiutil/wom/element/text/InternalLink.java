@@ -15,6 +15,12 @@
  */
 package org.efaps.wikiutil.wom.element.text;
 
+import java.util.Map;
+
+import org.efaps.wikiutil.wom.IWOMVisitor;
+import org.efaps.wikiutil.wom.WOMLists;
+import org.efaps.wikiutil.wom.element.AbstractLineElement;
+
 /**
  * An internal link within a text.
  *
@@ -33,4 +39,33 @@ public class InternalLink
     {
         super(_link);
     }
+
+    /**
+     * Returns an internal link with the pooled link.
+     *
+     * @param _pool     pool of texts
+     * @return this internal link or new internal link with the pooled link
+     */
+    @Override
+    public AbstractLineElement freeze(final Map<String, String> _pool)
+    {
+        final String pooled = WOMLists.intern(_pool, this.getLink());
+        return (pooled == this.getLink()) ? this : new InternalLink(pooled);
+    }
+
+    /**
+     * Calls {@link IWOMVisitor#visitInternalLink(InternalLink)} for this internal link.
+     *
+     * @param <RESULT>      class of the result of the visitor
+     * @param <EXCEPTION>   exception thrown by the visitor
+     * @param _visitor      visitor
+     * @return result of the visitor
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public <RESULT, EXCEPTION extends Exception> RESULT accept(final IWOMVisitor<RESULT, EXCEPTION> _visitor)
+        throws EXCEPTION
+    {
+        return _visitor.visitInternalLink(this);
+    }
 }
@@ -15,7 +15,12 @@
  */
 package org.efaps.wikiutil.wom.element.text;
 
+import java.util.Map;
+
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.efaps.wikiutil.wom.IWOMVisitor;
+import org.efaps.wikiutil.wom.WOMLists;
+import org.efaps.wikiutil.wom.element.AbstractLineElement;
 
 /**
  * An internal link with description within a text.
@@ -55,6 +60,41 @@ public class InternalLinkWithDescription
         return this.description;
     }
 
+    /**
+     * Returns an internal link with the pooled link and {@link #description}.
+     *
+     * @param _pool     pool of texts
+     * @return this internal link or new internal link with the pooled link
+     *         and description
+     */
+    @Override
+    public AbstractLineElement freeze(final Map<String, String> _pool)
+    {
+        final String link = WOMLists.intern(_pool, this.getLink());
+        final String descr = WOMLists.intern(_pool, this.description);
+        return (link == this.getLink() && descr == this.description)
+            ? this
+            : new InternalLinkWithDescription(link, descr);
+    }
+
+    /**
+     * Calls
+     * {@link IWOMVisitor#visitInternalLinkWithDescription(InternalLinkWithDescription)}
+     * for this internal link with description.
+     *
+     * @param <RESULT>      class of the result of the visitor
+     * @param <EXCEPTION>   exception thrown by the visitor
+     * @param _visitor      visitor
+     * @return result of the visitor
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public <RESULT, EXCEPTION extends Exception> RESULT accept(final IWOMVisitor<RESULT, EXCEPTION> _visitor)
+        throws EXCEPTION
+    {
+        return _visitor.visitInternalLinkWithDescription(this);
+    }
+
     /**
      * Returns the string representation of this external link including the
      * {@link #description}.
@@ -15,7 +15,11 @@
  */
 package org.efaps.wikiutil.wom.element.text;
 
+import java.util.Map;
+
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.efaps.wikiutil.wom.IWOMVisitor;
+import org.efaps.wikiutil.wom.WOMLists;
 import org.efaps.wikiutil.wom.element.AbstractLineElement;
 
 /**
@@ -54,6 +58,35 @@ public class TextString
         return this.text;
     }
 
+    /**
+     * Returns a text string with the pooled {@link #text}.
+     *
+     * @param _pool     pool of texts
+     * @return this text string or new text string with the pooled text
+     */
+    @Override
+    public AbstractLineElement freeze(final Map<String, String> _pool)
+    {
+        final String pooled = WOMLists.intern(_pool, this.text);
+        return (pooled == this.text) ? this : new TextString(pooled);
+    }
+
+    /**
+     * Calls {@link IWOMVisitor#visitTextString(TextString)} for this text string.
+     *
+     * @param <RESULT>      class of the result of the visitor
+     * @param <EXCEPTION>   exception thrown by the visitor
+     * @param _visitor      visitor
+     * @return result of the visitor
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public <RESULT, EXCEPTION extends Exception> RESULT accept(final IWOMVisitor<RESULT, EXCEPTION> _visitor)
+        throws EXCEPTION
+    {
+        return _visitor.visitTextString(this);
+    }
+
     /**
      * Returns the string representation of this text string including the
      * {@link #text}.
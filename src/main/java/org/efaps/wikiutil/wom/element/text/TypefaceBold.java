@@ -15,6 +15,8 @@
  */
 package org.efaps.wikiutil.wom.element.text;
 
+import org.efaps.wikiutil.wom.IWOMVisitor;
+
 /**
  * Type face bold for all defined text.
  *
@@ -24,4 +26,19 @@ package org.efaps.wikiutil.wom.element.text;
 public class TypefaceBold
     extends AbstractTypeface<TypefaceBold>
 {
+    /**
+     * Calls {@link IWOMVisitor#visitTypefaceBold(TypefaceBold)} for this bold type face.
+     *
+     * @param <RESULT>      class of the result of the visitor
+     * @param <EXCEPTION>   exception thrown by the visitor
+     * @param _visitor      visitor
+     * @return result of the visitor
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public <RESULT, EXCEPTION extends Exception> RESULT accept(final IWOMVisitor<RESULT, EXCEPTION> _visitor)
+        throws EXCEPTION
+    {
+        return _visitor.visitTypefaceBold(this);
+    }
 }
@@ -15,6 +15,8 @@
  */
 package org.efaps.wikiutil.wom.element.text;
 
+import org.efaps.wikiutil.wom.IWOMVisitor;
+
 /**
  * Embedded code of a text.
  *
@@ -24,4 +26,19 @@ package org.efaps.wikiutil.wom.element.text;
 public class TypefaceCode
     extends AbstractTypeface<TypefaceCode>
 {
+    /**
+     * Calls {@link IWOMVisitor#visitTypefaceCode(TypefaceCode)} for this code type face.
+     *
+     * @param <RESULT>      class of the result of the visitor
+     * @param <EXCEPTION>   exception thrown by the visitor
+     * @param _visitor      visitor
+     * @return result of the visitor
+     * @throws EXCEPTION if the visit failed
+     */
+    @Override
+    public <RESULT, EXCEPTION extends Exception> RESULT accept(final IWOMVisitor<RESULT, EXCEPTION> _visitor)
+        throws EXCEPTION
+    {
+        return _visitor.visitTypefaceCode(this);
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.export.latex;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.efaps.wikiutil.source.MapPageSource;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the number of PDF latex passes executed by {@link MakePDF}. Instead
+ * of PDF latex a shell script is executed which writes the auxiliary files
+ * and counts the passes. The tests are skipped if no Unix shell exists.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class MakePDFTest
+{
+    /**
+     * Unix shell.
+     */
+    private static final String SHELL = "/bin/sh";
+
+    /**
+     * Temporary directory of the Tex files.
+     */
+    private File tempDir;
+
+    /**
+     * Creates the {@link #tempDir}.
+     *
+     * @throws IOException if the directory could not be created
+     */
+    @BeforeMethod
+    public void createTempDir()
+        throws IOException
+    {
+        if (!new File(MakePDFTest.SHELL).canExecute())  {
+            throw new SkipException("no shell " + MakePDFTest.SHELL);
+        }
+        this.tempDir = Files.createTempDirectory("makepdf").toFile();
+    }
+
+    /**
+     * Deletes the {@link #tempDir}.
+     *
+     * @throws IOException if the directory could not be deleted
+     */
+    @AfterMethod
+    public void deleteTempDir()
+        throws IOException
+    {
+        if (this.tempDir != null)  {
+            FileUtils.deleteDirectory(this.tempDir);
+        }
+    }
+
+    /**
+     * Scripts writing the auxiliary files and the expected number of
+     * passes.
+     *
+     * @return scripts and number of passes
+     */
+    @DataProvider(name = "scripts")
+    public Object[][] getScripts()
+    {
+        return new Object[][] {
+            // no cross references: one pass in a new temporary directory
+            {"printf '\\\\relax\\n' > book.aux", 1},
+            // same cross references written by each pass
+            {"printf '\\\\relax\\n\\\\newlabel{a}{{1}{1}}\\n' > book.aux", 2},
+            {"printf '\\\\contentsline {section}{Title}{1}\\n' > book.toc", 2},
+            // cross references changed by each pass: maximum of passes
+            {"printf '\\\\newlabel{a}{{%s}{1}}\\n' $(wc -l < passes.txt) > book.aux", 3},
+        };
+    }
+
+    /**
+     * Another pass is only executed if the auxiliary files of a pass are not
+     * stable.
+     *
+     * @param _script   script writing the auxiliary files
+     * @param _passes   expected number of passes
+     * @throws Exception if the PDF could not be made
+     */
+    @Test(description = "passes until the auxiliary files are stable", dataProvider = "scripts")
+    public void testPasses(final String _script,
+                           final int _passes)
+        throws Exception
+    {
+        final File script = new File(this.tempDir, "pdflatex.sh");
+        FileUtils.writeStringToFile(script, "#!" + MakePDFTest.SHELL + "\necho pass >> passes.txt\n" + _script + "\n",
+                                    StandardCharsets.UTF_8);
+        Assert.assertTrue(script.setExecutable(true));
+        new MakePDF(this.tempDir)
+            .setPageSource(new MapPageSource().put("Index.wiki", "  * [Page Title]\n").put("Page.wiki", "text\n"))
+            .setWikiIndexName("Index")
+            .setExecutablePdfLaTeX(script.getAbsolutePath())
+            .setMaxLatexPasses(3)
+            .execute();
+        final String passes = FileUtils.readFileToString(new File(this.tempDir, "passes.txt"), StandardCharsets.UTF_8);
+        Assert.assertEquals(passes.split("\n").length, _passes, passes);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.export.latex;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the execution of external processes. The tests use the Unix shell
+ * and are skipped if no shell exists.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class ProcessRunnerTest
+{
+    /**
+     * Unix shell.
+     */
+    private static final String SHELL = "/bin/sh";
+
+    /**
+     * Log file of the process.
+     */
+    private File logFile;
+
+    /**
+     * Checks that the shell exists and defines the {@link #logFile}.
+     *
+     * @throws IOException if the log file could not be created
+     */
+    @BeforeMethod
+    public void createLogFile()
+        throws IOException
+    {
+        if (!new File(ProcessRunnerTest.SHELL).canExecute())  {
+            throw new SkipException("no shell " + ProcessRunnerTest.SHELL);
+        }
+        this.logFile = File.createTempFile("process", ".log");
+    }
+
+    /**
+     * Deletes the {@link #logFile}.
+     */
+    @AfterMethod
+    public void deleteLogFile()
+    {
+        if (this.logFile != null)  {
+            this.logFile.delete();
+        }
+    }
+
+    /**
+     * The standard and error output are written to the log file, which is
+     * appended or truncated.
+     *
+     * @throws IOException if the process failed
+     */
+    @Test(description = "output is written to the log file")
+    public void testLog()
+        throws IOException
+    {
+        final ProcessRunner runner = new ProcessRunner(ProcessRunnerTest.SHELL, "-c", "echo out; echo err >&2; exit 3");
+        Assert.assertEquals(runner.setLogFile(this.logFile, false).run(), 3);
+        Assert.assertEquals(runner.setLogFile(this.logFile, true).run(), 3);
+        final String log = this.readLog();
+        Assert.assertTrue(log.matches("(?s)(out\\nerr\\n|err\\nout\\n){2}"), log);
+
+        Assert.assertEquals(runner.setLogFile(this.logFile, false).run(), 3);
+        Assert.assertEquals(this.readLog().length(), 8);
+    }
+
+    /**
+     * A child process which holds the output open does not block the
+     * runner.
+     *
+     * @throws IOException if the process failed
+     */
+    @Test(description = "child process holds the output open", timeOut = 4000)
+    public void testChildProcess()
+        throws IOException
+    {
+        final ProcessRunner runner = new ProcessRunner(ProcessRunnerTest.SHELL, "-c", "echo start; sleep 10 &")
+            .setLogFile(this.logFile, false)
+            .setDrainTimeout(200, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(runner.run(), 0);
+        Assert.assertEquals(this.readLog(), "start\n");
+    }
+
+    /**
+     * If the log file could not be written, the output is still drained to
+     * the console, so that the process is not disturbed, and the failure is
+     * recorded.
+     *
+     * @throws IOException if the process failed
+     */
+    @Test(description = "log file could not be written", timeOut = 10000)
+    public void testLogFailure()
+        throws IOException
+    {
+        final File full = new File("/dev/full");
+        if (!full.canWrite())  {
+            throw new SkipException("no device " + full);
+        }
+        final ProcessRunner runner = new ProcessRunner(ProcessRunnerTest.SHELL, "-c",
+                        "i=0; while [ $i -lt 1000 ]; do echo line $i of the output; i=$((i+1)); done >&2; exit 3")
+            .setLogFile(full, false);
+        Assert.assertEquals(runner.run(), 3);
+        Assert.assertNotNull(runner.getLogFailure());
+
+        runner.setLogFile(this.logFile, false);
+        Assert.assertEquals(runner.run(), 3);
+        Assert.assertNull(runner.getLogFailure());
+    }
+
+    /**
+     * A process which does not end within the timeout is killed.
+     *
+     * @throws IOException if the process failed
+     */
+    @Test(description = "process is killed after timeout", timeOut = 4000,
+          expectedExceptions = IOException.class,
+          expectedExceptionsMessageRegExp = ".*killed after timeout.*")
+    public void testTimeout()
+        throws IOException
+    {
+        new ProcessRunner(ProcessRunnerTest.SHELL, "-c", "echo start; sleep 10")
+            .setLogFile(this.logFile, false)
+            .setTimeout(200, TimeUnit.MILLISECONDS)
+            .setDrainTimeout(200, TimeUnit.MILLISECONDS)
+            .run();
+    }
+
+    /**
+     * Reads the {@link #logFile}.
+     *
+     * @return content of the log file
+     * @throws IOException if the log file could not be read
+     */
+    private String readLog()
+        throws IOException
+    {
+        return FileUtils.readFileToString(this.logFile, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.export.latex;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.efaps.wikiutil.source.MapPageSource;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the cache of converted Wiki pages.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class TexCacheTest
+{
+    /**
+     * Temporary directory for the cache and the Tex files.
+     */
+    private File tempDir;
+
+    /**
+     * Cache of converted Wiki pages within the {@link #tempDir}.
+     */
+    private TexCache cache;
+
+    /**
+     * Creates the {@link #tempDir} and the {@link #cache}.
+     *
+     * @throws IOException if the directory could not be created
+     */
+    @BeforeMethod
+    public void createCache()
+        throws IOException
+    {
+        this.tempDir = Files.createTempDirectory("texcache").toFile();
+        this.cache = new TexCache(new File(this.tempDir, "cache"));
+    }
+
+    /**
+     * Deletes the {@link #tempDir}.
+     *
+     * @throws IOException if the directory could not be deleted
+     */
+    @AfterMethod
+    public void deleteTempDir()
+        throws IOException
+    {
+        FileUtils.deleteDirectory(this.tempDir);
+    }
+
+    /**
+     * An unchanged Wiki page is restored from the cache.
+     *
+     * @throws Exception if the Wiki page could not be converted
+     */
+    @Test(description = "hit and miss")
+    public void testHit()
+        throws Exception
+    {
+        final MapPageSource source = new MapPageSource().put("Page.wiki", "= Title =\ntext\n|| a || b ||\n");
+        final File first = new File(this.tempDir, "first/out0.tex");
+        new WikiPage2Tex(source, "Page.wiki", first, 0, "Page").setCache(this.cache).convert();
+        Assert.assertEquals(this.cache.getHits(), 0);
+        Assert.assertEquals(this.cache.getMisses(), 1);
+
+        final File second = new File(this.tempDir, "second/out0.tex");
+        new WikiPage2Tex(source, "Page.wiki", second, 0, "Page").setCache(this.cache).convert();
+        Assert.assertEquals(this.cache.getHits(), 1);
+        Assert.assertEquals(this.cache.getMisses(), 1);
+        Assert.assertEquals(TexCacheTest.read(second), TexCacheTest.read(first));
+    }
+
+    /**
+     * A changed Wiki page, title or structure level is converted again.
+     *
+     * @throws Exception if the Wiki page could not be converted
+     */
+    @Test(description = "changed Wiki page")
+    public void testChanged()
+        throws Exception
+    {
+        final MapPageSource source = new MapPageSource().put("Page.wiki", "old text\n");
+        final File out = new File(this.tempDir, "out/out0.tex");
+        new WikiPage2Tex(source, "Page.wiki", out, 0, "Page").setCache(this.cache).convert();
+
+        source.put("Page.wiki", "new text\n");
+        new WikiPage2Tex(source, "Page.wiki", out, 0, "Page").setCache(this.cache).convert();
+        Assert.assertEquals(this.cache.getHits(), 0);
+        Assert.assertEquals(this.cache.getMisses(), 2);
+        Assert.assertTrue(TexCacheTest.read(out).contains("new text"));
+
+        final byte[] content = "text".getBytes(StandardCharsets.UTF_8);
+        final String key = this.cache.key(content, 0, "Page");
+        Assert.assertEquals(this.cache.key(content, 0, "Page"), key);
+        Assert.assertNotEquals(this.cache.key(content, 1, "Page"), key);
+        Assert.assertNotEquals(this.cache.key(content, 0, "Other"), key);
+    }
+
+    /**
+     * If the Wiki pages of the index are reordered or a Wiki page is
+     * inserted, the unchanged Wiki pages are restored from the cache with
+     * their new Tex file names. The restored files are the same as the
+     * files converted without cache.
+     *
+     * @throws Exception if the Wiki pages could not be converted
+     */
+    @Test(description = "reordered index")
+    public void testReorder()
+        throws Exception
+    {
+        final MapPageSource source = new MapPageSource()
+            .put("Index.wiki", "  * [PageA A]\n  * [PageB B]\n  * [PageC C]\n")
+            .put("PageA.wiki", "text of A\n|| a1 || a2 ||\n")
+            .put("PageB.wiki", "text of B\n|| b1 || b2 ||\n|| b3 || b4 ||\n")
+            .put("PageC.wiki", "text of C\n");
+        new WikiIndex2Tex(new File(this.tempDir, "first"), source, ".wiki", "Index").setCache(this.cache).convert();
+        Assert.assertEquals(this.cache.getMisses(), 3);
+
+        source.put("Index.wiki", "  * [PageN N]\n  * [PageC C]\n  * [PageA A]\n  * [PageB B]\n")
+            .put("PageN.wiki", "text of N\n|| n1 || n2 ||\n");
+        final File cached = new File(this.tempDir, "cached");
+        new WikiIndex2Tex(cached, source, ".wiki", "Index").setCache(this.cache).convert();
+        Assert.assertEquals(this.cache.getHits(), 3);
+        Assert.assertEquals(this.cache.getMisses(), 4);
+
+        final File uncached = new File(this.tempDir, "uncached");
+        new WikiIndex2Tex(uncached, source, ".wiki", "Index").convert();
+
+        final String[] names = uncached.list();
+        Arrays.sort(names);
+        final String[] cachedNames = cached.list();
+        Arrays.sort(cachedNames);
+        Assert.assertEquals(cachedNames, names);
+        for (final String name : names)  {
+            Assert.assertEquals(TexCacheTest.read(new File(cached, name)), TexCacheTest.read(new File(uncached, name)),
+                                name);
+        }
+        Assert.assertTrue(TexCacheTest.read(new File(cached, "out3.tex")).contains("{out3_texTABLE0}"));
+    }
+
+    /**
+     * Reads the content of <code>_file</code>.
+     *
+     * @param _file     file to read
+     * @return content of the file
+     * @throws IOException if the file could not be read
+     */
+    private static String read(final File _file)
+        throws IOException
+    {
+        return FileUtils.readFileToString(_file, StandardCharsets.UTF_8);
+    }
+}
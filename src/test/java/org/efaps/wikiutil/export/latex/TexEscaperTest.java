@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.export.latex;
+
+import java.io.IOException;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the escaping of special characters for Latex.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class TexEscaperTest
+{
+    /**
+     * Texts and the expected escaped Latex text.
+     *
+     * @return test data
+     */
+    @DataProvider(name = "texts")
+    public Object[][] getTexts()
+    {
+        return new Object[][] {
+            {"", ""},
+            {"plain text", "plain text"},
+            {"a\\b", "a\\textbackslash b"},
+            {"file_name 100% A&B #1", "file\\_name 100\\% A\\&B \\#1"},
+            {"x^2 ~y", "x\\^{}2 \\~{}y"},
+            {"10 \u20AC", "10 \\euro"},
+            {"a\u2212b\u2011c", "a-b-c"},
+            {"__", "\\_\\_"},
+            {"{$}", "{$}"}
+        };
+    }
+
+    /**
+     * Tests the escaping of <code>_text</code> into a string.
+     *
+     * @param _text     text to escape
+     * @param _expected expected Latex text
+     */
+    @Test(dataProvider = "texts", description = "escape to string")
+    public void testEscape(final String _text,
+                           final String _expected)
+    {
+        Assert.assertEquals(TexEscaper.escape(_text), _expected);
+    }
+
+    /**
+     * Tests the escaping of <code>_text</code> appended behind existing text.
+     *
+     * @param _text     text to escape
+     * @param _expected expected Latex text
+     * @throws IOException if the text could not be appended
+     */
+    @Test(dataProvider = "texts", description = "escape to appendable")
+    public void testEscapeAppendable(final String _text,
+                                     final String _expected)
+        throws IOException
+    {
+        final StringBuilder out = new StringBuilder("{");
+        TexEscaper.escape(out, _text);
+        Assert.assertEquals(out.toString(), "{" + _expected);
+    }
+}
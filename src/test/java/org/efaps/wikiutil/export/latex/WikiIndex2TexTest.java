@@ -0,0 +1,225 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.export.latex;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.efaps.wikiutil.source.IPageSource;
+import org.efaps.wikiutil.source.MapPageSource;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the conversion of all Wiki pages of an index into Tex files.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class WikiIndex2TexTest
+{
+    /**
+     * Number of Wiki pages referenced from the index.
+     */
+    private static final int PAGES = 12;
+
+    /**
+     * Temporary directory of the Tex files.
+     */
+    private File tempDir;
+
+    /**
+     * Creates the {@link #tempDir}.
+     *
+     * @throws IOException if the directory could not be created
+     */
+    @BeforeMethod
+    public void createTempDir()
+        throws IOException
+    {
+        this.tempDir = Files.createTempDirectory("wikiindex").toFile();
+    }
+
+    /**
+     * Deletes the {@link #tempDir}.
+     *
+     * @throws IOException if the directory could not be deleted
+     */
+    @AfterMethod
+    public void deleteTempDir()
+        throws IOException
+    {
+        FileUtils.deleteDirectory(this.tempDir);
+    }
+
+    /**
+     * Number of parallel converted Wiki pages.
+     *
+     * @return parallelism
+     */
+    @DataProvider(name = "parallelism")
+    public Object[][] getParallelism()
+    {
+        return new Object[][] {{1}, {2}, {4}};
+    }
+
+    /**
+     * The content file includes the Tex files in the order of the index,
+     * independent of the order in which the Wiki pages are converted.
+     *
+     * @param _parallelism  number of parallel converted Wiki pages
+     * @throws Exception if the Wiki pages could not be converted
+     */
+    @Test(description = "order of the content file", dataProvider = "parallelism")
+    public void testOrder(final int _parallelism)
+        throws Exception
+    {
+        new WikiIndex2Tex(this.tempDir, WikiIndex2TexTest.source(), ".wiki", "Index")
+            .setParallelism(_parallelism)
+            .convert();
+
+        final StringBuilder expected = new StringBuilder();
+        for (int idx = 0; idx < WikiIndex2TexTest.PAGES; idx++)  {
+            expected.append("\\input{out").append(idx).append("}\n");
+            final String tex = this.read("out" + idx + ".tex");
+            Assert.assertTrue(tex.startsWith(((idx % 2 == 0) ? "\\part{" : "\\chapter{") + "Title " + idx + "}"),
+                              tex);
+            Assert.assertTrue(tex.contains("text of page " + idx), tex);
+        }
+        Assert.assertEquals(this.read("content.tex"), expected.toString());
+    }
+
+    /**
+     * Wiki pages which do not exist are not included in the content file.
+     *
+     * @throws Exception if the Wiki pages could not be converted
+     */
+    @Test(description = "missing Wiki pages are not converted")
+    public void testMissing()
+        throws Exception
+    {
+        final MapPageSource source = new MapPageSource()
+            .put("Index.wiki", "  * [Page0 Title 0]\n  * [Unknown Unknown]\n  * [Page2 Title 2]\n")
+            .put("Page0.wiki", "text of page 0\n")
+            .put("Page2.wiki", "text of page 2\n");
+        new WikiIndex2Tex(this.tempDir, source, ".wiki", "Index").setParallelism(2).convert();
+
+        Assert.assertEquals(this.read("content.tex"), "\\input{out0}\n\\input{out2}\n");
+        Assert.assertFalse(new File(this.tempDir, "out1.tex").exists());
+    }
+
+    /**
+     * If a Wiki page could not be converted, the failure is reported after
+     * the content file with all other Wiki pages is written.
+     *
+     * @param _parallelism  number of parallel converted Wiki pages
+     * @throws Exception if the Wiki pages could not be converted
+     */
+    @Test(description = "failures are reported", dataProvider = "parallelism")
+    public void testFailure(final int _parallelism)
+        throws Exception
+    {
+        final IPageSource source = WikiIndex2TexTest.source();
+        final IPageSource broken = new IPageSource()
+        {
+            @Override
+            public InputStream open(final String _name)
+                throws IOException
+            {
+                if ("Page3.wiki".equals(_name) || "Page7.wiki".equals(_name))  {
+                    throw new IOException("broken " + _name);
+                }
+                return source.open(_name);
+            }
+        };
+        try  {
+            new WikiIndex2Tex(this.tempDir, broken, ".wiki", "Index").setParallelism(_parallelism).convert();
+            Assert.fail("failure not reported");
+        } catch (final IOException e)  {
+            Assert.assertTrue(e.getMessage().contains("[Page3, Page7]"), e.getMessage());
+            Assert.assertEquals(e.getCause().getMessage(), "broken Page3.wiki");
+            Assert.assertEquals(e.getSuppressed().length, 1);
+        }
+        final String content = this.read("content.tex");
+        Assert.assertTrue(content.contains("\\input{out2}\n\\input{out4}\n"), content);
+        Assert.assertFalse(content.contains("\\input{out3}"), content);
+    }
+
+    /**
+     * If the Tex file of an existing Wiki page could not be created, the
+     * failure is reported (and the Wiki page is not handled as missing).
+     *
+     * @throws Exception if the Wiki pages could not be converted
+     */
+    @Test(description = "output file could not be created")
+    public void testOutputFailure()
+        throws Exception
+    {
+        Assert.assertTrue(new File(this.tempDir, "out1.tex").mkdir());
+        try  {
+            new WikiIndex2Tex(this.tempDir, WikiIndex2TexTest.source(), ".wiki", "Index").convert();
+            Assert.fail("failure not reported");
+        } catch (final IOException e)  {
+            Assert.assertTrue(e.getMessage().contains("[Page1]"), e.getMessage());
+            Assert.assertTrue(e.getCause().getCause() instanceof FileNotFoundException, "cause " + e.getCause());
+        }
+    }
+
+    /**
+     * Defines the index and the Wiki pages. Each second Wiki page is on the
+     * second level of the index. The first Wiki pages are the largest, so
+     * that they are converted last.
+     *
+     * @return page source with the Wiki pages
+     */
+    private static MapPageSource source()
+    {
+        final MapPageSource ret = new MapPageSource();
+        final StringBuilder index = new StringBuilder();
+        for (int idx = 0; idx < WikiIndex2TexTest.PAGES; idx++)  {
+            index.append((idx % 2 == 0) ? "  * " : "    * ")
+                .append("[Page").append(idx).append(" Title ").append(idx).append("]\n");
+            final StringBuilder page = new StringBuilder();
+            for (int line = (WikiIndex2TexTest.PAGES - idx) * 50; line > 0; line--)  {
+                page.append("text of page ").append(idx).append(" with *bold* text\n");
+            }
+            ret.put("Page" + idx + ".wiki", page.toString());
+        }
+        ret.put("Index.wiki", index.toString());
+        return ret;
+    }
+
+    /**
+     * Reads the file <code>_name</code> from the {@link #tempDir}.
+     *
+     * @param _name     name of the file
+     * @return content of the file
+     * @throws IOException if the file could not be read
+     */
+    private String read(final String _name)
+        throws IOException
+    {
+        return FileUtils.readFileToString(new File(this.tempDir, _name), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.efaps.wikiutil.parser.gwiki;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.parser.gwiki.javacc.SimpleCharStream;
+import org.efaps.wikiutil.parser.gwiki.javacc.Token;
+import org.efaps.wikiutil.parser.gwiki.javacc.WikiParserConstants;
+import org.efaps.wikiutil.parser.gwiki.javacc.WikiParserTokenManager;
+import org.efaps.wikiutil.wem.WEMDebug;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the {@link CharBufferStream} reports the same positions as the
+ * {@link SimpleCharStream}.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class CharBufferStreamTest
+{
+    /**
+     * Returns Wiki texts with different line ends and tabs.
+     *
+     * @return Wiki texts
+     */
+    @DataProvider(name = "texts")
+    public Object[][] getTexts()
+    {
+        return new Object[][] {
+            {"= Heading =\ntext with AutoLink\n|| a || b ||"},
+            {"text\twith\ttabs\r\n\t  * entry\r  \t* entry {{{code}}}\n"},
+            {"a\tb c\t\td\te\n\n\tx *bold\ttext* and\t`code`\t\n#summary\ttext"},
+            {"text\r\n\r\n\t\t[http://www.efaps.org\teFaps] ||\ta\t||\tb\t||\r"}
+        };
+    }
+
+    /**
+     * Compares the tokens (with the begin and end positions) of the
+     * <code>_text</code> read with a {@link SimpleCharStream} and a
+     * {@link CharBufferStream}.
+     *
+     * @param _text     Wiki text
+     */
+    @Test(description = "token positions", dataProvider = "texts")
+    public void testTokenPositions(final String _text)
+    {
+        final WikiParserTokenManager expected = new WikiParserTokenManager(
+                        new SimpleCharStream(new StringReader(_text)), WikiParserConstants.INITIAL_CONTEXT);
+        final WikiParserTokenManager actual = new WikiParserTokenManager(
+                        new CharBufferStream(CharBuffer.wrap(_text)), WikiParserConstants.INITIAL_CONTEXT);
+        Token expToken;
+        do  {
+            expToken = expected.getNextToken();
+            final Token actToken = actual.getNextToken();
+            final String msg = "token '" + expToken.image + "'";
+            Assert.assertEquals(actToken.kind, expToken.kind, msg);
+            Assert.assertEquals(actToken.image, expToken.image, msg);
+            Assert.assertEquals(actToken.beginLine, expToken.beginLine, msg);
+            Assert.assertEquals(actToken.beginColumn, expToken.beginColumn, msg);
+            Assert.assertEquals(actToken.endLine, expToken.endLine, msg);
+            Assert.assertEquals(actToken.endColumn, expToken.endColumn, msg);
+        } while (expToken.kind != WikiParserConstants.EOF);
+    }
+
+    /**
+     * Checks that the column of a parse exception after tabs is the same for
+     * a reader and a character buffer.
+     */
+    @Test(description = "column of parse exceptions after tabs")
+    public void testParseExceptionColumn()
+    {
+        final String text = "ab\t\t<wiki:toc\tfoo";
+        String expected = null;
+        try  {
+            GWikiParser.parse(new WEMDebug(System.out), new StringReader(text));
+        } catch (final ParseException e)  {
+            expected = e.getMessage();
+        }
+        String actual = null;
+        try  {
+            GWikiParser.parse(new GWikiVisitor(new WEMDebug(System.out)), CharBuffer.wrap(text));
+        } catch (final ParseException e)  {
+            actual = e.getMessage();
+        }
+        Assert.assertNotNull(expected, "parse exception expected");
+        Assert.assertTrue(expected.contains("column 33"), expected);
+        Assert.assertEquals(actual, expected);
+    }
+
+    /**
+     * Adjusts the begin line and column of a token and compares the positions
+     * with the {@link SimpleCharStream}. The positions of the following
+     * characters are checked directly, because the {@link SimpleCharStream}
+     * evaluates them from not yet read entries of its ring buffer.
+     *
+     * @throws IOException if the streams could not be read
+     */
+    @Test(description = "adjusted begin line and column")
+    public void testAdjustBeginLineColumn()
+        throws IOException
+    {
+        final String text = "abc\tdef\nghi\r\n\tjkl mno\npqr";
+        final SimpleCharStream expected = new SimpleCharStream(new StringReader(text));
+        final CharBufferStream actual = new CharBufferStream(CharBuffer.wrap(text));
+        expected.BeginToken();
+        actual.BeginToken();
+        for (int idx = 0; idx < 3; idx++)  {
+            expected.readChar();
+            actual.readChar();
+        }
+        this.checkPositions(expected, actual);
+        // token begins with the tab
+        expected.backup(1);
+        actual.backup(1);
+        expected.BeginToken();
+        actual.BeginToken();
+        expected.readChar();
+        actual.readChar();
+        expected.readChar();
+        actual.readChar();
+        expected.adjustBeginLineColumn(10, 5);
+        actual.adjustBeginLineColumn(10, 5);
+        this.checkPositions(expected, actual);
+        Assert.assertEquals(actual.getBeginLine(), 10);
+        Assert.assertEquals(actual.getBeginColumn(), 5);
+        // the tab is expanded to column 8 and moved to column 5, so the following
+        // columns of the line are moved by 3
+        actual.readChar();
+        Assert.assertEquals(actual.getEndLine(), 10);
+        Assert.assertEquals(actual.getEndColumn(), 8);
+        actual.readChar();
+        actual.readChar();
+        Assert.assertEquals(actual.getEndLine(), 11);
+        Assert.assertEquals(actual.getEndColumn(), 1);
+        for (int idx = 0; idx < 5; idx++)  {
+            actual.readChar();
+        }
+        Assert.assertEquals(actual.getEndLine(), 12);
+        Assert.assertEquals(actual.getEndColumn(), 8);
+        Assert.assertEquals(actual.getBeginLine(), 10);
+        Assert.assertEquals(actual.getBeginColumn(), 5);
+    }
+
+    /**
+     * Checks that the begin and end positions of both streams are equal.
+     *
+     * @param _expected     expected stream
+     * @param _actual       actual stream
+     */
+    private void checkPositions(final SimpleCharStream _expected,
+                                final SimpleCharStream _actual)
+    {
+        Assert.assertEquals(_actual.getBeginLine(), _expected.getBeginLine(), "begin line");
+        Assert.assertEquals(_actual.getBeginColumn(), _expected.getBeginColumn(), "begin column");
+        Assert.assertEquals(_actual.getEndLine(), _expected.getEndLine(), "end line");
+        Assert.assertEquals(_actual.getEndColumn(), _expected.getEndColumn(), "end column");
+    }
+}
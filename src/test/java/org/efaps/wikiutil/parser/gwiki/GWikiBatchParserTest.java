@@ -0,0 +1,185 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.parser.gwiki;
+
+import java.io.FileNotFoundException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.parser.gwiki.javacc.TokenMgrError;
+import org.efaps.wikiutil.source.MapPageSource;
+import org.efaps.wikiutil.wem.WEMDebug;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the parallel parsing of Wiki pages with the batch parser.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class GWikiBatchParserTest
+{
+    /**
+     * Number of correct pages.
+     */
+    private static final int PAGES = 40;
+
+    /**
+     * Source with the pages.
+     */
+    private final MapPageSource source = new MapPageSource();
+
+    /**
+     * Names of the pages to parse (including a missing page and two broken
+     * pages).
+     */
+    private final List<String> names = new ArrayList<String>();
+
+    /**
+     * Executor used to parse the pages.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Initializes the pages and the executor.
+     */
+    @BeforeClass
+    public void setup()
+    {
+        for (int idx = 0; idx < GWikiBatchParserTest.PAGES; idx++)  {
+            this.source.put("Page" + idx, "#summary Page " + idx + "\n= Heading =\ntext of page " + idx);
+            this.names.add("Page" + idx);
+        }
+        this.source.put("ParseError", "=");
+        this.source.put("TokenError", "\"");
+        this.names.add(10, "Missing");
+        this.names.add(20, "ParseError");
+        this.names.add(30, "TokenError");
+        this.executor = Executors.newFixedThreadPool(4);
+    }
+
+    /**
+     * Stops the executor.
+     */
+    @AfterClass
+    public void tearDown()
+    {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Tests that all pages are delivered in the order of the names and that
+     * failed pages do not abort the batch.
+     *
+     * @throws InterruptedException if the test was interrupted
+     */
+    @Test(description = "results in input order")
+    public void testInputOrder()
+        throws InterruptedException
+    {
+        final List<GWikiBatchParser.Result> results = new GWikiBatchParser(this.source)
+            .setExecutor(this.executor)
+            .setWindow(3)
+            .parse(this.names);
+        Assert.assertEquals(results.size(), this.names.size());
+        for (int idx = 0; idx < results.size(); idx++)  {
+            final GWikiBatchParser.Result result = results.get(idx);
+            final String name = this.names.get(idx);
+            Assert.assertEquals(result.getIndex(), idx);
+            Assert.assertEquals(result.getName(), name);
+            if ("Missing".equals(name))  {
+                Assert.assertFalse(result.isSuccess());
+                Assert.assertTrue(result.getError() instanceof FileNotFoundException, "error " + result.getError());
+            } else if ("ParseError".equals(name))  {
+                Assert.assertFalse(result.isSuccess());
+                Assert.assertTrue(result.getError() instanceof ParseException, "error " + result.getError());
+                Assert.assertNull(result.getPage());
+            } else if ("TokenError".equals(name))  {
+                Assert.assertFalse(result.isSuccess());
+                Assert.assertTrue(result.getError() instanceof TokenMgrError, "error " + result.getError());
+            } else  {
+                Assert.assertTrue(result.isSuccess(), "error " + result.getError());
+                Assert.assertEquals(result.getPage().getProperties().get(0).getValue(), name.replace("Page", "Page "));
+                Assert.assertTrue(result.getParseTime() > 0);
+            }
+        }
+    }
+
+    /**
+     * Tests that all pages are delivered in the order of completion.
+     *
+     * @throws InterruptedException if the test was interrupted
+     */
+    @Test(description = "results in completion order")
+    public void testCompletionOrder()
+        throws InterruptedException
+    {
+        final Set<Integer> indexes = new TreeSet<Integer>();
+        new GWikiBatchParser(this.source)
+            .setExecutor(this.executor)
+            .setInputOrder(false)
+            .setEventModelFactory(_name -> new GWikiBatchParserTest.CountingEventModel())
+            .parse(this.names, _result -> {
+                Assert.assertTrue(indexes.add(_result.getIndex()), "delivered twice " + _result.getName());
+                if (_result.isSuccess())  {
+                    Assert.assertNull(_result.getPage());
+                    Assert.assertEquals(((CountingEventModel) _result.getEventModel()).texts, 2);
+                }
+            });
+        Assert.assertEquals(indexes.size(), this.names.size());
+    }
+
+    /**
+     * Wiki event model which counts the texts.
+     */
+    private static final class CountingEventModel
+        extends WEMDebug
+    {
+        /**
+         * Number of texts.
+         */
+        private int texts;
+
+        /**
+         * Initializes the event model without output.
+         */
+        private CountingEventModel()
+        {
+            super(new PrintStream(OutputStream.nullOutputStream()), null);
+        }
+
+        /**
+         * Counts the text.
+         *
+         * @param _text     text (not used)
+         */
+        @Override
+        public void onText(final CharSequence _text)
+        {
+            this.texts++;
+        }
+    }
+}
@@ -15,11 +15,20 @@
  */
 package org.efaps.wikiutil.parser.gwiki;
 
+import java.io.IOException;
 import java.io.StringReader;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.parser.gwiki.javacc.SimpleCharStream;
+import org.efaps.wikiutil.parser.gwiki.javacc.Token;
+import org.efaps.wikiutil.parser.gwiki.javacc.WikiParserConstants;
+import org.efaps.wikiutil.parser.gwiki.javacc.WikiParserTokenManager;
 import org.efaps.wikiutil.wem.WEMDebug;
 import org.efaps.wikiutil.wom.WEM2WOM;
 import org.efaps.wikiutil.wom.WikiPage;
@@ -1675,6 +1684,110 @@ public class WikiParserTest
                         .add(new TextString("=23"))));
     }
 
+    /**
+     * Tests parsing of a Wiki word as text if Wiki words are disabled.
+     *
+     * @throws ParseException if parsing of the Wiki text failed
+     */
+    @Test(description = "Wiki word as text if Wiki words are disabled")
+    public void testWikiWordDisabled()
+        throws ParseException
+    {
+        final WEM2WOM wem = new WEM2WOM();
+        GWikiParser.parse(new GWikiVisitor(wem).setWikiWords(false), new StringReader("AutoLink12+23 !AutoLink"));
+        checkPage(
+                wem.getPage(),
+                new WikiPage()
+                    .add(new Paragraph()
+                        .add(new TextString("AutoLink12+23 !AutoLink"))));
+    }
+
+    /**
+     * Tests that transient texts (one reused text buffer) are converted to the
+     * same Wiki object model.
+     *
+     * @throws ParseException if parsing failed
+     */
+    @Test(description = "transient texts")
+    public void testTransientText()
+        throws ParseException
+    {
+        final WEM2WOM wem = new WEM2WOM();
+        GWikiParser.parse(new GWikiVisitor(wem).setTransientText(true),
+                          new StringReader("= Heading 1 =\ntext with AutoLink and\nmore text\n== Heading 2 ==\nlast"));
+        checkPage(
+                wem.getPage(),
+                new WikiPage()
+                    .addSubSection(new Section()
+                        .addHeading(new TextString("Heading 1"))
+                        .add(new Paragraph()
+                            .add(new TextString("text with "))
+                            .add(new InternalLink("AutoLink"))
+                            .add(new TextString(" and more text")))
+                        .addSubSection(new Section()
+                            .addHeading(new TextString("Heading 2"))
+                            .add(new Paragraph()
+                                .add(new TextString("last"))))));
+    }
+
+    /**
+     * Tests that a UTF-8 encoded file is parsed like the same text from a
+     * reader. The large file is memory mapped.
+     *
+     * @throws IOException      if the file could not be written
+     * @throws ParseException   if parsing failed
+     */
+    @Test(description = "parse files")
+    public void testParsePath()
+        throws IOException, ParseException
+    {
+        final String snipplet = "= Heading \u00e4 =\r\ntext with \u00fcnicode \u20ac and AutoLink\n"
+                        + "|| a || b ||\n  * entry {{{code}}}\n";
+        for (final int count : new int[] {1, 5000})  {
+            final StringBuilder text = new StringBuilder();
+            for (int idx = 0; idx < count; idx++)  {
+                text.append(snipplet);
+            }
+            final Path file = Files.createTempFile("WikiParserTest", ".wiki");
+            try  {
+                Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+                checkPage(GWikiParser.parse(file), GWikiParser.parse(new StringReader(text.toString())));
+            } finally  {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Tests that a parser session parses each Wiki page like a new parser
+     * (also if the pages are parsed alternating from readers and character
+     * buffers).
+     *
+     * @throws ParseException if parsing failed
+     */
+    @Test(description = "parser session")
+    public void testParserSession()
+        throws ParseException
+    {
+        final String[] pages = {
+            "= Heading =\ntext with AutoLink\n|| a || b ||",
+            "  * entry\n    * sub entry",
+            "== Heading 2 ==\ntext *bold* and _italic_",
+            "#summary text\n\n{{{\ncode\n}}}\n[http://www.efaps.org eFaps]"
+        };
+        final GWikiParserSession session = GWikiParserSession.get();
+        for (int idx = 0; idx < pages.length * 2; idx++)  {
+            final String page = pages[idx % pages.length];
+            final WEM2WOM wem = new WEM2WOM();
+            if (idx % 2 == 0)  {
+                session.parse(wem, new StringReader(page));
+            } else  {
+                session.parse(wem, CharBuffer.wrap(page));
+            }
+            checkPage(wem.getPage(), GWikiParser.parse(new StringReader(page)));
+        }
+    }
+
     /**
      * Test parsing of new line.
      *
@@ -1709,6 +1822,56 @@ public class WikiParserTest
                         .add(new TextString("AutoLink12+23"))));
     }
 
+    /**
+     * Tests that words within a text which start an external link are not
+     * swallowed by a text run.
+     *
+     * @throws ParseException if parsing of the Wiki text failed
+     * @throws MalformedURLException if the link URL could not be formed
+     */
+    @Test(description = "text runs followed by external links")
+    public void testTextRunWithLink()
+        throws ParseException, MalformedURLException
+    {
+        checkPage(
+                getPage("see the http://www.efaps.org and\nthe ftp://www.efaps.org/file page"),
+                new WikiPage()
+                    .add(new Paragraph()
+                        .add(new TextString("see the "))
+                        .add(new ExternalLink(new URL("http://www.efaps.org")))
+                        .add(new TextString(" and the "))
+                        .add(new ExternalLink(new URL("ftp://www.efaps.org/file")))
+                        .add(new TextString(" page"))));
+    }
+
+    /**
+     * Tests that the begin and end position of all tokens matches the token
+     * images (also if the last word of a text run is given back to the input
+     * stream).
+     */
+    @Test(description = "positions of text runs")
+    public void testTextRunPosition()
+    {
+        final String text = "= some heading =\nsee the http://www.efaps.org and max_depth\n"
+                        + "text *bold text* and `code text`, more text.\n|| a b || c d ||";
+        final WikiParserTokenManager tokenManager = new WikiParserTokenManager(
+                        new SimpleCharStream(new StringReader(text)), WikiParserConstants.INITIAL_CONTEXT);
+        int runs = 0;
+        for (Token token = tokenManager.getNextToken();
+                token.kind != WikiParserConstants.EOF;
+                token = tokenManager.getNextToken())  {
+            if (token.kind == WikiParserConstants.D_TEXT_RUN || token.kind == WikiParserConstants.I_TEXT_RUN)  {
+                runs++;
+            }
+            if (token.image.indexOf('\n') < 0)  {
+                Assert.assertEquals(token.endLine, token.beginLine, "line of '" + token.image + "'");
+                Assert.assertEquals(token.endColumn - token.beginColumn + 1, token.image.length(),
+                                    "columns of '" + token.image + "'");
+            }
+        }
+        Assert.assertTrue(runs > 0, "text runs");
+    }
+
     /**
      * Tests parsing of complex example.
      *
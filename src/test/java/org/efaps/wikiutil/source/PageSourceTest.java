@@ -0,0 +1,185 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.source;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the page sources.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class PageSourceTest
+{
+    /**
+     * Text of the Wiki page <code>Page.wiki</code>.
+     */
+    private static final String TEXT = "= Page =\ntext \u00e4\n";
+
+    /**
+     * Temporary directory with the directory <code>wiki</code> which
+     * includes the Wiki page <code>Page.wiki</code>.
+     */
+    private File tempDir;
+
+    /**
+     * Class loader for the {@link #tempDir}.
+     */
+    private URLClassLoader classLoader;
+
+    /**
+     * Creates the {@link #tempDir} with the Wiki pages.
+     *
+     * @throws IOException if the Wiki pages could not be written
+     */
+    @BeforeClass
+    public void createPages()
+        throws IOException
+    {
+        this.tempDir = Files.createTempDirectory("pagesource").toFile();
+        FileUtils.writeStringToFile(new File(this.tempDir, "wiki/Page.wiki"), PageSourceTest.TEXT,
+                                    StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(this.tempDir, "Index.wiki"), "index", StandardCharsets.UTF_8);
+        this.classLoader = new URLClassLoader(new URL[]{this.tempDir.toURI().toURL()}, null);
+    }
+
+    /**
+     * Deletes the {@link #tempDir}.
+     *
+     * @throws IOException if the directory could not be deleted
+     */
+    @AfterClass
+    public void deletePages()
+        throws IOException
+    {
+        this.classLoader.close();
+        FileUtils.deleteDirectory(this.tempDir);
+    }
+
+    /**
+     * All page sources with the Wiki page <code>Page.wiki</code>.
+     *
+     * @return page sources
+     * @throws IOException if the page sources could not be created
+     */
+    @DataProvider(name = "sources")
+    public Object[][] getSources()
+        throws IOException
+    {
+        final File wikiDir = new File(this.tempDir, "wiki");
+        return new Object[][] {
+            {new FilePageSource(wikiDir)},
+            {new ClassPathPageSource(this.classLoader, "wiki")},
+            {new ClassPathPageSource(this.classLoader, "/wiki/")},
+            {new URLPageSource(wikiDir.toURI().toURL())},
+            {new MapPageSource().put("Page.wiki", PageSourceTest.TEXT)},
+            {PageSourceFactory.create(wikiDir.toURI())},
+        };
+    }
+
+    /**
+     * Existing Wiki pages are opened.
+     *
+     * @param _source   page source
+     * @throws IOException if the Wiki page could not be opened
+     */
+    @Test(description = "existing Wiki page", dataProvider = "sources")
+    public void testFound(final IPageSource _source)
+        throws IOException
+    {
+        final InputStream in = _source.open("Page.wiki");
+        try  {
+            Assert.assertEquals(IOUtils.toString(in, StandardCharsets.UTF_8), PageSourceTest.TEXT);
+        } finally  {
+            in.close();
+        }
+    }
+
+    /**
+     * Missing Wiki pages are reported with a file not found exception.
+     *
+     * @param _source   page source
+     * @throws IOException if the Wiki page could not be opened
+     */
+    @Test(description = "missing Wiki page", dataProvider = "sources",
+          expectedExceptions = FileNotFoundException.class)
+    public void testMissing(final IPageSource _source)
+        throws IOException
+    {
+        _source.open("Missing.wiki").close();
+    }
+
+    /**
+     * The factory creates the page source for the scheme of the root URI.
+     *
+     * @throws IOException if the page source could not be created
+     */
+    @Test(description = "page source for the scheme")
+    public void testFactory()
+        throws IOException
+    {
+        Assert.assertTrue(PageSourceFactory.create(this.tempDir.toURI()) instanceof FilePageSource);
+        Assert.assertTrue(PageSourceFactory.create(URI.create("classpath:org/efaps/wiki/"))
+                        instanceof ClassPathPageSource);
+        Assert.assertTrue(PageSourceFactory.create(URI.create("http://www.efaps.org/wiki/"))
+                        instanceof URLPageSource);
+    }
+
+    /**
+     * As for URLs, the Wiki pages of a file root without trailing slash are
+     * resolved relative to the parent of the root.
+     *
+     * @throws IOException if the Wiki page could not be opened
+     */
+    @Test(description = "file root without trailing slash")
+    public void testFileRootWithoutSlash()
+        throws IOException
+    {
+        final URI root = URI.create(this.tempDir.toURI().toString() + "wiki");
+        Assert.assertFalse(root.toString().endsWith("/"));
+
+        final IPageSource source = PageSourceFactory.create(root);
+        final InputStream in = source.open("Index.wiki");
+        try  {
+            Assert.assertEquals(IOUtils.toString(in, StandardCharsets.UTF_8), "index");
+        } finally  {
+            in.close();
+        }
+        final InputStream sub = source.open("wiki/Page.wiki");
+        try  {
+            Assert.assertEquals(IOUtils.toString(sub, StandardCharsets.UTF_8), PageSourceTest.TEXT);
+        } finally  {
+            sub.close();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.efaps.wikiutil.parser.gwiki.GWikiParser;
+import org.efaps.wikiutil.parser.gwiki.GWikiParserSession;
+import org.efaps.wikiutil.parser.gwiki.GWikiVisitor;
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the sending of Wiki events to many consumers.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class WEMMulticastTest
+{
+    /**
+     * Wiki page used for the tests.
+     */
+    private static final String PAGE = "#summary Summary\n= Heading =\ntext *bold* and _italic_ WikiWord\n"
+                    + "  * entry\n    * sub entry\n\n|| a || b ||\n{{{\ncode\n}}}\n[http://www.efaps.org eFaps]";
+
+    /**
+     * All synchronous and asynchronous consumers get the same events.
+     *
+     * @throws ParseException if the page could not be parsed
+     * @throws IOException if the UTF-8 encoding is not supported
+     */
+    @Test(description = "synchronous and asynchronous consumers")
+    public void testMulticast()
+        throws ParseException, IOException
+    {
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        GWikiParser.parse(new WEMDebug(new PrintStream(expected, true, "UTF-8")),
+                          new StringReader(WEMMulticastTest.PAGE));
+
+        final ByteArrayOutputStream sync = new ByteArrayOutputStream();
+        final ByteArrayOutputStream async = new ByteArrayOutputStream();
+        final WEMTape tape = new WEMTape();
+        try (WEMMulticast multicast = new WEMMulticast()
+                        .add(new WEMDebug(new PrintStream(sync, true, "UTF-8")))
+                        .addAsync(new WEMDebug(new PrintStream(async, true, "UTF-8")), 2)
+                        .addAsync(tape, 1))  {
+            GWikiParser.parse(new GWikiVisitor(multicast).setTransientText(true),
+                              new StringReader(WEMMulticastTest.PAGE));
+        }
+        Assert.assertEquals(sync.toString(StandardCharsets.UTF_8), expected.toString(StandardCharsets.UTF_8));
+        Assert.assertEquals(async.toString(StandardCharsets.UTF_8), expected.toString(StandardCharsets.UTF_8));
+
+        final ByteArrayOutputStream replayed = new ByteArrayOutputStream();
+        tape.play(new WEMDebug(new PrintStream(replayed, true, "UTF-8")));
+        Assert.assertEquals(replayed.toString(StandardCharsets.UTF_8), expected.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The failure of an asynchronous consumer is thrown at the end of the
+     * document.
+     *
+     * @throws ParseException if the page could not be parsed
+     */
+    @Test(description = "failure of an asynchronous consumer", expectedExceptions = IllegalStateException.class)
+    public void testAsyncFailure()
+        throws ParseException
+    {
+        final WEMTape failing = new WEMTape()  {
+            @Override
+            public void onText(final CharSequence _text)
+            {
+                throw new UnsupportedOperationException("text not supported");
+            }
+        };
+        try (WEMMulticast multicast = new WEMMulticast().add(new WEMTape()).addAsync(failing, 4))  {
+            GWikiParser.parse(multicast, new StringReader(WEMMulticastTest.PAGE));
+        }
+    }
+
+    /**
+     * An asynchronous Wiki event model could be used for many documents and
+     * is stopped after an aborted document.
+     *
+     * @throws ParseException if the page could not be parsed
+     */
+    @Test(description = "reuse of an asynchronous Wiki event model")
+    public void testAsyncReuse()
+        throws ParseException
+    {
+        final WEMTape expected = new WEMTape();
+        GWikiParser.parse(expected, new StringReader(WEMMulticastTest.PAGE));
+
+        final WEMTape tape = new WEMTape();
+        // not closed with try-with-resources, because the aborted document
+        // must be closed within the test
+        final WEMAsync wem = new WEMAsync(tape, 4);
+        try  {
+            for (int idx = 0; idx < 3; idx++)  {
+                tape.reset();
+                GWikiParser.parse(wem, new StringReader(WEMMulticastTest.PAGE));
+                Assert.assertEquals(tape.toByteArray(), expected.toByteArray());
+            }
+            try  {
+                GWikiParser.parse(wem, new StringReader("="));
+                Assert.fail("parse exception expected");
+            } catch (final ParseException e)  {
+                wem.close();
+            }
+            tape.reset();
+            GWikiParser.parse(wem, new StringReader(WEMMulticastTest.PAGE));
+            Assert.assertEquals(tape.toByteArray(), expected.toByteArray());
+        } finally  {
+            wem.close();
+        }
+    }
+
+    /**
+     * A parser session closes an asynchronous Wiki event model if parsing
+     * fails, so that all queued events are sent to the underlying Wiki event
+     * model before the parse exception is thrown (the underlying Wiki event
+     * model is slow, so that the events would be still queued otherwise).
+     *
+     * @throws ParseException if the page could not be parsed
+     */
+    @Test(description = "asynchronous Wiki event model closed by the parser session")
+    public void testAsyncSessionAbort()
+        throws ParseException
+    {
+        final String page = WEMMulticastTest.PAGE + "\n=";
+        final WEMTape expected = new WEMTape();
+        try  {
+            GWikiParser.parse(expected, new StringReader(page));
+            Assert.fail("parse exception expected");
+        } catch (final ParseException e)  {
+            Assert.assertTrue(expected.size() > new WEMTape().size(), "events before the parse exception");
+        }
+
+        final WEMTape tape = new WEMTape()  {
+            @Override
+            public void documentStart()
+            {
+                try  {
+                    Thread.sleep(100);
+                } catch (final InterruptedException e)  {
+                    Thread.currentThread().interrupt();
+                }
+                super.documentStart();
+            }
+        };
+        final WEMAsync wem = new WEMAsync(tape, 4);
+        try  {
+            GWikiParserSession.get().parse(wem, new StringReader(page));
+            Assert.fail("parse exception expected");
+        } catch (final ParseException e)  {
+            Assert.assertEquals(tape.toByteArray(), expected.toByteArray());
+        }
+        tape.reset();
+        expected.reset();
+        GWikiParser.parse(expected, new StringReader(WEMMulticastTest.PAGE));
+        try  {
+            GWikiParserSession.get().parse(wem, new StringReader(WEMMulticastTest.PAGE));
+        } finally  {
+            wem.close();
+        }
+        Assert.assertEquals(tape.toByteArray(), expected.toByteArray());
+    }
+
+    /**
+     * The thread of an asynchronous Wiki event model is used for all
+     * documents until the Wiki event model is closed.
+     *
+     * @throws ParseException if the page could not be parsed
+     */
+    @Test(description = "one thread for many documents")
+    public void testAsyncThread()
+        throws ParseException
+    {
+        final Set<Thread> threads = new HashSet<Thread>();
+        final WEMTape tape = new WEMTape()  {
+            @Override
+            public void documentStart()
+            {
+                threads.add(Thread.currentThread());
+                super.documentStart();
+            }
+        };
+        final WEMAsync wem = new WEMAsync(tape, 4);
+        final Thread thread;
+        try  {
+            for (int idx = 0; idx < 5; idx++)  {
+                GWikiParserSession.get().parse(wem, new StringReader(WEMMulticastTest.PAGE));
+            }
+            Assert.assertEquals(threads.size(), 1);
+            thread = threads.iterator().next();
+            Assert.assertTrue(thread.isAlive());
+        } finally  {
+            wem.close();
+        }
+        Assert.assertFalse(thread.isAlive());
+    }
+
+    /**
+     * Closeable Wiki event models (also within a multicast) are closed by the
+     * parser session if parsing fails.
+     *
+     * @throws ParseException if the page could not be parsed
+     */
+    @Test(description = "closeable Wiki event models closed by the parser session")
+    public void testCloseableAbort()
+        throws ParseException
+    {
+        final CloseableTape direct = new CloseableTape();
+        try  {
+            GWikiParserSession.get().parse(direct, new StringReader("="));
+            Assert.fail("parse exception expected");
+        } catch (final ParseException e)  {
+            Assert.assertEquals(direct.closed, 1);
+        }
+
+        final CloseableTape consumer = new CloseableTape();
+        final WEMMulticast multicast = new WEMMulticast().add(new WEMTape()).add(consumer);
+        GWikiParserSession.get().parse(multicast, new StringReader(WEMMulticastTest.PAGE));
+        Assert.assertEquals(consumer.closed, 0);
+        try  {
+            GWikiParserSession.get().parse(multicast, new StringReader("="));
+            Assert.fail("parse exception expected");
+        } catch (final ParseException e)  {
+            Assert.assertEquals(consumer.closed, 1);
+        }
+    }
+
+    /**
+     * Tape which counts how often it is closed.
+     */
+    private static final class CloseableTape
+        extends WEMTape
+        implements AutoCloseable
+    {
+        /**
+         * Number of calls of {@link #close()}.
+         */
+        private int closed;
+
+        /**
+         * Counts the close.
+         */
+        @Override
+        public void close()
+        {
+            this.closed++;
+        }
+    }
+}
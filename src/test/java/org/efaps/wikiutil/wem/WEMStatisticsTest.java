@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wem;
+
+import java.io.StringReader;
+
+import org.efaps.wikiutil.parser.gwiki.GWikiParser;
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the statistics of the Wiki events.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class WEMStatisticsTest
+{
+    /**
+     * Checks the statistics of one Wiki page and of two Wiki pages.
+     *
+     * @throws ParseException if the page could not be parsed
+     */
+    @Test(description = "statistics of Wiki pages")
+    public void testStatistics()
+        throws ParseException
+    {
+        final String page = "= Heading =\ntext *bold*\n== Sub ==\n  * entry\n    * sub entry\n{{{\ncode\n}}}\n= Next =\n";
+        final WEMStatistics stat = new WEMStatistics();
+        GWikiParser.parse(stat, new StringReader(page));
+
+        Assert.assertEquals(stat.getDocuments(), 1L);
+        Assert.assertEquals(stat.getSections(1), 2L);
+        Assert.assertEquals(stat.getSections(2), 1L);
+        Assert.assertEquals(stat.getSections(3), 0L);
+        Assert.assertEquals(stat.getCount(EWikiEvent.SECTION_START), 3L);
+        Assert.assertEquals(stat.getCount(EWikiEvent.SECTION_END), 3L);
+        Assert.assertEquals(stat.getCount(EWikiEvent.TYPEFACE_START), 1L);
+        Assert.assertEquals(stat.getCount(EWikiEvent.LIST_ENTRY_START), 2L);
+        Assert.assertEquals(stat.getTextLength(), "HeadingtextboldSubentrysub entryNext".length() + 1);
+        Assert.assertEquals(stat.getPreformatLength(), "code".length());
+        // document, section, section, paragraph, list, entry, paragraph, list, entry, paragraph
+        Assert.assertEquals(stat.getMaxDepth(), 10);
+
+        final long count = stat.getCount();
+        GWikiParser.parse(stat, new StringReader(page));
+        Assert.assertEquals(stat.getDocuments(), 2L);
+        Assert.assertEquals(stat.getCount(), count * 2);
+        Assert.assertEquals(stat.getMaxDepth(), 10);
+
+        stat.reset();
+        Assert.assertEquals(stat.getCount(), 0L);
+    }
+}
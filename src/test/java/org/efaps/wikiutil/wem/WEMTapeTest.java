@@ -0,0 +1,188 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wem;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.efaps.wikiutil.parser.gwiki.GWikiParser;
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the recording of Wiki events on a tape and the replay of the tape.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class WEMTapeTest
+{
+    /**
+     * Returns Wiki pages with all kind of events.
+     *
+     * @return Wiki pages
+     */
+    @DataProvider(name = "pages")
+    public Object[][] getPages()
+    {
+        return new Object[][] {
+            {"#summary Summary of the page\n#labels Label1,Label2\n= Heading =\n<wiki:toc max_depth=\"2\" />\ntext"},
+            {"== Heading 2 ==\ntext *bold* and _italic_ with ^super^ ,,sub,, ~~strike~~ `code`\n----\nline<br/>next"},
+            {"  * entry\n    * sub entry\n  # numbered\n\n|| a || b ||\n|| c || d ||"},
+            {"{{{\ncode\n}}}\n[http://www.efaps.org eFaps] http://www.efaps.org/logo.png [WikiPage text] WikiWord"},
+            {"umlauts \u00e4\u00f6\u00fc, \u20ac sign and \ud83d\ude00 smiley"}
+        };
+    }
+
+    /**
+     * Replays a recorded tape and compares the events with the events of the
+     * parser.
+     *
+     * @param _page     Wiki page to test
+     * @throws ParseException if the page could not be parsed
+     * @throws IOException if the tape could not be written or read
+     */
+    @Test(description = "recording and replay of a tape", dataProvider = "pages")
+    public void testReplay(final String _page)
+        throws ParseException, IOException
+    {
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        GWikiParser.parse(new WEMDebug(new PrintStream(expected, true, "UTF-8")), new StringReader(_page));
+
+        final WEMTape tape = new WEMTape(8);
+        GWikiParser.parse(tape, new StringReader(_page));
+        final ByteArrayOutputStream replayed = new ByteArrayOutputStream();
+        tape.play(new WEMDebug(new PrintStream(replayed, true, "UTF-8")));
+        Assert.assertEquals(replayed.toString(StandardCharsets.UTF_8), expected.toString(StandardCharsets.UTF_8));
+
+        final ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        tape.writeTo(stored);
+        Assert.assertEquals(stored.size(), tape.size());
+        final ByteArrayOutputStream read = new ByteArrayOutputStream();
+        WEMTapePlayer.read(new ByteArrayInputStream(stored.toByteArray()))
+            .setTransientText(true)
+            .play(new WEMDebug(new PrintStream(read, true, "UTF-8")));
+        Assert.assertEquals(read.toString(StandardCharsets.UTF_8), expected.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A tape which was reset does not contain any event.
+     *
+     * @throws ParseException if the page could not be parsed
+     */
+    @Test(description = "reset of a tape")
+    public void testReset()
+        throws ParseException
+    {
+        final WEMTape tape = new WEMTape();
+        final int empty = tape.size();
+        GWikiParser.parse(tape, new StringReader("= Heading =\ntext"));
+        Assert.assertTrue(tape.size() > empty);
+        tape.reset();
+        Assert.assertEquals(tape.size(), empty);
+        final ByteArrayOutputStream replayed = new ByteArrayOutputStream();
+        tape.play(new WEMDebug(new PrintStream(replayed)));
+        Assert.assertEquals(replayed.size(), 0);
+    }
+
+    /**
+     * Unpaired surrogates are recorded as <code>?</code>.
+     */
+    @Test(description = "unpaired surrogates")
+    public void testUnpairedSurrogate()
+    {
+        final WEMTape tape = new WEMTape();
+        tape.onText("a\ud83db\ude00\ud83d\ude00");
+        final StringBuilder text = new StringBuilder();
+        tape.play(new AbstractWikiEventModel() {
+            @Override
+            public void onText(final CharSequence _text)
+            {
+                text.append(_text);
+            }
+        });
+        Assert.assertEquals(text.toString(), "a?b?\ud83d\ude00");
+    }
+
+    /**
+     * Returns tapes with corrupt multibyte characters in texts. The tapes are
+     * recorded with <code>\u00e9</code> (UTF-8 bytes <code>C3 A9</code>)
+     * and then changed.
+     *
+     * @return tapes
+     */
+    @DataProvider(name = "corrupt")
+    public Object[][] getCorruptTapes()
+    {
+        final WEMTape tape = new WEMTape();
+        tape.onText("\u00e9");
+        final byte[] bytes = tape.toByteArray();
+        // position of the length prefix of the text
+        final int prefix = bytes.length - 3;
+        // sequence cut at the end of the tape
+        final byte[] end = Arrays.copyOf(bytes, bytes.length - 1);
+        end[prefix] = 2;
+        // sequence cut within the tape (continuation byte would be read as event)
+        tape.onText("x");
+        final byte[] middle = tape.toByteArray();
+        middle[prefix] = 2;
+        // wrong continuation byte
+        final byte[] wrong = Arrays.copyOf(bytes, bytes.length);
+        wrong[bytes.length - 1] = 'A';
+        return new Object[][] {{end}, {middle}, {wrong}};
+    }
+
+    /**
+     * Texts with corrupt multibyte characters are detected.
+     *
+     * @param _bytes    bytes of the corrupt tape
+     */
+    @Test(description = "corrupt multibyte text", dataProvider = "corrupt",
+          expectedExceptions = IllegalArgumentException.class,
+          expectedExceptionsMessageRegExp = ".*malformed UTF-8.*")
+    public void testCorruptText(final byte[] _bytes)
+    {
+        new WEMTapePlayer(_bytes).play(new WEMDebug(new PrintStream(new ByteArrayOutputStream())));
+    }
+
+    /**
+     * Bytes which are no tape are not accepted.
+     */
+    @Test(description = "wrong magic bytes", expectedExceptions = IllegalArgumentException.class)
+    public void testWrongMagic()
+    {
+        new WEMTapePlayer("= Heading =".getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A tape truncated within a text is detected.
+     */
+    @Test(description = "truncated tape", expectedExceptions = IllegalArgumentException.class)
+    public void testTruncated()
+    {
+        final WEMTape tape = new WEMTape();
+        tape.onText("some text");
+        final byte[] bytes = tape.toByteArray();
+        new WEMTapePlayer(bytes, 0, bytes.length - 3).play(new WEMDebug(new PrintStream(new ByteArrayOutputStream())));
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wom;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.efaps.wikiutil.parser.gwiki.GWikiParser;
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.wom.element.Paragraph;
+import org.efaps.wikiutil.wom.element.Section;
+import org.efaps.wikiutil.wom.element.text.TextString;
+import org.efaps.wikiutil.wom.property.Summary;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the compact representation of Wiki pages.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class CompactWikiPageTest
+{
+    /**
+     * The view of a compact page has the same content as the original page.
+     *
+     * @throws IOException if the page could not be read
+     * @throws ParseException if the page could not be parsed
+     */
+    @Test(description = "view of a compact page")
+    public void testView()
+        throws IOException, ParseException
+    {
+        final WikiPage page = WikiPages.parseAllElements();
+        final CompactWikiPage compact = CompactWikiPage.compact(page);
+        final WikiPage view = compact.getPage();
+        Assert.assertEquals(WikiPages.events(view), WikiPages.events(page));
+
+        Assert.assertEquals(view.getProperties().size(), 4);
+        Assert.assertEquals(view.getProperties().get(0).getClass(), Summary.class);
+        Assert.assertEquals(view.getProperties().get(0).getValue(), "Summary of the page");
+        Assert.assertEquals(view.getParagraphs().size(), 1);
+        Assert.assertEquals(((TextString) view.lastParagraph().getElements().get(0)).getText(),
+                            "text before the first section");
+        Assert.assertEquals(view.getSubSections().size(), 2);
+        final Section section = view.getSubSections().get(0);
+        Assert.assertEquals(section.getHeadings().size(), page.getSubSections().get(0).getHeadings().size());
+        Assert.assertEquals(section.getSubSections().size(), 1);
+        Assert.assertTrue(compact.getFootprint() > 0);
+        Assert.assertTrue(compact.getNodeCount() > 0);
+    }
+
+    /**
+     * A compact page could not be modified.
+     *
+     * @throws IOException if the page could not be read
+     * @throws ParseException if the page could not be parsed
+     */
+    @Test(description = "compact page is immutable", expectedExceptions = UnsupportedOperationException.class)
+    public void testImmutable()
+        throws IOException, ParseException
+    {
+        final WEM2WOM wem2wom = new WEM2WOM();
+        GWikiParser.parse(wem2wom, new StringReader(WikiPages.allElements()));
+        wem2wom.getCompactPage().getPage().getSubSections().get(0).add(new Paragraph());
+    }
+
+    /**
+     * Freezing the view of a compact page does nothing: the view is not
+     * copied and no text is added to the pool.
+     *
+     * @throws IOException if the page could not be read
+     * @throws ParseException if the page could not be parsed
+     */
+    @Test(description = "freeze of a compact page")
+    public void testFreeze()
+        throws IOException, ParseException
+    {
+        final WikiPage view = CompactWikiPage.compact(WikiPages.parseAllElements()).getPage();
+        final Map<String, String> pool = new HashMap<String, String>();
+        Assert.assertSame(view.freeze(), view);
+        Assert.assertSame(view.freeze(pool), view);
+        final Section section = view.getSubSections().get(0);
+        Assert.assertSame(section.freeze(pool), section);
+        final Paragraph paragraph = section.getParagraphs().get(0);
+        Assert.assertSame(paragraph.freeze(pool), paragraph);
+        Assert.assertTrue(pool.isEmpty(), "pool " + pool);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wom;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.efaps.wikiutil.export.html.WEMHtml;
+import org.efaps.wikiutil.parser.gwiki.GWikiParser;
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.wem.WEMStatistics;
+import org.efaps.wikiutil.wem.WEMTape;
+import org.efaps.wikiutil.wom.element.AbstractLineElement;
+import org.efaps.wikiutil.wom.element.Paragraph;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the conversion of Wiki pages from the Wiki object model to the Wiki
+ * event model.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class WOM2WEMTest
+{
+    /**
+     * A small Wiki page and the Wiki page with all kind of elements.
+     *
+     * @return Wiki pages
+     * @throws IOException if the page with all kind of elements could not be
+     *                     read
+     */
+    @DataProvider(name = "pages")
+    public Object[][] getPages()
+        throws IOException
+    {
+        return new Object[][] {
+            {"= Title =\nOne line of text.\n"},
+            {WikiPages.allElements()},
+        };
+    }
+
+    /**
+     * The events of a Wiki page converted back to the Wiki object model
+     * result in the same Wiki page.
+     *
+     * @param _text     Wiki text
+     * @throws ParseException if the page could not be parsed
+     */
+    @Test(description = "round trip WOM - WEM - WOM", dataProvider = "pages")
+    public void testRoundTrip(final String _text)
+        throws ParseException
+    {
+        final WikiPage page = GWikiParser.parse(new StringReader(_text));
+
+        final WEMTape expected = new WEMTape();
+        new WOM2WEM(expected).play(page);
+
+        final WEM2WOM wem2wom = new WEM2WOM();
+        new WOM2WEM(wem2wom).play(page);
+        final WEMTape actual = new WEMTape();
+        new WOM2WEM(actual).play(wem2wom.getPage());
+
+        Assert.assertEquals(actual.toByteArray(), expected.toByteArray());
+    }
+
+    /**
+     * For a simple Wiki page the HTML rendered from the Wiki object model is
+     * the same as the HTML rendered while parsing.
+     *
+     * @throws ParseException if the page could not be parsed
+     */
+    @Test(description = "same HTML as from the parser")
+    public void testHtml()
+        throws ParseException
+    {
+        final String text = "#summary Summary\n= Title =\ntext *bold* and WikiWord and [WikiPage description]\n"
+                        + "\n== Sub ==\n  * entry with [http://www.efaps.org eFaps]\n\n{{{\ncode\n}}}\n";
+        final StringBuilder expected = new StringBuilder();
+        GWikiParser.parse(new WEMHtml(expected, null), new StringReader(text));
+
+        final StringBuilder actual = new StringBuilder();
+        new WOM2WEM(new WEMHtml(actual, null)).play(GWikiParser.parse(new StringReader(text)));
+
+        Assert.assertEquals(actual.toString(), expected.toString());
+    }
+
+    /**
+     * One instance converts many Wiki pages.
+     *
+     * @throws ParseException if the page could not be parsed
+     */
+    @Test(description = "instance is reused")
+    public void testReuse()
+        throws ParseException
+    {
+        final WikiPage page = GWikiParser.parse(new StringReader("= Title =\ntext\n"));
+        final WEMStatistics statistics = new WEMStatistics();
+        final WOM2WEM wom2wem = new WOM2WEM(statistics);
+        wom2wem.play(page);
+        final long count = statistics.getCount();
+        wom2wem.play(page);
+        Assert.assertEquals(statistics.getDocuments(), 2);
+        Assert.assertEquals(statistics.getCount(), 2 * count);
+    }
+
+    /**
+     * Unknown line elements could not be converted to events.
+     */
+    @Test(description = "unknown line element", expectedExceptions = IllegalArgumentException.class)
+    public void testUnknownLineElement()
+    {
+        final WikiPage page = new WikiPage();
+        page.add(new Paragraph().add(new AbstractLineElement()));
+        new WOM2WEM(new WEMStatistics()).play(page);
+    }
+}
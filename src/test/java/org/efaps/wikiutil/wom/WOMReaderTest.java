@@ -0,0 +1,216 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wom;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import org.efaps.wikiutil.parser.gwiki.GWikiParser;
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.wom.element.text.TextString;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the binary format of Wiki pages written with the {@link WOMWriter}
+ * and read with the {@link WOMReader}.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class WOMReaderTest
+{
+    /**
+     * Wiki text of a small page (parsed twice so that the string table
+     * could be tested).
+     */
+    private static final String SMALL = "= Title =\nOne line of text.\n";
+
+    /**
+     * All Wiki pages written to one stream are read again with the same
+     * events.
+     *
+     * @throws Exception if the pages could not be parsed or written
+     */
+    @Test(description = "round trip of many Wiki pages in one stream")
+    public void testRoundTrip()
+        throws Exception
+    {
+        final List<WikiPage> pages = WOMReaderTest.parse();
+        final List<WikiPage> read = new WOMReader(WOMReaderTest.write(pages)).readAll();
+
+        Assert.assertEquals(read.size(), pages.size());
+        for (int idx = 0; idx < pages.size(); idx++)  {
+            Assert.assertEquals(WikiPages.events(read.get(idx)), WikiPages.events(pages.get(idx)));
+        }
+    }
+
+    /**
+     * Equal texts of different Wiki pages are written once and read as the
+     * same string.
+     *
+     * @throws Exception if the pages could not be parsed or written
+     */
+    @Test(description = "texts are deduplicated")
+    public void testStringTable()
+        throws Exception
+    {
+        final List<WikiPage> pages = WOMReaderTest.parse();
+        final byte[] first = WOMReaderTest.write(pages.subList(0, 1));
+        final byte[] twice = WOMReaderTest.write(Arrays.asList(pages.get(0), pages.get(2)));
+        Assert.assertTrue(twice.length - first.length < first.length - 5,
+                        "second page is written smaller (" + first.length + " / " + twice.length + ")");
+
+        final WOMReader reader = new WOMReader(twice);
+        final TextString text1 = (TextString) reader.next()
+                        .getSubSections().get(0).getParagraphs().get(0).getElements().get(0);
+        final TextString text2 = (TextString) reader.next()
+                        .getSubSections().get(0).getParagraphs().get(0).getElements().get(0);
+        Assert.assertSame(text2.getText(), text1.getText());
+        Assert.assertFalse(reader.hasNext());
+    }
+
+    /**
+     * Wiki pages are read from a file mapped into the memory.
+     *
+     * @throws Exception if the pages could not be parsed or written
+     */
+    @Test(description = "read from mapped file")
+    public void testMap()
+        throws Exception
+    {
+        final List<WikiPage> pages = WOMReaderTest.parse();
+        final File file = File.createTempFile("wiki", ".womp");
+        try  {
+            final WOMWriter writer = new WOMWriter(new FileOutputStream(file));
+            try  {
+                for (final WikiPage page : pages)  {
+                    writer.write(page);
+                }
+            } finally  {
+                writer.close();
+            }
+            final List<WikiPage> read = WOMReader.map(file).readAll();
+            Assert.assertEquals(read.size(), pages.size());
+            for (int idx = 0; idx < pages.size(); idx++)  {
+                Assert.assertEquals(WikiPages.events(read.get(idx)), WikiPages.events(pages.get(idx)));
+            }
+        } finally  {
+            file.delete();
+        }
+    }
+
+    /**
+     * Bytes with wrong magic bytes are not read.
+     */
+    @Test(description = "wrong magic bytes",
+          expectedExceptions = IllegalArgumentException.class,
+          expectedExceptionsMessageRegExp = ".*wrong magic bytes.*")
+    public void testWrongMagic()
+    {
+        new WOMReader(new byte[]{'W', 'E', 'M', 'T', 1});
+    }
+
+    /**
+     * Bytes of another version are not read.
+     */
+    @Test(description = "unsupported version",
+          expectedExceptions = IllegalArgumentException.class,
+          expectedExceptionsMessageRegExp = ".*version 99 not supported.*")
+    public void testVersion()
+    {
+        new WOMReader(new byte[]{'W', 'O', 'M', 'P', 99});
+    }
+
+    /**
+     * A truncated stream is reported.
+     *
+     * @throws Exception if the pages could not be parsed or written
+     */
+    @Test(description = "truncated stream",
+          expectedExceptions = IllegalArgumentException.class,
+          expectedExceptionsMessageRegExp = ".*truncated.*")
+    public void testTruncated()
+        throws Exception
+    {
+        final byte[] bytes = WOMReaderTest.write(WOMReaderTest.parse().subList(1, 2));
+        new WOMReader(Arrays.copyOf(bytes, bytes.length / 2)).next();
+    }
+
+    /**
+     * A text with malformed UTF-8 bytes is reported instead of being read
+     * with replaced characters.
+     *
+     * @throws Exception if the page could not be parsed or written
+     */
+    @Test(description = "malformed text",
+          expectedExceptions = IllegalArgumentException.class,
+          expectedExceptionsMessageRegExp = ".*malformed UTF-8 text.*")
+    public void testMalformedText()
+        throws Exception
+    {
+        final byte[] bytes = WOMReaderTest.write(Arrays.asList(
+                        GWikiParser.parse(new StringReader("text \u00e4\n"))));
+        int idx = 0;
+        while (bytes[idx] != (byte) 0xc3)  {
+            idx++;
+        }
+        bytes[idx + 1] = 'x';
+        new WOMReader(bytes).next();
+    }
+
+    /**
+     * Parses the {@link #SMALL small page}, the
+     * {@link WikiPages#allElements() page with all kind of elements} and
+     * again the small page.
+     *
+     * @return parsed Wiki pages
+     * @throws IOException if the page with all kind of elements could not be
+     *                     read
+     * @throws ParseException if a Wiki text could not be parsed
+     */
+    private static List<WikiPage> parse()
+        throws IOException, ParseException
+    {
+        return Arrays.asList(GWikiParser.parse(new StringReader(WOMReaderTest.SMALL)),
+                             WikiPages.parseAllElements(),
+                             GWikiParser.parse(new StringReader(WOMReaderTest.SMALL)));
+    }
+
+    /**
+     * Writes <code>_pages</code> into one stream.
+     *
+     * @param _pages    Wiki pages to write
+     * @return written bytes
+     * @throws IOException if the pages could not be written
+     */
+    private static byte[] write(final List<WikiPage> _pages)
+        throws IOException
+    {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final WOMWriter writer = new WOMWriter(out);
+        for (final WikiPage page : _pages)  {
+            writer.write(page);
+        }
+        writer.close();
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wom;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.efaps.wikiutil.parser.gwiki.GWikiParser;
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.wom.element.AbstractLineElement;
+import org.efaps.wikiutil.wom.element.Divider;
+import org.efaps.wikiutil.wom.element.Paragraph;
+import org.efaps.wikiutil.wom.element.Section;
+import org.efaps.wikiutil.wom.element.list.ListEntry;
+import org.efaps.wikiutil.wom.element.table.TableCell;
+import org.efaps.wikiutil.wom.element.text.InternalLink;
+import org.efaps.wikiutil.wom.element.text.TextString;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the visitor and the walker of the Wiki object model.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public class WOMVisitorTest
+{
+    /**
+     * Wiki page with texts in all kind of elements.
+     */
+    private static final String PAGE = "first\n"
+                    + "= Heading *one* =\n"
+                    + "text _two_ and WikiWord\n"
+                    + "----\n"
+                    + "== Sub Heading ==\n"
+                    + "  * three\n    * four\n"
+                    + "  # five\n\n"
+                    + "|| six || *seven* ||\n"
+                    + "= Second =\nlast\n";
+
+    /**
+     * The walker visits all texts in the order of the Wiki page.
+     *
+     * @throws ParseException if the page could not be parsed
+     */
+    @Test(description = "walker visits all texts in order")
+    public void testWalker()
+        throws ParseException
+    {
+        final WikiPage page = GWikiParser.parse(new StringReader(WOMVisitorTest.PAGE));
+        final List<String> texts = new ArrayList<String>();
+        final int[] counts = new int[3];
+        page.accept(new AbstractWOMWalker<RuntimeException>() {
+            @Override
+            public Void visitTextString(final TextString _textString)
+            {
+                texts.add(_textString.getText().trim());
+                return null;
+            }
+
+            @Override
+            public Void visitInternalLink(final InternalLink _internalLink)
+            {
+                texts.add(_internalLink.getLink());
+                return null;
+            }
+
+            @Override
+            public Void visitSection(final Section _section)
+            {
+                counts[0]++;
+                return super.visitSection(_section);
+            }
+
+            @Override
+            public Void visitListEntry(final ListEntry _listEntry)
+            {
+                counts[1]++;
+                return super.visitListEntry(_listEntry);
+            }
+
+            @Override
+            public Void visitTableCell(final TableCell _tableCell)
+            {
+                counts[2]++;
+                return super.visitTableCell(_tableCell);
+            }
+        });
+        texts.remove("");
+        texts.remove("and");
+        texts.remove("text");
+        Assert.assertEquals(texts.toString(),
+                            "[first, Heading, one, two, WikiWord, Sub Heading, three, four, five, six, seven, "
+                                + "Second, last]");
+        Assert.assertEquals(counts, new int[]{3, 3, 2});
+    }
+
+    /**
+     * The adapter calls {@link AbstractWOMVisitor#visitLineElement} for all
+     * line elements without overwritten visit method and for unknown line
+     * elements.
+     */
+    @Test(description = "line elements without visit method")
+    public void testLineElement()
+    {
+        final AbstractWOMVisitor<String, RuntimeException> visitor = new AbstractWOMVisitor<String, RuntimeException>() {
+            @Override
+            public String visitTextString(final TextString _textString)
+            {
+                return _textString.getText();
+            }
+
+            @Override
+            public String visitLineElement(final AbstractLineElement _element)
+            {
+                return "unknown";
+            }
+        };
+        Assert.assertEquals(new TextString("text").accept(visitor), "text");
+        Assert.assertEquals(new Divider().accept(visitor), "unknown");
+        Assert.assertEquals(new AbstractLineElement().accept(visitor), "unknown");
+        Assert.assertNull(new Paragraph().accept(visitor));
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wom;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.efaps.wikiutil.parser.gwiki.GWikiParser;
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.wom.element.Paragraph;
+import org.efaps.wikiutil.wom.element.Section;
+import org.efaps.wikiutil.wom.element.text.InternalLinkWithDescription;
+import org.efaps.wikiutil.wom.element.text.TextString;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the freezing of Wiki pages.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ * @see WikiPage#freeze(Map)
+ */
+public class WikiPageFreezeTest
+{
+    /**
+     * A frozen page has the same content as before.
+     *
+     * @throws IOException if the page could not be read
+     * @throws ParseException if the page could not be parsed
+     */
+    @Test(description = "frozen page has the same content")
+    public void testContent()
+        throws IOException, ParseException
+    {
+        final WikiPage page = WikiPages.parseAllElements();
+        final byte[] expected = WikiPages.events(page);
+        Assert.assertSame(page.freeze(), page);
+        Assert.assertEquals(WikiPages.events(page), expected);
+    }
+
+    /**
+     * Empty lists are replaced by the shared empty list and a frozen page
+     * could still be modified.
+     *
+     * @throws ParseException if the page could not be parsed
+     */
+    @Test(description = "empty lists are shared")
+    public void testEmptyLists()
+        throws ParseException
+    {
+        final WikiPage page = GWikiParser.parse(new StringReader("= Title =\ntext\n")).freeze();
+        Assert.assertSame(page.getProperties(), Collections.emptyList());
+        Assert.assertSame(page.getSubSections().get(0).getSubSections(), Collections.emptyList());
+
+        page.add(new Paragraph().add(new TextString("appended")));
+        Assert.assertEquals(page.getParagraphs().size(), 1);
+    }
+
+    /**
+     * Pages frozen with the same pool share the same texts.
+     *
+     * @throws ParseException if the pages could not be parsed
+     */
+    @Test(description = "texts are shared between pages")
+    public void testPool()
+        throws ParseException
+    {
+        final Map<String, String> pool = new HashMap<String, String>();
+        final WikiPage page1 = GWikiParser.parse(new StringReader("[WikiPage description]\n")).freeze(pool);
+        final WikiPage page2 = GWikiParser.parse(new StringReader("[WikiPage description]\n")).freeze(pool);
+
+        final InternalLinkWithDescription link1
+            = (InternalLinkWithDescription) page1.getParagraphs().get(0).getElements().get(0);
+        final InternalLinkWithDescription link2
+            = (InternalLinkWithDescription) page2.getParagraphs().get(0).getElements().get(0);
+        Assert.assertSame(link1.getLink(), link2.getLink());
+        Assert.assertSame(link1.getDescription(), link2.getDescription());
+    }
+
+    /**
+     * The lists of a page are unmodifiable in all cases (empty or filled,
+     * before and after the page is frozen).
+     *
+     * @throws IOException if the page could not be read
+     * @throws ParseException if the page could not be parsed
+     */
+    @Test(description = "lists are unmodifiable")
+    public void testUnmodifiableLists()
+        throws IOException, ParseException
+    {
+        final WikiPage page = WikiPages.parseAllElements();
+        for (int idx = 0; idx < 2; idx++)  {
+            final Section section = page.getSubSections().get(0);
+            final Paragraph paragraph = section.getParagraphs().get(0);
+            final List<List<?>> lists = Arrays.<List<?>>asList(
+                            page.getProperties(), page.getParagraphs(), page.getSubSections(),
+                            section.getHeadings(), section.getParagraphs(), paragraph.getElements(),
+                            section.getSubSections().get(0).getSubSections());
+            for (final List<?> list : lists)  {
+                try  {
+                    list.add(null);
+                    Assert.fail("list " + list + " could be modified");
+                } catch (final UnsupportedOperationException e)  {
+                    Assert.assertNotNull(e);
+                }
+            }
+            Assert.assertEquals(page.getProperties().size(), 4);
+            page.freeze();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2003 - 2024 The eFaps Team (-)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.efaps.wikiutil.wom;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.IOUtils;
+import org.efaps.wikiutil.parser.gwiki.GWikiParser;
+import org.efaps.wikiutil.parser.gwiki.javacc.ParseException;
+import org.efaps.wikiutil.wem.WEMTape;
+
+/**
+ * Wiki pages shared by the tests of the Wiki object model.
+ *
+ * @author The eFaps Team
+ * @version $Id$
+ */
+public final class WikiPages
+{
+    /**
+     * Resource with the Wiki page with all kind of elements.
+     */
+    private static final String ALL_ELEMENTS = "org/efaps/wikiutil/wom/AllElements.wiki";
+
+    /**
+     * Constructor defined so that this utility class could not be initialized.
+     */
+    private WikiPages()
+    {
+    }
+
+    /**
+     * Returns the Wiki text of the page with all kind of elements (including
+     * all properties and non ASCII characters).
+     *
+     * @return Wiki text
+     * @throws IOException if the resource could not be read
+     */
+    public static String allElements()
+        throws IOException
+    {
+        final InputStream in = WikiPages.class.getClassLoader().getResourceAsStream(WikiPages.ALL_ELEMENTS);
+        if (in == null)  {
+            throw new IOException("could not found " + WikiPages.ALL_ELEMENTS);
+        }
+        try  {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        } finally  {
+            in.close();
+        }
+    }
+
+    /**
+     * Parses the {@link #allElements() page with all kind of elements}.
+     *
+     * @return parsed Wiki page
+     * @throws IOException if the resource could not be read
+     * @throws ParseException if the Wiki text could not be parsed
+     */
+    public static WikiPage parseAllElements()
+        throws IOException, ParseException
+    {
+        return GWikiParser.parse(new StringReader(WikiPages.allElements()));
+    }
+
+    /**
+     * Records the events of <code>_page</code>, so that the content of two
+     * Wiki pages could be compared.
+     *
+     * @param _page     Wiki page
+     * @return bytes of the recorded events
+     */
+    public static byte[] events(final WikiPage _page)
+    {
+        final WEMTape tape = new WEMTape();
+        new WOM2WEM(tape).play(_page);
+        return tape.toByteArray();
+    }
+}